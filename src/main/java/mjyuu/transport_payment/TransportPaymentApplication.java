@@ -2,15 +2,21 @@ package mjyuu.transport_payment;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @EnableJpaAuditing
 @EnableCaching
+@EnableScheduling
 public class TransportPaymentApplication {
 
     public static void main(String[] args) {
-        SpringApplication.run(TransportPaymentApplication.class, args);
+        SpringApplication application = new SpringApplication(TransportPaymentApplication.class);
+        // Record startup steps for StartupTimingReporter and /actuator/startup
+        application.setApplicationStartup(new BufferingApplicationStartup(4096));
+        application.run(args);
     }
-}
\ No newline at end of file
+}
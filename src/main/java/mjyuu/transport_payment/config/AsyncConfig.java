@@ -0,0 +1,33 @@
+package mjyuu.transport_payment.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Both executors carry the submitting request's connection-profiling label into their tasks
+ */
+@Configuration
+public class AsyncConfig {
+
+    /**
+     * Runs payment gateway calls and the short ledger transactions around them.
+     * Virtual threads: a slow gateway parks cheap threads, not request threads or pooled connections.
+     */
+    @Bean(destroyMethod = "close")
+    public ExecutorService paymentGatewayExecutor() {
+        return new EndpointLabelExecutorService(
+                Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("payment-", 0).factory()));
+    }
+
+    /**
+     * Fans out independent read-only queries, e.g. the parts of the user dashboard
+     */
+    @Bean(destroyMethod = "close")
+    public ExecutorService queryFanOutExecutor() {
+        return new EndpointLabelExecutorService(
+                Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("fan-out-", 0).factory()));
+    }
+}
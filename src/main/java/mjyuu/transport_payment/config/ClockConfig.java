@@ -0,0 +1,21 @@
+package mjyuu.transport_payment.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import java.time.Clock;
+
+@Configuration
+public class ClockConfig {
+
+    /**
+     * Wall clock for tap and capping times. The replay profile swaps in a ReplayClock that
+     * follows the timestamps of the recorded taps instead.
+     */
+    @Bean
+    @Profile("!replay")
+    public Clock clock() {
+        return Clock.systemDefaultZone();
+    }
+}
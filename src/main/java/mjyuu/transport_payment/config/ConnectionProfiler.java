@@ -0,0 +1,152 @@
+package mjyuu.transport_payment.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records how long each pooled connection took to acquire and how long it was held,
+ * labelled with the request mapping and the transaction (service method) that used it.
+ * Fed by {@link ProfilingDataSource}; labels come from {@link ConnectionProfilingInterceptor}
+ * and the transaction name Spring assigns to each {@code @Transactional} method.
+ */
+@Component
+@Slf4j
+public class ConnectionProfiler {
+
+    public static final String NONE = "none";
+
+    private static final ThreadLocal<String> CURRENT_ENDPOINT = new ThreadLocal<>();
+
+    public record Usage(String endpoint, String transaction, long connections,
+                        double totalHoldMs, double meanHoldMs, double maxHoldMs,
+                        double meanAcquireMs, double maxAcquireMs) {}
+
+    private record Key(String endpoint, String transaction) {}
+
+    private static final class Stats {
+        final LongAdder count = new LongAdder();
+        final LongAdder holdNanos = new LongAdder();
+        final AtomicLong maxHoldNanos = new AtomicLong();
+        final LongAdder acquireNanos = new LongAdder();
+        final AtomicLong maxAcquireNanos = new AtomicLong();
+        Timer holdTimer;
+        Timer acquireTimer;
+    }
+
+    private final MeterRegistry meterRegistry;
+    private final long longHoldWarnNanos;
+    private final Map<Key, Stats> stats = new ConcurrentHashMap<>();
+
+    public ConnectionProfiler(MeterRegistry meterRegistry,
+                              @Value("${transport.db-profiling.long-hold-warn-ms:2000}") long longHoldWarnMs) {
+        this.meterRegistry = meterRegistry;
+        this.longHoldWarnNanos = TimeUnit.MILLISECONDS.toNanos(longHoldWarnMs);
+    }
+
+    static void setCurrentEndpoint(String endpoint) {
+        CURRENT_ENDPOINT.set(endpoint);
+    }
+
+    static void clearCurrentEndpoint() {
+        CURRENT_ENDPOINT.remove();
+    }
+
+    static String currentEndpoint() {
+        String endpoint = CURRENT_ENDPOINT.get();
+        return endpoint != null ? endpoint : NONE;
+    }
+
+    /**
+     * Wrap a task so it runs under the endpoint label of the thread submitting it
+     */
+    static Runnable withCurrentEndpoint(Runnable task) {
+        String endpoint = CURRENT_ENDPOINT.get();
+        return () -> {
+            String previous = CURRENT_ENDPOINT.get();
+            CURRENT_ENDPOINT.set(endpoint);
+            try {
+                task.run();
+            } finally {
+                CURRENT_ENDPOINT.set(previous);
+            }
+        };
+    }
+
+    void record(String endpoint, String transaction, long acquireNanos, long holdNanos) {
+        Stats s = stats.computeIfAbsent(new Key(endpoint, transaction), this::newStats);
+        s.count.increment();
+        s.holdNanos.add(holdNanos);
+        s.maxHoldNanos.accumulateAndGet(holdNanos, Math::max);
+        s.acquireNanos.add(acquireNanos);
+        s.maxAcquireNanos.accumulateAndGet(acquireNanos, Math::max);
+        s.holdTimer.record(holdNanos, TimeUnit.NANOSECONDS);
+        s.acquireTimer.record(acquireNanos, TimeUnit.NANOSECONDS);
+
+        if (holdNanos > longHoldWarnNanos) {
+            log.warn("Connection held for {} ms by endpoint={} transaction={}",
+                     TimeUnit.NANOSECONDS.toMillis(holdNanos), endpoint, transaction);
+        }
+    }
+
+    /**
+     * Heaviest connection users since startup, by total hold time (or max hold, or mean acquire wait)
+     */
+    public List<Usage> top(int limit, String sortBy) {
+        Comparator<Usage> order = switch (sortBy) {
+            case "max" -> Comparator.comparingDouble(Usage::maxHoldMs);
+            case "acquire" -> Comparator.comparingDouble(Usage::meanAcquireMs);
+            default -> Comparator.comparingDouble(Usage::totalHoldMs);
+        };
+        return stats.entrySet().stream()
+                .map(e -> toUsage(e.getKey(), e.getValue()))
+                .sorted(order.reversed())
+                .limit(limit)
+                .toList();
+    }
+
+    public void reset() {
+        stats.clear();
+    }
+
+    private Stats newStats(Key key) {
+        Stats s = new Stats();
+        s.holdTimer = Timer.builder("transport.db.connection.hold")
+                .description("Time a pooled connection was held")
+                .tag("endpoint", key.endpoint())
+                .tag("transaction", key.transaction())
+                .publishPercentileHistogram()
+                .maximumExpectedValue(Duration.ofSeconds(30))
+                .register(meterRegistry);
+        s.acquireTimer = Timer.builder("transport.db.connection.acquire")
+                .description("Time spent waiting for a pooled connection")
+                .tag("endpoint", key.endpoint())
+                .tag("transaction", key.transaction())
+                .publishPercentileHistogram()
+                .maximumExpectedValue(Duration.ofSeconds(30))
+                .register(meterRegistry);
+        return s;
+    }
+
+    private static Usage toUsage(Key key, Stats s) {
+        long count = s.count.sum();
+        double holdMs = s.holdNanos.sum() / 1e6;
+        return new Usage(key.endpoint(), key.transaction(), count,
+                         holdMs,
+                         count > 0 ? holdMs / count : 0,
+                         s.maxHoldNanos.get() / 1e6,
+                         count > 0 ? s.acquireNanos.sum() / 1e6 / count : 0,
+                         s.maxAcquireNanos.get() / 1e6);
+    }
+}
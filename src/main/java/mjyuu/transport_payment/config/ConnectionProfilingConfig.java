@@ -0,0 +1,39 @@
+package mjyuu.transport_payment.config;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+
+/**
+ * Connection acquire/hold profiling per endpoint and transaction.
+ * Disable with transport.db-profiling.enabled=false.
+ */
+@Configuration
+@ConditionalOnProperty(name = "transport.db-profiling.enabled", havingValue = "true", matchIfMissing = true)
+public class ConnectionProfilingConfig implements WebMvcConfigurer {
+
+    // Static so the post-processor does not force this configuration (and its dependencies) to load early
+    @Bean
+    public static BeanPostProcessor profilingDataSourcePostProcessor(ObjectProvider<ConnectionProfiler> profiler) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ProfilingDataSource)) {
+                    return new ProfilingDataSource(dataSource, profiler::getObject);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new ConnectionProfilingInterceptor()).addPathPatterns("/api/**");
+    }
+}
@@ -0,0 +1,33 @@
+package mjyuu.transport_payment.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Labels connections borrowed while a request is handled with its method and mapping pattern
+ * (e.g. "POST /api/journeys/tap-out"), never the raw path, so metric tags stay bounded.
+ */
+public class ConnectionProfilingInterceptor implements AsyncHandlerInterceptor {
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        if (pattern != null) {
+            ConnectionProfiler.setCurrentEndpoint(request.getMethod() + " " + pattern);
+        }
+        return true;
+    }
+
+    // Async handlers release the servlet thread early; afterCompletion then runs on another thread
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        ConnectionProfiler.clearCurrentEndpoint();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        ConnectionProfiler.clearCurrentEndpoint();
+    }
+}
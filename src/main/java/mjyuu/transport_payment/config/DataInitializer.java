@@ -1,71 +1,107 @@
 package mjyuu.transport_payment.config;
 
+import mjyuu.transport_payment.entity.Gate;
 import mjyuu.transport_payment.entity.Station;
 import mjyuu.transport_payment.entity.User;
 import mjyuu.transport_payment.entity.User.UserRole;
+import mjyuu.transport_payment.repository.GateRepository;
 import mjyuu.transport_payment.repository.StationRepository;
 import mjyuu.transport_payment.repository.UserRepository;
+import mjyuu.transport_payment.service.GateRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
+/**
+ * Seeds demo stations and a demo user for local development.
+ * Disabled with transport.seed.enabled=false (the prod profile does so); Flyway owns production data.
+ */
 @Component
+@ConditionalOnProperty(name = "transport.seed.enabled", havingValue = "true", matchIfMissing = true)
 @RequiredArgsConstructor
 @Slf4j
 public class DataInitializer implements CommandLineRunner {
 
     private final UserRepository userRepository;
     private final StationRepository stationRepository;
+    private final GateRepository gateRepository;
     private final PasswordEncoder passwordEncoder;
 
+    @Value("${transport.gates.demo-key:}")
+    private String demoGateKey;
+
     @Override
     public void run(String... args) {
         initializeStations();
+        initializeGates();
         initializeDemoUser();
     }
 
     private void initializeStations() {
-        if (stationRepository.count() > 0) {
+        // One query for the existing codes, one batch for whatever is missing
+        Set<String> existingCodes = stationRepository.findAllStationCodes();
+        List<Station> missing = List.of(
+                // Zone 1 stations
+                station("ST001", "Central Station", 1),
+                station("ST002", "City Hall", 1),
+                station("ST003", "Downtown", 1),
+
+                // Zone 2 stations
+                station("ST004", "Uptown", 2),
+                station("ST005", "Midtown", 2),
+                station("ST006", "West End", 2),
+
+                // Zone 3 stations
+                station("ST007", "Suburban North", 3),
+                station("ST008", "Suburban South", 3),
+                station("ST009", "Airport", 3)
+        ).stream().filter(station -> !existingCodes.contains(station.getStationCode())).toList();
+
+        if (missing.isEmpty()) {
             log.info("Stations already initialized");
             return;
         }
 
-        log.info("Initializing stations...");
-
-        // Zone 1 stations
-        createStation("ST001", "Central Station", 1);
-        createStation("ST002", "City Hall", 1);
-        createStation("ST003", "Downtown", 1);
-        
-        // Zone 2 stations
-        createStation("ST004", "Uptown", 2);
-        createStation("ST005", "Midtown", 2);
-        createStation("ST006", "West End", 2);
-        
-        // Zone 3 stations
-        createStation("ST007", "Suburban North", 3);
-        createStation("ST008", "Suburban South", 3);
-        createStation("ST009", "Airport", 3);
+        stationRepository.saveAll(missing);
+        log.info("Initialized {} stations", missing.size());
+    }
 
-        log.info("Stations initialized successfully");
+    // One demo gate per station, "<station code>-G1", keyed with transport.gates.demo-key if set
+    private void initializeGates() {
+        Set<String> existingIds = gateRepository.findAll().stream().map(Gate::getGateId).collect(Collectors.toSet());
+        String keyHash = demoGateKey.isBlank() ? null : GateRegistry.hashKey(demoGateKey);
+        List<Gate> missing = stationRepository.findAll().stream()
+                .filter(station -> !existingIds.contains(station.getStationCode() + "-G1"))
+                .map(station -> Gate.builder().gateId(station.getStationCode() + "-G1").station(station)
+                        .keyHash(keyHash).build())
+                .toList();
+        if (!missing.isEmpty()) {
+            gateRepository.saveAll(missing);
+            log.info("Initialized {} gates", missing.size());
+        }
     }
 
-    private void createStation(String code, String name, Integer zone) {
+    private Station station(String code, String name, Integer zone) {
         Station station = new Station();
         station.setStationCode(code);
         station.setName(name);
         station.setZoneNumber(zone);
         station.setLatitude(0.0);
         station.setLongitude(0.0);
-        stationRepository.save(station);
+        return station;
     }
 
     private void initializeDemoUser() {
-        if (userRepository.findByEmail("demo@example.com").isPresent()) {
+        if (userRepository.existsByEmail("demo@example.com")) {
             log.info("Demo user already exists");
             return;
         }
@@ -0,0 +1,50 @@
+package mjyuu.transport_payment.config;
+
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs every task under the connection-profiling endpoint label of the thread that submitted it,
+ * so connections borrowed by async work are attributed to the request that started it.
+ * submit, invokeAll and CompletableFuture's *Async stages all go through {@link #execute}.
+ */
+class EndpointLabelExecutorService extends AbstractExecutorService {
+
+    private final ExecutorService delegate;
+
+    EndpointLabelExecutorService(ExecutorService delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        delegate.execute(ConnectionProfiler.withCurrentEndpoint(command));
+    }
+
+    @Override
+    public void shutdown() {
+        delegate.shutdown();
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        return delegate.shutdownNow();
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return delegate.isShutdown();
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return delegate.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return delegate.awaitTermination(timeout, unit);
+    }
+}
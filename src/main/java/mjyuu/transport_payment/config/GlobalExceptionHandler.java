@@ -2,6 +2,8 @@ package mjyuu.transport_payment.config;
 
 import mjyuu.transport_payment.exception.InsufficientBalanceException;
 import mjyuu.transport_payment.exception.InvalidJourneyException;
+import mjyuu.transport_payment.exception.IdempotencyConflictException;
+import mjyuu.transport_payment.exception.PaymentGatewayTimeoutException;
 import mjyuu.transport_payment.exception.PaymentProcessingException;
 import mjyuu.transport_payment.exception.ResourceNotFoundException;
 import lombok.AllArgsConstructor;
@@ -66,6 +68,28 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(error, HttpStatus.PAYMENT_REQUIRED);
     }
 
+    @ExceptionHandler(PaymentGatewayTimeoutException.class)
+    public ResponseEntity<ErrorResponse> handlePaymentGatewayTimeoutException(PaymentGatewayTimeoutException ex) {
+        log.error("Payment gateway timed out: {}", ex.getMessage());
+        ErrorResponse error = new ErrorResponse(
+                HttpStatus.GATEWAY_TIMEOUT.value(),
+                ex.getMessage(),
+                LocalDateTime.now()
+        );
+        return new ResponseEntity<>(error, HttpStatus.GATEWAY_TIMEOUT);
+    }
+
+    @ExceptionHandler(IdempotencyConflictException.class)
+    public ResponseEntity<ErrorResponse> handleIdempotencyConflictException(IdempotencyConflictException ex) {
+        log.warn("Idempotency conflict: {}", ex.getMessage());
+        ErrorResponse error = new ErrorResponse(
+                HttpStatus.CONFLICT.value(),
+                ex.getMessage(),
+                LocalDateTime.now()
+        );
+        return new ResponseEntity<>(error, HttpStatus.CONFLICT);
+    }
+
     @ExceptionHandler(IllegalArgumentException.class)
     public ResponseEntity<ErrorResponse> handleIllegalArgumentException(IllegalArgumentException ex) {
         log.error("Illegal argument: {}", ex.getMessage());
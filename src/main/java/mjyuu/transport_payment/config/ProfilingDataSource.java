@@ -0,0 +1,110 @@
+package mjyuu.transport_payment.config;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.function.Supplier;
+
+/**
+ * Wraps the pool so every borrowed connection reports its acquire wait and hold time to
+ * {@link ConnectionProfiler}. {@code unwrap} still reaches the underlying pool.
+ */
+public class ProfilingDataSource extends DelegatingDataSource {
+
+    private final Supplier<ConnectionProfiler> profilerLookup;
+    private volatile ConnectionProfiler profiler;
+
+    public ProfilingDataSource(DataSource target, Supplier<ConnectionProfiler> profilerLookup) {
+        super(target);
+        this.profilerLookup = profilerLookup;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        long start = System.nanoTime();
+        Connection connection = super.getConnection();
+        return wrap(connection, start);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        long start = System.nanoTime();
+        Connection connection = super.getConnection(username, password);
+        return wrap(connection, start);
+    }
+
+    // Resolved on first use: the pool is wrapped before the meter registry exists
+    private ConnectionProfiler profiler() {
+        ConnectionProfiler resolved = profiler;
+        if (resolved == null) {
+            resolved = profilerLookup.get();
+            profiler = resolved;
+        }
+        return resolved;
+    }
+
+    private Connection wrap(Connection connection, long requested) {
+        long acquired = System.nanoTime();
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                new Handler(connection, acquired - requested, acquired, ConnectionProfiler.currentEndpoint()));
+    }
+
+    private final class Handler implements InvocationHandler {
+
+        private final Connection target;
+        private final long acquireNanos;
+        private final long acquiredAt;
+        private final String endpoint;
+        private String transaction;
+        private boolean closed;
+
+        Handler(Connection target, long acquireNanos, long acquiredAt, String endpoint) {
+            this.target = target;
+            this.acquireNanos = acquireNanos;
+            this.acquiredAt = acquiredAt;
+            this.endpoint = endpoint;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            // Spring names the transaction after it has borrowed the connection, so pick the name up on first use
+            if (transaction == null) {
+                transaction = TransactionSynchronizationManager.getCurrentTransactionName();
+            }
+            if ("close".equals(method.getName()) && !closed) {
+                closed = true;
+                try {
+                    return method.invoke(target, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getTargetException();
+                } finally {
+                    profiler().record(endpoint, label(transaction), acquireNanos, System.nanoTime() - acquiredAt);
+                }
+            }
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+        }
+
+        private String label(String name) {
+            if (name == null) {
+                return ConnectionProfiler.NONE;
+            }
+            // "mjyuu.transport_payment.service.JourneyService.tapOut" -> "JourneyService.tapOut"
+            int method = name.lastIndexOf('.');
+            int type = method > 0 ? name.lastIndexOf('.', method - 1) : -1;
+            return type >= 0 ? name.substring(type + 1) : name;
+        }
+    }
+}
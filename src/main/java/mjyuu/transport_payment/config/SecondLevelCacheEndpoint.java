@@ -0,0 +1,72 @@
+package mjyuu.transport_payment.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Hibernate second-level cache statistics at /actuator/l2cache, overall and per region
+ * (stations, station-codes, cards, card-numbers). ADMIN only; the counts stay at zero unless
+ * transport.l2cache.statistics is on.
+ */
+@Component
+@Endpoint(id = "l2cache")
+@RequiredArgsConstructor
+public class SecondLevelCacheEndpoint {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    public record RegionStats(String region, long hits, long misses, long puts, long elementsInMemory,
+                              double hitRatio) {}
+
+    public record CacheStats(boolean statisticsEnabled, long hits, long misses, long puts,
+                             long naturalIdHits, long naturalIdMisses, List<RegionStats> regions) {}
+
+    @ReadOperation
+    public CacheStats cache() {
+        Statistics stats = statistics();
+        List<RegionStats> regions = Arrays.stream(stats.getSecondLevelCacheRegionNames())
+                .sorted()
+                .map(name -> toRegionStats(name, stats.getCacheRegionStatistics(name)))
+                .toList();
+
+        return new CacheStats(
+                stats.isStatisticsEnabled(),
+                stats.getSecondLevelCacheHitCount(),
+                stats.getSecondLevelCacheMissCount(),
+                stats.getSecondLevelCachePutCount(),
+                stats.getNaturalIdCacheHitCount(),
+                stats.getNaturalIdCacheMissCount(),
+                regions);
+    }
+
+    /** Returns null (404) for an unknown region. */
+    @ReadOperation
+    public RegionStats region(@Selector String region) {
+        CacheRegionStatistics regionStats = statistics().getCacheRegionStatistics(region);
+        return regionStats == null ? null : toRegionStats(region, regionStats);
+    }
+
+    private Statistics statistics() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    private static RegionStats toRegionStats(String name, CacheRegionStatistics stats) {
+        long hits = stats.getHitCount();
+        long misses = stats.getMissCount();
+        long lookups = hits + misses;
+        // JCache regions don't report their size; Hibernate signals that with a negative value
+        long inMemory = Math.max(stats.getElementCountInMemory(), -1);
+        return new RegionStats(name, hits, misses, stats.getPutCount(), inMemory,
+                lookups == 0 ? 0.0 : (double) hits / lookups);
+    }
+}
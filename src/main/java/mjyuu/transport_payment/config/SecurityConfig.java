@@ -1,6 +1,8 @@
 package mjyuu.transport_payment.config;
 
 import mjyuu.transport_payment.security.JwtAuthenticationFilter;
+import mjyuu.transport_payment.security.RateLimitFilter;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -25,6 +27,7 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 public class SecurityConfig {
 
     private final JwtAuthenticationFilter jwtAuthFilter;
+    private final RateLimitFilter rateLimitFilter;
     private final UserDetailsService userDetailsService;
 
     @Bean
@@ -42,6 +45,9 @@ public class SecurityConfig {
                 .requestMatchers("/", "/*.html").permitAll()
                 .requestMatchers("/css/**", "/js/**", "/images/**", "/fonts/**").permitAll()
                 .requestMatchers("/favicon.ico").permitAll()
+
+                // A POST to the startup endpoint drains its recorded timeline; l2cache shows cache internals
+                .requestMatchers("/actuator/startup", "/actuator/l2cache/**").hasRole("ADMIN")
                 .requestMatchers("/actuator/**").permitAll()
                 
                 // Swagger/OpenAPI endpoints
@@ -49,7 +55,12 @@ public class SecurityConfig {
                 
                 // Admin-only endpoints
                 .requestMatchers("/api/journeys/process-incomplete").hasRole("ADMIN")
+                .requestMatchers("/api/admin/**").hasRole("ADMIN")
                 
+                // Re-dispatch of a CompletableFuture response; the request was authorised on its
+                // first dispatch, and the stateless JWT filter does not run again for this one
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+
                 // All other endpoints require authentication
                 .anyRequest().authenticated()
             )
@@ -57,7 +68,9 @@ public class SecurityConfig {
                 .sessionCreationPolicy(SessionCreationPolicy.STATELESS)
             )
             .authenticationProvider(authenticationProvider())
-            .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class);
+            .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class)
+            .addFilterBefore(rateLimitFilter, JwtAuthenticationFilter.class)
+            .addFilterAfter(rateLimitFilter.clientStage(), JwtAuthenticationFilter.class);
 
         // H2 console configuration
         http.headers(headers -> headers.frameOptions(frame -> frame.disable()));
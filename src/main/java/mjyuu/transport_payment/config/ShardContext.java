@@ -0,0 +1,25 @@
+package mjyuu.transport_payment.config;
+
+/**
+ * The rider shard the current thread's next connection should come from.
+ * Set through {@link mjyuu.transport_payment.service.ShardRouter}; unset means the default shard.
+ */
+public final class ShardContext {
+
+    private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    public static Integer current() {
+        return CURRENT.get();
+    }
+
+    public static void set(int shard) {
+        CURRENT.set(shard);
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+}
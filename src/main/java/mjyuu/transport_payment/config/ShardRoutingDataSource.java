@@ -0,0 +1,17 @@
+package mjyuu.transport_payment.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+/**
+ * Hands out connections from the shard in {@link ShardContext}, shard 0 when none is set.
+ * Sits behind a LazyConnectionDataSourceProxy so the shard is read at the first statement
+ * rather than when the transaction begins.
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource {
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        Integer shard = ShardContext.current();
+        return shard != null ? shard : 0;
+    }
+}
@@ -0,0 +1,32 @@
+package mjyuu.transport_payment.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * The connection pool of every rider shard, indexed by shard number.
+ * Kept out of the context as DataSource beans so only the routing data source is autowired.
+ */
+public class ShardTopology implements AutoCloseable {
+
+    private final List<HikariDataSource> shards;
+
+    public ShardTopology(List<HikariDataSource> shards) {
+        this.shards = List.copyOf(shards);
+    }
+
+    public int size() {
+        return shards.size();
+    }
+
+    public DataSource shard(int index) {
+        return shards.get(index);
+    }
+
+    @Override
+    public void close() {
+        shards.forEach(HikariDataSource::close);
+    }
+}
@@ -0,0 +1,102 @@
+package mjyuu.transport_payment.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.Flyway;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Rider sharding across several PostgreSQL databases. spring.datasource is shard 0; each entry in
+ * transport.sharding.additional-shards adds one more with the same pool settings. Every shard gets
+ * the full Flyway history, so stations and fare rules exist everywhere.
+ */
+@Configuration
+@ConditionalOnProperty(name = "transport.sharding.enabled", havingValue = "true")
+@EnableConfigurationProperties(ShardingProperties.class)
+@Slf4j
+public class ShardingConfig {
+
+    @Bean(destroyMethod = "close")
+    public ShardTopology shardTopology(DataSourceProperties dataSourceProperties, ShardingProperties sharding,
+                                       Environment environment) {
+        HikariDataSource primary = dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+        primary.setPoolName("shard-0");
+
+        List<HikariDataSource> shards = new ArrayList<>();
+        shards.add(primary);
+        for (ShardingProperties.Shard shard : sharding.getAdditionalShards()) {
+            HikariConfig config = new HikariConfig();
+            primary.copyStateTo(config);
+            config.setJdbcUrl(shard.getUrl());
+            config.setUsername(shard.getUsername());
+            config.setPassword(shard.getPassword());
+            config.setPoolName("shard-" + shards.size());
+            shards.add(new HikariDataSource(config));
+        }
+        log.info("Rider sharding enabled across {} databases", shards.size());
+        return new ShardTopology(shards);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ShardTopology topology) {
+        Map<Object, Object> targets = new HashMap<>();
+        for (int i = 0; i < topology.size(); i++) {
+            targets.put(i, topology.shard(i));
+        }
+        ShardRoutingDataSource routing = new ShardRoutingDataSource();
+        routing.setTargetDataSources(targets);
+        routing.afterPropertiesSet();
+
+        LazyConnectionDataSourceProxy lazy = new LazyConnectionDataSourceProxy();
+        lazy.setTargetDataSource(routing);
+        // Set up front so the proxy never has to borrow a connection from an arbitrary shard to find out
+        lazy.setDefaultAutoCommit(true);
+        lazy.setDefaultTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+        lazy.afterPropertiesSet();
+        return lazy;
+    }
+
+    /**
+     * Boot migrates shard 0 through the routing data source; the rest are migrated here with their
+     * own shard_index so R__shard_id_ranges gives each one its id range.
+     */
+    @Bean
+    public FlywayMigrationStrategy shardedFlywayMigration(ShardTopology topology) {
+        return flyway -> {
+            flyway.migrate();
+            for (int i = 1; i < topology.size(); i++) {
+                Map<String, String> placeholders = new HashMap<>(flyway.getConfiguration().getPlaceholders());
+                placeholders.put("shard_index", String.valueOf(i));
+                Flyway.configure()
+                        .configuration(flyway.getConfiguration())
+                        .dataSource(topology.shard(i))
+                        .placeholders(placeholders)
+                        .load()
+                        .migrate();
+                log.info("Migrated rider shard {}", i);
+            }
+        };
+    }
+}
@@ -0,0 +1,29 @@
+package mjyuu.transport_payment.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Rider databases beyond spring.datasource, which is always shard 0
+ * and also holds the rider shard directory.
+ */
+@Data
+@ConfigurationProperties(prefix = "transport.sharding")
+public class ShardingProperties {
+
+    private boolean enabled;
+
+    private int directoryCacheSize = 500_000;
+
+    private List<Shard> additionalShards = new ArrayList<>();
+
+    @Data
+    public static class Shard {
+        private String url;
+        private String username;
+        private String password;
+    }
+}
@@ -0,0 +1,58 @@
+package mjyuu.transport_payment.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Logs where startup time went once the application is ready: JVM start to ready,
+ * plus the slowest startup phases recorded by {@link BufferingApplicationStartup}.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class StartupTimingReporter {
+
+    private static final int TOP_PHASES = 10;
+
+    private final ConfigurableApplicationContext context;
+
+    @EventListener
+    public void onReady(ApplicationReadyEvent event) {
+        long jvmUptimeMs = ManagementFactory.getRuntimeMXBean().getUptime();
+        Duration timeTaken = event.getTimeTaken();
+        log.info("Startup: ready in {} ms since JVM start ({} ms in SpringApplication.run)",
+                 jvmUptimeMs, timeTaken != null ? timeTaken.toMillis() : -1);
+
+        ApplicationStartup startup = context.getApplicationStartup();
+        if (!(startup instanceof BufferingApplicationStartup buffering)) {
+            return;
+        }
+
+        // Sum each step name so e.g. all bean instantiations show up as one phase
+        StartupTimeline timeline = buffering.getBufferedTimeline();
+        Map<String, Long> byPhase = timeline.getEvents().stream()
+                .collect(Collectors.groupingBy(e -> e.getStartupStep().getName(),
+                                               Collectors.summingLong(e -> e.getDuration().toMillis())));
+
+        Map<String, Long> slowest = byPhase.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder()))
+                .limit(TOP_PHASES)
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (a, b) -> a, LinkedHashMap::new));
+
+        slowest.forEach((phase, ms) -> log.info("Startup phase {}: {} ms", phase, ms));
+    }
+}
@@ -0,0 +1,48 @@
+package mjyuu.transport_payment.controller;
+
+import mjyuu.transport_payment.dto.ApiResponse;
+import mjyuu.transport_payment.dto.ArchiveSummaryDTO;
+import mjyuu.transport_payment.exception.ResourceNotFoundException;
+import mjyuu.transport_payment.service.ArchivalJob;
+import mjyuu.transport_payment.service.ArchiveService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/admin/archive")
+@RequiredArgsConstructor
+@Slf4j
+public class ArchiveController {
+
+    private final ArchiveService archiveService;
+    private final ObjectProvider<ArchivalJob> archivalJob;
+
+    /**
+     * Batches, records and compressed vs raw size per kind
+     * GET /api/admin/archive
+     */
+    @GetMapping
+    public ResponseEntity<ApiResponse<List<ArchiveSummaryDTO>>> getSummary() {
+        return ResponseEntity.ok(ApiResponse.success(
+                "Archive cutoff: " + archiveService.getArchiveCutoff(), archiveService.getSummary()));
+    }
+
+    /**
+     * Archive everything past the dispute window now
+     * POST /api/admin/archive/run
+     */
+    @PostMapping("/run")
+    public ResponseEntity<ApiResponse<ArchivalJob.RunResult>> run() {
+        ArchivalJob job = archivalJob.getIfAvailable();
+        if (job == null) {
+            throw new ResourceNotFoundException("Archival is disabled (transport.archive.enabled=false)");
+        }
+        log.info("REST API: Run archival");
+        return ResponseEntity.ok(ApiResponse.success(job.run()));
+    }
+}
@@ -110,7 +110,7 @@ public class AuthController {
         dto.setFirstName(user.getFirstName());
         dto.setLastName(user.getLastName());
         dto.setPhoneNumber(user.getPhoneNumber());
-        dto.setBalance(user.getBalance());
+        dto.setBalance(user.getBalanceShards() > 0 ? userService.getUserBalance(user.getId()) : user.getBalance());
         dto.setRole(user.getRole().name());
         dto.setStatus(user.getStatus().name());
         return dto;
@@ -17,7 +17,6 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/cards")
@@ -46,8 +45,7 @@ public class CardController {
                 .isDefault(request.isDefault())
                 .build();
 
-        Card savedCard = cardService.addCard(userId, card);
-        CardDTO dto = convertToDTO(savedCard);
+        CardDTO dto = cardService.addCard(userId, card);
 
         return ResponseEntity.status(HttpStatus.CREATED)
                 .body(ApiResponse.success("Card added successfully", dto));
@@ -59,10 +57,7 @@ public class CardController {
     public ResponseEntity<ApiResponse<List<CardDTO>>> getUserCards(@PathVariable Long userId) {
         log.info("REST API: Get cards for user: {}", userId);
 
-        List<Card> cards = cardService.getUserCards(userId);
-        List<CardDTO> dtos = cards.stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        List<CardDTO> dtos = cardService.getUserCards(userId);
 
         return ResponseEntity.ok(ApiResponse.success(dtos));
     }
@@ -72,8 +67,7 @@ public class CardController {
     public ResponseEntity<ApiResponse<CardDTO>> getCard(@PathVariable Long cardId) {
         log.info("REST API: Get card: {}", cardId);
 
-        Card card = cardService.getCardById(cardId);
-        CardDTO dto = convertToDTO(card);
+        CardDTO dto = cardService.getCardById(cardId);
 
         return ResponseEntity.ok(ApiResponse.success(dto));
     }
@@ -84,8 +78,7 @@ public class CardController {
     public ResponseEntity<ApiResponse<CardDTO>> getDefaultCard(@PathVariable Long userId) {
         log.info("REST API: Get default card for user: {}", userId);
 
-        Card card = cardService.getDefaultCard(userId);
-        CardDTO dto = convertToDTO(card);
+        CardDTO dto = cardService.getDefaultCard(userId);
 
         return ResponseEntity.ok(ApiResponse.success(dto));
     }
@@ -97,8 +90,7 @@ public class CardController {
             @RequestParam Long userId) {
         log.info("REST API: Set card {} as default for user: {}", cardId, userId);
 
-        Card card = cardService.setDefaultCard(userId, cardId);
-        CardDTO dto = convertToDTO(card);
+        CardDTO dto = cardService.setDefaultCard(userId, cardId);
 
         return ResponseEntity.ok(ApiResponse.success("Card set as default", dto));
     }
@@ -108,8 +100,7 @@ public class CardController {
     public ResponseEntity<ApiResponse<CardDTO>> blockCard(@PathVariable Long cardId) {
         log.info("REST API: Block card: {}", cardId);
 
-        Card card = cardService.blockCard(cardId);
-        CardDTO dto = convertToDTO(card);
+        CardDTO dto = cardService.blockCard(cardId);
 
         return ResponseEntity.ok(ApiResponse.success("Card blocked successfully", dto));
     }
@@ -125,34 +116,4 @@ public class CardController {
 
         return ResponseEntity.ok(ApiResponse.success("Card deleted successfully", null));
     }
-
-    /**
-     * Convert Card entity to DTO with masked card number
-     */
-    private CardDTO convertToDTO(Card card) {
-        String maskedNumber = maskCardNumber(card.getCardNumber());
-
-        return CardDTO.builder()
-                .id(card.getId())
-                .cardNumber(maskedNumber)
-                .cardHolderName(card.getCardHolderName())
-                .cardType(card.getCardType().name())
-                .expiryMonth(card.getExpiryMonth())
-                .expiryYear(card.getExpiryYear())
-                .status(card.getStatus().name())
-                .isDefault(card.isDefault())
-                .createdAt(card.getCreatedAt())
-                .build();
-    }
-
-    /**
-     * Mask card number for security (show only last 4 digits)
-     */
-    private String maskCardNumber(String cardNumber) {
-        if (cardNumber == null || cardNumber.length() < 4) {
-            return "****";
-        }
-        String lastFour = cardNumber.substring(cardNumber.length() - 4);
-        return "**** **** **** " + lastFour;
-    }
 }
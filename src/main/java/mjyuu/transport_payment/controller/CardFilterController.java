@@ -0,0 +1,37 @@
+package mjyuu.transport_payment.controller;
+
+import mjyuu.transport_payment.dto.ApiResponse;
+import mjyuu.transport_payment.service.CardNumberFilter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/admin/card-filter")
+@RequiredArgsConstructor
+@Slf4j
+public class CardFilterController {
+
+    private final CardNumberFilter cardNumberFilter;
+
+    /**
+     * Size, memory use, expected and observed false-positive rate of the card number filter
+     * GET /api/admin/card-filter
+     */
+    @GetMapping
+    public ResponseEntity<ApiResponse<CardNumberFilter.FilterStats>> getStats() {
+        return ResponseEntity.ok(ApiResponse.success(cardNumberFilter.getStats()));
+    }
+
+    /**
+     * Rebuild the filter from the cards table now
+     * POST /api/admin/card-filter/rebuild
+     */
+    @PostMapping("/rebuild")
+    public ResponseEntity<ApiResponse<CardNumberFilter.FilterStats>> rebuild() {
+        log.info("REST API: Rebuild card number filter");
+        cardNumberFilter.rebuild();
+        return ResponseEntity.ok(ApiResponse.success("Card number filter rebuilt", cardNumberFilter.getStats()));
+    }
+}
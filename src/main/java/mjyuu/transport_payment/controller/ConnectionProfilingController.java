@@ -0,0 +1,71 @@
+package mjyuu.transport_payment.controller;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import mjyuu.transport_payment.config.ConnectionProfiler;
+import mjyuu.transport_payment.dto.ApiResponse;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/admin/db-connections")
+@RequiredArgsConstructor
+@Slf4j
+public class ConnectionProfilingController {
+
+    private final ConnectionProfiler connectionProfiler;
+    private final DataSource dataSource;
+
+    /**
+     * Endpoint/transaction pairs that held pooled connections the longest since startup or the last reset
+     * GET /api/admin/db-connections/top?limit=20&sort=total|max|acquire
+     */
+    @GetMapping("/top")
+    public ResponseEntity<ApiResponse<List<ConnectionProfiler.Usage>>> getTopHolders(
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(defaultValue = "total") String sort) {
+        return ResponseEntity.ok(ApiResponse.success(connectionProfiler.top(limit, sort)));
+    }
+
+    /**
+     * Current pool occupancy
+     * GET /api/admin/db-connections/pool
+     */
+    @GetMapping("/pool")
+    public ResponseEntity<ApiResponse<PoolDTO>> getPool() throws SQLException {
+        HikariDataSource hikari = dataSource.unwrap(HikariDataSource.class);
+        HikariPoolMXBean pool = hikari.getHikariPoolMXBean();
+        return ResponseEntity.ok(ApiResponse.success(new PoolDTO(
+                hikari.getMaximumPoolSize(), pool.getTotalConnections(), pool.getActiveConnections(),
+                pool.getIdleConnections(), pool.getThreadsAwaitingConnection())));
+    }
+
+    /**
+     * Start a fresh measurement window
+     * DELETE /api/admin/db-connections/top
+     */
+    @DeleteMapping("/top")
+    public ResponseEntity<ApiResponse<String>> reset() {
+        log.info("REST API: Reset connection profiling statistics");
+        connectionProfiler.reset();
+        return ResponseEntity.ok(ApiResponse.success("Connection profiling statistics reset", "OK"));
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class PoolDTO {
+        private int maximumPoolSize;
+        private int total;
+        private int active;
+        private int idle;
+        private int waiting;
+    }
+}
@@ -0,0 +1,101 @@
+package mjyuu.transport_payment.controller;
+
+import mjyuu.transport_payment.dto.ApiResponse;
+import mjyuu.transport_payment.dto.FareRuleDefinition;
+import mjyuu.transport_payment.entity.FareRuleSet;
+import mjyuu.transport_payment.service.FareRuleEngine;
+import jakarta.validation.Valid;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@RestController
+@RequestMapping("/api/admin/fare-rules")
+@RequiredArgsConstructor
+@Slf4j
+public class FareRuleController {
+
+    private final FareRuleEngine fareRuleEngine;
+
+    /**
+     * List all fare rule versions
+     * GET /api/admin/fare-rules
+     */
+    @GetMapping
+    public ResponseEntity<ApiResponse<List<FareRuleSetDTO>>> getAllVersions() {
+        log.info("REST API: Get fare rule versions");
+
+        List<FareRuleSetDTO> dtos = fareRuleEngine.getAllVersions().stream()
+                .map(this::convertToDTO)
+                .collect(Collectors.toList());
+
+        return ResponseEntity.ok(ApiResponse.success(dtos));
+    }
+
+    /**
+     * Get the rule definition of a version
+     * GET /api/admin/fare-rules/{version}
+     */
+    @GetMapping("/{version}")
+    public ResponseEntity<ApiResponse<FareRuleDefinition>> getDefinition(@PathVariable Integer version) {
+        log.info("REST API: Get fare rules version: {}", version);
+        return ResponseEntity.ok(ApiResponse.success(fareRuleEngine.getDefinition(version)));
+    }
+
+    /**
+     * Publish a new version, optionally activating it immediately
+     * POST /api/admin/fare-rules?activate=true&description=...
+     */
+    @PostMapping
+    public ResponseEntity<ApiResponse<FareRuleSetDTO>> publish(
+            @Valid @RequestBody FareRuleDefinition definition,
+            @RequestParam(required = false) String description,
+            @RequestParam(defaultValue = "false") boolean activate) {
+        log.info("REST API: Publish fare rules (activate={})", activate);
+
+        FareRuleSet ruleSet = fareRuleEngine.publish(definition, description, activate);
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(ApiResponse.success("Fare rules published", convertToDTO(ruleSet)));
+    }
+
+    /**
+     * Activate an existing version
+     * PUT /api/admin/fare-rules/{version}/activate
+     */
+    @PutMapping("/{version}/activate")
+    public ResponseEntity<ApiResponse<FareRuleSetDTO>> activate(@PathVariable Integer version) {
+        log.info("REST API: Activate fare rules version: {}", version);
+
+        FareRuleSet ruleSet = fareRuleEngine.activate(version);
+        return ResponseEntity.ok(ApiResponse.success("Fare rules activated", convertToDTO(ruleSet)));
+    }
+
+    private FareRuleSetDTO convertToDTO(FareRuleSet ruleSet) {
+        return new FareRuleSetDTO(
+                ruleSet.getVersion(),
+                ruleSet.getDescription(),
+                ruleSet.isActive(),
+                ruleSet.getCreatedAt()
+        );
+    }
+
+    // DTO
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class FareRuleSetDTO {
+        private Integer version;
+        private String description;
+        private boolean active;
+        private LocalDateTime createdAt;
+    }
+}
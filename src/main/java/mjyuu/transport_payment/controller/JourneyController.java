@@ -4,7 +4,11 @@ import mjyuu.transport_payment.dto.ApiResponse;
 import mjyuu.transport_payment.dto.JourneyDTO;
 import mjyuu.transport_payment.dto.TapRequest;
 import mjyuu.transport_payment.dto.TapResponse;
+import mjyuu.transport_payment.service.GateRegistry;
+import mjyuu.transport_payment.service.IdempotencyService;
+import mjyuu.transport_payment.service.JourneyExpiryJob;
 import mjyuu.transport_payment.service.JourneyService;
+import mjyuu.transport_payment.service.TapDeduplicator;
 import jakarta.validation.Valid;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -24,20 +28,40 @@ import java.util.List;
 public class JourneyController {
 
     private final JourneyService journeyService;
+    private final IdempotencyService idempotencyService;
+    private final TapDeduplicator tapDeduplicator;
+    private final GateRegistry gateRegistry;
+    private final JourneyExpiryJob journeyExpiryJob;
 
     @PostMapping("/tap-in")
-    public ResponseEntity<ApiResponse<TapResponse>> tapIn(@Valid @RequestBody TapRequest request) {
+    public ResponseEntity<ApiResponse<TapResponse>> tapIn(
+            @Valid @RequestBody TapRequest request,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+            @RequestHeader(value = GateRegistry.GATE_HEADER, required = false) String gateId,
+            @RequestHeader(value = GateRegistry.GATE_KEY_HEADER, required = false) String gateKey) {
         log.info("REST API: Tap-in request for card: {}, station: {}",
                  request.getCardNumber(), request.getStationCode());
-        TapResponse response = journeyService.tapIn(request);
+        TapResponse response = tapDeduplicator.execute("tap-in", gateRegistry.authenticate(gateId, gateKey), request, () -> {
+            journeyService.requireKnownCard(request.getCardNumber());
+            return idempotencyService.execute("tap-in", idempotencyKey, request, TapResponse.class,
+                                              () -> journeyService.tapIn(request));
+        });
         return ResponseEntity.status(HttpStatus.CREATED).body(ApiResponse.success("Tap-in successful", response));
     }
 
     @PostMapping("/tap-out")
-    public ResponseEntity<ApiResponse<TapResponse>> tapOut(@Valid @RequestBody TapRequest request) {
+    public ResponseEntity<ApiResponse<TapResponse>> tapOut(
+            @Valid @RequestBody TapRequest request,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+            @RequestHeader(value = GateRegistry.GATE_HEADER, required = false) String gateId,
+            @RequestHeader(value = GateRegistry.GATE_KEY_HEADER, required = false) String gateKey) {
         log.info("REST API: Tap-out request for card: {}, station: {}",
                  request.getCardNumber(), request.getStationCode());
-        TapResponse response = journeyService.tapOut(request);
+        TapResponse response = tapDeduplicator.execute("tap-out", gateRegistry.authenticate(gateId, gateKey), request, () -> {
+            journeyService.requireKnownCard(request.getCardNumber());
+            return idempotencyService.execute("tap-out", idempotencyKey, request, TapResponse.class,
+                                              () -> journeyService.tapOut(request));
+        });
         return ResponseEntity.ok(ApiResponse.success("Tap-out successful", response));
     }
 
@@ -67,6 +91,7 @@ public class JourneyController {
     @GetMapping("/active")
     public ResponseEntity<ApiResponse<JourneyDTO>> getActiveJourney(@RequestParam String cardNumber) {
         log.info("REST API: Get active journey for card: {}", cardNumber);
+        journeyService.requireKnownCard(cardNumber);
         JourneyDTO journey = journeyService.getActiveJourney(cardNumber);
         return ResponseEntity.ok(ApiResponse.success(journey));
     }
@@ -74,7 +99,7 @@ public class JourneyController {
     @PostMapping("/process-incomplete")
     public ResponseEntity<ApiResponse<String>> processIncompleteJourneys() {
         log.info("REST API: Processing incomplete journeys");
-        journeyService.processIncompleteJourneys();
+        journeyExpiryJob.expireOverdue();
         return ResponseEntity.ok(ApiResponse.success("Incomplete journeys processed successfully", "OK"));
     }
 
@@ -0,0 +1,35 @@
+package mjyuu.transport_payment.controller;
+
+import mjyuu.transport_payment.dto.ApiResponse;
+import mjyuu.transport_payment.service.LiveStationCounters;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Live crowd figures for operations, served from in-memory counters without touching journeys
+ */
+@RestController
+@RequestMapping("/api/admin/occupancy")
+@RequiredArgsConstructor
+public class OccupancyController {
+
+    private final LiveStationCounters liveStationCounters;
+
+    /**
+     * Today's tap-ins/tap-outs and riders inside the network, per station, busiest first
+     * GET /api/admin/occupancy
+     */
+    @GetMapping
+    public ResponseEntity<ApiResponse<LiveStationCounters.Occupancy>> getOccupancy() {
+        return ResponseEntity.ok(ApiResponse.success(liveStationCounters.getOccupancy()));
+    }
+
+    /**
+     * GET /api/admin/occupancy/stations/{stationId}
+     */
+    @GetMapping("/stations/{stationId}")
+    public ResponseEntity<ApiResponse<LiveStationCounters.StationCount>> getStation(@PathVariable Long stationId) {
+        return ResponseEntity.ok(ApiResponse.success(liveStationCounters.getStation(stationId)));
+    }
+}
@@ -0,0 +1,38 @@
+package mjyuu.transport_payment.controller;
+
+import mjyuu.transport_payment.dto.ApiResponse;
+import mjyuu.transport_payment.service.PaymentGatewaySimulator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/admin/payment-simulator")
+@RequiredArgsConstructor
+@Slf4j
+public class PaymentSimulatorController {
+
+    private final PaymentGatewaySimulator simulator;
+
+    /**
+     * Current gateway simulation settings
+     * GET /api/admin/payment-simulator
+     */
+    @GetMapping
+    public ResponseEntity<ApiResponse<PaymentGatewaySimulator.Settings>> getSettings() {
+        return ResponseEntity.ok(ApiResponse.success(simulator.getSettings()));
+    }
+
+    /**
+     * Replace the gateway simulation settings; applies to the next payment
+     * PUT /api/admin/payment-simulator
+     */
+    @PutMapping
+    public ResponseEntity<ApiResponse<PaymentGatewaySimulator.Settings>> updateSettings(
+            @RequestBody PaymentGatewaySimulator.Settings settings) {
+        log.info("REST API: Update payment simulator settings");
+        simulator.updateSettings(settings);
+        return ResponseEntity.ok(ApiResponse.success("Simulator settings updated", settings));
+    }
+}
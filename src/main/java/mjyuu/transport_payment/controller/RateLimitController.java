@@ -0,0 +1,44 @@
+package mjyuu.transport_payment.controller;
+
+import mjyuu.transport_payment.dto.ApiResponse;
+import mjyuu.transport_payment.security.RateLimitFilter;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/admin/rate-limits")
+@RequiredArgsConstructor
+@Slf4j
+public class RateLimitController {
+
+    private final RateLimitFilter rateLimitFilter;
+
+    /**
+     * Keys rejected most often since startup
+     * GET /api/admin/rate-limits/top?limit=20
+     */
+    @GetMapping("/top")
+    public ResponseEntity<ApiResponse<List<RejectedKeyDTO>>> getTopRejectedKeys(
+            @RequestParam(defaultValue = "20") int limit) {
+        log.info("REST API: Get top {} rate-limited keys", limit);
+
+        List<RejectedKeyDTO> dtos = rateLimitFilter.getTopRejectedKeys(limit).stream()
+                .map(e -> new RejectedKeyDTO(e.getKey(), e.getValue()))
+                .toList();
+
+        return ResponseEntity.ok(ApiResponse.success(dtos));
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class RejectedKeyDTO {
+        private String key;
+        private long rejections;
+    }
+}
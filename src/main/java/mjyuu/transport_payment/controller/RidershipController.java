@@ -0,0 +1,96 @@
+package mjyuu.transport_payment.controller;
+
+import mjyuu.transport_payment.dto.ApiResponse;
+import mjyuu.transport_payment.dto.RidershipDTO;
+import mjyuu.transport_payment.service.RidershipRollupService;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Ridership reporting. Everything here reads station_hourly_ridership, never journeys.
+ */
+@RestController
+@RequestMapping("/api/admin/ridership")
+@RequiredArgsConstructor
+@Slf4j
+public class RidershipController {
+
+    private final RidershipRollupService ridershipRollupService;
+
+    /**
+     * Entries/exits per hour at one station
+     * GET /api/admin/ridership/stations/{stationId}/hourly?date=2025-01-31
+     */
+    @GetMapping("/stations/{stationId}/hourly")
+    public ResponseEntity<ApiResponse<List<RidershipDTO>>> getStationHourly(
+            @PathVariable Long stationId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        LocalDate day = date != null ? date : LocalDate.now();
+        log.info("REST API: Get hourly ridership for station {} on {}", stationId, day);
+
+        return ResponseEntity.ok(ApiResponse.success(ridershipRollupService.getStationHourly(stationId, day)));
+    }
+
+    /**
+     * Entries/exits per hour across all stations
+     * GET /api/admin/ridership/hourly?date=2025-01-31
+     */
+    @GetMapping("/hourly")
+    public ResponseEntity<ApiResponse<List<RidershipDTO>>> getNetworkHourly(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        LocalDate day = date != null ? date : LocalDate.now();
+        log.info("REST API: Get network hourly ridership on {}", day);
+
+        return ResponseEntity.ok(ApiResponse.success(ridershipRollupService.getNetworkHourly(day)));
+    }
+
+    /**
+     * Entries/exits per station per day
+     * GET /api/admin/ridership/daily?from=2025-01-01&to=2025-01-31[&stationId=3]
+     */
+    @GetMapping("/daily")
+    public ResponseEntity<ApiResponse<List<RidershipDTO>>> getDaily(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Long stationId) {
+        log.info("REST API: Get daily ridership {}..{} (station: {})", from, to, stationId);
+
+        return ResponseEntity.ok(ApiResponse.success(ridershipRollupService.getDaily(from, to, stationId)));
+    }
+
+    /**
+     * How far the rollup has got on each shard
+     * GET /api/admin/ridership/status
+     */
+    @GetMapping("/status")
+    public ResponseEntity<ApiResponse<RollupStatusDTO>> getStatus() {
+        return ResponseEntity.ok(ApiResponse.success(new RollupStatusDTO(
+                ridershipRollupService.getWatermarks(), ridershipRollupService.countPendingEventsOnAllShards())));
+    }
+
+    /**
+     * Apply ready events now instead of waiting for the schedule
+     * POST /api/admin/ridership/rollup
+     */
+    @PostMapping("/rollup")
+    public ResponseEntity<ApiResponse<RollupStatusDTO>> rollUp() {
+        log.info("REST API: Run ridership rollup");
+        ridershipRollupService.rollUpAllShards();
+        return getStatus();
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class RollupStatusDTO {
+        private List<Long> watermarks;     // by shard number
+        private long pendingEvents;
+    }
+}
@@ -1,16 +1,24 @@
 package mjyuu.transport_payment.controller;
 
 import mjyuu.transport_payment.entity.Station;
+import mjyuu.transport_payment.exception.ResourceNotFoundException;
+import mjyuu.transport_payment.service.StationCatalogCache;
 import mjyuu.transport_payment.service.StationService;
+import mjyuu.transport_payment.service.StationSpatialIndex;
 import mjyuu.transport_payment.dto.ApiResponse;
+import mjyuu.transport_payment.dto.NearbyStationDTO;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -21,21 +29,37 @@ import java.util.stream.Collectors;
 public class StationController {
 
     private final StationService stationService;
+    private final StationCatalogCache catalogCache;
+    private final StationSpatialIndex spatialIndex;
+
+    @Value("${transport.stations.cache.max-age-seconds:300}")
+    private long maxAgeSeconds;
 
     /**
      * Get all stations
      * GET /api/stations
      */
     @GetMapping
-    public ResponseEntity<ApiResponse<List<StationDTO>>> getAllStations() {
-        log.info("REST API: Get all stations");
-        
-        List<Station> stations = stationService.getAllActiveStations();
-        List<StationDTO> dtos = stations.stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
-        
-        return ResponseEntity.ok(ApiResponse.success(dtos));
+    public ResponseEntity<byte[]> getAllStations() {
+        log.debug("REST API: Get all stations");
+
+        return cached(catalogCache.get("all", () -> ApiResponse.success(
+                convertToDTOs(stationService.getAllActiveStations()))));
+    }
+
+    /**
+     * Get active stations near a point, nearest first, answered from memory
+     * GET /api/stations/nearby?lat=51.5&lon=-0.12&radius=1000&limit=10
+     */
+    @GetMapping("/nearby")
+    public ResponseEntity<ApiResponse<List<NearbyStationDTO>>> getNearbyStations(
+            @RequestParam double lat,
+            @RequestParam double lon,
+            @RequestParam(defaultValue = "1000") double radius,
+            @RequestParam(defaultValue = "10") int limit) {
+        log.debug("REST API: Get stations within {} m of {}, {}", radius, lat, lon);
+
+        return ResponseEntity.ok(ApiResponse.success(spatialIndex.nearby(lat, lon, radius, limit)));
     }
 
     /**
@@ -71,15 +95,14 @@ public class StationController {
      * GET /api/stations/zone/{zoneNumber}
      */
     @GetMapping("/zone/{zoneNumber}")
-    public ResponseEntity<List<StationDTO>> getStationsByZone(@PathVariable Integer zoneNumber) {
-        log.info("REST API: Get stations in zone: {}", zoneNumber);
-        
-        List<Station> stations = stationService.getStationsByZone(zoneNumber);
-        List<StationDTO> dtos = stations.stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
-        
-        return ResponseEntity.ok(dtos);
+    public ResponseEntity<byte[]> getStationsByZone(@PathVariable Integer zoneNumber) {
+        log.debug("REST API: Get stations in zone: {}", zoneNumber);
+        if (!catalogCache.hasZone(zoneNumber)) {
+            throw new ResourceNotFoundException("Zone not found: " + zoneNumber);
+        }
+
+        return cached(catalogCache.get("zone:" + zoneNumber,
+                () -> convertToDTOs(stationService.getStationsByZone(zoneNumber))));
     }
 
     /**
@@ -87,11 +110,25 @@ public class StationController {
      * GET /api/stations/zones
      */
     @GetMapping("/zones")
-    public ResponseEntity<List<Integer>> getAllZones() {
-        log.info("REST API: Get all zones");
-        
-        List<Integer> zones = stationService.getAllZones();
-        return ResponseEntity.ok(zones);
+    public ResponseEntity<byte[]> getAllZones() {
+        log.debug("REST API: Get all zones");
+
+        return cached(catalogCache.get("zones", stationService::getAllZones));
+    }
+
+    // Spring answers 304 Not Modified itself when If-None-Match matches the ETag set here
+    private ResponseEntity<byte[]> cached(StationCatalogCache.Snapshot snapshot) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(snapshot.etag())
+                .cacheControl(CacheControl.maxAge(Duration.ofSeconds(maxAgeSeconds)).cachePublic())
+                .body(snapshot.body());
+    }
+
+    private List<StationDTO> convertToDTOs(List<Station> stations) {
+        return stations.stream()
+                .map(this::convertToDTO)
+                .collect(Collectors.toList());
     }
 
     // Helper method to convert Station entity to DTO
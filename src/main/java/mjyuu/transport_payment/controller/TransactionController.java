@@ -1,11 +1,11 @@
 package mjyuu.transport_payment.controller;
 
-import mjyuu.transport_payment.entity.Transaction;
+import mjyuu.transport_payment.service.FareCappingService;
 import mjyuu.transport_payment.service.TransactionService;
 import mjyuu.transport_payment.dto.ApiResponse;
+import mjyuu.transport_payment.dto.TransactionDTO;
 import lombok.AllArgsConstructor;
 import lombok.Data;
-import lombok.NoArgsConstructor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.format.annotation.DateTimeFormat;
@@ -15,7 +15,6 @@ import org.springframework.web.bind.annotation.*;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/transactions")
@@ -24,6 +23,7 @@ import java.util.stream.Collectors;
 public class TransactionController {
 
     private final TransactionService transactionService;
+    private final FareCappingService fareCappingService;
 
     /**
      * Get all transactions for a user
@@ -33,10 +33,7 @@ public class TransactionController {
     public ResponseEntity<ApiResponse<List<TransactionDTO>>> getUserTransactions(@RequestParam Long userId) {
         log.info("REST API: Get transactions for user: {}", userId);
         
-        List<Transaction> transactions = transactionService.getUserTransactions(userId);
-        List<TransactionDTO> dtos = transactions.stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        List<TransactionDTO> dtos = transactionService.getUserTransactionHistory(userId, null, null);
         
         return ResponseEntity.ok(ApiResponse.success(dtos));
     }
@@ -53,11 +50,7 @@ public class TransactionController {
         
         log.info("REST API: Get transactions for user: {} from {} to {}", userId, startDate, endDate);
         
-        List<Transaction> transactions = transactionService.getUserTransactionsByDateRange(
-                userId, startDate, endDate);
-        List<TransactionDTO> dtos = transactions.stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        List<TransactionDTO> dtos = transactionService.getUserTransactionHistory(userId, startDate, endDate);
         
         return ResponseEntity.ok(ApiResponse.success(dtos));
     }
@@ -70,8 +63,7 @@ public class TransactionController {
     public ResponseEntity<ApiResponse<TransactionDTO>> getTransactionById(@PathVariable Long id) {
         log.info("REST API: Get transaction: {}", id);
         
-        Transaction transaction = transactionService.getTransactionById(id);
-        TransactionDTO dto = convertToDTO(transaction);
+        TransactionDTO dto = transactionService.getTransactionById(id);
         
         return ResponseEntity.ok(ApiResponse.success(dto));
     }
@@ -99,39 +91,23 @@ public class TransactionController {
         return ResponseEntity.ok(response);
     }
 
-    // Helper method to convert Transaction entity to DTO
-    private TransactionDTO convertToDTO(Transaction transaction) {
-        return new TransactionDTO(
-                transaction.getId(),
-                transaction.getTransactionId(),
-                transaction.getUser().getId(),
-                transaction.getJourney() != null ? transaction.getJourney().getId() : null,
-                transaction.getCard() != null ? transaction.getCard().getId() : null,
-                transaction.getType().name(),
-                transaction.getAmount(),
-                transaction.getStatus().name(),
-                transaction.getDescription(),
-                transaction.getCreatedAt()
-        );
-    }
+    /**
+     * Get capped spending for the day, week and month containing a date
+     * GET /api/transactions/spending?userId=1&date=2024-11-06
+     */
+    @GetMapping("/spending")
+    public ResponseEntity<ApiResponse<FareCappingService.CappingResult>> getCappedSpending(
+            @RequestParam Long userId,
+            @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) java.time.LocalDate date) {
 
-    // DTOs
-    @Data
-    @NoArgsConstructor
-    @AllArgsConstructor
-    public static class TransactionDTO {
-        private Long id;
-        private String transactionId;
-        private Long userId;
-        private Long journeyId;
-        private Long cardId;
-        private String type;
-        private BigDecimal amount;
-        private String status;
-        private String description;
-        private LocalDateTime createdAt;
+        java.time.LocalDate targetDate = date != null ? date : java.time.LocalDate.now();
+        log.info("REST API: Get capped spending for user: {} on date: {}", userId, targetDate);
+
+        return ResponseEntity.ok(ApiResponse.success(fareCappingService.getCurrentSpending(userId, targetDate)));
     }
 
+    // DTOs
     @Data
     @AllArgsConstructor
     public static class DailySpendingResponse {
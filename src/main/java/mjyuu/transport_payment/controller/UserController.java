@@ -3,7 +3,14 @@ package mjyuu.transport_payment.controller;
 import mjyuu.transport_payment.dto.CardTopUpRequest;
 import mjyuu.transport_payment.dto.CardTopUpResponse;
 import mjyuu.transport_payment.dto.ApiResponse;
+import mjyuu.transport_payment.dto.DashboardDTO;
+import mjyuu.transport_payment.dto.UserStatisticsDTO;
 import mjyuu.transport_payment.entity.User;
+import mjyuu.transport_payment.service.AccountBalanceService;
+import mjyuu.transport_payment.service.CardTopUpService;
+import mjyuu.transport_payment.service.DashboardService;
+import mjyuu.transport_payment.service.UserStatisticsService;
+import mjyuu.transport_payment.service.IdempotencyService;
 import mjyuu.transport_payment.service.TransactionService;
 import mjyuu.transport_payment.service.UserService;
 import jakarta.validation.Valid;
@@ -16,9 +23,11 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/users")
@@ -27,7 +36,12 @@ import java.math.BigDecimal;
 public class UserController {
 
     private final UserService userService;
+    private final AccountBalanceService accountBalanceService;
     private final TransactionService transactionService;
+    private final CardTopUpService cardTopUpService;
+    private final IdempotencyService idempotencyService;
+    private final DashboardService dashboardService;
+    private final UserStatisticsService userStatisticsService;
 
     /**
      * Get user profile
@@ -104,11 +118,55 @@ public class UserController {
      * POST /api/users/{id}/topup/card
      */
     @PostMapping("/{id}/topup/card")
-    public ResponseEntity<ApiResponse<CardTopUpResponse>> topUpWithCard(@PathVariable Long id,
-                                                           @Valid @RequestBody CardTopUpRequest request) {
+    public CompletableFuture<ResponseEntity<ApiResponse<CardTopUpResponse>>> topUpWithCard(
+            @PathVariable Long id, @Valid @RequestBody CardTopUpRequest request,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
         log.info("REST API: Card top-up for user: {}, amount: {}", id, request.getAmount());
-        CardTopUpResponse response = transactionService.processCardTopUp(id, request);
-        return ResponseEntity.ok(ApiResponse.success("Balance topped up successfully", response));
+        // Completes on the payment executor; the request thread is released while the gateway works.
+        // Once the top-up is pending the key stays bound to it; a retry gets its current status.
+        return idempotencyService.executeAsync("topup:" + id, idempotencyKey, request, CardTopUpResponse.class,
+                                               transactionId -> cardTopUpService.getStatus(Long.valueOf(transactionId)),
+                                               onPending -> cardTopUpService.topUp(id, request, onPending))
+                .thenApply(UserController::cardTopUpResult);
+    }
+
+    private static ResponseEntity<ApiResponse<CardTopUpResponse>> cardTopUpResult(CardTopUpResponse response) {
+        String status = response.getStatus() == null ? "COMPLETED" : response.getStatus();
+        return switch (status) {
+            case "COMPLETED" -> ResponseEntity.ok(ApiResponse.success("Balance topped up successfully", response));
+            case "FAILED" -> ResponseEntity.status(HttpStatus.PAYMENT_REQUIRED)
+                    .body(new ApiResponse<>(false, response.getMessage(), response));
+            case "EXPIRED" -> ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT)
+                    .body(new ApiResponse<>(false, response.getMessage(), response));
+            default -> ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .body(ApiResponse.success(response.getMessage(), response));
+        };
+    }
+
+    /**
+     * Everything the dashboard page needs in one call
+     * GET /api/users/{id}/dashboard
+     */
+    @GetMapping("/{id}/dashboard")
+    @PreAuthorize("@securityService.isOwnerOrAdmin(#id)")
+    public CompletableFuture<ResponseEntity<ApiResponse<DashboardDTO>>> getDashboard(@PathVariable Long id) {
+        log.info("REST API: Get dashboard for user: {}", id);
+        return dashboardService.getDashboard(id)
+                .thenApply(dashboard -> ResponseEntity.ok(ApiResponse.success(dashboard)));
+    }
+
+    /**
+     * Travel statistics: lifetime totals and a per-month breakdown
+     * GET /api/users/{id}/statistics?months=12
+     */
+    @GetMapping("/{id}/statistics")
+    @PreAuthorize("@securityService.isOwnerOrAdmin(#id)")
+    public ResponseEntity<ApiResponse<UserStatisticsDTO>> getStatistics(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "12") int months) {
+        log.info("REST API: Get travel statistics for user: {}", id);
+
+        return ResponseEntity.ok(ApiResponse.success(userStatisticsService.getStatistics(id, months)));
     }
 
     /**
@@ -125,6 +183,44 @@ public class UserController {
         return ResponseEntity.ok(ApiResponse.success(response));
     }
 
+    /**
+     * Set the concession class used for fare discounts (admin only)
+     * PUT /api/users/{id}/concession?concessionClass=STUDENT
+     */
+    @PutMapping("/{id}/concession")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<UserDTO>> updateConcession(@PathVariable Long id,
+                                                                 @RequestParam User.ConcessionClass concessionClass) {
+        log.info("REST API: Set concession class {} for user: {}", concessionClass, id);
+
+        User user = userService.updateConcessionClass(id, concessionClass);
+        return ResponseEntity.ok(ApiResponse.success("Concession updated", convertToDTO(user)));
+    }
+
+    /**
+     * How a user's balance is stored: single row, or split across balance shards (admin only)
+     * GET /api/users/{id}/balance-shards
+     */
+    @GetMapping("/{id}/balance-shards")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<AccountBalanceService.BalanceShards>> getBalanceShards(@PathVariable Long id) {
+        return ResponseEntity.ok(ApiResponse.success(accountBalanceService.getBalanceShards(id)));
+    }
+
+    /**
+     * Split a shared account's balance across K rows so concurrent debits stop queueing on one;
+     * 0 moves it back to a single row (admin only)
+     * PUT /api/users/{id}/balance-shards?shards=8
+     */
+    @PutMapping("/{id}/balance-shards")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<AccountBalanceService.BalanceShards>> setBalanceShards(@PathVariable Long id,
+                                                                                         @RequestParam int shards) {
+        log.info("REST API: Set balance shards to {} for user: {}", shards, id);
+        return ResponseEntity.ok(ApiResponse.success("Balance shards updated",
+                                                     accountBalanceService.setBalanceShards(id, shards)));
+    }
+
     /**
      * Change user password
      * PUT /api/users/{id}/password
@@ -145,9 +241,10 @@ public class UserController {
                 user.getFirstName(),
                 user.getLastName(),
                 user.getPhoneNumber(),
-                user.getBalance(),
+                user.getBalanceShards() > 0 ? userService.getUserBalance(user.getId()) : user.getBalance(),
                 user.getStatus().name(),
-                user.getRole().name()
+                user.getRole().name(),
+                user.getConcessionClass().name()
         );
     }
 
@@ -164,6 +261,7 @@ public class UserController {
         private BigDecimal balance;
         private String status;
         private String role;
+        private String concessionClass;
     }
 
     @Data
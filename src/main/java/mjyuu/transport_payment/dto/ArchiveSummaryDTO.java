@@ -0,0 +1,17 @@
+package mjyuu.transport_payment.dto;
+
+import mjyuu.transport_payment.entity.ArchiveBatch;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArchiveSummaryDTO {
+    private ArchiveBatch.Kind kind;
+    private Long batches;
+    private Long records;
+    private Long rawBytes;
+    private Long storedBytes;
+}
@@ -4,6 +4,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import mjyuu.transport_payment.entity.Card;
 
 import java.time.LocalDateTime;
 
@@ -21,4 +22,22 @@ public class CardDTO {
     private String status;
     private boolean isDefault;
     private LocalDateTime createdAt;
+
+    // JPQL constructor projection; masks the number so the full value never leaves the service layer
+    public CardDTO(Long id, String cardNumber, String cardHolderName, Card.CardType cardType, String expiryMonth,
+                   String expiryYear, Card.CardStatus status, boolean isDefault, LocalDateTime createdAt) {
+        this(id, maskCardNumber(cardNumber), cardHolderName, cardType.name(), expiryMonth, expiryYear,
+             status.name(), isDefault, createdAt);
+    }
+
+    /**
+     * Mask card number for security (show only last 4 digits)
+     */
+    public static String maskCardNumber(String cardNumber) {
+        if (cardNumber == null || cardNumber.length() < 4) {
+            return "****";
+        }
+        String lastFour = cardNumber.substring(cardNumber.length() - 4);
+        return "**** **** **** " + lastFour;
+    }
 }
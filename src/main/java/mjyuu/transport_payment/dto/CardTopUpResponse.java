@@ -1,16 +1,21 @@
 package mjyuu.transport_payment.dto;
 
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Data
 @Builder
+@NoArgsConstructor
+@AllArgsConstructor
 public class CardTopUpResponse {
     private boolean success;
     private String message;
+    private String status;             // transaction status: COMPLETED, or PENDING / AUTHORISED / EXPIRED / FAILED on a retry
     private String transactionId;
     private BigDecimal amount;
     private BigDecimal newBalance;
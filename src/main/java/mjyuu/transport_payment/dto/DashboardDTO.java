@@ -0,0 +1,74 @@
+package mjyuu.transport_payment.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Everything the dashboard page shows, in one response
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DashboardDTO {
+
+    private Long userId;
+    private String firstName;
+    private String lastName;
+    private String email;
+    private BigDecimal balance;
+    private String concessionClass;
+
+    private List<CardSummary> cards;
+    private JourneySummary activeJourney;
+    private List<JourneySummary> recentJourneys;
+    private List<TransactionSummary> recentTransactions;
+
+    private BigDecimal dailySpending;
+    private BigDecimal weeklySpending;
+    private BigDecimal monthlySpending;
+    private long monthlyJourneys;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class CardSummary {
+        private Long id;
+        private String cardNumber;      // masked, last four only
+        private String cardType;
+        private String status;
+        @JsonProperty("isDefault")
+        private boolean isDefault;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class JourneySummary {
+        private Long id;
+        private String entryStationName;
+        private String exitStationName;
+        private LocalDateTime tapInTime;
+        private String status;
+        private BigDecimal fareAmount;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class TransactionSummary {
+        private Long id;
+        private String type;
+        private BigDecimal amount;
+        private String status;
+        private String description;
+        private LocalDateTime createdAt;
+    }
+}
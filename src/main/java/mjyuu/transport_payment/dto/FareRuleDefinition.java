@@ -0,0 +1,95 @@
+package mjyuu.transport_payment.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import mjyuu.transport_payment.entity.User;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Declarative fare rules as stored in fare_rule_sets.definition.
+ * Compiled by FareRuleCompiler into a CompiledFareTable; never evaluated directly.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FareRuleDefinition {
+
+    @NotNull(message = "Base fare is required")
+    @DecimalMin(value = "0.00", message = "Base fare cannot be negative")
+    private BigDecimal baseFare;
+
+    @NotNull(message = "Per-zone charge is required")
+    @DecimalMin(value = "0.00", message = "Per-zone charge cannot be negative")
+    private BigDecimal perZoneCharge;
+
+    // Highest zone covered by the precomputed fare matrix
+    @Min(value = 1, message = "Max zone must be at least 1")
+    private int maxZone = 9;
+
+    @Valid
+    private List<TimeBand> timeBands = new ArrayList<>();
+
+    @Valid
+    private List<ZonePairOverride> zonePairOverrides = new ArrayList<>();
+
+    // Fraction of the fare waived per concession class, 0.00 - 1.00
+    private Map<User.ConcessionClass, BigDecimal> concessionDiscounts = new EnumMap<>(User.ConcessionClass.class);
+
+    /**
+     * Fare multiplier applied to journeys that tap in within [start, end) on the given days
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class TimeBand {
+        @NotBlank(message = "Band name is required")
+        private String name;
+
+        @NotEmpty(message = "Band must apply to at least one day")
+        private List<DayOfWeek> days;
+
+        @NotNull(message = "Band start is required")
+        private LocalTime start;
+
+        @NotNull(message = "Band end is required")
+        private LocalTime end;
+
+        @NotNull(message = "Band multiplier is required")
+        @DecimalMin(value = "0.00", message = "Band multiplier cannot be negative")
+        private BigDecimal multiplier;
+    }
+
+    /**
+     * Fixed fare for a zone pair, replacing base + per-zone charge (before band and concession)
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ZonePairOverride {
+        @Min(value = 1, message = "Zone must be at least 1")
+        private int fromZone;
+
+        @Min(value = 1, message = "Zone must be at least 1")
+        private int toZone;
+
+        @NotNull(message = "Override fare is required")
+        @DecimalMin(value = "0.00", message = "Override fare cannot be negative")
+        private BigDecimal fare;
+
+        private boolean bidirectional = true;
+    }
+}
@@ -4,8 +4,10 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import mjyuu.transport_payment.entity.Journey;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDateTime;
 
 @Data
@@ -29,4 +31,14 @@ public class JourneyDTO {
     private BigDecimal finalAmount;
     private Integer zonesTransited;
     private Long durationMinutes;
+
+    // JPQL constructor projection
+    public JourneyDTO(Long id, Long userId, String userEmail, String cardNumber, String entryStationName,
+                      String entryStationCode, String exitStationName, String exitStationCode,
+                      LocalDateTime tapInTime, LocalDateTime tapOutTime, Journey.JourneyStatus status,
+                      BigDecimal fareAmount, BigDecimal finalAmount, Integer zonesTransited) {
+        this(id, userId, userEmail, cardNumber, entryStationName, entryStationCode, exitStationName, exitStationCode,
+             tapInTime, tapOutTime, status.name(), fareAmount, finalAmount, zonesTransited,
+             tapOutTime != null ? Duration.between(tapInTime, tapOutTime).toMinutes() : null);
+    }
 }
@@ -0,0 +1,20 @@
+package mjyuu.transport_payment.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class NearbyStationDTO {
+    private Long id;
+    private String stationCode;
+    private String name;
+    private Integer zoneNumber;
+    private Double latitude;
+    private Double longitude;
+    private Long distanceMeters;
+}
@@ -0,0 +1,40 @@
+package mjyuu.transport_payment.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Entries and exits for a station (or the whole network when stationId is null)
+ * over one hour, or one day when hour is null
+ */
+@Data
+@NoArgsConstructor
+public class RidershipDTO {
+    private Long stationId;
+    private LocalDate date;
+    private Integer hour;
+    private long entries;
+    private long exits;
+
+    public RidershipDTO(Long stationId, LocalDateTime hourStart, Long entries, Long exits) {
+        this.stationId = stationId;
+        this.date = hourStart.toLocalDate();
+        this.hour = hourStart.getHour();
+        this.entries = entries;
+        this.exits = exits;
+    }
+
+    public RidershipDTO(LocalDateTime hourStart, Long entries, Long exits) {
+        this(null, hourStart, entries, exits);
+    }
+
+    public RidershipDTO(Long stationId, LocalDate date, Long entries, Long exits) {
+        this.stationId = stationId;
+        this.date = date;
+        this.entries = entries;
+        this.exits = exits;
+    }
+}
@@ -2,6 +2,7 @@ package mjyuu.transport_payment.dto;
 
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -21,4 +22,8 @@ public class TapRequest {
     
     // Optional: Used for testing or if reader provides timestamp
     private java.time.LocalDateTime tapTime;
+
+    // Optional: sent by registered gates (X-Gate-Id header) so a retransmitted tap gets the original answer
+    @PositiveOrZero(message = "Sequence number must not be negative")
+    private Long sequenceNumber;
 }
@@ -25,6 +25,10 @@ public class TapResponse {
     private BigDecimal currentBalance;
     private BigDecimal dailySpending;
     private boolean dailyCapReached;
+    private BigDecimal weeklySpending;
+    private boolean weeklyCapReached;
+    private BigDecimal monthlySpending;
+    private boolean monthlyCapReached;
     
     // For tap-out specifically
     private String entryStationName;
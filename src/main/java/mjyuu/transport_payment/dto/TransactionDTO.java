@@ -4,6 +4,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import mjyuu.transport_payment.entity.Transaction;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -25,4 +26,13 @@ public class TransactionDTO {
     private String paymentGatewayReference;
     private String failureReason;
     private LocalDateTime createdAt;
+
+    // JPQL constructor projection
+    public TransactionDTO(Long id, String transactionId, Transaction.TransactionType type, BigDecimal amount,
+                          Transaction.TransactionStatus status, String description, Long userId, Long cardId,
+                          Long journeyId, String paymentGatewayReference, String failureReason,
+                          LocalDateTime createdAt) {
+        this(id, transactionId, type.name(), amount, status.name(), description, userId, cardId, journeyId,
+             paymentGatewayReference, failureReason, createdAt);
+    }
 }
@@ -0,0 +1,33 @@
+package mjyuu.transport_payment.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UserStatisticsDTO {
+    private Long userId;
+    private long totalTrips;
+    private BigDecimal totalSpend;
+    private long distinctStations;
+    private Double averageDurationMinutes;
+    private List<MonthlyStatistics> months;     // newest first
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class MonthlyStatistics {
+        private YearMonth month;
+        private int trips;
+        private BigDecimal spend;
+        private Double averageDurationMinutes;
+    }
+}
@@ -0,0 +1,61 @@
+package mjyuu.transport_payment.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * One user's archived journeys or transactions for one month, stored as gzip-compressed JSON
+ */
+@Entity
+@Table(name = "archive_batches")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@EntityListeners(AuditingEntityListener.class)
+public class ArchiveBatch {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Kind kind;
+
+    @Column(nullable = false)
+    private Long userId;
+
+    @Column(nullable = false)
+    private LocalDate periodStart;
+
+    @Column(nullable = false)
+    private LocalDateTime firstAt;
+
+    @Column(nullable = false)
+    private LocalDateTime lastAt;
+
+    @Column(nullable = false)
+    private Integer recordCount;
+
+    @Column(nullable = false)
+    private Integer rawBytes;
+
+    @Column(nullable = false)
+    @ToString.Exclude
+    private byte[] payload;
+
+    @CreatedDate
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    public enum Kind {
+        JOURNEY,
+        TRANSACTION
+    }
+}
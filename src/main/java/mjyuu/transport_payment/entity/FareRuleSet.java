@@ -0,0 +1,34 @@
+package mjyuu.transport_payment.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "fare_rule_sets")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@EntityListeners(AuditingEntityListener.class)
+public class FareRuleSet {
+
+    @Id
+    private Integer version;
+
+    private String description;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String definition; // JSON, see FareRuleDefinition
+
+    @Column(nullable = false)
+    @Builder.Default
+    private boolean active = false;
+
+    @CreatedDate
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,41 @@
+package mjyuu.transport_payment.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import java.time.LocalDateTime;
+
+/**
+ * A registered ticket gate; taps carry its id in the X-Gate-Id header and its secret in X-Gate-Key
+ */
+@Entity
+@Table(name = "gates")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@EntityListeners(AuditingEntityListener.class)
+public class Gate {
+
+    @Id
+    @Column(length = 64)
+    private String gateId;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "station_id", nullable = false)
+    private Station station;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Boolean active = true;
+
+    // SHA-256 hex of the gate's secret key; null until one is provisioned
+    @Column(length = 64)
+    private String keyHash;
+
+    @CreatedDate
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
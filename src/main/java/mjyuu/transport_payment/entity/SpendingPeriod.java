@@ -0,0 +1,68 @@
+package mjyuu.transport_payment.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.TemporalAdjusters;
+
+@Entity
+@Table(name = "user_spending_periods")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@EntityListeners(AuditingEntityListener.class)
+public class SpendingPeriod {
+
+    @EmbeddedId
+    private SpendingPeriodId id;
+
+    @Column(nullable = false, precision = 10, scale = 2)
+    @Builder.Default
+    private BigDecimal amount = BigDecimal.ZERO;
+
+    @LastModifiedDate
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+
+    @Embeddable
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class SpendingPeriodId implements Serializable {
+
+        @Column(name = "user_id", nullable = false)
+        private Long userId;
+
+        @Enumerated(EnumType.STRING)
+        @Column(name = "period_type", nullable = false, length = 10)
+        private PeriodType periodType;
+
+        @Column(name = "period_start", nullable = false)
+        private LocalDate periodStart;
+    }
+
+    public enum PeriodType {
+        DAILY,
+        WEEKLY,     // ISO weeks, starting Monday
+        MONTHLY;
+
+        /**
+         * First day of the period containing the given date
+         */
+        public LocalDate startOf(LocalDate date) {
+            return switch (this) {
+                case DAILY -> date;
+                case WEEKLY -> date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+                case MONTHLY -> date.withDayOfMonth(1);
+            };
+        }
+    }
+}
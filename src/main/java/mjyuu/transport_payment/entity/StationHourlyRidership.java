@@ -0,0 +1,43 @@
+package mjyuu.transport_payment.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * Taps at one station within one clock hour. Maintained by the ridership rollup job.
+ */
+@Entity
+@Table(name = "station_hourly_ridership")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StationHourlyRidership {
+
+    @EmbeddedId
+    private StationHourId id;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Long entries = 0L;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Long exits = 0L;
+
+    @Embeddable
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class StationHourId implements Serializable {
+
+        @Column(name = "station_id", nullable = false)
+        private Long stationId;
+
+        @Column(name = "hour_start", nullable = false)
+        private LocalDateTime hourStart;
+    }
+}
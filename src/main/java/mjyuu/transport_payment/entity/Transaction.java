@@ -70,8 +70,10 @@ public class Transaction {
 
     public enum TransactionStatus {
         PENDING,
+        AUTHORISED,     // Card charged but the balance credit has not been applied yet
         COMPLETED,
         FAILED,
+        EXPIRED,        // No gateway outcome before the reconciler gave up; a late approval still completes it
         REFUNDED
     }
 }
\ No newline at end of file
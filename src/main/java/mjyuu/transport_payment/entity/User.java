@@ -39,10 +39,18 @@ public class User {
     @Column(nullable = false)
     private String phoneNumber;
 
-    @Column(nullable = false)
+    // Written only by AccountBalanceService's atomic UPDATEs, never by flushing this entity
+    @Column(nullable = false, updatable = false)
     @Builder.Default
     private BigDecimal balance = BigDecimal.ZERO;
 
+    // 0: the balance lives in this row; K > 0: it is split across K user_balance_shards rows
+    // and this row's balance stays at zero (see AccountBalanceService)
+    // Changed only through UserRepository#setBalanceMode
+    @Column(nullable = false, updatable = false)
+    @Builder.Default
+    private Integer balanceShards = 0;
+
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     @Builder.Default
@@ -53,6 +61,11 @@ public class User {
     @Builder.Default
     private UserRole role = UserRole.CUSTOMER;
 
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    @Builder.Default
+    private ConcessionClass concessionClass = ConcessionClass.NONE;
+
     @OneToMany(mappedBy = "user", cascade = CascadeType.ALL, orphanRemoval = true)
     @Builder.Default
     private Set<Card> cards = new HashSet<>();
@@ -72,4 +85,8 @@ public class User {
     public enum UserRole {
         CUSTOMER, ADMIN, OPERATOR
     }
+
+    public enum ConcessionClass {
+        NONE, CHILD, STUDENT, SENIOR, DISABLED
+    }
 }
\ No newline at end of file
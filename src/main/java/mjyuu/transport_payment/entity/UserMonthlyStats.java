@@ -0,0 +1,49 @@
+package mjyuu.transport_payment.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * A user's completed journeys in one calendar month (by tap-in date). Updated at tap-out.
+ */
+@Entity
+@Table(name = "user_monthly_stats")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UserMonthlyStats {
+
+    @EmbeddedId
+    private UserMonthId id;
+
+    @Column(nullable = false)
+    private Integer trips;
+
+    @Column(nullable = false, precision = 12, scale = 2)
+    private BigDecimal totalSpend;
+
+    @Column(nullable = false)
+    private Long totalDurationMinutes;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+
+    @Embeddable
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class UserMonthId implements Serializable {
+
+        @Column(name = "user_id", nullable = false)
+        private Long userId;
+
+        @Column(name = "month_start", nullable = false)
+        private LocalDate monthStart;
+    }
+}
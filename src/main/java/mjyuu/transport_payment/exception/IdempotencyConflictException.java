@@ -0,0 +1,7 @@
+package mjyuu.transport_payment.exception;
+
+public class IdempotencyConflictException extends RuntimeException {
+    public IdempotencyConflictException(String message) {
+        super(message);
+    }
+}
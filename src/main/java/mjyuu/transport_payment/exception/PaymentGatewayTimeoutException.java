@@ -0,0 +1,7 @@
+package mjyuu.transport_payment.exception;
+
+public class PaymentGatewayTimeoutException extends PaymentProcessingException {
+    public PaymentGatewayTimeoutException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,25 @@
+package mjyuu.transport_payment.repository;
+
+import mjyuu.transport_payment.dto.ArchiveSummaryDTO;
+import mjyuu.transport_payment.entity.ArchiveBatch;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ArchiveBatchRepository extends JpaRepository<ArchiveBatch, Long> {
+
+    List<ArchiveBatch> findByUserIdAndKind(Long userId, ArchiveBatch.Kind kind);
+
+    // Batches holding any record in [from, to]
+    @Query("SELECT b FROM ArchiveBatch b WHERE b.userId = ?1 AND b.kind = ?2 " +
+           "AND b.lastAt >= ?3 AND b.firstAt <= ?4 ORDER BY b.firstAt DESC")
+    List<ArchiveBatch> findOverlapping(Long userId, ArchiveBatch.Kind kind, LocalDateTime from, LocalDateTime to);
+
+    @Query("SELECT new mjyuu.transport_payment.dto.ArchiveSummaryDTO(b.kind, COUNT(b), SUM(b.recordCount), " +
+           "SUM(b.rawBytes), SUM(length(b.payload))) FROM ArchiveBatch b GROUP BY b.kind")
+    List<ArchiveSummaryDTO> summarise();
+}
@@ -1,23 +1,31 @@
 package mjyuu.transport_payment.repository;
 
+import jakarta.persistence.QueryHint;
+import mjyuu.transport_payment.dto.CardDTO;
 import mjyuu.transport_payment.entity.Card;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface CardRepository extends JpaRepository<Card, Long> {
+public interface CardRepository extends JpaRepository<Card, Long>, CardRepositoryCustom {
     
     List<Card> findByUserId(Long userId);
     
-    Optional<Card> findByCardNumber(String cardNumber);
-    
     boolean existsByCardNumber(String cardNumber);
     
     Optional<Card> findByUserIdAndIsDefault(Long userId, boolean isDefault);
+
+    @Query("SELECT new mjyuu.transport_payment.dto.CardDTO(c.id, c.cardNumber, c.cardHolderName, c.cardType, " +
+           "c.expiryMonth, c.expiryYear, c.status, c.isDefault, c.createdAt) FROM Card c WHERE c.user.id = ?1 " +
+           "ORDER BY c.id")
+    List<CardDTO> findDTOsByUserId(Long userId);
     
     List<Card> findByUserIdAndStatus(Long userId, Card.CardStatus status);
     
@@ -28,4 +36,15 @@ public interface CardRepository extends JpaRepository<Card, Long> {
     List<Card> findActiveCardsByUserId(Long userId);
     
     Optional<Card> findByIdAndUserId(Long cardId, Long userId);
+
+    // Streamed in chunks for the Bloom filter rebuild; must run inside a transaction
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "10000"))
+    @Query("SELECT c.cardNumber FROM Card c")
+    Stream<String> streamAllCardNumbers();
+
+    @Query("SELECT COALESCE(MAX(c.id), 0) FROM Card c")
+    long findMaxId();
+
+    @Query("SELECT c.cardNumber FROM Card c WHERE c.id > ?1 AND c.id <= ?2")
+    List<String> findCardNumbersByIdRange(long afterId, long toId);
 }
\ No newline at end of file
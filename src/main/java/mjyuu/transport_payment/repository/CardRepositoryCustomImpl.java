@@ -0,0 +1,21 @@
+package mjyuu.transport_payment.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import mjyuu.transport_payment.entity.Card;
+import org.hibernate.Session;
+
+import java.util.Optional;
+
+public class CardRepositoryCustomImpl implements CardRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Optional<Card> findByCardNumber(String cardNumber) {
+        return entityManager.unwrap(Session.class)
+                .bySimpleNaturalId(Card.class)
+                .loadOptional(cardNumber);
+    }
+}
@@ -0,0 +1,28 @@
+package mjyuu.transport_payment.repository;
+
+import mjyuu.transport_payment.entity.FareRuleSet;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface FareRuleSetRepository extends JpaRepository<FareRuleSet, Integer> {
+
+    Optional<FareRuleSet> findByActiveTrue();
+
+    List<FareRuleSet> findAllByOrderByVersionDesc();
+
+    @Query("SELECT COALESCE(MAX(f.version), 0) FROM FareRuleSet f")
+    int findMaxVersion();
+
+    @Query("SELECT f.version FROM FareRuleSet f WHERE f.active = true")
+    Optional<Integer> findActiveVersion();
+
+    @Modifying
+    @Query("UPDATE FareRuleSet f SET f.active = false WHERE f.active = true")
+    int deactivateAll();
+}
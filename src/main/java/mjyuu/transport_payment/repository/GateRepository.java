@@ -0,0 +1,20 @@
+package mjyuu.transport_payment.repository;
+
+import mjyuu.transport_payment.entity.Gate;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface GateRepository extends JpaRepository<Gate, String> {
+
+    interface GateKey {
+        String getGateId();
+        String getKeyHash();
+    }
+
+    @Query("SELECT g.gateId AS gateId, g.keyHash AS keyHash FROM Gate g WHERE g.active = true AND g.keyHash IS NOT NULL")
+    List<GateKey> findActiveGateKeys();
+}
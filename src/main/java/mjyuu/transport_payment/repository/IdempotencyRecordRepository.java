@@ -0,0 +1,45 @@
+package mjyuu.transport_payment.repository;
+
+import jakarta.persistence.QueryHint;
+import mjyuu.transport_payment.entity.IdempotencyRecord;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    // Returns 1 if this caller now owns the key, 0 if someone already does
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "idempotency_records"))
+    @Query(value = "INSERT INTO idempotency_records (record_key, request_hash, status, created_at, expires_at) " +
+                   "VALUES (?1, ?2, 'IN_PROGRESS', ?3, ?4) ON CONFLICT (record_key) DO NOTHING", nativeQuery = true)
+    int claim(String recordKey, String requestHash, LocalDateTime now, LocalDateTime expiresAt);
+
+    // Take over a key whose owner died mid-request, unless it got as far as binding a resource
+    @Modifying
+    @Query("UPDATE IdempotencyRecord r SET r.createdAt = ?3 WHERE r.recordKey = ?1 AND r.requestHash = ?2 " +
+           "AND r.status = 'IN_PROGRESS' AND r.resourceId IS NULL AND r.createdAt < ?4")
+    int takeOverStale(String recordKey, String requestHash, LocalDateTime now, LocalDateTime staleBefore);
+
+    @Modifying
+    @Query("UPDATE IdempotencyRecord r SET r.status = 'COMPLETED', r.responseBody = ?2 WHERE r.recordKey = ?1")
+    int complete(String recordKey, String responseBody);
+
+    @Modifying
+    @Query("UPDATE IdempotencyRecord r SET r.resourceId = ?2 WHERE r.recordKey = ?1")
+    int bind(String recordKey, String resourceId);
+
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.recordKey = ?1 AND r.status = 'IN_PROGRESS' AND r.resourceId IS NULL")
+    int release(String recordKey);
+
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.expiresAt < ?1")
+    int deleteExpired(LocalDateTime now);
+}
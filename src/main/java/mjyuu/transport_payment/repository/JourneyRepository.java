@@ -1,7 +1,11 @@
 package mjyuu.transport_payment.repository;
 
+import jakarta.persistence.LockModeType;
+import mjyuu.transport_payment.dto.JourneyDTO;
 import mjyuu.transport_payment.entity.Journey;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
@@ -11,14 +15,37 @@ import java.util.Optional;
 
 @Repository
 public interface JourneyRepository extends JpaRepository<Journey, Long> {
-    
+
+    interface StationJourneyCount {
+        Long getStationId();
+        Long getJourneys();
+    }
+
+    interface OpenJourney {
+        Long getId();
+        LocalDateTime getTapInTime();
+    }
+
     // Find active (in-progress) journey for a card - critical for tap-out
     @Query("SELECT j FROM Journey j WHERE j.card.id = ?1 AND j.status = 'IN_PROGRESS' ORDER BY j.tapInTime DESC")
     Optional<Journey> findActiveJourneyByCardId(Long cardId);
     
-    // Find all journeys for a user
-    @Query("SELECT j FROM Journey j WHERE j.user.id = ?1 ORDER BY j.tapInTime DESC")
-    List<Journey> findByUserId(Long userId);
+    // Tap-out and expiry lock the journey so exactly one of them closes it
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT j FROM Journey j WHERE j.card.id = ?1 AND j.status = 'IN_PROGRESS' ORDER BY j.tapInTime DESC")
+    Optional<Journey> findActiveJourneyByCardIdForUpdate(Long cardId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT j FROM Journey j WHERE j.id = ?1")
+    Optional<Journey> findByIdForUpdate(Long id);
+
+    // Journey history projected in one query, joins included, so no card, user or station is lazy-loaded per row
+    @Query("SELECT new mjyuu.transport_payment.dto.JourneyDTO(j.id, u.id, u.email, c.cardNumber, " +
+           "es.name, es.stationCode, xs.name, xs.stationCode, j.tapInTime, j.tapOutTime, j.status, " +
+           "j.fareAmount, j.finalAmount, j.zonesTransited) " +
+           "FROM Journey j JOIN j.user u JOIN j.card c JOIN j.entryStation es LEFT JOIN j.exitStation xs " +
+           "WHERE u.id = ?1 ORDER BY j.tapInTime DESC")
+    List<JourneyDTO> findDTOsByUserId(Long userId);
     
     // Find journeys within a date range for a user
     @Query("SELECT j FROM Journey j WHERE j.user.id = ?1 AND j.tapInTime BETWEEN ?2 AND ?3 ORDER BY j.tapInTime DESC")
@@ -30,17 +57,54 @@ public interface JourneyRepository extends JpaRepository<Journey, Long> {
     List<Journey> findCompletedJourneysByUserAndDate(Long userId, LocalDateTime date);
     
     // Find incomplete journeys older than specified hours
-    @Query("SELECT j FROM Journey j WHERE j.status = 'IN_PROGRESS' " +
+    @Query("SELECT j.id FROM Journey j WHERE j.status = 'IN_PROGRESS' " +
            "AND j.tapInTime < ?1")
-    List<Journey> findIncompleteJourneysOlderThan(LocalDateTime dateTime);
+    List<Long> findIncompleteJourneyIdsOlderThan(LocalDateTime dateTime);
     
     // Count active journeys for a card
     @Query("SELECT COUNT(j) FROM Journey j WHERE j.card.id = ?1 AND j.status = 'IN_PROGRESS'")
     long countActiveJourneysByCardId(Long cardId);
     
-    // Get journey statistics for a user
-    @Query("SELECT COUNT(j), SUM(j.finalAmount) FROM Journey j " +
-           "WHERE j.user.id = ?1 AND j.status = 'COMPLETED' " +
-           "AND j.tapInTime >= ?2")
-    Object[] getUserJourneyStats(Long userId, LocalDateTime since);
+    // Latest journeys with their stations, for the dashboard
+    @Query("SELECT j FROM Journey j JOIN FETCH j.entryStation LEFT JOIN FETCH j.exitStation " +
+           "WHERE j.user.id = ?1 ORDER BY j.tapInTime DESC")
+    List<Journey> findRecentByUserId(Long userId, Pageable pageable);
+
+    @Query("SELECT j FROM Journey j JOIN FETCH j.entryStation WHERE j.user.id = ?1 AND j.status = 'IN_PROGRESS' " +
+           "ORDER BY j.tapInTime DESC")
+    List<Journey> findActiveByUserId(Long userId);
+
+    @Query("SELECT COUNT(j) FROM Journey j WHERE j.user.id = ?1 AND j.tapInTime >= ?2")
+    long countByUserIdSince(Long userId, LocalDateTime since);
+
+    // Users with finished journeys that started before the cutoff, in id order for keyset paging
+    @Query("SELECT DISTINCT j.user.id FROM Journey j WHERE j.status <> 'IN_PROGRESS' AND j.tapInTime < ?1 " +
+           "AND j.user.id > ?2 ORDER BY j.user.id")
+    List<Long> findUserIdsWithJourneysBefore(LocalDateTime cutoff, Long afterUserId, Pageable pageable);
+
+    // Finished journeys before the cutoff whose payments are all settled and also before the cutoff
+    @Query("SELECT j FROM Journey j JOIN FETCH j.user JOIN FETCH j.card JOIN FETCH j.entryStation " +
+           "LEFT JOIN FETCH j.exitStation " +
+           "WHERE j.user.id = ?1 AND j.status <> 'IN_PROGRESS' AND j.tapInTime < ?2 " +
+           "AND NOT EXISTS (SELECT t FROM Transaction t WHERE t.journey = j " +
+           "AND (t.createdAt >= ?2 OR t.status IN ('PENDING', 'AUTHORISED'))) " +
+           "ORDER BY j.tapInTime")
+    List<Journey> findArchivableByUserId(Long userId, LocalDateTime cutoff, Pageable pageable);
+
+    // Live station counter reconciliation; each uses an index, never a scan of journeys
+    @Query("SELECT j.entryStation.id AS stationId, COUNT(j) AS journeys FROM Journey j " +
+           "WHERE j.status = 'IN_PROGRESS' GROUP BY j.entryStation.id")
+    List<StationJourneyCount> countInProgressByEntryStation();
+
+    @Query("SELECT j.entryStation.id AS stationId, COUNT(j) AS journeys FROM Journey j " +
+           "WHERE j.tapInTime >= ?1 GROUP BY j.entryStation.id")
+    List<StationJourneyCount> countTapInsByStationSince(LocalDateTime since);
+
+    @Query("SELECT j.exitStation.id AS stationId, COUNT(j) AS journeys FROM Journey j " +
+           "WHERE j.tapOutTime >= ?1 AND j.exitStation IS NOT NULL GROUP BY j.exitStation.id")
+    List<StationJourneyCount> countTapOutsByStationSince(LocalDateTime since);
+
+    // Expiry timer rebuild on startup
+    @Query("SELECT j.id AS id, j.tapInTime AS tapInTime FROM Journey j WHERE j.status = 'IN_PROGRESS'")
+    List<OpenJourney> findOpenJourneyTapIns();
 }
@@ -0,0 +1,36 @@
+package mjyuu.transport_payment.repository;
+
+import mjyuu.transport_payment.entity.OutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    // Lock the oldest unpublished events; SKIP LOCKED lets several relays drain in parallel
+    @Query(value = "SELECT * FROM outbox_events WHERE published_at IS NULL " +
+                   "ORDER BY id LIMIT ?1 FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<OutboxEvent> lockUnpublishedBatch(int batchSize);
+
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.publishedAt = ?2 WHERE e.id IN ?1")
+    int markPublished(List<Long> ids, LocalDateTime publishedAt);
+
+    @Modifying
+    @Query("DELETE FROM OutboxEvent e WHERE e.publishedAt < ?1 AND e.id <= ?2")
+    int deletePublishedBefore(LocalDateTime cutoff, long maxEventId);
+
+    // Highest event id old enough that no earlier id can still be uncommitted
+    @Query("SELECT MAX(e.id) FROM OutboxEvent e WHERE e.id > ?1 AND e.createdAt < ?2")
+    Optional<Long> findMaxIdCreatedBefore(long afterId, LocalDateTime createdBefore);
+
+    long countByPublishedAtIsNull();
+
+    long countByIdGreaterThan(long id);
+}
@@ -0,0 +1,48 @@
+package mjyuu.transport_payment.repository;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import mjyuu.transport_payment.entity.SpendingPeriod;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface SpendingPeriodRepository extends JpaRepository<SpendingPeriod, SpendingPeriod.SpendingPeriodId> {
+
+    // Make sure the day/week/month counters exist so they can be row-locked. Native writes
+    // declare their table; otherwise Hibernate evicts every second-level cache region.
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "user_spending_periods"))
+    @Query(value = "INSERT INTO user_spending_periods (user_id, period_type, period_start, amount, updated_at) VALUES " +
+                   "(?1, 'DAILY', ?2, 0, CURRENT_TIMESTAMP), " +
+                   "(?1, 'WEEKLY', ?3, 0, CURRENT_TIMESTAMP), " +
+                   "(?1, 'MONTHLY', ?4, 0, CURRENT_TIMESTAMP) " +
+                   "ON CONFLICT (user_id, period_type, period_start) DO NOTHING", nativeQuery = true)
+    int ensurePeriodsExist(Long userId, LocalDate day, LocalDate weekStart, LocalDate monthStart);
+
+    // Lock the user's current counters; concurrent tap-outs for the same user queue here
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM SpendingPeriod s WHERE s.id.userId = ?1 AND (" +
+           "(s.id.periodType = 'DAILY' AND s.id.periodStart = ?2) OR " +
+           "(s.id.periodType = 'WEEKLY' AND s.id.periodStart = ?3) OR " +
+           "(s.id.periodType = 'MONTHLY' AND s.id.periodStart = ?4))")
+    List<SpendingPeriod> lockCurrentPeriods(Long userId, LocalDate day, LocalDate weekStart, LocalDate monthStart);
+
+    @Query("SELECT s FROM SpendingPeriod s WHERE s.id.userId = ?1 AND (" +
+           "(s.id.periodType = 'DAILY' AND s.id.periodStart = ?2) OR " +
+           "(s.id.periodType = 'WEEKLY' AND s.id.periodStart = ?3) OR " +
+           "(s.id.periodType = 'MONTHLY' AND s.id.periodStart = ?4))")
+    List<SpendingPeriod> findCurrentPeriods(Long userId, LocalDate day, LocalDate weekStart, LocalDate monthStart);
+
+    @Modifying
+    @Query("DELETE FROM SpendingPeriod s WHERE s.id.periodStart < ?1")
+    int deletePeriodsStartingBefore(LocalDate cutoff);
+}
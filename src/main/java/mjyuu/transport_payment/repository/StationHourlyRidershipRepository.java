@@ -0,0 +1,76 @@
+package mjyuu.transport_payment.repository;
+
+import jakarta.persistence.QueryHint;
+import mjyuu.transport_payment.dto.RidershipDTO;
+import mjyuu.transport_payment.entity.StationHourlyRidership;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface StationHourlyRidershipRepository
+        extends JpaRepository<StationHourlyRidership, StationHourlyRidership.StationHourId> {
+
+    @Query("SELECT new mjyuu.transport_payment.dto.RidershipDTO(r.id.stationId, r.id.hourStart, r.entries, r.exits) " +
+           "FROM StationHourlyRidership r WHERE r.id.stationId = ?1 AND r.id.hourStart >= ?2 AND r.id.hourStart < ?3 " +
+           "ORDER BY r.id.hourStart")
+    List<RidershipDTO> findHourly(Long stationId, LocalDateTime from, LocalDateTime to);
+
+    @Query("SELECT new mjyuu.transport_payment.dto.RidershipDTO(r.id.stationId, cast(r.id.hourStart as LocalDate), " +
+           "SUM(r.entries), SUM(r.exits)) " +
+           "FROM StationHourlyRidership r WHERE r.id.hourStart >= ?1 AND r.id.hourStart < ?2 " +
+           "GROUP BY r.id.stationId, cast(r.id.hourStart as LocalDate) " +
+           "ORDER BY cast(r.id.hourStart as LocalDate), r.id.stationId")
+    List<RidershipDTO> findDaily(LocalDateTime from, LocalDateTime to);
+
+    @Query("SELECT new mjyuu.transport_payment.dto.RidershipDTO(r.id.stationId, cast(r.id.hourStart as LocalDate), " +
+           "SUM(r.entries), SUM(r.exits)) " +
+           "FROM StationHourlyRidership r WHERE r.id.stationId = ?1 AND r.id.hourStart >= ?2 AND r.id.hourStart < ?3 " +
+           "GROUP BY r.id.stationId, cast(r.id.hourStart as LocalDate) " +
+           "ORDER BY cast(r.id.hourStart as LocalDate)")
+    List<RidershipDTO> findDailyForStation(Long stationId, LocalDateTime from, LocalDateTime to);
+
+    // Whole network, one row per hour
+    @Query("SELECT new mjyuu.transport_payment.dto.RidershipDTO(r.id.hourStart, SUM(r.entries), SUM(r.exits)) " +
+           "FROM StationHourlyRidership r WHERE r.id.hourStart >= ?1 AND r.id.hourStart < ?2 " +
+           "GROUP BY r.id.hourStart ORDER BY r.id.hourStart")
+    List<RidershipDTO> findNetworkHourly(LocalDateTime from, LocalDateTime to);
+
+    // Fold journey tap events in (fromId, toId] into the hourly counters
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "station_hourly_ridership"))
+    @Query(value = "INSERT INTO station_hourly_ridership (station_id, hour_start, entries, exits) " +
+                   "SELECT station_id, hour_start, SUM(entries), SUM(exits) FROM (" +
+                   "  SELECT j.entry_station_id AS station_id, date_trunc('hour', j.tap_in_time) AS hour_start, " +
+                   "         1 AS entries, 0 AS exits " +
+                   "  FROM outbox_events e JOIN journeys j ON j.id = e.aggregate_id " +
+                   "  WHERE e.id > ?1 AND e.id <= ?2 AND e.event_type = 'JOURNEY_STARTED' " +
+                   "  UNION ALL " +
+                   "  SELECT j.exit_station_id, date_trunc('hour', j.tap_out_time), 0, 1 " +
+                   "  FROM outbox_events e JOIN journeys j ON j.id = e.aggregate_id " +
+                   "  WHERE e.id > ?1 AND e.id <= ?2 AND e.event_type = 'JOURNEY_COMPLETED'" +
+                   ") taps GROUP BY station_id, hour_start " +
+                   "ON CONFLICT (station_id, hour_start) DO UPDATE SET " +
+                   "entries = station_hourly_ridership.entries + EXCLUDED.entries, " +
+                   "exits = station_hourly_ridership.exits + EXCLUDED.exits", nativeQuery = true)
+    int applyEvents(long fromId, long toId);
+
+    // Row lock on the watermark keeps rollups on different nodes from applying a range twice
+    @Query(value = "SELECT last_event_id FROM ridership_rollup_state WHERE name = ?1 FOR UPDATE", nativeQuery = true)
+    Long lockWatermark(String name);
+
+    @Query(value = "SELECT last_event_id FROM ridership_rollup_state WHERE name = ?1", nativeQuery = true)
+    Long findWatermark(String name);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "ridership_rollup_state"))
+    @Query(value = "UPDATE ridership_rollup_state SET last_event_id = ?2, updated_at = CURRENT_TIMESTAMP WHERE name = ?1",
+           nativeQuery = true)
+    int advanceWatermark(String name, long lastEventId);
+}
@@ -6,13 +6,13 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Repository
-public interface StationRepository extends JpaRepository<Station, Long> {
-    
-    Optional<Station> findByStationCode(String stationCode);
+public interface StationRepository extends JpaRepository<Station, Long>, StationRepositoryCustom {
     
     List<Station> findByZoneNumber(Integer zoneNumber);
     
@@ -20,7 +20,13 @@ public interface StationRepository extends JpaRepository<Station, Long> {
     List<Station> findAllActiveStations();
     
     boolean existsByStationCode(String stationCode);
+
+    @Query("SELECT s.stationCode FROM Station s")
+    Set<String> findAllStationCodes();
     
     @Query("SELECT DISTINCT s.zoneNumber FROM Station s ORDER BY s.zoneNumber")
     List<Integer> findAllZones();
+
+    @Query("SELECT MAX(s.updatedAt) FROM Station s")
+    Optional<LocalDateTime> findLastModified();
 }
\ No newline at end of file
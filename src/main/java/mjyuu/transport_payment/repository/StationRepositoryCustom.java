@@ -0,0 +1,14 @@
+package mjyuu.transport_payment.repository;
+
+import mjyuu.transport_payment.entity.Station;
+
+import java.util.Optional;
+
+/**
+ * Station lookups by natural id, served from the second-level natural-id cache.
+ * A derived query would go to the database on every call.
+ */
+public interface StationRepositoryCustom {
+
+    Optional<Station> findByStationCode(String stationCode);
+}
@@ -0,0 +1,21 @@
+package mjyuu.transport_payment.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import mjyuu.transport_payment.entity.Station;
+import org.hibernate.Session;
+
+import java.util.Optional;
+
+public class StationRepositoryCustomImpl implements StationRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Optional<Station> findByStationCode(String stationCode) {
+        return entityManager.unwrap(Session.class)
+                .bySimpleNaturalId(Station.class)
+                .loadOptional(stationCode);
+    }
+}
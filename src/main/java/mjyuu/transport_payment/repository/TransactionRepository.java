@@ -1,7 +1,11 @@
 package mjyuu.transport_payment.repository;
 
+import mjyuu.transport_payment.dto.TransactionDTO;
 import mjyuu.transport_payment.entity.Transaction;
+import org.springframework.data.domain.Pageable;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
@@ -13,15 +17,33 @@ import java.util.Optional;
 public interface TransactionRepository extends JpaRepository<Transaction, Long> {
     
     Optional<Transaction> findByTransactionId(String transactionId);
+
+    // Settlement paths (request, late gateway answer, reconcilers on any node) queue here so
+    // exactly one of them moves a top-up out of PENDING/AUTHORISED
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT t FROM Transaction t WHERE t.id = ?1")
+    Optional<Transaction> findByIdForUpdate(Long id);
     
     List<Transaction> findByUserId(Long userId);
     
     @Query("SELECT t FROM Transaction t WHERE t.user.id = ?1 ORDER BY t.createdAt DESC")
-    List<Transaction> findByUserIdOrderByCreatedAtDesc(Long userId);
-    
-    @Query("SELECT t FROM Transaction t WHERE t.user.id = ?1 AND t.createdAt BETWEEN ?2 AND ?3 " +
-           "ORDER BY t.createdAt DESC")
-    List<Transaction> findByUserIdAndDateRange(Long userId, LocalDateTime startDate, LocalDateTime endDate);
+    List<Transaction> findRecentByUserId(Long userId, Pageable pageable);
+
+    // API reads project straight into DTOs so nothing is left to lazy-load once the transaction ends
+    @Query("SELECT new mjyuu.transport_payment.dto.TransactionDTO(t.id, t.transactionId, t.type, t.amount, t.status, " +
+           "t.description, t.user.id, t.card.id, t.journey.id, t.paymentGatewayReference, t.failureReason, t.createdAt) " +
+           "FROM Transaction t WHERE t.user.id = ?1 ORDER BY t.createdAt DESC")
+    List<TransactionDTO> findDTOsByUserId(Long userId);
+
+    @Query("SELECT new mjyuu.transport_payment.dto.TransactionDTO(t.id, t.transactionId, t.type, t.amount, t.status, " +
+           "t.description, t.user.id, t.card.id, t.journey.id, t.paymentGatewayReference, t.failureReason, t.createdAt) " +
+           "FROM Transaction t WHERE t.user.id = ?1 AND t.createdAt BETWEEN ?2 AND ?3 ORDER BY t.createdAt DESC")
+    List<TransactionDTO> findDTOsByUserIdAndDateRange(Long userId, LocalDateTime startDate, LocalDateTime endDate);
+
+    @Query("SELECT new mjyuu.transport_payment.dto.TransactionDTO(t.id, t.transactionId, t.type, t.amount, t.status, " +
+           "t.description, t.user.id, t.card.id, t.journey.id, t.paymentGatewayReference, t.failureReason, t.createdAt) " +
+           "FROM Transaction t WHERE t.id = ?1")
+    Optional<TransactionDTO> findDTOById(Long id);
     
     @Query("SELECT t FROM Transaction t WHERE t.journey.id = ?1")
     List<Transaction> findByJourneyId(Long journeyId);
@@ -29,6 +51,23 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
     @Query("SELECT t FROM Transaction t WHERE t.type = ?1 AND t.status = ?2")
     List<Transaction> findByTypeAndStatus(Transaction.TransactionType type, Transaction.TransactionStatus status);
     
+    @Query("SELECT t.id FROM Transaction t WHERE t.type = ?1 AND t.status = ?2 AND t.createdAt < ?3")
+    List<Long> findIdsByTypeAndStatusCreatedBefore(Transaction.TransactionType type,
+                                                   Transaction.TransactionStatus status,
+                                                   LocalDateTime cutoff);
+
+    @Query("SELECT DISTINCT t.user.id FROM Transaction t WHERE t.journey IS NULL AND t.createdAt < ?1 " +
+           "AND t.status NOT IN ('PENDING', 'AUTHORISED') AND t.user.id > ?2 ORDER BY t.user.id")
+    List<Long> findUserIdsWithStandaloneTransactionsBefore(LocalDateTime cutoff, Long afterUserId, Pageable pageable);
+
+    @Query("SELECT t FROM Transaction t WHERE t.journey.id IN ?1")
+    List<Transaction> findByJourneyIdIn(List<Long> journeyIds);
+
+    // Settled top-ups, refunds and other payments not tied to a journey
+    @Query("SELECT t FROM Transaction t WHERE t.user.id = ?1 AND t.journey IS NULL AND t.createdAt < ?2 " +
+           "AND t.status NOT IN ('PENDING', 'AUTHORISED') ORDER BY t.createdAt")
+    List<Transaction> findArchivableStandaloneByUserId(Long userId, LocalDateTime cutoff, Pageable pageable);
+
     // Calculate total spent on a specific day for daily capping
     @Query("SELECT COALESCE(SUM(t.amount), 0) FROM Transaction t " +
            "WHERE t.user.id = ?1 AND t.type = 'JOURNEY_PAYMENT' " +
@@ -0,0 +1,43 @@
+package mjyuu.transport_payment.repository;
+
+import jakarta.persistence.QueryHint;
+import mjyuu.transport_payment.entity.UserMonthlyStats;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface UserMonthlyStatsRepository extends JpaRepository<UserMonthlyStats, UserMonthlyStats.UserMonthId> {
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "user_monthly_stats"))
+    @Query(value = "INSERT INTO user_monthly_stats (user_id, month_start, trips, total_spend, total_duration_minutes, updated_at) " +
+                   "VALUES (?1, ?2, 1, ?3, ?4, CURRENT_TIMESTAMP) " +
+                   "ON CONFLICT (user_id, month_start) DO UPDATE SET " +
+                   "trips = user_monthly_stats.trips + 1, " +
+                   "total_spend = user_monthly_stats.total_spend + EXCLUDED.total_spend, " +
+                   "total_duration_minutes = user_monthly_stats.total_duration_minutes + EXCLUDED.total_duration_minutes, " +
+                   "updated_at = CURRENT_TIMESTAMP", nativeQuery = true)
+    int addJourney(Long userId, LocalDate monthStart, BigDecimal spend, long durationMinutes);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "user_station_visits"))
+    @Query(value = "INSERT INTO user_station_visits (user_id, station_id, first_visited_at) VALUES (?1, ?2, ?3) " +
+                   "ON CONFLICT (user_id, station_id) DO NOTHING", nativeQuery = true)
+    int recordStationVisit(Long userId, Long stationId, LocalDateTime visitedAt);
+
+    @Query(value = "SELECT COUNT(*) FROM user_station_visits WHERE user_id = ?1", nativeQuery = true)
+    long countDistinctStations(Long userId);
+
+    // One row per month of history, so this stays small however many journeys the user takes
+    @Query("SELECT s FROM UserMonthlyStats s WHERE s.id.userId = ?1 ORDER BY s.id.monthStart DESC")
+    List<UserMonthlyStats> findAllMonths(Long userId);
+}
@@ -1,8 +1,14 @@
 package mjyuu.transport_payment.repository;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
 import mjyuu.transport_payment.entity.User;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -19,4 +25,78 @@ public interface UserRepository extends JpaRepository<User, Long> {
     
     @Query("SELECT u FROM User u WHERE u.status = 'ACTIVE' AND u.balance >= ?1")
     java.util.List<User> findActiveUsersWithMinimumBalance(java.math.BigDecimal minimumBalance);
-}
\ No newline at end of file
+
+    // Atomic credit; avoids read-modify-write races with concurrent tap-outs
+    @Modifying
+    @Query("UPDATE User u SET u.balance = u.balance + ?2, u.updatedAt = CURRENT_TIMESTAMP WHERE u.id = ?1")
+    int creditBalance(Long userId, java.math.BigDecimal amount);
+
+    // Atomic debit; 0 rows when the balance does not cover it
+    @Modifying
+    @Query("UPDATE User u SET u.balance = u.balance - ?2, u.updatedAt = CURRENT_TIMESTAMP " +
+           "WHERE u.id = ?1 AND u.balance >= ?2")
+    int debitBalance(Long userId, java.math.BigDecimal amount);
+
+    // Atomic debit that may overdraw (penalties)
+    @Modifying
+    @Query("UPDATE User u SET u.balance = u.balance - ?2, u.updatedAt = CURRENT_TIMESTAMP WHERE u.id = ?1")
+    int chargeBalance(Long userId, java.math.BigDecimal amount);
+
+    // Works in both balance modes: the user's row, or the sum of its balance shards
+    @Query(value = "SELECT CASE WHEN u.balance_shards > 0 " +
+                   "THEN (SELECT COALESCE(SUM(s.balance), 0) FROM user_balance_shards s WHERE s.user_id = u.id) " +
+                   "ELSE u.balance END FROM users u WHERE u.id = ?1", nativeQuery = true)
+    java.math.BigDecimal findBalanceById(Long userId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT u FROM User u WHERE u.id = ?1")
+    Optional<User> findByIdForUpdate(Long userId);
+
+    @Query("SELECT u.id FROM User u WHERE u.balanceShards > 0")
+    java.util.List<Long> findShardedBalanceUserIds();
+
+    // balanceShards is not updatable through the entity, so a stale User saved by a concurrent
+    // tap-out cannot switch the mode back
+    @Modifying
+    @Query("UPDATE User u SET u.balanceShards = ?2, u.balance = ?3, u.updatedAt = CURRENT_TIMESTAMP WHERE u.id = ?1")
+    int setBalanceMode(Long userId, int balanceShards, java.math.BigDecimal balance);
+
+    // Balance shards. Native writes declare their table; otherwise Hibernate evicts every
+    // second-level cache region.
+
+    @Query(value = "SELECT COALESCE(SUM(balance), 0) FROM user_balance_shards WHERE user_id = ?1", nativeQuery = true)
+    java.math.BigDecimal sumBalanceShards(Long userId);
+
+    @Query(value = "SELECT balance FROM user_balance_shards WHERE user_id = ?1 ORDER BY shard_no", nativeQuery = true)
+    java.util.List<java.math.BigDecimal> findBalanceShards(Long userId);
+
+    // Takes the amount only if this shard covers it; locks just this row
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "user_balance_shards"))
+    @Query(value = "UPDATE user_balance_shards SET balance = balance - ?3 " +
+                   "WHERE user_id = ?1 AND shard_no = ?2 AND balance >= ?3", nativeQuery = true)
+    int debitBalanceShard(Long userId, int shardNo, java.math.BigDecimal amount);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "user_balance_shards"))
+    @Query(value = "UPDATE user_balance_shards SET balance = balance + ?3 " +
+                   "WHERE user_id = ?1 AND shard_no = ?2", nativeQuery = true)
+    int creditBalanceShard(Long userId, int shardNo, java.math.BigDecimal amount);
+
+    // Locks every shard of the user, always in shard order so lockers never deadlock each other
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "user_balance_shards"))
+    @Query(value = "SELECT balance FROM user_balance_shards WHERE user_id = ?1 ORDER BY shard_no FOR UPDATE",
+           nativeQuery = true)
+    java.util.List<java.math.BigDecimal> lockBalanceShards(Long userId);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "user_balance_shards"))
+    @Query(value = "INSERT INTO user_balance_shards (user_id, shard_no, balance) VALUES (?1, ?2, ?3) " +
+                   "ON CONFLICT (user_id, shard_no) DO UPDATE SET balance = EXCLUDED.balance", nativeQuery = true)
+    int setBalanceShard(Long userId, int shardNo, java.math.BigDecimal balance);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "user_balance_shards"))
+    @Query(value = "DELETE FROM user_balance_shards WHERE user_id = ?1", nativeQuery = true)
+    int deleteBalanceShards(Long userId);
+}
@@ -0,0 +1,54 @@
+package mjyuu.transport_payment.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Single-node limiter. Each bucket is one AtomicLong holding the theoretical arrival
+ * time (GCRA), so acquiring a permit is a CAS loop with no locks.
+ */
+@Component
+@ConditionalOnProperty(name = "transport.rate-limit.backend", havingValue = "memory", matchIfMissing = true)
+@Slf4j
+public class InMemoryRateLimiter implements RateLimiter {
+
+    private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+
+    @Override
+    public long tryAcquire(String key, Policy policy) {
+        long now = System.nanoTime();
+        AtomicLong tat = buckets.computeIfAbsent(policy.name() + ':' + key, k -> new AtomicLong(now));
+
+        while (true) {
+            long current = tat.get();
+            long next = Math.max(current, now) + policy.intervalNanos();
+            long excess = next - now - policy.burstNanos();
+            if (excess > 0) {
+                return excess;
+            }
+            if (tat.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Drop buckets that have fully refilled; they behave exactly like a missing bucket
+     */
+    @Scheduled(fixedDelayString = "${transport.rate-limit.eviction-interval-ms:60000}")
+    public void evictIdleBuckets() {
+        long now = System.nanoTime();
+        int before = buckets.size();
+        buckets.values().removeIf(tat -> tat.get() < now);
+        log.debug("Rate limiter evicted {} idle buckets", before - buckets.size());
+    }
+
+    public int getBucketCount() {
+        return buckets.size();
+    }
+}
@@ -36,7 +36,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         final String requestPath = request.getServletPath();
         if (requestPath.startsWith("/api/auth/") || 
             requestPath.startsWith("/h2-console") ||
-            requestPath.startsWith("/actuator")) {
+            (requestPath.startsWith("/actuator") && !isAdminActuatorPath(requestPath))) {
             filterChain.doFilter(request, response);
             return;
         }
@@ -81,4 +81,9 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         filterChain.doFilter(request, response);
     }
+
+    // Actuator endpoints that SecurityConfig restricts to ADMIN, so the token must be read
+    private static boolean isAdminActuatorPath(String path) {
+        return path.startsWith("/actuator/startup") || path.startsWith("/actuator/l2cache");
+    }
 }
@@ -0,0 +1,190 @@
+package mjyuu.transport_payment.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import mjyuu.transport_payment.service.GateRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Rejects request floods before they reach authentication or the connection pool.
+ * Tap endpoints are limited per registered gate and auth endpoints per client IP ahead of JWT
+ * authentication. Every API call is also limited per caller by {@link #clientStage()}, which
+ * runs after the token is verified: per authenticated user, or per IP when anonymous.
+ */
+@Component
+@Slf4j
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final int MAX_TRACKED_KEYS = 10_000;
+
+    private final RateLimiter rateLimiter;
+    private final GateRegistry gateRegistry;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final boolean trustForwardedFor;
+    private final RateLimiter.Policy gatePolicy;
+    private final RateLimiter.Policy authPolicy;
+    private final RateLimiter.Policy clientPolicy;
+
+    // Rejections per key for the admin view; metrics are tagged by policy only to keep cardinality bounded
+    private final Map<String, LongAdder> rejectionsByKey = new ConcurrentHashMap<>();
+
+    public RateLimitFilter(RateLimiter rateLimiter,
+                           GateRegistry gateRegistry,
+                           MeterRegistry meterRegistry,
+                           @Value("${transport.rate-limit.enabled:true}") boolean enabled,
+                           @Value("${transport.rate-limit.trust-forwarded-for:false}") boolean trustForwardedFor,
+                           @Value("${transport.rate-limit.gate.permits-per-second:5}") double gateRate,
+                           @Value("${transport.rate-limit.gate.burst:10}") int gateBurst,
+                           @Value("${transport.rate-limit.auth.permits-per-second:1}") double authRate,
+                           @Value("${transport.rate-limit.auth.burst:5}") int authBurst,
+                           @Value("${transport.rate-limit.client.permits-per-second:20}") double clientRate,
+                           @Value("${transport.rate-limit.client.burst:40}") int clientBurst) {
+        this.rateLimiter = rateLimiter;
+        this.gateRegistry = gateRegistry;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.trustForwardedFor = trustForwardedFor;
+        this.gatePolicy = new RateLimiter.Policy("gate", gateRate, gateBurst);
+        this.authPolicy = new RateLimiter.Policy("auth", authRate, authBurst);
+        this.clientPolicy = new RateLimiter.Policy("client", clientRate, clientBurst);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !enabled || !request.getServletPath().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+
+        final String path = request.getServletPath();
+        final String clientIp = clientIp(request);
+
+        if (path.startsWith("/api/journeys/tap-")) {
+            // Only a gate presenting its own key gets its bucket; anything else shares the caller's IP bucket
+            String gateId = gateRegistry.authenticate(request.getHeader(GateRegistry.GATE_HEADER),
+                                                      request.getHeader(GateRegistry.GATE_KEY_HEADER));
+            String key = gateId != null ? "gate:" + gateId : "ip:" + clientIp;
+            if (reject(key, gatePolicy, response)) {
+                return;
+            }
+        } else if (path.startsWith("/api/auth/")) {
+            if (reject("ip:" + clientIp, authPolicy, response)) {
+                return;
+            }
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    /**
+     * The per-caller limit; SecurityConfig registers it after JwtAuthenticationFilter so the key
+     * is a verified identity rather than anything the caller can vary per request
+     */
+    public OncePerRequestFilter clientStage() {
+        return new OncePerRequestFilter() {
+            @Override
+            protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+                return RateLimitFilter.this.shouldNotFilter(request);
+            }
+
+            @Override
+            protected void doFilterInternal(@NonNull HttpServletRequest request,
+                                            @NonNull HttpServletResponse response,
+                                            @NonNull FilterChain filterChain) throws ServletException, IOException {
+                if (!reject(clientKey(request), clientPolicy, response)) {
+                    filterChain.doFilter(request, response);
+                }
+            }
+        };
+    }
+
+    /**
+     * Keys with the most rejections since startup
+     */
+    public List<Map.Entry<String, Long>> getTopRejectedKeys(int limit) {
+        return rejectionsByKey.entrySet().stream()
+                .map(e -> Map.entry(e.getKey(), e.getValue().sum()))
+                .sorted(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder()))
+                .limit(limit)
+                .toList();
+    }
+
+    private boolean reject(String key, RateLimiter.Policy policy, HttpServletResponse response) throws IOException {
+        long waitNanos = rateLimiter.tryAcquire(key, policy);
+        if (waitNanos == 0) {
+            return false;
+        }
+
+        meterRegistry.counter("transport.rate_limit.rejected", "policy", policy.name()).increment();
+        recordRejection(policy.name() + '|' + key);
+
+        long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+        log.debug("Rate limited {} under policy {}, retry after {}s", key, policy.name(), retryAfterSeconds);
+
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader("Retry-After", String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write(String.format(
+                "{\"status\":429,\"message\":\"Too many requests, retry after %d seconds\",\"timestamp\":\"%s\"}",
+                retryAfterSeconds, LocalDateTime.now()));
+        return true;
+    }
+
+    private void recordRejection(String key) {
+        LongAdder counter = rejectionsByKey.get(key);
+        if (counter == null) {
+            if (rejectionsByKey.size() >= MAX_TRACKED_KEYS) {
+                return;
+            }
+            counter = rejectionsByKey.computeIfAbsent(key, k -> new LongAdder());
+        }
+        counter.increment();
+    }
+
+    private String clientKey(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated()
+                && !(authentication instanceof AnonymousAuthenticationToken)) {
+            return "user:" + authentication.getName();
+        }
+        return "ip:" + clientIp(request);
+    }
+
+    private String clientIp(HttpServletRequest request) {
+        if (trustForwardedFor) {
+            String forwarded = request.getHeader("X-Forwarded-For");
+            if (forwarded != null && !forwarded.isBlank()) {
+                int comma = forwarded.indexOf(',');
+                return (comma < 0 ? forwarded : forwarded.substring(0, comma)).trim();
+            }
+        }
+        return request.getRemoteAddr();
+    }
+}
@@ -0,0 +1,27 @@
+package mjyuu.transport_payment.security;
+
+/**
+ * Token-bucket rate limiter keyed by an arbitrary client key
+ */
+public interface RateLimiter {
+
+    /**
+     * Take one permit from the key's bucket.
+     * Returns 0 when the request is allowed, otherwise the nanoseconds until a permit frees up.
+     */
+    long tryAcquire(String key, Policy policy);
+
+    /**
+     * Bucket shape: sustained rate plus how many requests may arrive back to back
+     */
+    record Policy(String name, double permitsPerSecond, int burst) {
+
+        public long intervalNanos() {
+            return (long) (1_000_000_000L / permitsPerSecond);
+        }
+
+        public long burstNanos() {
+            return intervalNanos() * burst;
+        }
+    }
+}
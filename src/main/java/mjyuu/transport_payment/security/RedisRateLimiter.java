@@ -0,0 +1,54 @@
+package mjyuu.transport_payment.security;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cluster-wide limiter: the same GCRA as {@link InMemoryRateLimiter}, evaluated atomically
+ * in Redis so every node shares one bucket per key.
+ */
+@Component
+@ConditionalOnProperty(name = "transport.rate-limit.backend", havingValue = "redis")
+@RequiredArgsConstructor
+@Slf4j
+public class RedisRateLimiter implements RateLimiter {
+
+    // KEYS[1] bucket; ARGV now, interval and burst window in microseconds
+    private static final RedisScript<Long> GCRA = new DefaultRedisScript<>("""
+            local now = tonumber(ARGV[1])
+            local tat = tonumber(redis.call('GET', KEYS[1]) or now)
+            if tat < now then tat = now end
+            local nextTat = tat + tonumber(ARGV[2])
+            local excess = nextTat - now - tonumber(ARGV[3])
+            if excess > 0 then return excess end
+            redis.call('SET', KEYS[1], nextTat, 'PX', math.ceil((nextTat - now) / 1000) + 1)
+            return 0
+            """, Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+
+    @Override
+    public long tryAcquire(String key, Policy policy) {
+        long nowMicros = TimeUnit.MILLISECONDS.toMicros(System.currentTimeMillis());
+        try {
+            Long excessMicros = redisTemplate.execute(GCRA,
+                    List.of("ratelimit:" + policy.name() + ':' + key),
+                    String.valueOf(nowMicros),
+                    String.valueOf(TimeUnit.NANOSECONDS.toMicros(policy.intervalNanos())),
+                    String.valueOf(TimeUnit.NANOSECONDS.toMicros(policy.burstNanos())));
+            return excessMicros == null ? 0 : TimeUnit.MICROSECONDS.toNanos(excessMicros);
+        } catch (RuntimeException e) {
+            // Fail open: an unreachable Redis must not take the gates down with it
+            log.warn("Rate limiter unavailable, allowing request: {}", e.getMessage());
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,255 @@
+package mjyuu.transport_payment.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import mjyuu.transport_payment.entity.User;
+import mjyuu.transport_payment.exception.InsufficientBalanceException;
+import mjyuu.transport_payment.exception.ResourceNotFoundException;
+import mjyuu.transport_payment.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Every balance read and write goes through here. By default a user's balance is the single
+ * {@code users.balance} column. An account shared by many cards can instead be split across K
+ * {@code user_balance_shards} rows: a debit takes the whole amount from one shard that covers it,
+ * starting at a random shard, so concurrent debits lock different rows instead of queueing on
+ * one; reads sum the shards. A debit no single shard covers locks every shard and takes from
+ * several. The scheduled rebalancer evens the shards out again before they run dry one by one.
+ * <p>
+ * In both modes every write is an atomic UPDATE, never a read-modify-write of the loaded entity,
+ * so the {@link User} passed in only says which mode applies; its balance field is not updated.
+ */
+@Service
+@Slf4j
+public class AccountBalanceService {
+
+    public record BalanceShards(Long userId, int shards, BigDecimal balance, List<BigDecimal> shardBalances) {}
+
+    private final UserRepository userRepository;
+    private final ShardRouter shardRouter;
+    private final TransactionTemplate readOnly;
+    private final TransactionTemplate writer;
+    private final int maxShards;
+    private final Counter spills;
+    private final Counter rebalances;
+
+    public AccountBalanceService(UserRepository userRepository,
+                                 ShardRouter shardRouter,
+                                 PlatformTransactionManager transactionManager,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${transport.balance-shards.max-shards:64}") int maxShards) {
+        this.userRepository = userRepository;
+        this.shardRouter = shardRouter;
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+        this.writer = new TransactionTemplate(transactionManager);
+        this.maxShards = maxShards;
+        this.spills = meterRegistry.counter("transport.balance_shards.spills");
+        this.rebalances = meterRegistry.counter("transport.balance_shards.rebalances");
+    }
+
+    public BigDecimal balance(User user) {
+        return isSharded(user) ? userRepository.sumBalanceShards(user.getId()) : user.getBalance();
+    }
+
+    /**
+     * The balance read back from the database, including this transaction's debits and credits
+     */
+    public BigDecimal currentBalance(User user) {
+        return userRepository.findBalanceById(user.getId());
+    }
+
+    /**
+     * Take {@code amount} from the user, or throw if the balance does not cover it
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void debit(User user, BigDecimal amount) {
+        if (isSharded(user)) {
+            debitShards(user.getId(), user.getBalanceShards(), amount, false);
+            return;
+        }
+        if (userRepository.debitBalance(user.getId(), amount) == 0) {
+            throw insufficient(amount, userRepository.findBalanceById(user.getId()));
+        }
+    }
+
+    /**
+     * Take {@code amount} even if that overdraws the account (penalties)
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void charge(User user, BigDecimal amount) {
+        if (isSharded(user)) {
+            debitShards(user.getId(), user.getBalanceShards(), amount, true);
+            return;
+        }
+        userRepository.chargeBalance(user.getId(), amount);
+    }
+
+    /**
+     * Atomic credit; read the result back with {@link #currentBalance}
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void credit(User user, BigDecimal amount) {
+        if (isSharded(user)) {
+            int shard = ThreadLocalRandom.current().nextInt(user.getBalanceShards());
+            userRepository.creditBalanceShard(user.getId(), shard, amount);
+            return;
+        }
+        userRepository.creditBalance(user.getId(), amount);
+    }
+
+    @Transactional(readOnly = true)
+    public BalanceShards getBalanceShards(Long userId) {
+        shardRouter.bindUser(userId);
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found with ID: " + userId));
+        if (!isSharded(user)) {
+            return new BalanceShards(userId, 0, user.getBalance(), List.of());
+        }
+        List<BigDecimal> shardBalances = userRepository.findBalanceShards(userId);
+        return new BalanceShards(userId, shardBalances.size(), sum(shardBalances), shardBalances);
+    }
+
+    /**
+     * Switch a user between single-row (0) and K-shard balance, moving the whole balance across.
+     * Best done while the account is quiet: a debit already in flight under the old mode is
+     * either queued behind this change or rejected once for insufficient balance.
+     */
+    @Transactional
+    public BalanceShards setBalanceShards(Long userId, int shards) {
+        if (shards < 0 || shards > maxShards) {
+            throw new IllegalArgumentException("Balance shards must be between 0 and " + maxShards);
+        }
+        shardRouter.bindUser(userId);
+        User user = userRepository.findByIdForUpdate(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found with ID: " + userId));
+        BigDecimal total = isSharded(user) ? sum(userRepository.lockBalanceShards(userId)) : user.getBalance();
+
+        userRepository.deleteBalanceShards(userId);
+        List<BigDecimal> shardBalances = List.of();
+        if (shards > 0) {
+            shardBalances = Arrays.asList(spread(total, shards));
+            for (int shard = 0; shard < shards; shard++) {
+                userRepository.setBalanceShard(userId, shard, shardBalances.get(shard));
+            }
+        }
+        userRepository.setBalanceMode(userId, shards, shards > 0 ? BigDecimal.ZERO : total);
+
+        log.info("Balance of user {} moved to {} shard(s): total={}", userId, shards, total);
+        return new BalanceShards(userId, shards, total, shardBalances);
+    }
+
+    /**
+     * Even out sharded balances where a shard has fallen below half its share, one short
+     * transaction per user so taps wait at most for one user's shard rows
+     */
+    @Scheduled(fixedDelayString = "${transport.balance-shards.rebalance-interval-ms:30000}")
+    public void rebalance() {
+        shardRouter.forEachShard(() -> {
+            List<Long> userIds = readOnly.execute(status -> userRepository.findShardedBalanceUserIds());
+            for (Long userId : userIds) {
+                try {
+                    if (Boolean.TRUE.equals(writer.execute(status -> rebalanceUser(userId)))) {
+                        rebalances.increment();
+                    }
+                } catch (RuntimeException e) {
+                    log.warn("Failed to rebalance balance shards of user {}: {}", userId, e.getMessage());
+                }
+            }
+        });
+    }
+
+    boolean rebalanceUser(Long userId) {
+        List<BigDecimal> balances = userRepository.lockBalanceShards(userId);
+        if (balances.isEmpty()) {
+            return false;
+        }
+        BigDecimal[] target = spread(sum(balances), balances.size());
+        BigDecimal floor = target[target.length - 1].divide(BigDecimal.valueOf(2), 2, RoundingMode.DOWN);
+        boolean skewed = target[0].signum() > 0
+                ? balances.stream().anyMatch(balance -> balance.compareTo(floor) < 0)
+                : balances.stream().anyMatch(balance -> balance.signum() > 0);
+        if (!skewed) {
+            return false;
+        }
+        for (int shard = 0; shard < balances.size(); shard++) {
+            if (balances.get(shard).compareTo(target[shard]) != 0) {
+                userRepository.setBalanceShard(userId, shard, target[shard]);
+            }
+        }
+        log.debug("Rebalanced {} balance shards of user {}: {} -> {}",
+                  balances.size(), userId, balances, Arrays.toString(target));
+        return true;
+    }
+
+    private void debitShards(Long userId, int shards, BigDecimal amount, boolean allowOverdraft) {
+        int start = ThreadLocalRandom.current().nextInt(shards);
+        for (int i = 0; i < shards; i++) {
+            if (userRepository.debitBalanceShard(userId, (start + i) % shards, amount) == 1) {
+                return;
+            }
+        }
+
+        // No single shard covers it: lock them all and take from several
+        spills.increment();
+        List<BigDecimal> balances = new ArrayList<>(userRepository.lockBalanceShards(userId));
+        BigDecimal available = sum(balances);
+        if (available.compareTo(amount) < 0 && !allowOverdraft) {
+            throw insufficient(amount, available);
+        }
+        BigDecimal remaining = amount;
+        for (int shard = 0; shard < balances.size() && remaining.signum() > 0; shard++) {
+            BigDecimal take = balances.get(shard).max(BigDecimal.ZERO).min(remaining);
+            if (take.signum() > 0) {
+                balances.set(shard, balances.get(shard).subtract(take));
+                userRepository.setBalanceShard(userId, shard, balances.get(shard));
+                remaining = remaining.subtract(take);
+            }
+        }
+        if (remaining.signum() > 0) {
+            // Overdraft lands on shard 0; the next credits and the rebalancer pay it back
+            userRepository.setBalanceShard(userId, 0, balances.get(0).subtract(remaining));
+        }
+    }
+
+    // Even split to the cent, the remainder on shard 0; a non-positive total sits on shard 0 alone
+    private static BigDecimal[] spread(BigDecimal total, int shards) {
+        BigDecimal[] balances = new BigDecimal[shards];
+        Arrays.fill(balances, BigDecimal.ZERO.setScale(2));
+        if (total.signum() <= 0) {
+            balances[0] = total.setScale(2, RoundingMode.UNNECESSARY);
+            return balances;
+        }
+        BigDecimal share = total.divide(BigDecimal.valueOf(shards), 2, RoundingMode.DOWN);
+        Arrays.fill(balances, share);
+        balances[0] = total.subtract(share.multiply(BigDecimal.valueOf(shards - 1))).setScale(2, RoundingMode.UNNECESSARY);
+        return balances;
+    }
+
+    private static BigDecimal sum(List<BigDecimal> balances) {
+        return balances.stream().reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    private static boolean isSharded(User user) {
+        return user.getBalanceShards() != null && user.getBalanceShards() > 0;
+    }
+
+    private static InsufficientBalanceException insufficient(BigDecimal required, BigDecimal available) {
+        return new InsufficientBalanceException(
+                String.format("Insufficient balance. Required: %.2f, Available: %.2f", required, available));
+    }
+}
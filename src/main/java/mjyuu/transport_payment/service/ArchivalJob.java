@@ -0,0 +1,162 @@
+package mjyuu.transport_payment.service;
+
+import mjyuu.transport_payment.dto.JourneyDTO;
+import mjyuu.transport_payment.dto.TransactionDTO;
+import mjyuu.transport_payment.entity.ArchiveBatch;
+import mjyuu.transport_payment.entity.Journey;
+import mjyuu.transport_payment.entity.Transaction;
+import mjyuu.transport_payment.repository.JourneyRepository;
+import mjyuu.transport_payment.repository.TransactionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Moves finished journeys and settled transactions older than the dispute window into
+ * {@link ArchiveService} batches. Work is done one user page at a time, each in its own
+ * short transaction, so the live tables are never locked for long.
+ */
+@Component
+@ConditionalOnProperty(name = "transport.archive.enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class ArchivalJob {
+
+    private static final int USER_PAGE_SIZE = 500;
+
+    public record RunResult(LocalDateTime cutoff, long journeys, long transactions, long millis) {}
+
+    private final JourneyRepository journeyRepository;
+    private final TransactionRepository transactionRepository;
+    private final ArchiveService archiveService;
+    private final JourneyService journeyService;
+    private final ShardRouter shardRouter;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${transport.archive.page-size:1000}")
+    private int pageSize;
+
+    public ArchivalJob(JourneyRepository journeyRepository,
+                       TransactionRepository transactionRepository,
+                       ArchiveService archiveService,
+                       JourneyService journeyService,
+                       ShardRouter shardRouter,
+                       PlatformTransactionManager transactionManager) {
+        this.journeyRepository = journeyRepository;
+        this.transactionRepository = transactionRepository;
+        this.archiveService = archiveService;
+        this.journeyService = journeyService;
+        this.shardRouter = shardRouter;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Scheduled(cron = "${transport.archive.cron:0 0 2 * * *}")
+    public void scheduledRun() {
+        try {
+            run();
+        } catch (RuntimeException e) {
+            log.warn("Archival run failed, it will resume on the next run: {}", e.getMessage());
+        }
+    }
+
+    public synchronized RunResult run() {
+        long started = System.currentTimeMillis();
+        LocalDateTime cutoff = archiveService.getArchiveCutoff();
+        long[] moved = new long[2];   // journeys, transactions
+        shardRouter.forEachShard(() -> archiveShard(cutoff, moved));
+
+        RunResult result = new RunResult(cutoff, moved[0], moved[1], System.currentTimeMillis() - started);
+        log.info("Archived {} journeys and {} transactions older than {} in {} ms",
+                 result.journeys(), result.transactions(), cutoff, result.millis());
+        return result;
+    }
+
+    private void archiveShard(LocalDateTime cutoff, long[] moved) {
+        // Journeys first: their payments and penalties move with them
+        Long afterUserId = 0L;
+        List<Long> userIds;
+        do {
+            userIds = journeyRepository.findUserIdsWithJourneysBefore(cutoff, afterUserId, PageRequest.of(0, USER_PAGE_SIZE));
+            for (Long userId : userIds) {
+                int archived;
+                do {
+                    archived = transactionTemplate.execute(status -> archiveJourneyPage(userId, cutoff, moved));
+                } while (archived == pageSize);
+                afterUserId = userId;
+            }
+        } while (userIds.size() == USER_PAGE_SIZE);
+
+        // Then top-ups and other transactions not tied to a journey
+        afterUserId = 0L;
+        do {
+            userIds = transactionRepository.findUserIdsWithStandaloneTransactionsBefore(
+                    cutoff, afterUserId, PageRequest.of(0, USER_PAGE_SIZE));
+            for (Long userId : userIds) {
+                int archived;
+                do {
+                    archived = transactionTemplate.execute(status -> archiveStandalonePage(userId, cutoff, moved));
+                } while (archived == pageSize);
+                afterUserId = userId;
+            }
+        } while (userIds.size() == USER_PAGE_SIZE);
+    }
+
+    private int archiveJourneyPage(Long userId, LocalDateTime cutoff, long[] moved) {
+        List<Journey> journeys = journeyRepository.findArchivableByUserId(userId, cutoff, PageRequest.of(0, pageSize));
+        if (journeys.isEmpty()) {
+            return 0;
+        }
+        List<Long> journeyIds = journeys.stream().map(Journey::getId).toList();
+        List<Transaction> transactions = transactionRepository.findByJourneyIdIn(journeyIds);
+
+        archiveService.store(ArchiveBatch.Kind.JOURNEY, userId,
+                journeys.stream().map(journeyService::convertToDTO).toList(), JourneyDTO::getTapInTime);
+        archiveTransactions(userId, transactions);
+        journeyRepository.deleteAllByIdInBatch(journeyIds);
+
+        moved[0] += journeys.size();
+        moved[1] += transactions.size();
+        return journeys.size();
+    }
+
+    private int archiveStandalonePage(Long userId, LocalDateTime cutoff, long[] moved) {
+        List<Transaction> transactions = transactionRepository.findArchivableStandaloneByUserId(
+                userId, cutoff, PageRequest.of(0, pageSize));
+        archiveTransactions(userId, transactions);
+        moved[1] += transactions.size();
+        return transactions.size();
+    }
+
+    private void archiveTransactions(Long userId, List<Transaction> transactions) {
+        if (transactions.isEmpty()) {
+            return;
+        }
+        archiveService.store(ArchiveBatch.Kind.TRANSACTION, userId,
+                transactions.stream().map(this::toDTO).toList(), TransactionDTO::getCreatedAt);
+        transactionRepository.deleteAllByIdInBatch(transactions.stream().map(Transaction::getId).toList());
+    }
+
+    private TransactionDTO toDTO(Transaction transaction) {
+        return TransactionDTO.builder()
+                .id(transaction.getId())
+                .transactionId(transaction.getTransactionId())
+                .type(transaction.getType().name())
+                .amount(transaction.getAmount())
+                .status(transaction.getStatus().name())
+                .description(transaction.getDescription())
+                .userId(transaction.getUser().getId())
+                .cardId(transaction.getCard() != null ? transaction.getCard().getId() : null)
+                .journeyId(transaction.getJourney() != null ? transaction.getJourney().getId() : null)
+                .paymentGatewayReference(transaction.getPaymentGatewayReference())
+                .failureReason(transaction.getFailureReason())
+                .createdAt(transaction.getCreatedAt())
+                .build();
+    }
+}
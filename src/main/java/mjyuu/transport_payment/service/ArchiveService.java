@@ -0,0 +1,172 @@
+package mjyuu.transport_payment.service;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import mjyuu.transport_payment.dto.ArchiveSummaryDTO;
+import mjyuu.transport_payment.dto.JourneyDTO;
+import mjyuu.transport_payment.dto.TransactionDTO;
+import mjyuu.transport_payment.entity.ArchiveBatch;
+import mjyuu.transport_payment.repository.ArchiveBatchRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compressed storage for journeys and transactions past the dispute window. Records are
+ * kept as one gzip JSON batch per user, kind and month; history reads that reach back past
+ * the archive cutoff decompress only the batches overlapping the requested range.
+ */
+@Service
+@Slf4j
+public class ArchiveService {
+
+    private final ArchiveBatchRepository archiveBatchRepository;
+    private final ObjectMapper objectMapper;
+    private final ShardRouter shardRouter;
+    private final int disputeWindowDays;
+
+    public ArchiveService(ArchiveBatchRepository archiveBatchRepository,
+                          ObjectMapper objectMapper,
+                          ShardRouter shardRouter,
+                          @Value("${transport.archive.dispute-window-days:120}") int disputeWindowDays) {
+        this.archiveBatchRepository = archiveBatchRepository;
+        this.objectMapper = objectMapper;
+        this.shardRouter = shardRouter;
+        this.disputeWindowDays = disputeWindowDays;
+    }
+
+    /**
+     * Records older than this may be archived; anything at or after it is always in the live tables
+     */
+    public LocalDateTime getArchiveCutoff() {
+        return LocalDate.now().minusDays(disputeWindowDays).atStartOfDay();
+    }
+
+    /**
+     * Write records as one batch per calendar month, inside the caller's transaction so the
+     * batches commit together with the deletes from the live tables
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public <T> void store(ArchiveBatch.Kind kind, Long userId, List<T> records, Function<T, LocalDateTime> timestamp) {
+        Map<YearMonth, List<T>> byMonth = new TreeMap<>();
+        for (T record : records) {
+            byMonth.computeIfAbsent(YearMonth.from(timestamp.apply(record)), month -> new ArrayList<>()).add(record);
+        }
+
+        byMonth.forEach((month, monthRecords) -> {
+            byte[] json = serialise(monthRecords);
+            archiveBatchRepository.save(ArchiveBatch.builder()
+                    .kind(kind)
+                    .userId(userId)
+                    .periodStart(month.atDay(1))
+                    .firstAt(monthRecords.stream().map(timestamp).min(Comparator.naturalOrder()).orElseThrow())
+                    .lastAt(monthRecords.stream().map(timestamp).max(Comparator.naturalOrder()).orElseThrow())
+                    .recordCount(monthRecords.size())
+                    .rawBytes(json.length)
+                    .payload(gzip(json))
+                    .build());
+        });
+    }
+
+    /**
+     * Archived journeys for a user; {@code from}/{@code to} may be null for an open range
+     */
+    @Transactional(readOnly = true)
+    public List<JourneyDTO> findJourneys(Long userId, LocalDateTime from, LocalDateTime to) {
+        return find(ArchiveBatch.Kind.JOURNEY, JourneyDTO.class, JourneyDTO::getTapInTime, userId, from, to);
+    }
+
+    /**
+     * Archived transactions for a user; {@code from}/{@code to} may be null for an open range
+     */
+    @Transactional(readOnly = true)
+    public List<TransactionDTO> findTransactions(Long userId, LocalDateTime from, LocalDateTime to) {
+        return find(ArchiveBatch.Kind.TRANSACTION, TransactionDTO.class, TransactionDTO::getCreatedAt, userId, from, to);
+    }
+
+    /**
+     * Batch counts and sizes per kind, summed over every shard's archive
+     */
+    public List<ArchiveSummaryDTO> getSummary() {
+        Map<ArchiveBatch.Kind, ArchiveSummaryDTO> totals = new TreeMap<>();
+        shardRouter.forEachShard(() -> archiveBatchRepository.summarise().forEach(row ->
+                totals.merge(row.getKind(), row, (a, b) -> new ArchiveSummaryDTO(a.getKind(),
+                        a.getBatches() + b.getBatches(), a.getRecords() + b.getRecords(),
+                        a.getRawBytes() + b.getRawBytes(), a.getStoredBytes() + b.getStoredBytes()))));
+        return new ArrayList<>(totals.values());
+    }
+
+    private <T> List<T> find(ArchiveBatch.Kind kind, Class<T> type, Function<T, LocalDateTime> timestamp,
+                             Long userId, LocalDateTime from, LocalDateTime to) {
+        // Everything archived predates the current cutoff, so recent ranges never touch the archive
+        if (from != null && !from.isBefore(getArchiveCutoff())) {
+            return List.of();
+        }
+
+        List<ArchiveBatch> batches = from == null && to == null
+                ? archiveBatchRepository.findByUserIdAndKind(userId, kind)
+                : archiveBatchRepository.findOverlapping(userId, kind,
+                        from != null ? from : LocalDate.of(1970, 1, 1).atStartOfDay(),
+                        to != null ? to : LocalDateTime.now());
+
+        JavaType listType = objectMapper.getTypeFactory().constructCollectionType(List.class, type);
+        List<T> records = new ArrayList<>();
+        for (ArchiveBatch batch : batches) {
+            List<T> batchRecords = deserialise(batch.getPayload(), listType);
+            for (T record : batchRecords) {
+                LocalDateTime at = timestamp.apply(record);
+                if ((from == null || !at.isBefore(from)) && (to == null || !at.isAfter(to))) {
+                    records.add(record);
+                }
+            }
+        }
+        records.sort(Comparator.comparing(timestamp).reversed());
+        return records;
+    }
+
+    private byte[] serialise(List<?> records) {
+        try {
+            return objectMapper.writeValueAsBytes(records);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Archive batch cannot be serialised", e);
+        }
+    }
+
+    private <T> List<T> deserialise(byte[] payload, JavaType listType) {
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(payload))) {
+            return objectMapper.readValue(in, listType);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Archive batch is corrupt", e);
+        }
+    }
+
+    private static byte[] gzip(byte[] data) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(data.length / 4 + 64);
+        try (OutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(data);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+}
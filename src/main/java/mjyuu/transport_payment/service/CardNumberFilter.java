@@ -0,0 +1,229 @@
+package mjyuu.transport_payment.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import mjyuu.transport_payment.repository.CardRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Bloom filter of every known card number, so taps with numbers that were never issued are
+ * rejected without a database round trip. A miss is definite; a hit still goes to the database.
+ * <p>
+ * Cards added on this node are put after their transaction commits. Cards added elsewhere
+ * (other nodes, bulk loads with any created_at) are picked up every few seconds by a catch-up on
+ * each shard's card id. Ids are handed out before commit, so a lower id can appear after a higher
+ * one was read: the watermark only passes an id once it has been visible for the overlap period.
+ * The filter is rebuilt and resized daily.
+ */
+@Service
+@Slf4j
+public class CardNumberFilter {
+
+    public record FilterStats(boolean enabled, boolean ready, long expectedInsertions, long insertions,
+                              long memoryBytes, int hashCount, double expectedFpp,
+                              long rejected, long falsePositives, Double observedFpp) {}
+
+    private final CardRepository cardRepository;
+    private final ShardRouter shardRouter;
+    private final TransactionTemplate readOnly;
+    private final boolean enabled;
+    private final double targetFpp;
+    private final long minCapacity;
+    private final Duration catchUpOverlap;
+    private final long firstBuildRescanIds;
+    private final Counter rejected;
+    private final Counter falsePositives;
+
+    // Per shard: every card id up to caughtUpTo is in the filter; pending is the highest id read
+    // so far and when, promoted to caughtUpTo once the overlap has passed
+    private record Watermark(long caughtUpTo, long pending, long pendingSeenAt) {}
+
+    private volatile BloomFilter filter;      // null until the first build completes
+    private final Map<Integer, Watermark> watermarks = new HashMap<>();
+
+    public CardNumberFilter(CardRepository cardRepository,
+                            ShardRouter shardRouter,
+                            PlatformTransactionManager transactionManager,
+                            MeterRegistry meterRegistry,
+                            @Value("${transport.card-filter.enabled:true}") boolean enabled,
+                            @Value("${transport.card-filter.false-positive-rate:0.001}") double targetFpp,
+                            @Value("${transport.card-filter.min-capacity:100000}") long minCapacity,
+                            @Value("${transport.card-filter.catch-up-overlap-seconds:60}") long catchUpOverlapSeconds,
+                            @Value("${transport.card-filter.first-build-rescan-ids:10000}") long firstBuildRescanIds) {
+        this.cardRepository = cardRepository;
+        this.shardRouter = shardRouter;
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+        this.enabled = enabled;
+        this.targetFpp = targetFpp;
+        this.minCapacity = minCapacity;
+        this.catchUpOverlap = Duration.ofSeconds(catchUpOverlapSeconds);
+        this.firstBuildRescanIds = firstBuildRescanIds;
+        this.rejected = meterRegistry.counter("transport.card_filter.rejected");
+        this.falsePositives = meterRegistry.counter("transport.card_filter.false_positives");
+        Gauge.builder("transport.card_filter.memory_bytes", this, f -> f.filter != null ? f.filter.getMemoryBytes() : 0)
+                .register(meterRegistry);
+        Gauge.builder("transport.card_filter.expected_fpp", this, f -> f.filter != null ? f.filter.expectedFpp() : 0)
+                .register(meterRegistry);
+    }
+
+    /**
+     * False only if the card number is definitely unknown
+     */
+    public boolean mightExist(String cardNumber) {
+        BloomFilter current = filter;
+        if (!enabled || current == null || current.mightContain(cardNumber)) {
+            return true;
+        }
+        rejected.increment();
+        return false;
+    }
+
+    /**
+     * The filter let a number through that the database did not know
+     */
+    public void recordFalsePositive() {
+        if (enabled && filter != null) {
+            falsePositives.increment();
+        }
+    }
+
+    /**
+     * Add a newly issued card once the transaction that created it commits
+     */
+    public void cardAdded(String cardNumber) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            put(cardNumber);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                put(cardNumber);
+            }
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Build a fresh filter sized for the current card count and swap it in
+     */
+    @Scheduled(cron = "${transport.card-filter.rebuild-cron:0 15 4 * * *}")
+    public synchronized void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        long started = System.nanoTime();
+
+        long[] cards = new long[1];
+        shardRouter.forEachShard(() -> cards[0] += cardRepository.count());
+        BloomFilter next = BloomFilter.create(Math.max(minCapacity, cards[0] * 2), targetFpp);
+        for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+            int current = shard;
+            shardRouter.onShard(shard, () -> {
+                long maxId = cardRepository.findMaxId();
+                readOnly.executeWithoutResult(status -> {
+                    try (Stream<String> numbers = cardRepository.streamAllCardNumbers()) {
+                        numbers.forEach(next::put);
+                    }
+                });
+                // Ids the scan may have missed (inserted but not yet committed) keep being re-read
+                // from the old watermark. The first build has none, so it re-reads the ids just below
+                // the scan's highest, where inserts still in flight during the scan land
+                Watermark previous = watermarks.get(current);
+                long caughtUpTo = previous != null ? previous.caughtUpTo() : Math.max(0, maxId - firstBuildRescanIds);
+                watermarks.put(current, new Watermark(caughtUpTo, maxId, System.nanoTime()));
+                return null;
+            });
+        }
+
+        filter = next;
+        catchUp();
+
+        log.info("Card number filter built: {} cards, {} KiB, {} hashes, expected fpp {} ({} ms)",
+                 next.getInsertions(), next.getMemoryBytes() / 1024, next.getHashCount(),
+                 String.format("%.5f", next.expectedFpp()), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    /**
+     * Add cards created since the last catch-up, including those issued on other nodes
+     */
+    @Scheduled(fixedDelayString = "${transport.card-filter.catch-up-interval-ms:5000}")
+    public synchronized void catchUp() {
+        BloomFilter current = filter;
+        if (!enabled || current == null) {
+            return;
+        }
+        for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+            int currentShard = shard;
+            shardRouter.onShard(shard, () -> {
+                watermarks.put(currentShard, catchUp(current, watermarks.get(currentShard)));
+                return null;
+            });
+        }
+
+        if (current.getInsertions() > current.getExpectedInsertions()) {
+            log.info("Card number filter is past its capacity of {}, rebuilding", current.getExpectedInsertions());
+            rebuild();
+        }
+    }
+
+    private Watermark catchUp(BloomFilter current, Watermark watermark) {
+        long now = System.nanoTime();
+        long maxId = cardRepository.findMaxId();
+        long from = watermark != null ? watermark.caughtUpTo() : 0;
+        cardRepository.findCardNumbersByIdRange(from, maxId).forEach(current::put);
+
+        if (watermark == null) {
+            return new Watermark(0, maxId, now);
+        }
+        if (now - watermark.pendingSeenAt() >= catchUpOverlap.toNanos()) {
+            return new Watermark(watermark.pending(), maxId, now);
+        }
+        return watermark;
+    }
+
+    public FilterStats getStats() {
+        BloomFilter current = filter;
+        long rejectedCount = (long) rejected.count();
+        long falsePositiveCount = (long) falsePositives.count();
+        // Of the unknown numbers seen, the share the filter failed to reject
+        long unknown = rejectedCount + falsePositiveCount;
+        Double observed = unknown > 0 ? (double) falsePositiveCount / unknown : null;
+
+        if (current == null) {
+            return new FilterStats(enabled, false, 0, 0, 0, 0, 0, rejectedCount, falsePositiveCount, observed);
+        }
+        return new FilterStats(enabled, true, current.getExpectedInsertions(), current.getInsertions(),
+                               current.getMemoryBytes(), current.getHashCount(), current.expectedFpp(),
+                               rejectedCount, falsePositiveCount, observed);
+    }
+
+    private void put(String cardNumber) {
+        BloomFilter current = filter;
+        if (current != null) {
+            current.put(cardNumber);
+        }
+    }
+}
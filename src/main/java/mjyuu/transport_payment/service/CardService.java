@@ -1,5 +1,6 @@
 package mjyuu.transport_payment.service;
 
+import mjyuu.transport_payment.dto.CardDTO;
 import mjyuu.transport_payment.entity.Card;
 import mjyuu.transport_payment.entity.User;
 import mjyuu.transport_payment.exception.ResourceNotFoundException;
@@ -20,12 +21,15 @@ public class CardService {
 
     private final CardRepository cardRepository;
     private final UserService userService;
+    private final CardNumberFilter cardNumberFilter;
+    private final ShardRouter shardRouter;
 
     /**
      * Add a new card for a user
      */
-    public Card addCard(Long userId, Card card) {
+    public CardDTO addCard(Long userId, Card card) {
         log.info("Adding new card for user: {}", userId);
+        shardRouter.bindUser(userId);
         
         User user = userService.getUserById(userId);
         card.setUser(user);
@@ -52,20 +56,26 @@ public class CardService {
             }
         }
         
+        // The card number is unique per shard only; the directory makes it unique across shards
+        int shard = shardRouter.shardForId(userId);
+        if (shardRouter.registerCard(card.getCardNumber(), shard) != shard) {
+            throw new IllegalArgumentException("Card number already registered");
+        }
         Card savedCard = cardRepository.save(card);
+        cardNumberFilter.cardAdded(savedCard.getCardNumber());
         log.info("Card added successfully with ID: {}", savedCard.getId());
         
-        return savedCard;
+        return toDTO(savedCard);
     }
 
     /**
      * Get card by ID
      */
     @Transactional(readOnly = true)
-    public Card getCardById(Long cardId) {
+    public CardDTO getCardById(Long cardId) {
         log.debug("Fetching card with ID: {}", cardId);
-        return cardRepository.findById(cardId)
-                .orElseThrow(() -> new ResourceNotFoundException("Card not found with ID: " + cardId));
+        shardRouter.bindId(cardId);
+        return toDTO(findCard(cardId));
     }
 
     /**
@@ -74,6 +84,7 @@ public class CardService {
     @Transactional(readOnly = true)
     public Card getCardByNumber(String cardNumber) {
         log.debug("Fetching card with number: ****{}", cardNumber.substring(Math.max(0, cardNumber.length() - 4)));
+        shardRouter.bindCard(cardNumber);
         return cardRepository.findByCardNumber(cardNumber)
                 .orElseThrow(() -> new ResourceNotFoundException("Card not found with number: " + cardNumber));
     }
@@ -82,28 +93,32 @@ public class CardService {
      * Get all cards for a user
      */
     @Transactional(readOnly = true)
-    public List<Card> getUserCards(Long userId) {
+    public List<CardDTO> getUserCards(Long userId) {
         log.debug("Fetching cards for user: {}", userId);
-        return cardRepository.findByUserId(userId);
+        shardRouter.bindUser(userId);
+        return cardRepository.findDTOsByUserId(userId);
     }
 
     /**
      * Get user's default card
      */
     @Transactional(readOnly = true)
-    public Card getDefaultCard(Long userId) {
+    public CardDTO getDefaultCard(Long userId) {
         log.debug("Fetching default card for user: {}", userId);
+        shardRouter.bindUser(userId);
         return cardRepository.findByUserIdAndIsDefault(userId, true)
+                .map(this::toDTO)
                 .orElseThrow(() -> new ResourceNotFoundException("No default card found for user: " + userId));
     }
 
     /**
      * Set a card as default
      */
-    public Card setDefaultCard(Long userId, Long cardId) {
+    public CardDTO setDefaultCard(Long userId, Long cardId) {
         log.info("Setting card {} as default for user: {}", cardId, userId);
+        shardRouter.bindUser(userId);
         
-        Card card = getCardById(cardId);
+        Card card = findCard(cardId);
         
         // Verify card belongs to user
         if (!card.getUser().getId().equals(userId)) {
@@ -123,25 +138,26 @@ public class CardService {
         Card savedCard = cardRepository.save(card);
         
         log.info("Default card set successfully: {}", cardId);
-        return savedCard;
+        return toDTO(savedCard);
     }
 
     /**
      * Update card status
      */
-    public Card updateCardStatus(Long cardId, Card.CardStatus status) {
+    public CardDTO updateCardStatus(Long cardId, Card.CardStatus status) {
         log.info("Updating card {} status to: {}", cardId, status);
+        shardRouter.bindId(cardId);
         
-        Card card = getCardById(cardId);
+        Card card = findCard(cardId);
         card.setStatus(status);
         
-        return cardRepository.save(card);
+        return toDTO(cardRepository.save(card));
     }
 
     /**
      * Block a card
      */
-    public Card blockCard(Long cardId) {
+    public CardDTO blockCard(Long cardId) {
         log.info("Blocking card: {}", cardId);
         return updateCardStatus(cardId, Card.CardStatus.BLOCKED);
     }
@@ -151,8 +167,9 @@ public class CardService {
      */
     public void deleteCard(Long userId, Long cardId) {
         log.info("Deleting card {} for user: {}", cardId, userId);
+        shardRouter.bindUser(userId);
         
-        Card card = getCardById(cardId);
+        Card card = findCard(cardId);
         
         // Verify card belongs to user
         if (!card.getUser().getId().equals(userId)) {
@@ -177,6 +194,18 @@ public class CardService {
         log.info("Card deleted (blocked): {}", cardId);
     }
 
+    private Card findCard(Long cardId) {
+        return cardRepository.findById(cardId)
+                .orElseThrow(() -> new ResourceNotFoundException("Card not found with ID: " + cardId));
+    }
+
+    // Mapped inside the transaction; only the card's own columns are read
+    private CardDTO toDTO(Card card) {
+        return new CardDTO(card.getId(), card.getCardNumber(), card.getCardHolderName(), card.getCardType(),
+                           card.getExpiryMonth(), card.getExpiryYear(), card.getStatus(), card.isDefault(),
+                           card.getCreatedAt());
+    }
+
     /**
      * Validate card expiry date
      */
@@ -211,7 +240,8 @@ public class CardService {
      */
     @Transactional(readOnly = true)
     public boolean isCardValid(Long cardId) {
-        Card card = getCardById(cardId);
+        shardRouter.bindId(cardId);
+        Card card = findCard(cardId);
         
         // Check status
         if (card.getStatus() != Card.CardStatus.ACTIVE) {
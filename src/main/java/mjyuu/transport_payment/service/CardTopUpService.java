@@ -0,0 +1,154 @@
+package mjyuu.transport_payment.service;
+
+import lombok.extern.slf4j.Slf4j;
+import mjyuu.transport_payment.dto.CardTopUpRequest;
+import mjyuu.transport_payment.dto.CardTopUpResponse;
+import mjyuu.transport_payment.dto.TransactionDTO;
+import mjyuu.transport_payment.entity.Transaction;
+import mjyuu.transport_payment.exception.PaymentGatewayTimeoutException;
+import mjyuu.transport_payment.exception.PaymentProcessingException;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+
+/**
+ * Card top-up pipeline. No database connection is held while the gateway is working:
+ * <ol>
+ *   <li>short transaction: record the top-up as PENDING</li>
+ *   <li>gateway authorisation, bounded by a timeout, outside any transaction</li>
+ *   <li>short transaction: mark COMPLETED and credit the balance</li>
+ * </ol>
+ * If step 3 fails after the card was charged the top-up is left AUTHORISED and
+ * {@link TopUpReconciler} applies the credit later. {@code onPending} hears the PENDING
+ * transaction's id before the gateway is called, so a retried request can be pointed at it
+ * ({@link #getStatus}) instead of charging the card again.
+ */
+@Service
+@Slf4j
+public class CardTopUpService {
+
+    private final TransactionService transactionService;
+    private final MockPaymentService mockPaymentService;
+    private final ExecutorService paymentGatewayExecutor;
+    private final long gatewayTimeoutMs;
+    private final long lateApprovalWindowMinutes;
+
+    public CardTopUpService(TransactionService transactionService,
+                            MockPaymentService mockPaymentService,
+                            @Qualifier("paymentGatewayExecutor") ExecutorService paymentGatewayExecutor,
+                            @Value("${transport.payment.gateway-timeout-ms:5000}") long gatewayTimeoutMs,
+                            @Value("${transport.payment.late-approval-window-minutes:60}") long lateApprovalWindowMinutes) {
+        this.transactionService = transactionService;
+        this.mockPaymentService = mockPaymentService;
+        this.paymentGatewayExecutor = paymentGatewayExecutor;
+        this.gatewayTimeoutMs = gatewayTimeoutMs;
+        this.lateApprovalWindowMinutes = lateApprovalWindowMinutes;
+    }
+
+    public CompletableFuture<CardTopUpResponse> topUp(Long userId, CardTopUpRequest request, Consumer<String> onPending) {
+        return CompletableFuture
+                .supplyAsync(() -> {
+                    Transaction pending = transactionService.beginCardTopUp(userId, request.getAmount());
+                    onPending.accept(String.valueOf(pending.getId()));
+                    return pending;
+                }, paymentGatewayExecutor)
+                .thenCompose(pending -> authorise(pending, request)
+                        .thenApplyAsync(payment -> credit(pending, payment), paymentGatewayExecutor));
+    }
+
+    /**
+     * Where an earlier top-up stands, for a retry that must not start another one. An EXPIRED
+     * top-up is reported as PENDING while a late gateway approval could still complete it, and as
+     * EXPIRED (final) once the late-approval window has passed.
+     */
+    public CardTopUpResponse getStatus(Long transactionId) {
+        TransactionDTO transaction = transactionService.getTransactionById(transactionId);
+        String status = transaction.getStatus();
+        if ("EXPIRED".equals(status)
+                && transaction.getCreatedAt().isAfter(LocalDateTime.now().minusMinutes(lateApprovalWindowMinutes))) {
+            status = "PENDING";
+        }
+        String message = switch (status) {
+            case "COMPLETED" -> "Top-up successful";
+            case "FAILED" -> "Payment failed: " + transaction.getFailureReason();
+            case "EXPIRED" -> "Top-up expired: the payment gateway never confirmed it and no balance was credited";
+            default -> "Top-up is still being processed";
+        };
+        return CardTopUpResponse.builder()
+                .success(!"FAILED".equals(status) && !"EXPIRED".equals(status))
+                .message(message)
+                .status(status)
+                .transactionId(transaction.getTransactionId())
+                .amount(transaction.getAmount())
+                .paymentReference(transaction.getPaymentGatewayReference())
+                .timestamp(LocalDateTime.now())
+                .build();
+    }
+
+    private CompletableFuture<MockPaymentService.PaymentResult> authorise(Transaction pending, CardTopUpRequest request) {
+        CompletableFuture<MockPaymentService.PaymentResult> gatewayCall =
+                CompletableFuture.supplyAsync(() -> mockPaymentService.processPayment(request), paymentGatewayExecutor);
+
+        // Time out a copy so the gateway's eventual answer is still observable below
+        return gatewayCall.copy()
+                .orTimeout(gatewayTimeoutMs, TimeUnit.MILLISECONDS)
+                .exceptionallyAsync(ex -> {
+                    Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+                    if (cause instanceof TimeoutException) {
+                        log.warn("Payment gateway timed out after {} ms for top-up {}", gatewayTimeoutMs, pending.getTransactionId());
+                        gatewayCall.whenCompleteAsync((payment, error) -> settleLate(pending, payment, error), paymentGatewayExecutor);
+                        throw new PaymentGatewayTimeoutException("Payment gateway did not respond in time");
+                    }
+                    transactionService.failCardTopUp(pending.getId(), cause.getMessage());
+                    throw cause instanceof RuntimeException runtime ? runtime : new PaymentProcessingException(cause.getMessage());
+                }, paymentGatewayExecutor);
+    }
+
+    // The client already got a timeout; still honour whatever the gateway eventually decided
+    private void settleLate(Transaction pending, MockPaymentService.PaymentResult payment, Throwable error) {
+        if (error != null) {
+            transactionService.failCardTopUp(pending.getId(), "Late gateway failure: " + error.getMessage());
+            return;
+        }
+        try {
+            transactionService.completeCardTopUp(pending.getId(), payment);
+            log.info("Late gateway approval applied for top-up {}", pending.getTransactionId());
+        } catch (RuntimeException e) {
+            transactionService.markCardTopUpAuthorised(pending.getId(), payment, "Credit failed: " + e.getMessage());
+        }
+    }
+
+    private CardTopUpResponse credit(Transaction pending, MockPaymentService.PaymentResult payment) {
+        BigDecimal newBalance;
+        try {
+            newBalance = transactionService.completeCardTopUp(pending.getId(), payment);
+        } catch (RuntimeException e) {
+            log.error("Card charged but credit failed for top-up {} (ref {}): {}",
+                      pending.getTransactionId(), payment.paymentReference(), e.getMessage());
+            transactionService.markCardTopUpAuthorised(pending.getId(), payment, "Credit failed: " + e.getMessage());
+            throw new PaymentProcessingException("Payment received; your balance will be updated shortly");
+        }
+
+        return CardTopUpResponse.builder()
+                .success(true)
+                .message("Top-up successful")
+                .status(Transaction.TransactionStatus.COMPLETED.name())
+                .transactionId(pending.getTransactionId())
+                .amount(pending.getAmount())
+                .newBalance(newBalance)
+                .cardLastFour("•••• " + payment.lastFour())
+                .cardType(payment.cardType())
+                .paymentReference(payment.paymentReference())
+                .timestamp(LocalDateTime.now())
+                .build();
+    }
+}
@@ -0,0 +1,105 @@
+package mjyuu.transport_payment.service;
+
+import mjyuu.transport_payment.entity.User;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Immutable, flat form of a fare rule set. Evaluation is a handful of array
+ * lookups and integer arithmetic in pence: no parsing, maps or reflection per tap.
+ * Instances are built by {@link FareRuleCompiler} and swapped atomically by {@link FareRuleEngine}.
+ */
+public final class CompiledFareTable {
+
+    static final int MINUTES_PER_DAY = 24 * 60;
+    static final int MINUTES_PER_WEEK = 7 * MINUTES_PER_DAY;
+    static final int BASIS_POINTS = 10_000;
+
+    private final int version;
+    private final int maxZone;
+    private final long basePence;
+    private final long perZonePence;
+    private final long[] zoneFarePence;        // [(from * (maxZone + 1)) + to], zones 1..maxZone
+    private final byte[] bandByMinuteOfWeek;   // band index per minute of the week, 0 = no band
+    private final int[] bandMultiplierBp;      // by band index, 10_000 = x1.0
+    private final String[] bandNames;          // by band index, [0] = "OFF_PEAK"
+    private final int[] concessionPayableBp;   // by ConcessionClass ordinal, share of fare payable
+
+    CompiledFareTable(int version, int maxZone, long basePence, long perZonePence, long[] zoneFarePence,
+                      byte[] bandByMinuteOfWeek, int[] bandMultiplierBp, String[] bandNames,
+                      int[] concessionPayableBp) {
+        this.version = version;
+        this.maxZone = maxZone;
+        this.basePence = basePence;
+        this.perZonePence = perZonePence;
+        this.zoneFarePence = zoneFarePence;
+        this.bandByMinuteOfWeek = bandByMinuteOfWeek;
+        this.bandMultiplierBp = bandMultiplierBp;
+        this.bandNames = bandNames;
+        this.concessionPayableBp = concessionPayableBp;
+    }
+
+    /**
+     * Fare in pence. minuteOfWeek is 0 for Monday 00:00, or -1 when the tap time is unknown
+     */
+    public long farePence(int entryZone, int exitZone, int minuteOfWeek, int concessionOrdinal) {
+        long fare = zoneFare(entryZone, exitZone);
+
+        if (minuteOfWeek >= 0) {
+            int band = bandByMinuteOfWeek[minuteOfWeek];
+            if (band != 0) {
+                fare = scale(fare, bandMultiplierBp[band]);
+            }
+        }
+
+        return scale(fare, concessionPayableBp[concessionOrdinal]);
+    }
+
+    /**
+     * Fare as a money amount (scale 2)
+     */
+    public BigDecimal fare(int entryZone, int exitZone, LocalDateTime tapInTime, User.ConcessionClass concessionClass) {
+        int concession = concessionClass != null ? concessionClass.ordinal() : 0;
+        return BigDecimal.valueOf(farePence(entryZone, exitZone, minuteOfWeek(tapInTime), concession), 2);
+    }
+
+    /**
+     * Name of the time band in force at the given tap-in time
+     */
+    public String bandName(LocalDateTime tapInTime) {
+        int minute = minuteOfWeek(tapInTime);
+        return minute < 0 ? bandNames[0] : bandNames[bandByMinuteOfWeek[minute]];
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public int getMaxZone() {
+        return maxZone;
+    }
+
+    static int minuteOfWeek(LocalDateTime time) {
+        if (time == null) {
+            return -1;
+        }
+        return (time.getDayOfWeek().getValue() - 1) * MINUTES_PER_DAY + time.getHour() * 60 + time.getMinute();
+    }
+
+    private long zoneFare(int entryZone, int exitZone) {
+        if (entryZone >= 1 && entryZone <= maxZone && exitZone >= 1 && exitZone <= maxZone) {
+            return zoneFarePence[entryZone * (maxZone + 1) + exitZone];
+        }
+        // Outside the precomputed matrix: fall back to the formula
+        return basePence + perZonePence * (Math.abs(entryZone - exitZone) + 1);
+    }
+
+    // Multiply by basis points, rounding half-up
+    private static long scale(long pence, int basisPoints) {
+        if (basisPoints == BASIS_POINTS) {
+            return pence;
+        }
+        return (pence * basisPoints + BASIS_POINTS / 2) / BASIS_POINTS;
+    }
+}
@@ -0,0 +1,164 @@
+package mjyuu.transport_payment.service;
+
+import lombok.extern.slf4j.Slf4j;
+import mjyuu.transport_payment.dto.CardDTO;
+import mjyuu.transport_payment.dto.DashboardDTO;
+import mjyuu.transport_payment.entity.Card;
+import mjyuu.transport_payment.entity.Journey;
+import mjyuu.transport_payment.entity.Transaction;
+import mjyuu.transport_payment.entity.User;
+import mjyuu.transport_payment.exception.ResourceNotFoundException;
+import mjyuu.transport_payment.repository.CardRepository;
+import mjyuu.transport_payment.repository.JourneyRepository;
+import mjyuu.transport_payment.repository.TransactionRepository;
+import mjyuu.transport_payment.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+
+/**
+ * Builds the user dashboard in one request. The profile, cards, journeys, transactions and
+ * spending reads are independent, so each runs concurrently in its own short read-only
+ * transaction. Each request gets its own semaphore capping how many pooled connections its reads
+ * hold at once; dashboards do not queue behind each other. The reads do not share a snapshot, so
+ * a tap committing mid-request can show in one section and not yet in another.
+ */
+@Service
+@Slf4j
+public class DashboardService {
+
+    private static final int RECENT_ITEMS = 5;
+
+    private final UserRepository userRepository;
+    private final CardRepository cardRepository;
+    private final JourneyRepository journeyRepository;
+    private final TransactionRepository transactionRepository;
+    private final FareCappingService fareCappingService;
+    private final ShardRouter shardRouter;
+    private final Clock clock;
+    private final ExecutorService queryFanOutExecutor;
+    private final TransactionTemplate readOnly;
+    private final int maxConcurrentQueries;
+
+    public DashboardService(UserRepository userRepository,
+                            CardRepository cardRepository,
+                            JourneyRepository journeyRepository,
+                            TransactionRepository transactionRepository,
+                            FareCappingService fareCappingService,
+                            ShardRouter shardRouter,
+                            Clock clock,
+                            @Qualifier("queryFanOutExecutor") ExecutorService queryFanOutExecutor,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${transport.dashboard.max-concurrent-queries:4}") int maxConcurrentQueries) {
+        this.userRepository = userRepository;
+        this.cardRepository = cardRepository;
+        this.journeyRepository = journeyRepository;
+        this.transactionRepository = transactionRepository;
+        this.fareCappingService = fareCappingService;
+        this.shardRouter = shardRouter;
+        this.clock = clock;
+        this.queryFanOutExecutor = queryFanOutExecutor;
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+        this.maxConcurrentQueries = maxConcurrentQueries;
+    }
+
+    public CompletableFuture<DashboardDTO> getDashboard(Long userId) {
+        LocalDate today = LocalDate.now(clock);
+        int shard = shardRouter.shardForId(userId);
+        Semaphore permits = new Semaphore(maxConcurrentQueries);
+
+        CompletableFuture<User> user = read(shard, permits, () -> userRepository.findById(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + userId)));
+        // A sharded balance needs one more read to sum its shards
+        CompletableFuture<BigDecimal> balance = user.thenCompose(profile -> profile.getBalanceShards() > 0
+                ? read(shard, permits, () -> userRepository.findBalanceById(userId))
+                : CompletableFuture.completedFuture(profile.getBalance()));
+        CompletableFuture<List<DashboardDTO.CardSummary>> cards = read(shard, permits, () -> cardRepository.findByUserId(userId).stream()
+                .map(this::toCardSummary).toList());
+        CompletableFuture<DashboardDTO.JourneySummary> activeJourney = read(shard, permits, () -> journeyRepository.findActiveByUserId(userId)
+                .stream().findFirst().map(this::toJourneySummary).orElse(null));
+        CompletableFuture<List<DashboardDTO.JourneySummary>> recentJourneys = read(shard, permits, () -> journeyRepository
+                .findRecentByUserId(userId, PageRequest.of(0, RECENT_ITEMS)).stream()
+                .map(this::toJourneySummary).toList());
+        CompletableFuture<List<DashboardDTO.TransactionSummary>> recentTransactions = read(shard, permits, () -> transactionRepository
+                .findRecentByUserId(userId, PageRequest.of(0, RECENT_ITEMS)).stream()
+                .map(this::toTransactionSummary).toList());
+        CompletableFuture<FareCappingService.CappingResult> spending = read(shard, permits, () ->
+                fareCappingService.getCurrentSpending(userId, today));
+        CompletableFuture<Long> monthlyJourneys = read(shard, permits, () ->
+                journeyRepository.countByUserIdSince(userId, today.withDayOfMonth(1).atStartOfDay()));
+
+        return CompletableFuture.allOf(user, balance, cards, activeJourney, recentJourneys, recentTransactions, spending, monthlyJourneys)
+                .thenApply(done -> {
+                    User profile = user.join();
+                    FareCappingService.CappingResult totals = spending.join();
+                    return DashboardDTO.builder()
+                            .userId(profile.getId())
+                            .firstName(profile.getFirstName())
+                            .lastName(profile.getLastName())
+                            .email(profile.getEmail())
+                            .balance(balance.join())
+                            .concessionClass(profile.getConcessionClass().name())
+                            .cards(cards.join())
+                            .activeJourney(activeJourney.join())
+                            .recentJourneys(recentJourneys.join())
+                            .recentTransactions(recentTransactions.join())
+                            .dailySpending(totals.dailySpending())
+                            .weeklySpending(totals.weeklySpending())
+                            .monthlySpending(totals.monthlySpending())
+                            .monthlyJourneys(monthlyJourneys.join())
+                            .build();
+                });
+    }
+
+    // Run one read on a virtual thread inside its own read-only transaction on the user's shard
+    private <T> CompletableFuture<T> read(int shard, Semaphore permits, Supplier<T> query) {
+        return CompletableFuture.supplyAsync(() -> {
+            permits.acquireUninterruptibly();
+            try {
+                return shardRouter.onShard(shard, () -> readOnly.execute(status -> query.get()));
+            } finally {
+                permits.release();
+            }
+        }, queryFanOutExecutor);
+    }
+
+    private DashboardDTO.CardSummary toCardSummary(Card card) {
+        return new DashboardDTO.CardSummary(card.getId(), CardDTO.maskCardNumber(card.getCardNumber()),
+                                            card.getCardType().name(),
+                                            card.getStatus().name(), card.isDefault());
+    }
+
+    private DashboardDTO.JourneySummary toJourneySummary(Journey journey) {
+        return new DashboardDTO.JourneySummary(
+                journey.getId(),
+                journey.getEntryStation().getName(),
+                journey.getExitStation() != null ? journey.getExitStation().getName() : null,
+                journey.getTapInTime(),
+                journey.getStatus().name(),
+                journey.getFinalAmount());
+    }
+
+    private DashboardDTO.TransactionSummary toTransactionSummary(Transaction transaction) {
+        return new DashboardDTO.TransactionSummary(
+                transaction.getId(),
+                transaction.getType().name(),
+                transaction.getAmount(),
+                transaction.getStatus().name(),
+                transaction.getDescription(),
+                transaction.getCreatedAt());
+    }
+}
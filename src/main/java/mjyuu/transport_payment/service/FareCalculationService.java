@@ -2,22 +2,22 @@ package mjyuu.transport_payment.service;
 
 import  mjyuu.transport_payment.entity.Journey;
 import  mjyuu.transport_payment.entity.Station;
+import  mjyuu.transport_payment.entity.User;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.time.LocalDateTime;
 
 @Service
+@RequiredArgsConstructor
 @Slf4j
 public class FareCalculationService {
 
-    @Value("${transport.payment.base-fare}")
-    private BigDecimal baseFare;
-
-    @Value("${transport.payment.per-zone-charge}")
-    private BigDecimal perZoneCharge;
+    private final FareRuleEngine fareRuleEngine;
 
     @Value("${transport.payment.incomplete-journey-penalty}")
     private BigDecimal incompleteJourneyPenalty;
@@ -26,19 +26,26 @@ public class FareCalculationService {
     private BigDecimal dailyCapAmount;
 
     /**
-     * Calculate fare for a journey based on zones transited
+     * Calculate the undiscounted fare for a journey based on zones transited
      */
     public BigDecimal calculateFare(Station entryStation, Station exitStation) {
-        int zonesTransited = calculateZonesTransited(entryStation, exitStation);
-        
-        // Base fare + (zones × per-zone charge)
-        BigDecimal zoneFare = perZoneCharge.multiply(BigDecimal.valueOf(zonesTransited));
-        BigDecimal totalFare = baseFare.add(zoneFare);
-        
-        log.info("Calculated fare: {} for {} zones (entry: {}, exit: {})", 
-                 totalFare, zonesTransited, entryStation.getName(), exitStation.getName());
-        
-        return totalFare.setScale(2, RoundingMode.HALF_UP);
+        return calculateFare(entryStation, exitStation, null, User.ConcessionClass.NONE);
+    }
+
+    /**
+     * Calculate fare from the active fare rules: zone pair, time band of the tap-in and concession class
+     */
+    public BigDecimal calculateFare(Station entryStation, Station exitStation,
+                                    LocalDateTime tapInTime, User.ConcessionClass concessionClass) {
+        CompiledFareTable fareTable = fareRuleEngine.current();
+        BigDecimal totalFare = fareTable.fare(
+                entryStation.getZoneNumber(), exitStation.getZoneNumber(), tapInTime, concessionClass);
+
+        log.info("Calculated fare: {} (entry: {}, exit: {}, band: {}, concession: {}, rules v{})",
+                 totalFare, entryStation.getName(), exitStation.getName(),
+                 fareTable.bandName(tapInTime), concessionClass, fareTable.getVersion());
+
+        return totalFare;
     }
 
     /**
@@ -0,0 +1,158 @@
+package mjyuu.transport_payment.service;
+
+import lombok.extern.slf4j.Slf4j;
+import mjyuu.transport_payment.entity.SpendingPeriod;
+import mjyuu.transport_payment.entity.SpendingPeriod.PeriodType;
+import mjyuu.transport_payment.repository.SpendingPeriodRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Stacked daily / weekly / monthly fare capping backed by per-period running totals.
+ * Tap-out reads three counter rows instead of summing the user's transactions.
+ */
+@Service
+@Slf4j
+public class FareCappingService {
+
+    private final SpendingPeriodRepository spendingPeriodRepository;
+    private final FareCalculationService fareCalculationService;
+    private final ShardRouter shardRouter;
+    private final Clock clock;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${transport.payment.weekly-cap-amount}")
+    private BigDecimal weeklyCapAmount;
+
+    @Value("${transport.payment.monthly-cap-amount}")
+    private BigDecimal monthlyCapAmount;
+
+    @Value("${transport.payment.spending-period-retention-days:400}")
+    private int retentionDays;
+
+    public FareCappingService(SpendingPeriodRepository spendingPeriodRepository,
+                              FareCalculationService fareCalculationService,
+                              ShardRouter shardRouter,
+                              Clock clock,
+                              PlatformTransactionManager transactionManager) {
+        this.spendingPeriodRepository = spendingPeriodRepository;
+        this.fareCalculationService = fareCalculationService;
+        this.shardRouter = shardRouter;
+        this.clock = clock;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public record CappingResult(BigDecimal chargedFare,
+                                BigDecimal dailySpending,
+                                BigDecimal weeklySpending,
+                                BigDecimal monthlySpending,
+                                boolean dailyCapReached,
+                                boolean weeklyCapReached,
+                                boolean monthlyCapReached) {}
+
+    /**
+     * Cap the fare against every open period and add the charged amount to each counter.
+     * Runs inside the tap-out transaction so a rejected tap-out leaves the counters untouched.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public CappingResult applyCaps(Long userId, LocalDate travelDate, BigDecimal fare) {
+        LocalDate weekStart = PeriodType.WEEKLY.startOf(travelDate);
+        LocalDate monthStart = PeriodType.MONTHLY.startOf(travelDate);
+
+        // Insert missing rows first so the lock below always has something to hold
+        spendingPeriodRepository.ensurePeriodsExist(userId, travelDate, weekStart, monthStart);
+        Map<PeriodType, SpendingPeriod> periods = byType(
+                spendingPeriodRepository.lockCurrentPeriods(userId, travelDate, weekStart, monthStart));
+
+        BigDecimal daily = periods.get(PeriodType.DAILY).getAmount();
+        BigDecimal weekly = periods.get(PeriodType.WEEKLY).getAmount();
+        BigDecimal monthly = periods.get(PeriodType.MONTHLY).getAmount();
+
+        // The tightest remaining allowance wins
+        BigDecimal charged = fare
+                .min(remaining(fareCalculationService.getDailyCapAmount(), daily))
+                .min(remaining(weeklyCapAmount, weekly))
+                .min(remaining(monthlyCapAmount, monthly))
+                .setScale(2, RoundingMode.HALF_UP);
+
+        if (charged.compareTo(fare) < 0) {
+            log.info("Fare capped for user {}: fare={}, charged={}, spent day/week/month={}/{}/{}",
+                     userId, fare, charged, daily, weekly, monthly);
+        }
+
+        periods.values().forEach(period -> period.setAmount(period.getAmount().add(charged)));
+
+        return toResult(charged, daily.add(charged), weekly.add(charged), monthly.add(charged));
+    }
+
+    /**
+     * Current spend per period without locking, for display
+     */
+    @Transactional(readOnly = true)
+    public CappingResult getCurrentSpending(Long userId, LocalDate date) {
+        shardRouter.bindUser(userId);
+        Map<PeriodType, SpendingPeriod> periods = byType(spendingPeriodRepository.findCurrentPeriods(
+                userId, date, PeriodType.WEEKLY.startOf(date), PeriodType.MONTHLY.startOf(date)));
+        return toResult(BigDecimal.ZERO,
+                        amountOf(periods, PeriodType.DAILY),
+                        amountOf(periods, PeriodType.WEEKLY),
+                        amountOf(periods, PeriodType.MONTHLY));
+    }
+
+    /**
+     * Drop counters for periods long closed, on every shard
+     */
+    @Scheduled(cron = "${transport.payment.spending-period-purge-cron:0 30 3 * * *}")
+    public void purgeClosedPeriods() {
+        LocalDate cutoff = LocalDate.now(clock).minusDays(retentionDays);
+        int[] deleted = new int[1];
+        shardRouter.forEachShard(() ->
+                deleted[0] += transactionTemplate.execute(status -> spendingPeriodRepository.deletePeriodsStartingBefore(cutoff)));
+        if (deleted[0] > 0) {
+            log.info("Purged {} closed spending period counters", deleted[0]);
+        }
+    }
+
+    public BigDecimal getWeeklyCapAmount() {
+        return weeklyCapAmount;
+    }
+
+    public BigDecimal getMonthlyCapAmount() {
+        return monthlyCapAmount;
+    }
+
+    private CappingResult toResult(BigDecimal charged, BigDecimal daily, BigDecimal weekly, BigDecimal monthly) {
+        return new CappingResult(charged, daily, weekly, monthly,
+                daily.compareTo(fareCalculationService.getDailyCapAmount()) >= 0,
+                weekly.compareTo(weeklyCapAmount) >= 0,
+                monthly.compareTo(monthlyCapAmount) >= 0);
+    }
+
+    private static BigDecimal remaining(BigDecimal cap, BigDecimal spent) {
+        return cap.subtract(spent).max(BigDecimal.ZERO);
+    }
+
+    private static BigDecimal amountOf(Map<PeriodType, SpendingPeriod> periods, PeriodType type) {
+        SpendingPeriod period = periods.get(type);
+        return period != null ? period.getAmount() : BigDecimal.ZERO;
+    }
+
+    private static Map<PeriodType, SpendingPeriod> byType(List<SpendingPeriod> periods) {
+        Map<PeriodType, SpendingPeriod> map = new EnumMap<>(PeriodType.class);
+        periods.forEach(period -> map.put(period.getId().getPeriodType(), period));
+        return map;
+    }
+}
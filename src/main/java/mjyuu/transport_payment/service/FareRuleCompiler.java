@@ -0,0 +1,136 @@
+package mjyuu.transport_payment.service;
+
+import mjyuu.transport_payment.dto.FareRuleDefinition;
+import mjyuu.transport_payment.entity.User;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.DayOfWeek;
+import java.util.Map;
+
+/**
+ * Turns a declarative {@link FareRuleDefinition} into a {@link CompiledFareTable}.
+ * All validation happens here, so a definition that compiles can always be evaluated.
+ */
+public final class FareRuleCompiler {
+
+    private static final int MAX_BANDS = Byte.MAX_VALUE;
+
+    private FareRuleCompiler() {
+    }
+
+    public static CompiledFareTable compile(int version, FareRuleDefinition definition) {
+        if (definition.getBaseFare() == null || definition.getPerZoneCharge() == null) {
+            throw new IllegalArgumentException("Fare rules must define baseFare and perZoneCharge");
+        }
+
+        long basePence = toPence(definition.getBaseFare(), "baseFare");
+        long perZonePence = toPence(definition.getPerZoneCharge(), "perZoneCharge");
+
+        int maxZone = definition.getMaxZone();
+        for (FareRuleDefinition.ZonePairOverride override : definition.getZonePairOverrides()) {
+            maxZone = Math.max(maxZone, Math.max(override.getFromZone(), override.getToZone()));
+        }
+        if (maxZone < 1) {
+            throw new IllegalArgumentException("maxZone must be at least 1");
+        }
+
+        long[] zoneFares = compileZoneMatrix(definition, maxZone, basePence, perZonePence);
+
+        int bandCount = definition.getTimeBands().size() + 1;
+        if (bandCount > MAX_BANDS) {
+            throw new IllegalArgumentException("At most " + (MAX_BANDS - 1) + " time bands are supported");
+        }
+        byte[] bandByMinute = new byte[CompiledFareTable.MINUTES_PER_WEEK];
+        int[] bandMultipliers = new int[bandCount];
+        String[] bandNames = new String[bandCount];
+        bandMultipliers[0] = CompiledFareTable.BASIS_POINTS;
+        bandNames[0] = "OFF_PEAK";
+        for (int i = 1; i < bandCount; i++) {
+            FareRuleDefinition.TimeBand band = definition.getTimeBands().get(i - 1);
+            bandNames[i] = band.getName();
+            bandMultipliers[i] = toBasisPoints(band.getMultiplier(), "multiplier of band " + band.getName());
+            paintBand(bandByMinute, (byte) i, band);
+        }
+
+        int[] concessionPayable = compileConcessions(definition.getConcessionDiscounts());
+
+        return new CompiledFareTable(version, maxZone, basePence, perZonePence, zoneFares,
+                bandByMinute, bandMultipliers, bandNames, concessionPayable);
+    }
+
+    private static long[] compileZoneMatrix(FareRuleDefinition definition, int maxZone,
+                                            long basePence, long perZonePence) {
+        int stride = maxZone + 1;
+        long[] zoneFares = new long[stride * stride];
+        for (int from = 1; from <= maxZone; from++) {
+            for (int to = 1; to <= maxZone; to++) {
+                zoneFares[from * stride + to] = basePence + perZonePence * (Math.abs(from - to) + 1);
+            }
+        }
+
+        for (FareRuleDefinition.ZonePairOverride override : definition.getZonePairOverrides()) {
+            if (override.getFromZone() < 1 || override.getToZone() < 1) {
+                throw new IllegalArgumentException("Zone pair overrides must use zones >= 1");
+            }
+            long pence = toPence(override.getFare(), "override fare " + override.getFromZone() + "-" + override.getToZone());
+            zoneFares[override.getFromZone() * stride + override.getToZone()] = pence;
+            if (override.isBidirectional()) {
+                zoneFares[override.getToZone() * stride + override.getFromZone()] = pence;
+            }
+        }
+        return zoneFares;
+    }
+
+    private static void paintBand(byte[] bandByMinute, byte bandIndex, FareRuleDefinition.TimeBand band) {
+        if (band.getStart() == null || band.getEnd() == null || !band.getEnd().isAfter(band.getStart())) {
+            throw new IllegalArgumentException("Band " + band.getName() + " must end after it starts");
+        }
+        if (band.getDays() == null || band.getDays().isEmpty()) {
+            throw new IllegalArgumentException("Band " + band.getName() + " must apply to at least one day");
+        }
+
+        int startMinute = band.getStart().getHour() * 60 + band.getStart().getMinute();
+        int endMinute = band.getEnd().getHour() * 60 + band.getEnd().getMinute();
+        for (DayOfWeek day : band.getDays()) {
+            int dayOffset = (day.getValue() - 1) * CompiledFareTable.MINUTES_PER_DAY;
+            for (int minute = startMinute; minute < endMinute; minute++) {
+                if (bandByMinute[dayOffset + minute] != 0) {
+                    throw new IllegalArgumentException("Band " + band.getName() + " overlaps another band on " + day);
+                }
+                bandByMinute[dayOffset + minute] = bandIndex;
+            }
+        }
+    }
+
+    private static int[] compileConcessions(Map<User.ConcessionClass, BigDecimal> discounts) {
+        User.ConcessionClass[] classes = User.ConcessionClass.values();
+        int[] payable = new int[classes.length];
+        for (User.ConcessionClass concession : classes) {
+            BigDecimal discount = discounts != null ? discounts.get(concession) : null;
+            if (discount == null) {
+                payable[concession.ordinal()] = CompiledFareTable.BASIS_POINTS;
+                continue;
+            }
+            if (discount.signum() < 0 || discount.compareTo(BigDecimal.ONE) > 0) {
+                throw new IllegalArgumentException("Concession discount for " + concession + " must be between 0 and 1");
+            }
+            payable[concession.ordinal()] = CompiledFareTable.BASIS_POINTS - toBasisPoints(discount, "discount of " + concession);
+        }
+        return payable;
+    }
+
+    private static long toPence(BigDecimal amount, String field) {
+        if (amount == null || amount.signum() < 0) {
+            throw new IllegalArgumentException(field + " must be a non-negative amount");
+        }
+        return amount.setScale(2, RoundingMode.HALF_UP).movePointRight(2).longValueExact();
+    }
+
+    private static int toBasisPoints(BigDecimal factor, String field) {
+        if (factor == null || factor.signum() < 0) {
+            throw new IllegalArgumentException(field + " must be non-negative");
+        }
+        return factor.movePointRight(4).setScale(0, RoundingMode.HALF_UP).intValueExact();
+    }
+}
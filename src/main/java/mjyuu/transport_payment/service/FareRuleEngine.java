@@ -0,0 +1,170 @@
+package mjyuu.transport_payment.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import mjyuu.transport_payment.dto.FareRuleDefinition;
+import mjyuu.transport_payment.entity.FareRuleSet;
+import mjyuu.transport_payment.exception.ResourceNotFoundException;
+import mjyuu.transport_payment.repository.FareRuleSetRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Holds the active {@link CompiledFareTable}. Rule sets are compiled once when they are
+ * loaded and swapped in with a single volatile write, so in-flight fare calculations
+ * always see one complete version.
+ */
+@Service
+@Slf4j
+public class FareRuleEngine {
+
+    private final FareRuleSetRepository fareRuleSetRepository;
+    private final ObjectMapper objectMapper;
+
+    private volatile CompiledFareTable current;
+
+    public FareRuleEngine(FareRuleSetRepository fareRuleSetRepository,
+                          ObjectMapper objectMapper,
+                          @Value("${transport.payment.base-fare}") BigDecimal baseFare,
+                          @Value("${transport.payment.per-zone-charge}") BigDecimal perZoneCharge) {
+        this.fareRuleSetRepository = fareRuleSetRepository;
+        this.objectMapper = objectMapper;
+
+        // Until a rule set is loaded, fall back to the flat tariff from application.yml
+        FareRuleDefinition fallback = new FareRuleDefinition();
+        fallback.setBaseFare(baseFare);
+        fallback.setPerZoneCharge(perZoneCharge);
+        this.current = FareRuleCompiler.compile(0, fallback);
+    }
+
+    /**
+     * The fare table in force right now
+     */
+    public CompiledFareTable current() {
+        return current;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        reload();
+    }
+
+    /**
+     * Pick up a version activated by another node
+     */
+    @Scheduled(fixedDelayString = "${transport.fares.refresh-interval-ms:30000}")
+    public void refreshIfChanged() {
+        Integer activeVersion = fareRuleSetRepository.findActiveVersion().orElse(0);
+        if (activeVersion != current.getVersion()) {
+            reload();
+        }
+    }
+
+    /**
+     * Compile and swap in the active rule set
+     */
+    @Transactional(readOnly = true)
+    public CompiledFareTable reload() {
+        fareRuleSetRepository.findByActiveTrue().ifPresentOrElse(
+                ruleSet -> {
+                    current = compile(ruleSet);
+                    log.info("Fare rules version {} loaded", ruleSet.getVersion());
+                },
+                () -> log.info("No active fare rule set, using base-fare/per-zone-charge from configuration"));
+        return current;
+    }
+
+    @Transactional(readOnly = true)
+    public List<FareRuleSet> getAllVersions() {
+        return fareRuleSetRepository.findAllByOrderByVersionDesc();
+    }
+
+    @Transactional(readOnly = true)
+    public FareRuleDefinition getDefinition(Integer version) {
+        FareRuleSet ruleSet = fareRuleSetRepository.findById(version)
+                .orElseThrow(() -> new ResourceNotFoundException("Fare rule version not found: " + version));
+        return parse(ruleSet);
+    }
+
+    /**
+     * Store a new rule set version. It is compiled first, so invalid rules are never persisted.
+     */
+    @Transactional
+    public FareRuleSet publish(FareRuleDefinition definition, String description, boolean activate) {
+        int version = fareRuleSetRepository.findMaxVersion() + 1;
+        CompiledFareTable compiled = FareRuleCompiler.compile(version, definition);
+
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(definition);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Fare rule definition cannot be serialised", e);
+        }
+
+        if (activate) {
+            fareRuleSetRepository.deactivateAll();
+        }
+        FareRuleSet ruleSet = fareRuleSetRepository.save(FareRuleSet.builder()
+                .version(version)
+                .description(description)
+                .definition(json)
+                .active(activate)
+                .build());
+
+        if (activate) {
+            swapAfterCommit(compiled);
+        }
+        log.info("Fare rules version {} published (active={})", version, activate);
+        return ruleSet;
+    }
+
+    /**
+     * Make an existing version the active one
+     */
+    @Transactional
+    public FareRuleSet activate(Integer version) {
+        FareRuleSet ruleSet = fareRuleSetRepository.findById(version)
+                .orElseThrow(() -> new ResourceNotFoundException("Fare rule version not found: " + version));
+        CompiledFareTable compiled = compile(ruleSet);
+
+        fareRuleSetRepository.deactivateAll();
+        ruleSet.setActive(true);
+        ruleSet = fareRuleSetRepository.save(ruleSet);
+
+        swapAfterCommit(compiled);
+        log.info("Fare rules version {} activated", version);
+        return ruleSet;
+    }
+
+    // Only expose the new table once the activation is durable
+    private void swapAfterCommit(CompiledFareTable compiled) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                current = compiled;
+            }
+        });
+    }
+
+    private CompiledFareTable compile(FareRuleSet ruleSet) {
+        return FareRuleCompiler.compile(ruleSet.getVersion(), parse(ruleSet));
+    }
+
+    private FareRuleDefinition parse(FareRuleSet ruleSet) {
+        try {
+            return objectMapper.readValue(ruleSet.getDefinition(), FareRuleDefinition.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Fare rule version " + ruleSet.getVersion() + " is not valid JSON", e);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package mjyuu.transport_payment.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import mjyuu.transport_payment.entity.OutboxEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Appends events as newline-delimited JSON. Each line carries the event id; events
+ * already written by this process are skipped, and downstream readers de-duplicate
+ * on id to cover redelivery after a restart.
+ */
+@Component
+@ConditionalOnProperty(name = "transport.outbox.sink", havingValue = "file")
+@RequiredArgsConstructor
+@Slf4j
+public class FileOutboxEventSink implements OutboxEventSink {
+
+    private static final int RECENT_IDS_TO_REMEMBER = 10_000;
+
+    private final ObjectMapper objectMapper;
+
+    @Value("${transport.outbox.file-sink.path:target/outbox/events.ndjson}")
+    private Path path;
+
+    private final Set<Long> recentlyWritten = new LinkedHashSet<>();
+
+    @Override
+    public synchronized void publish(List<OutboxEvent> events) {
+        try {
+            Files.createDirectories(path.toAbsolutePath().getParent());
+            try (FileOutputStream out = new FileOutputStream(path.toFile(), true);
+                 Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8)) {
+                for (OutboxEvent event : events) {
+                    if (recentlyWritten.contains(event.getId())) {
+                        continue;
+                    }
+                    writer.write(objectMapper.writeValueAsString(envelope(event)));
+                    writer.write('\n');
+                }
+                writer.flush();
+                out.getFD().sync();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to append outbox events to " + path, e);
+        }
+
+        for (OutboxEvent event : events) {
+            remember(event.getId());
+        }
+        log.debug("File sink appended {} events to {}", events.size(), path);
+    }
+
+    private Map<String, Object> envelope(OutboxEvent event) throws IOException {
+        Map<String, Object> envelope = new LinkedHashMap<>();
+        envelope.put("id", event.getId());
+        envelope.put("aggregateType", event.getAggregateType());
+        envelope.put("aggregateId", event.getAggregateId());
+        envelope.put("eventType", event.getEventType());
+        envelope.put("createdAt", event.getCreatedAt());
+        envelope.put("payload", objectMapper.readTree(event.getPayload()));
+        return envelope;
+    }
+
+    private void remember(Long id) {
+        recentlyWritten.add(id);
+        if (recentlyWritten.size() > RECENT_IDS_TO_REMEMBER) {
+            recentlyWritten.remove(recentlyWritten.iterator().next());
+        }
+    }
+}
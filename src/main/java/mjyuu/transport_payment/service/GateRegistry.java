@@ -0,0 +1,85 @@
+package mjyuu.transport_payment.service;
+
+import lombok.extern.slf4j.Slf4j;
+import mjyuu.transport_payment.repository.GateRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory key hashes of active gates. A gate id is only trusted once the request also carries
+ * that gate's secret in X-Gate-Key, so a caller naming a real gate (ids are predictable) cannot
+ * drain its rate-limit bucket or move its retransmit window.
+ */
+@Service
+@Slf4j
+public class GateRegistry {
+
+    public static final String GATE_HEADER = "X-Gate-Id";
+    public static final String GATE_KEY_HEADER = "X-Gate-Key";
+
+    private final GateRepository gateRepository;
+
+    private volatile Map<String, byte[]> keyHashes = Map.of();
+
+    public GateRegistry(GateRepository gateRepository) {
+        this.gateRepository = gateRepository;
+    }
+
+    /**
+     * The gate id if {@code gateKey} is that active gate's secret, otherwise null
+     */
+    public String authenticate(String gateId, String gateKey) {
+        if (gateId == null || gateKey == null) {
+            return null;
+        }
+        byte[] expected = keyHashes.get(gateId);
+        return expected != null && MessageDigest.isEqual(expected, sha256(gateKey)) ? gateId : null;
+    }
+
+    /**
+     * True for an active gate that can authenticate
+     */
+    public boolean isKnown(String gateId) {
+        return gateId != null && keyHashes.containsKey(gateId);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        refresh();
+    }
+
+    @Scheduled(fixedDelayString = "${transport.gates.refresh-interval-ms:60000}")
+    public void refresh() {
+        Map<String, byte[]> loaded = gateRepository.findActiveGateKeys().stream()
+                .collect(Collectors.toUnmodifiableMap(GateRepository.GateKey::getGateId,
+                                                      gate -> HexFormat.of().parseHex(gate.getKeyHash())));
+        if (!loaded.keySet().equals(keyHashes.keySet())) {
+            log.info("Gate registry loaded: {} active gates with keys", loaded.size());
+        }
+        keyHashes = loaded;
+    }
+
+    /**
+     * SHA-256 hex of a gate key, as stored in gates.key_hash
+     */
+    public static String hashKey(String gateKey) {
+        return HexFormat.of().formatHex(sha256(gateKey));
+    }
+
+    private static byte[] sha256(String value) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package mjyuu.transport_payment.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sliding window over one gate's tap sequence numbers: a bitmap of which of the last
+ * {@code size} numbers have been seen, plus the result each one produced. Like an IPsec
+ * anti-replay window, except that a number falling behind the window is taken as the gate
+ * having restarted its numbering rather than as a replay.
+ * <p>
+ * Not thread-safe; callers hold a per-gate lock.
+ */
+public final class GateSequenceWindow<T> {
+
+    public record Entry<T>(long sequence, String fingerprint, T result) {}
+
+    private final int size;
+    private final long[] bits;
+    private final String[] fingerprints;
+    private final Object[] results;
+    private long highest = -1;
+
+    public GateSequenceWindow(int size) {
+        if (size <= 0 || size % 64 != 0) {
+            throw new IllegalArgumentException("Window size must be a positive multiple of 64: " + size);
+        }
+        this.size = size;
+        this.bits = new long[size / 64];
+        this.fingerprints = new String[size];
+        this.results = new Object[size];
+    }
+
+    /**
+     * Result recorded for this sequence number, or null if it is new, outside the window, or was
+     * recorded for a different tap (fingerprint mismatch: the gate has reused the number)
+     */
+    @SuppressWarnings("unchecked")
+    public T find(long sequence, String fingerprint) {
+        if (!inWindow(sequence)) {
+            return null;
+        }
+        int slot = slot(sequence);
+        if ((bits[slot >>> 6] & (1L << slot)) == 0 || !fingerprint.equals(fingerprints[slot])) {
+            return null;
+        }
+        return (T) results[slot];
+    }
+
+    public void record(long sequence, String fingerprint, T result) {
+        if (sequence > highest) {
+            // Slots between the old and new highest now belong to numbers not seen yet
+            long stale = Math.min(sequence - highest, size);
+            for (long s = sequence - stale + 1; s <= sequence; s++) {
+                clear(slot(s));
+            }
+            highest = sequence;
+        } else if (highest - sequence >= size) {
+            // Far behind the window: the gate restarted its numbering
+            reset();
+            highest = sequence;
+        }
+        int slot = slot(sequence);
+        bits[slot >>> 6] |= 1L << slot;
+        fingerprints[slot] = fingerprint;
+        results[slot] = result;
+    }
+
+    /**
+     * Recorded numbers in ascending order, for snapshots
+     */
+    @SuppressWarnings("unchecked")
+    public List<Entry<T>> entries() {
+        List<Entry<T>> entries = new ArrayList<>();
+        for (long s = Math.max(0, highest - size + 1); s <= highest; s++) {
+            int slot = slot(s);
+            if ((bits[slot >>> 6] & (1L << slot)) != 0) {
+                entries.add(new Entry<>(s, fingerprints[slot], (T) results[slot]));
+            }
+        }
+        return entries;
+    }
+
+    public long getHighest() {
+        return highest;
+    }
+
+    private boolean inWindow(long sequence) {
+        return sequence <= highest && highest - sequence < size;
+    }
+
+    private int slot(long sequence) {
+        return (int) Math.floorMod(sequence, (long) size);
+    }
+
+    private void clear(int slot) {
+        bits[slot >>> 6] &= ~(1L << slot);
+        fingerprints[slot] = null;
+        results[slot] = null;
+    }
+
+    private void reset() {
+        for (int slot = 0; slot < size; slot++) {
+            clear(slot);
+        }
+    }
+}
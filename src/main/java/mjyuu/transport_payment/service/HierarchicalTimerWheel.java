@@ -0,0 +1,124 @@
+package mjyuu.transport_payment.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hierarchical timing wheel (Varghese &amp; Lauck) keyed by id. Level 0 has one slot per tick; each
+ * higher level has slots {@value #SLOTS} times as wide, and its timers drop a level whenever the
+ * level below wraps. Scheduling and cancelling are O(1); advancing costs one slot per tick plus the
+ * timers that cascade or fire. With {@code levels} = 4 and one-second ticks the wheel spans
+ * 64^4 seconds (about 194 days); anything further out waits in an overflow list.
+ * <p>
+ * Not thread-safe; callers synchronise.
+ */
+public final class HierarchicalTimerWheel<K> {
+
+    private static final int BITS = 6;
+    private static final int SLOTS = 1 << BITS;
+    private static final int MASK = SLOTS - 1;
+
+    private record Location(int level, int slot) {}
+
+    private final long tickMillis;
+    private final int levels;
+    // buckets[level][slot]: key -> deadline tick
+    private final Map<K, Long>[][] buckets;
+    private final Map<K, Long> overflow = new HashMap<>();
+    private final Map<K, Location> locations = new HashMap<>();
+    private long currentTick;
+
+    @SuppressWarnings("unchecked")
+    public HierarchicalTimerWheel(long tickMillis, int levels, long startMillis) {
+        if (tickMillis <= 0 || levels < 1 || levels * BITS > 60) {
+            throw new IllegalArgumentException("Invalid timer wheel: tick " + tickMillis + " ms, " + levels + " levels");
+        }
+        this.tickMillis = tickMillis;
+        this.levels = levels;
+        this.buckets = new Map[levels][SLOTS];
+        for (int level = 0; level < levels; level++) {
+            for (int slot = 0; slot < SLOTS; slot++) {
+                buckets[level][slot] = new HashMap<>();
+            }
+        }
+        this.currentTick = startMillis / tickMillis;
+    }
+
+    /**
+     * Schedule (or reschedule) {@code key} to fire at the first tick at or after {@code deadlineMillis}.
+     * A deadline already passed fires on the next advance.
+     */
+    public void schedule(K key, long deadlineMillis) {
+        cancel(key);
+        long deadlineTick = Math.max(currentTick + 1, Math.ceilDiv(deadlineMillis, tickMillis));
+        place(key, deadlineTick);
+    }
+
+    public boolean cancel(K key) {
+        Location location = locations.remove(key);
+        if (location == null) {
+            return false;
+        }
+        if (location.level() < 0) {
+            overflow.remove(key);
+        } else {
+            buckets[location.level()][location.slot()].remove(key);
+        }
+        return true;
+    }
+
+    /**
+     * Move the wheel up to {@code nowMillis} and return the keys whose deadline has been reached,
+     * earliest first
+     */
+    public List<K> advance(long nowMillis) {
+        long targetTick = nowMillis / tickMillis;
+        List<K> expired = new ArrayList<>();
+        while (currentTick < targetTick) {
+            currentTick++;
+            // Overflow, then higher levels first, so a timer can cascade all the way down within this tick
+            if ((currentTick & ((1L << (BITS * levels)) - 1)) == 0 && !overflow.isEmpty()) {
+                cascade(overflow);
+            }
+            for (int level = levels - 1; level >= 1; level--) {
+                if ((currentTick & ((1L << (BITS * level)) - 1)) == 0) {
+                    cascade(buckets[level][(int) ((currentTick >>> (BITS * level)) & MASK)]);
+                }
+            }
+            Map<K, Long> due = buckets[0][(int) (currentTick & MASK)];
+            for (K key : due.keySet()) {
+                locations.remove(key);
+                expired.add(key);
+            }
+            due.clear();
+        }
+        return expired;
+    }
+
+    public int size() {
+        return locations.size();
+    }
+
+    private void cascade(Map<K, Long> bucket) {
+        Map<K, Long> timers = new HashMap<>(bucket);
+        bucket.clear();
+        timers.forEach(this::place);
+    }
+
+    // The level is the lowest one whose wider slot still contains both now and the deadline
+    private void place(K key, long deadlineTick) {
+        for (int level = 0; level < levels; level++) {
+            int shift = BITS * (level + 1);
+            if ((deadlineTick >>> shift) == (currentTick >>> shift)) {
+                int slot = (int) ((deadlineTick >>> (BITS * level)) & MASK);
+                buckets[level][slot].put(key, deadlineTick);
+                locations.put(key, new Location(level, slot));
+                return;
+            }
+        }
+        overflow.put(key, deadlineTick);
+        locations.put(key, new Location(-1, -1));
+    }
+}
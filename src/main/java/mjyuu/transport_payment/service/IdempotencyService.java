@@ -0,0 +1,243 @@
+package mjyuu.transport_payment.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import mjyuu.transport_payment.entity.IdempotencyRecord;
+import mjyuu.transport_payment.exception.IdempotencyConflictException;
+import mjyuu.transport_payment.repository.IdempotencyRecordRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Honours the Idempotency-Key header. The first request with a key claims it in
+ * idempotency_records and runs; its response is stored and kept in a bounded LRU cache,
+ * so retries are answered from memory (or the table after a restart) without running
+ * the operation again. Failed requests release the key so the client can retry, unless the
+ * operation had already bound a resource (see {@link #executeAsync}): that key stays with the
+ * resource and retries are answered with its current status.
+ * <p>
+ * Records for every rider live on shard 0, whichever shard the request itself is routed to.
+ */
+@Service
+@Slf4j
+public class IdempotencyService {
+
+    public static final String HEADER = "Idempotency-Key";
+    private static final int MAX_KEY_LENGTH = 100;
+
+    private record Outcome(String requestHash, Object response) {}
+
+    private final IdempotencyRecordRepository repository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate requiresNew;
+    private final ShardRouter shardRouter;
+    private final long ttlHours;
+    private final long inProgressLeaseSeconds;
+    private final Map<String, Outcome> completed;
+
+    public IdempotencyService(IdempotencyRecordRepository repository,
+                              ObjectMapper objectMapper,
+                              PlatformTransactionManager transactionManager,
+                              ShardRouter shardRouter,
+                              @Value("${transport.idempotency.cache-size:10000}") int cacheSize,
+                              @Value("${transport.idempotency.ttl-hours:24}") long ttlHours,
+                              @Value("${transport.idempotency.in-progress-lease-seconds:60}") long inProgressLeaseSeconds) {
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+        this.requiresNew = new TransactionTemplate(transactionManager);
+        this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.shardRouter = shardRouter;
+        this.ttlHours = ttlHours;
+        this.inProgressLeaseSeconds = inProgressLeaseSeconds;
+        this.completed = Collections.synchronizedMap(new LinkedHashMap<>(1024, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Outcome> eldest) {
+                return size() > cacheSize;
+            }
+        });
+    }
+
+    /**
+     * Run the action once per (scope, key); a null key runs it unconditionally
+     */
+    public <T> T execute(String scope, String key, Object request, Class<T> responseType, Supplier<T> action) {
+        if (key == null) {
+            return action.get();
+        }
+        String recordKey = recordKey(scope, key);
+        String hash = hash(request);
+
+        T replay = replayOrClaim(recordKey, hash, responseType, null);
+        if (replay != null) {
+            return replay;
+        }
+
+        T response;
+        try {
+            response = action.get();
+        } catch (RuntimeException e) {
+            release(recordKey);
+            throw e;
+        }
+        complete(recordKey, hash, response);
+        return response;
+    }
+
+    /**
+     * As {@link #execute}, for operations that complete asynchronously. The action is handed a
+     * binder to call with the id of what it created once it can no longer be safely rerun (a
+     * top-up whose card is about to be charged). From then on a failure keeps the key, and a retry
+     * that finds no stored response gets {@code boundStatus} applied to that id instead.
+     */
+    public <T> CompletableFuture<T> executeAsync(String scope, String key, Object request, Class<T> responseType,
+                                                 Function<String, T> boundStatus,
+                                                 Function<Consumer<String>, CompletableFuture<T>> action) {
+        if (key == null) {
+            return action.apply(resourceId -> {});
+        }
+        String recordKey = recordKey(scope, key);
+        String hash = hash(request);
+
+        T replay = replayOrClaim(recordKey, hash, responseType, boundStatus);
+        if (replay != null) {
+            return CompletableFuture.completedFuture(replay);
+        }
+
+        AtomicReference<String> bound = new AtomicReference<>();
+        CompletableFuture<T> future;
+        try {
+            future = action.apply(resourceId -> {
+                onRecordShard(status -> repository.bind(recordKey, resourceId));
+                bound.set(resourceId);
+            });
+        } catch (RuntimeException e) {
+            release(recordKey);
+            throw e;
+        }
+        return future.whenComplete((response, error) -> {
+            if (error == null) {
+                complete(recordKey, hash, response);
+            } else if (bound.get() == null) {
+                release(recordKey);
+            } else {
+                log.info("Keeping {} bound to {} after failure: {}", recordKey, bound.get(), error.getMessage());
+            }
+        });
+    }
+
+    @Scheduled(cron = "${transport.idempotency.purge-cron:0 15 * * * *}")
+    public void purgeExpired() {
+        Integer deleted = onRecordShard(status -> repository.deleteExpired(LocalDateTime.now()));
+        if (deleted != null && deleted > 0) {
+            log.info("Purged {} expired idempotency records", deleted);
+        }
+    }
+
+    // Returns the stored response for a retry, or null once this caller owns the key
+    private <T> T replayOrClaim(String recordKey, String hash, Class<T> responseType, Function<String, T> boundStatus) {
+        Outcome cached = completed.get(recordKey);
+        if (cached != null) {
+            return replay(recordKey, hash, cached.requestHash(), responseType.cast(cached.response()));
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        Boolean claimed = onRecordShard(status ->
+                repository.claim(recordKey, hash, now, now.plusHours(ttlHours)) == 1
+                        || repository.takeOverStale(recordKey, hash, now, now.minusSeconds(inProgressLeaseSeconds)) == 1);
+        if (Boolean.TRUE.equals(claimed)) {
+            return null;
+        }
+
+        IdempotencyRecord existing = onRecordShard(status -> repository.findById(recordKey))
+                .orElseThrow(() -> new IdempotencyConflictException("Request with this Idempotency-Key is being retried, try again"));
+        if (existing.getStatus() != IdempotencyRecord.Status.COMPLETED) {
+            if (!existing.getRequestHash().equals(hash)) {
+                throw new IdempotencyConflictException("Idempotency-Key was already used with a different request");
+            }
+            if (existing.getResourceId() != null && boundStatus != null) {
+                log.info("Answering retry of {} with the status of {}", recordKey, existing.getResourceId());
+                return boundStatus.apply(existing.getResourceId());
+            }
+            throw new IdempotencyConflictException("A request with this Idempotency-Key is still being processed");
+        }
+
+        T response = deserialize(existing.getResponseBody(), responseType);
+        completed.put(recordKey, new Outcome(existing.getRequestHash(), response));
+        return replay(recordKey, hash, existing.getRequestHash(), response);
+    }
+
+    private <T> T replay(String recordKey, String hash, String storedHash, T response) {
+        if (!storedHash.equals(hash)) {
+            throw new IdempotencyConflictException("Idempotency-Key was already used with a different request");
+        }
+        log.info("Replaying stored response for {}", recordKey);
+        return response;
+    }
+
+    private void complete(String recordKey, String hash, Object response) {
+        completed.put(recordKey, new Outcome(hash, response));
+        try {
+            String body = objectMapper.writeValueAsString(response);
+            onRecordShard(status -> repository.complete(recordKey, body));
+        } catch (JsonProcessingException | RuntimeException e) {
+            // The operation itself succeeded; a missing record only costs cross-node or post-restart replay
+            log.error("Failed to store idempotent response for {}: {}", recordKey, e.getMessage());
+        }
+    }
+
+    private void release(String recordKey) {
+        try {
+            onRecordShard(status -> repository.release(recordKey));
+        } catch (RuntimeException e) {
+            log.error("Failed to release idempotency key {}: {}", recordKey, e.getMessage());
+        }
+    }
+
+    // Fails fast if called from inside a transaction already routed to a rider's shard
+    private <T> T onRecordShard(TransactionCallback<T> work) {
+        return shardRouter.onShard(0, () -> requiresNew.execute(work));
+    }
+
+    private <T> T deserialize(String body, Class<T> responseType) {
+        try {
+            return objectMapper.readValue(body, responseType);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Stored idempotent response is unreadable", e);
+        }
+    }
+
+    private static String recordKey(String scope, String key) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException(HEADER + " must be 1-" + MAX_KEY_LENGTH + " characters");
+        }
+        return scope + ':' + key;
+    }
+
+    private String hash(Object request) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(request));
+            return HexFormat.of().formatHex(digest);
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Cannot fingerprint request", e);
+        }
+    }
+}
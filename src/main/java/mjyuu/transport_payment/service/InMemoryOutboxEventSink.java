@@ -0,0 +1,49 @@
+package mjyuu.transport_payment.service;
+
+import mjyuu.transport_payment.entity.OutboxEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Stand-in sink that keeps the most recent events in memory (tests, local development).
+ * Keyed by event id, so redelivered events overwrite themselves instead of duplicating.
+ */
+@Component
+@ConditionalOnProperty(name = "transport.outbox.sink", havingValue = "memory", matchIfMissing = true)
+@Slf4j
+public class InMemoryOutboxEventSink implements OutboxEventSink {
+
+    private final ConcurrentNavigableMap<Long, OutboxEvent> events = new ConcurrentSkipListMap<>();
+
+    @Value("${transport.outbox.memory-sink.capacity:10000}")
+    private int capacity;
+
+    @Override
+    public void publish(List<OutboxEvent> batch) {
+        for (OutboxEvent event : batch) {
+            events.put(event.getId(), event);
+        }
+        while (events.size() > capacity) {
+            events.pollFirstEntry();
+        }
+        log.debug("In-memory sink received {} events", batch.size());
+    }
+
+    /**
+     * Events currently held, oldest first
+     */
+    public List<OutboxEvent> getEvents() {
+        return new ArrayList<>(events.values());
+    }
+
+    public void clear() {
+        events.clear();
+    }
+}
@@ -0,0 +1,66 @@
+package mjyuu.transport_payment.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Closes open journeys as their expiry timers come due, a few at a time every tick, instead of
+ * a periodic scan of every IN_PROGRESS journey
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class JourneyExpiryJob {
+
+    private static final Duration RETRY_DELAY = Duration.ofMinutes(1);
+
+    private final OpenJourneyTimers openJourneyTimers;
+    private final JourneyService journeyService;
+    private final ShardRouter shardRouter;
+
+    @Scheduled(fixedDelayString = "${transport.journey-expiry.tick-ms:1000}")
+    public void expireDue() {
+        if (!openJourneyTimers.isEnabled()) {
+            return;
+        }
+        List<Long> due = openJourneyTimers.due();
+        int expired = 0;
+        for (Long journeyId : due) {
+            try {
+                if (journeyService.expireJourney(journeyId)) {
+                    expired++;
+                }
+            } catch (RuntimeException e) {
+                log.warn("Failed to expire journey {}, retrying in {}: {}", journeyId, RETRY_DELAY, e.getMessage());
+                openJourneyTimers.retryLater(journeyId, RETRY_DELAY);
+            }
+        }
+        if (expired > 0) {
+            log.info("Expired {} of {} due journeys", expired, due.size());
+        }
+    }
+
+    /**
+     * Sweep every shard for open journeys past their deadline. Timers normally close each journey
+     * at its deadline; this is the manual fallback behind the admin endpoint. Each journey is
+     * closed in its own locked transaction, so a tap-out racing the sweep is never overwritten.
+     */
+    public int expireOverdue() {
+        int[] expired = new int[1];
+        shardRouter.forEachShard(() -> {
+            List<Long> overdue = journeyService.findOverdueJourneyIds();
+            log.info("Processing {} incomplete journeys", overdue.size());
+            for (Long journeyId : overdue) {
+                if (journeyService.expireJourney(journeyId)) {
+                    expired[0]++;
+                }
+            }
+        });
+        return expired[0];
+    }
+}
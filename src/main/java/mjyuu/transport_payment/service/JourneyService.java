@@ -21,10 +21,12 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.Clock;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.UUID;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -34,23 +36,42 @@ public class JourneyService {
     private final JourneyRepository journeyRepository;
     private final CardRepository cardRepository;
     private final StationRepository stationRepository;
-    private final UserRepository userRepository;
     private final TransactionRepository transactionRepository;
     private final FareCalculationService fareCalculationService;
+    private final OutboxService outboxService;
+    private final UserStatisticsService userStatisticsService;
+    private final CardNumberFilter cardNumberFilter;
+    private final ArchiveService archiveService;
+    private final FareCappingService fareCappingService;
+    private final ShardRouter shardRouter;
+    private final LiveStationCounters liveStationCounters;
+    private final OpenJourneyTimers openJourneyTimers;
+    private final AccountBalanceService accountBalanceService;
+    private final Clock clock;
 
     @Value("${transport.payment.max-journey-duration-hours}")
     private int maxJourneyDurationHours;
 
+    /**
+     * Reject card numbers that were never issued before any transaction or database work.
+     * Callers run this ahead of the tap so scrapers and misconfigured readers cost no query.
+     */
+    public void requireKnownCard(String cardNumber) {
+        if (!cardNumberFilter.mightExist(cardNumber)) {
+            throw new ResourceNotFoundException("Card not found: " + cardNumber);
+        }
+    }
+
     /**
      * Handle tap-in (journey start)
      */
     @Transactional
     public TapResponse tapIn(TapRequest request) {
         log.info("Processing tap-in: card={}, station={}", request.getCardNumber(), request.getStationCode());
+        shardRouter.bindCard(request.getCardNumber());
 
         // 1. Validate card
-        Card card = cardRepository.findByCardNumber(request.getCardNumber())
-                .orElseThrow(() -> new ResourceNotFoundException("Card not found: " + request.getCardNumber()));
+        Card card = findCard(request.getCardNumber());
 
         if (card.getStatus() != Card.CardStatus.ACTIVE) {
             throw new InvalidJourneyException("Card is not active");
@@ -74,12 +95,13 @@ public class JourneyService {
 
         // 4. Get user and check balance (minimum check)
         User user = card.getUser();
-        if (user.getBalance().compareTo(BigDecimal.ZERO) <= 0) {
+        BigDecimal balance = accountBalanceService.balance(user);
+        if (balance.compareTo(BigDecimal.ZERO) <= 0) {
             throw new InsufficientBalanceException("Insufficient balance. Please top up your account.");
         }
 
         // 5. Create new journey
-        LocalDateTime tapTime = request.getTapTime() != null ? request.getTapTime() : LocalDateTime.now();
+        LocalDateTime tapTime = request.getTapTime() != null ? request.getTapTime() : LocalDateTime.now(clock);
         
         Journey journey = Journey.builder()
                 .user(user)
@@ -90,6 +112,9 @@ public class JourneyService {
                 .build();
 
         journey = journeyRepository.save(journey);
+        outboxService.journeyStarted(journey);
+        liveStationCounters.tappedIn(station.getId());
+        openJourneyTimers.opened(journey.getId(), journey.getTapInTime());
         log.info("Journey created: id={}, user={}, station={}", 
                  journey.getId(), user.getEmail(), station.getName());
 
@@ -101,7 +126,7 @@ public class JourneyService {
                 .stationName(station.getName())
                 .stationCode(station.getStationCode())
                 .tapTime(tapTime)
-                .currentBalance(user.getBalance())
+                .currentBalance(balance)
                 .build();
     }
 
@@ -111,92 +136,22 @@ public class JourneyService {
     @Transactional
     public TapResponse tapOut(TapRequest request) {
         log.info("Processing tap-out: card={}, station={}", request.getCardNumber(), request.getStationCode());
+        shardRouter.bindCard(request.getCardNumber());
 
         // 1. Validate card
-        Card card = cardRepository.findByCardNumber(request.getCardNumber())
-                .orElseThrow(() -> new ResourceNotFoundException("Card not found: " + request.getCardNumber()));
+        Card card = findCard(request.getCardNumber());
 
-        // 2. Find active journey
-        Journey journey = journeyRepository.findActiveJourneyByCardId(card.getId())
+        // 2. Find and lock the active journey
+        Journey journey = journeyRepository.findActiveJourneyByCardIdForUpdate(card.getId())
                 .orElseThrow(() -> new InvalidJourneyException("No active journey found. Please tap in first."));
 
         // 3. Validate exit station
         Station exitStation = stationRepository.findByStationCode(request.getStationCode())
                 .orElseThrow(() -> new ResourceNotFoundException("Station not found: " + request.getStationCode()));
 
-        // 4. Update journey with exit details
-        LocalDateTime tapOutTime = request.getTapTime() != null ? request.getTapTime() : LocalDateTime.now();
-        journey.setExitStation(exitStation);
-        journey.setTapOutTime(tapOutTime);
-
-        // 5. Calculate fare
-        Station entryStation = journey.getEntryStation();
-        int zonesTransited = fareCalculationService.calculateZonesTransited(entryStation, exitStation);
-        BigDecimal baseFare = fareCalculationService.calculateFare(entryStation, exitStation);
-
-        // 6. Apply daily capping
-        BigDecimal currentDailySpending = transactionRepository.calculateDailySpending(
-                journey.getUser().getId(), LocalDateTime.now());
-        BigDecimal finalFare = fareCalculationService.applyDailyCapping(currentDailySpending, baseFare);
-        BigDecimal discount = baseFare.subtract(finalFare);
-
-        journey.setZonesTransited(zonesTransited);
-        journey.setFareAmount(baseFare);
-        journey.setDiscountAmount(discount);
-        journey.setFinalAmount(finalFare);
-        journey.setStatus(Journey.JourneyStatus.COMPLETED);
-
-        // 7. Check user balance
-        User user = journey.getUser();
-        if (user.getBalance().compareTo(finalFare) < 0) {
-            throw new InsufficientBalanceException(
-                    String.format("Insufficient balance. Required: %.2f, Available: %.2f", 
-                                  finalFare, user.getBalance()));
-        }
-
-        // 8. Deduct from user balance
-        user.setBalance(user.getBalance().subtract(finalFare));
-        userRepository.save(user);
-
-        // 9. Create transaction record
-        Transaction transaction = Transaction.builder()
-                .transactionId(UUID.randomUUID().toString())
-                .user(user)
-                .journey(journey)
-                .card(card)
-                .type(Transaction.TransactionType.JOURNEY_PAYMENT)
-                .amount(finalFare)
-                .status(Transaction.TransactionStatus.COMPLETED)
-                .description(String.format("Journey from %s to %s", 
-                                          entryStation.getName(), exitStation.getName()))
-                .build();
-        transactionRepository.save(transaction);
-
-        journeyRepository.save(journey);
-
-        log.info("Journey completed: id={}, fare={}, zones={}, duration={} min", 
-                 journey.getId(), finalFare, zonesTransited, journey.getDurationInMinutes());
-
-        BigDecimal updatedDailySpending = currentDailySpending.add(finalFare);
-        boolean capReached = updatedDailySpending.compareTo(fareCalculationService.getDailyCapAmount()) >= 0;
-
-        return TapResponse.builder()
-                .success(true)
-                .message("Tap-out successful. Journey completed.")
-                .journeyId(journey.getId())
-                .journeyStatus(journey.getStatus().name())
-                .entryStationName(entryStation.getName())
-                .exitStationName(exitStation.getName())
-                .stationName(exitStation.getName())
-                .stationCode(exitStation.getStationCode())
-                .tapTime(tapOutTime)
-                .fareAmount(finalFare)
-                .zonesTransited(zonesTransited)
-                .journeyDurationMinutes(journey.getDurationInMinutes())
-                .currentBalance(user.getBalance())
-                .dailySpending(updatedDailySpending)
-                .dailyCapReached(capReached)
-                .build();
+        // 4. Complete the journey at the exit station
+        LocalDateTime tapOutTime = request.getTapTime() != null ? request.getTapTime() : LocalDateTime.now(clock);
+        return completeJourney(journey, card, exitStation, tapOutTime);
     }
 
     /**
@@ -205,6 +160,7 @@ public class JourneyService {
     @Transactional
     public TapResponse tapInByCardId(Long cardId, Long stationId) {
         log.info("Processing tap-in by id: cardId={}, stationId={}", cardId, stationId);
+        shardRouter.bindId(cardId);
 
         Card card = cardRepository.findById(cardId)
                 .orElseThrow(() -> new ResourceNotFoundException("Card not found with id: " + cardId));
@@ -228,7 +184,8 @@ public class JourneyService {
                 });
 
         User user = card.getUser();
-        if (user.getBalance().compareTo(BigDecimal.ZERO) <= 0) {
+        BigDecimal balance = accountBalanceService.balance(user);
+        if (balance.compareTo(BigDecimal.ZERO) <= 0) {
             throw new InsufficientBalanceException("Insufficient balance. Please top up your account.");
         }
 
@@ -236,11 +193,14 @@ public class JourneyService {
                 .user(user)
                 .card(card)
                 .entryStation(station)
-                .tapInTime(LocalDateTime.now())
+                .tapInTime(LocalDateTime.now(clock))
                 .status(Journey.JourneyStatus.IN_PROGRESS)
                 .build();
 
         journey = journeyRepository.save(journey);
+        outboxService.journeyStarted(journey);
+        liveStationCounters.tappedIn(station.getId());
+        openJourneyTimers.opened(journey.getId(), journey.getTapInTime());
 
         return TapResponse.builder()
                 .success(true)
@@ -250,7 +210,7 @@ public class JourneyService {
                 .stationName(station.getName())
                 .stationCode(station.getStationCode())
                 .tapTime(journey.getTapInTime())
-                .currentBalance(user.getBalance())
+                .currentBalance(balance)
                 .build();
     }
 
@@ -260,8 +220,9 @@ public class JourneyService {
     @Transactional
     public TapResponse tapOutByJourneyId(Long journeyId, Long exitStationId) {
         log.info("Processing tap-out by id: journeyId={}, exitStationId={}", journeyId, exitStationId);
+        shardRouter.bindId(journeyId);
 
-        Journey journey = journeyRepository.findById(journeyId)
+        Journey journey = journeyRepository.findByIdForUpdate(journeyId)
                 .orElseThrow(() -> new ResourceNotFoundException("Journey not found with id: " + journeyId));
 
         if (journey.getStatus() != Journey.JourneyStatus.IN_PROGRESS) {
@@ -271,17 +232,114 @@ public class JourneyService {
         Station exitStation = stationRepository.findById(exitStationId)
                 .orElseThrow(() -> new ResourceNotFoundException("Station not found with id: " + exitStationId));
 
-        LocalDateTime tapOutTime = LocalDateTime.now();
+        return completeJourney(journey, journey.getCard(), exitStation, LocalDateTime.now(clock));
+    }
+
+    /**
+     * Get journey history for a user, including journeys moved to the archive
+     */
+    @Transactional(readOnly = true)
+    public List<JourneyDTO> getUserJourneyHistory(Long userId) {
+        shardRouter.bindUser(userId);
+        List<JourneyDTO> history = new ArrayList<>(journeyRepository.findDTOsByUserId(userId));
+        history.addAll(archiveService.findJourneys(userId, null, null));
+        history.sort(Comparator.comparing(JourneyDTO::getTapInTime).reversed());
+        return history;
+    }
+
+    /**
+     * Get active journey for a card
+     */
+    @Transactional(readOnly = true)
+    public JourneyDTO getActiveJourney(String cardNumber) {
+        shardRouter.bindCard(cardNumber);
+        Card card = findCard(cardNumber);
+
+        return journeyRepository.findActiveJourneyByCardId(card.getId())
+                .map(this::convertToDTO)
+                .orElse(null);
+    }
+
+    /**
+     * Close one open journey with the incomplete-journey penalty. Called by JourneyExpiryJob when the
+     * journey's expiry timer comes due; returns false if it was tapped out or closed meanwhile.
+     */
+    @Transactional
+    public boolean expireJourney(Long journeyId) {
+        shardRouter.bindId(journeyId);
+        Journey journey = journeyRepository.findByIdForUpdate(journeyId).orElse(null);
+        if (journey == null || journey.getStatus() != Journey.JourneyStatus.IN_PROGRESS) {
+            return false;
+        }
+        applyIncompletePenalty(journey);
+        return true;
+    }
+
+    /**
+     * Ids of open journeys on the current shard past their deadline. Only ids: each one is closed
+     * through {@link #expireJourney}, which locks it and re-checks it is still open.
+     */
+    @Transactional(readOnly = true)
+    public List<Long> findOverdueJourneyIds() {
+        LocalDateTime cutoffTime = LocalDateTime.now(clock).minusHours(maxJourneyDurationHours);
+        return journeyRepository.findIncompleteJourneyIdsOlderThan(cutoffTime);
+    }
+
+    private void applyIncompletePenalty(Journey journey) {
+        journey.setStatus(Journey.JourneyStatus.INCOMPLETE);
+        journey.setFareAmount(fareCalculationService.getIncompleteJourneyPenalty());
+        journey.setFinalAmount(fareCalculationService.getIncompleteJourneyPenalty());
+
+        // Deduct penalty from user balance
+        User user = journey.getUser();
+        accountBalanceService.charge(user, journey.getFinalAmount());
+
+        // Create penalty transaction
+        Transaction transaction = Transaction.builder()
+                .transactionId(UUID.randomUUID().toString())
+                .user(user)
+                .journey(journey)
+                .card(journey.getCard())
+                .type(Transaction.TransactionType.PENALTY)
+                .amount(journey.getFinalAmount())
+                .status(Transaction.TransactionStatus.COMPLETED)
+                .description("Incomplete journey penalty")
+                .build();
+        transactionRepository.save(transaction);
+
+        journeyRepository.save(journey);
+        outboxService.journeyIncomplete(journey);
+        liveStationCounters.journeyClosed(journey.getEntryStation().getId());
+        openJourneyTimers.closed(journey.getId());
+        log.info("Processed incomplete journey: id={}, penalty={}", journey.getId(), journey.getFinalAmount());
+    }
+
+    private Card findCard(String cardNumber) {
+        requireKnownCard(cardNumber);
+        return cardRepository.findByCardNumber(cardNumber)
+                .orElseThrow(() -> {
+                    cardNumberFilter.recordFalsePositive();
+                    return new ResourceNotFoundException("Card not found: " + cardNumber);
+                });
+    }
+
+    /**
+     * Shared tap-out path: calculate the fare, charge the user and record the payment
+     */
+    private TapResponse completeJourney(Journey journey, Card card, Station exitStation, LocalDateTime tapOutTime) {
         journey.setExitStation(exitStation);
         journey.setTapOutTime(tapOutTime);
 
+        // Calculate fare
         Station entryStation = journey.getEntryStation();
         int zonesTransited = fareCalculationService.calculateZonesTransited(entryStation, exitStation);
-        BigDecimal baseFare = fareCalculationService.calculateFare(entryStation, exitStation);
+        BigDecimal baseFare = fareCalculationService.calculateFare(
+                entryStation, exitStation, journey.getTapInTime(), journey.getUser().getConcessionClass());
 
-        BigDecimal currentDailySpending = transactionRepository.calculateDailySpending(
-                journey.getUser().getId(), LocalDateTime.now());
-        BigDecimal finalFare = fareCalculationService.applyDailyCapping(currentDailySpending, baseFare);
+        // Apply stacked daily/weekly/monthly caps for the day the journey started
+        FareCappingService.CappingResult capping = fareCappingService.applyCaps(
+                journey.getUser().getId(), journey.getTapInTime().toLocalDate(), baseFare);
+        BigDecimal finalFare = capping.chargedFare();
         BigDecimal discount = baseFare.subtract(finalFare);
 
         journey.setZonesTransited(zonesTransited);
@@ -290,17 +348,11 @@ public class JourneyService {
         journey.setFinalAmount(finalFare);
         journey.setStatus(Journey.JourneyStatus.COMPLETED);
 
+        // Deduct from user balance; throws if it does not cover the fare
         User user = journey.getUser();
-        if (user.getBalance().compareTo(finalFare) < 0) {
-            throw new InsufficientBalanceException(
-                    String.format("Insufficient balance. Required: %.2f, Available: %.2f",
-                                  finalFare, user.getBalance()));
-        }
+        accountBalanceService.debit(user, finalFare);
 
-        user.setBalance(user.getBalance().subtract(finalFare));
-        userRepository.save(user);
-
-        Card card = journey.getCard();
+        // Create transaction record
         Transaction transaction = Transaction.builder()
                 .transactionId(UUID.randomUUID().toString())
                 .user(user)
@@ -315,9 +367,13 @@ public class JourneyService {
         transactionRepository.save(transaction);
 
         journeyRepository.save(journey);
+        outboxService.journeyCompleted(journey);
+        userStatisticsService.recordCompletedJourney(journey);
+        liveStationCounters.tappedOut(entryStation.getId(), exitStation.getId());
+        openJourneyTimers.closed(journey.getId());
 
-        BigDecimal updatedDailySpending = currentDailySpending.add(finalFare);
-        boolean capReached = updatedDailySpending.compareTo(fareCalculationService.getDailyCapAmount()) >= 0;
+        log.info("Journey completed: id={}, fare={}, zones={}, duration={} min",
+                 journey.getId(), finalFare, zonesTransited, journey.getDurationInMinutes());
 
         return TapResponse.builder()
                 .success(true)
@@ -332,74 +388,17 @@ public class JourneyService {
                 .fareAmount(finalFare)
                 .zonesTransited(zonesTransited)
                 .journeyDurationMinutes(journey.getDurationInMinutes())
-                .currentBalance(user.getBalance())
-                .dailySpending(updatedDailySpending)
-                .dailyCapReached(capReached)
+                .currentBalance(accountBalanceService.currentBalance(user))
+                .dailySpending(capping.dailySpending())
+                .dailyCapReached(capping.dailyCapReached())
+                .weeklySpending(capping.weeklySpending())
+                .weeklyCapReached(capping.weeklyCapReached())
+                .monthlySpending(capping.monthlySpending())
+                .monthlyCapReached(capping.monthlyCapReached())
                 .build();
     }
 
-    /**
-     * Get journey history for a user
-     */
-    @Transactional(readOnly = true)
-    public List<JourneyDTO> getUserJourneyHistory(Long userId) {
-        return journeyRepository.findByUserId(userId).stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
-    }
-
-    /**
-     * Get active journey for a card
-     */
-    @Transactional(readOnly = true)
-    public JourneyDTO getActiveJourney(String cardNumber) {
-        Card card = cardRepository.findByCardNumber(cardNumber)
-                .orElseThrow(() -> new ResourceNotFoundException("Card not found"));
-
-        return journeyRepository.findActiveJourneyByCardId(card.getId())
-                .map(this::convertToDTO)
-                .orElse(null);
-    }
-
-    /**
-     * Process incomplete journeys (scheduled task would call this)
-     */
-    @Transactional
-    public void processIncompleteJourneys() {
-        LocalDateTime cutoffTime = LocalDateTime.now().minusHours(maxJourneyDurationHours);
-        List<Journey> incompleteJourneys = journeyRepository.findIncompleteJourneysOlderThan(cutoffTime);
-
-        log.info("Processing {} incomplete journeys", incompleteJourneys.size());
-
-        for (Journey journey : incompleteJourneys) {
-            journey.setStatus(Journey.JourneyStatus.INCOMPLETE);
-            journey.setFareAmount(fareCalculationService.getIncompleteJourneyPenalty());
-            journey.setFinalAmount(fareCalculationService.getIncompleteJourneyPenalty());
-
-            // Deduct penalty from user balance
-            User user = journey.getUser();
-            user.setBalance(user.getBalance().subtract(journey.getFinalAmount()));
-            userRepository.save(user);
-
-            // Create penalty transaction
-            Transaction transaction = Transaction.builder()
-                    .transactionId(UUID.randomUUID().toString())
-                    .user(user)
-                    .journey(journey)
-                    .card(journey.getCard())
-                    .type(Transaction.TransactionType.PENALTY)
-                    .amount(journey.getFinalAmount())
-                    .status(Transaction.TransactionStatus.COMPLETED)
-                    .description("Incomplete journey penalty")
-                    .build();
-            transactionRepository.save(transaction);
-
-            journeyRepository.save(journey);
-            log.info("Processed incomplete journey: id={}, penalty={}", journey.getId(), journey.getFinalAmount());
-        }
-    }
-
-    private JourneyDTO convertToDTO(Journey journey) {
+    JourneyDTO convertToDTO(Journey journey) {
         return JourneyDTO.builder()
                 .id(journey.getId())
                 .userId(journey.getUser().getId())
@@ -0,0 +1,244 @@
+package mjyuu.transport_payment.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import mjyuu.transport_payment.repository.JourneyRepository;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Live per-station tap counts for the current day and riders currently inside the network
+ * (open journeys by entry station), kept in striped {@link LongAdder}s so concurrent taps never
+ * contend on a shared counter. JourneyService reports each tap once its transaction commits.
+ * <p>
+ * The counts are loaded from journeys once at startup, before the web server and schedulers
+ * start, so no tap can be counted twice. After that a node only sees the taps it handles itself:
+ * a rider who tapped in on another node and taps out here would drive {@code inside} negative.
+ * So {@code inside} is re-read from open journeys on a schedule; tap counts stay per node and are
+ * exact only on a single node.
+ */
+@Service
+@Slf4j
+public class LiveStationCounters implements SmartInitializingSingleton {
+
+    public record StationCount(Long stationId, long tapIns, long tapOuts, long inside) {}
+
+    public record Occupancy(LocalDate serviceDay, long tapIns, long tapOuts, long insideNetwork,
+                            List<StationCount> stations) {}
+
+    private static final class Counters {
+        final LongAdder tapIns = new LongAdder();
+        final LongAdder tapOuts = new LongAdder();
+        final LongAdder inside = new LongAdder();
+    }
+
+    private final JourneyRepository journeyRepository;
+    private final ShardRouter shardRouter;
+    private final TransactionTemplate readOnly;
+    private final MeterRegistry meterRegistry;
+    private final Clock clock;
+    private final boolean reconcileOnStartup;
+
+    private final Map<Long, Counters> stations = new ConcurrentHashMap<>();
+    private volatile LocalDate serviceDay;
+
+    public LiveStationCounters(JourneyRepository journeyRepository,
+                               ShardRouter shardRouter,
+                               PlatformTransactionManager transactionManager,
+                               MeterRegistry meterRegistry,
+                               Clock clock,
+                               @Value("${transport.station-counters.reconcile-on-startup:true}") boolean reconcileOnStartup) {
+        this.journeyRepository = journeyRepository;
+        this.shardRouter = shardRouter;
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+        this.meterRegistry = meterRegistry;
+        this.clock = clock;
+        this.reconcileOnStartup = reconcileOnStartup;
+        this.serviceDay = LocalDate.now(clock);
+
+        Gauge.builder("transport.network.inside", this, c -> c.sum(counters -> counters.inside))
+                .register(meterRegistry);
+        Gauge.builder("transport.network.tap_ins", this, c -> c.sum(counters -> counters.tapIns))
+                .register(meterRegistry);
+        Gauge.builder("transport.network.tap_outs", this, c -> c.sum(counters -> counters.tapOuts))
+                .register(meterRegistry);
+    }
+
+    public void tappedIn(Long stationId) {
+        afterCommit(() -> {
+            Counters counters = station(stationId);
+            counters.tapIns.increment();
+            counters.inside.increment();
+        });
+    }
+
+    public void tappedOut(Long entryStationId, Long exitStationId) {
+        afterCommit(() -> {
+            station(exitStationId).tapOuts.increment();
+            station(entryStationId).inside.decrement();
+        });
+    }
+
+    /**
+     * An open journey closed without a tap-out (incomplete-journey penalty)
+     */
+    public void journeyClosed(Long entryStationId) {
+        afterCommit(() -> station(entryStationId).inside.decrement());
+    }
+
+    public Occupancy getOccupancy() {
+        List<StationCount> counts = stations.entrySet().stream()
+                .map(e -> toCount(e.getKey(), e.getValue()))
+                .sorted(Comparator.comparingLong(StationCount::inside).reversed()
+                        .thenComparing(StationCount::stationId))
+                .toList();
+        return new Occupancy(serviceDay,
+                counts.stream().mapToLong(StationCount::tapIns).sum(),
+                counts.stream().mapToLong(StationCount::tapOuts).sum(),
+                counts.stream().mapToLong(StationCount::inside).sum(),
+                counts);
+    }
+
+    public StationCount getStation(Long stationId) {
+        Counters counters = stations.get(stationId);
+        return counters != null ? toCount(stationId, counters) : new StationCount(stationId, 0, 0, 0);
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (reconcileOnStartup) {
+            reconcile();
+        }
+    }
+
+    /**
+     * Start a new service day: tap counts restart at zero, riders inside the network stay
+     */
+    @Scheduled(cron = "${transport.station-counters.day-start-cron:0 0 0 * * *}")
+    public void startNewDay() {
+        serviceDay = LocalDate.now(clock);
+        stations.values().forEach(counters -> {
+            counters.tapIns.reset();
+            counters.tapOuts.reset();
+        });
+        log.info("Live station counters reset for {}", serviceDay);
+    }
+
+    /**
+     * Bring riders inside the network back in line with the open journeys on every shard. Applied
+     * as a correction rather than a reset, so taps counted while the query ran are kept; any that
+     * it also saw are corrected on the next run.
+     */
+    @Scheduled(fixedDelayString = "${transport.station-counters.inside-reconcile-interval-ms:30000}")
+    public void reconcileInside() {
+        Map<Long, Long> open = new HashMap<>();
+        shardRouter.forEachShard(() -> readOnly.executeWithoutResult(status ->
+                journeyRepository.countInProgressByEntryStation()
+                        .forEach(c -> open.merge(c.getStationId(), c.getJourneys(), Long::sum))));
+
+        long corrected = 0;
+        for (Long stationId : union(open.keySet(), stations.keySet())) {
+            LongAdder inside = station(stationId).inside;
+            long drift = open.getOrDefault(stationId, 0L) - inside.sum();
+            if (drift != 0) {
+                inside.add(drift);
+                corrected += Math.abs(drift);
+            }
+        }
+        if (corrected > 0) {
+            log.info("Riders inside the network corrected by {} across {} stations", corrected, open.size());
+        }
+    }
+
+    /**
+     * Replace the counts with what journeys records, summed across shards. Only safe while no taps
+     * are in flight, which is why it runs at startup.
+     */
+    void reconcile() {
+        long started = System.nanoTime();
+        LocalDate today = LocalDate.now(clock);
+        Map<Long, long[]> totals = new HashMap<>();
+        shardRouter.forEachShard(() -> readOnly.executeWithoutResult(status -> {
+            journeyRepository.countTapInsByStationSince(today.atStartOfDay())
+                    .forEach(c -> totals.computeIfAbsent(c.getStationId(), id -> new long[3])[0] += c.getJourneys());
+            journeyRepository.countTapOutsByStationSince(today.atStartOfDay())
+                    .forEach(c -> totals.computeIfAbsent(c.getStationId(), id -> new long[3])[1] += c.getJourneys());
+            journeyRepository.countInProgressByEntryStation()
+                    .forEach(c -> totals.computeIfAbsent(c.getStationId(), id -> new long[3])[2] += c.getJourneys());
+        }));
+
+        serviceDay = today;
+        stations.values().forEach(counters -> {
+            counters.tapIns.reset();
+            counters.tapOuts.reset();
+            counters.inside.reset();
+        });
+        totals.forEach((stationId, counts) -> {
+            Counters counters = station(stationId);
+            counters.tapIns.add(counts[0]);
+            counters.tapOuts.add(counts[1]);
+            counters.inside.add(counts[2]);
+        });
+        log.info("Live station counters reconciled from journeys: {} stations, {} riders inside, in {} ms",
+                 totals.size(), totals.values().stream().mapToLong(c -> c[2]).sum(),
+                 (System.nanoTime() - started) / 1_000_000);
+    }
+
+    private Counters station(Long stationId) {
+        return stations.computeIfAbsent(stationId, id -> {
+            Counters counters = new Counters();
+            Gauge.builder("transport.station.inside", counters.inside, LongAdder::sum)
+                    .tag("station", String.valueOf(id))
+                    .register(meterRegistry);
+            return counters;
+        });
+    }
+
+    private static Set<Long> union(Set<Long> a, Set<Long> b) {
+        Set<Long> all = new HashSet<>(a);
+        all.addAll(b);
+        return all;
+    }
+
+    private long sum(Function<Counters, LongAdder> counter) {
+        return stations.values().stream().mapToLong(counters -> counter.apply(counters).sum()).sum();
+    }
+
+    private static StationCount toCount(Long stationId, Counters counters) {
+        return new StationCount(stationId, counters.tapIns.sum(), counters.tapOuts.sum(), counters.inside.sum());
+    }
+
+    // A rolled-back tap must not move the counters
+    private static void afterCommit(Runnable update) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            update.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                update.run();
+            }
+        });
+    }
+}
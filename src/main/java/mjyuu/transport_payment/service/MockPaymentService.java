@@ -2,6 +2,7 @@ package mjyuu.transport_payment.service;
 
 import mjyuu.transport_payment.dto.CardTopUpRequest;
 import mjyuu.transport_payment.exception.PaymentProcessingException;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
@@ -14,9 +15,12 @@ import java.util.UUID;
  * raw card numbers are never written to the database.
  */
 @Service
+@RequiredArgsConstructor
 @Slf4j
 public class MockPaymentService {
 
+    private final PaymentGatewaySimulator simulator;
+
     // These numbers always trigger a decline (mirrors Stripe's test card behaviour)
     private static final Set<String> DECLINE_NUMBERS = Set.of(
             "4000000000000002",  // generic decline
@@ -37,6 +41,7 @@ public class MockPaymentService {
         validateExpiry(request.getExpiryMonth(), request.getExpiryYear());
         validateCvvLength(cardNumber, request.getCvv());
         checkForDecline(cardNumber);
+        simulator.simulate();
 
         String cardType = detectCardType(cardNumber);
         String lastFour = cardNumber.substring(cardNumber.length() - 4);
@@ -0,0 +1,134 @@
+package mjyuu.transport_payment.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import mjyuu.transport_payment.repository.JourneyRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * One expiry timer per open journey, due at tap-in + max-journey-duration-hours. Tap-in schedules
+ * it and tap-out cancels it once the transaction commits; {@link JourneyExpiryJob} closes whatever
+ * comes due. The wheel lives in memory and is rebuilt from IN_PROGRESS journeys on startup.
+ * Re-scheduling a journey replaces its timer, and expiry re-checks the journey's status, so a
+ * timer left over from a race with the rebuild is harmless.
+ */
+@Service
+@Slf4j
+public class OpenJourneyTimers {
+
+    // Seconds resolution over four levels spans ~194 days, far beyond any journey deadline
+    private static final int WHEEL_LEVELS = 4;
+
+    private final JourneyRepository journeyRepository;
+    private final ShardRouter shardRouter;
+    private final TransactionTemplate readOnly;
+    private final Clock clock;
+    private final boolean enabled;
+    private final Duration maxJourneyDuration;
+    private final HierarchicalTimerWheel<Long> wheel;
+
+    public OpenJourneyTimers(JourneyRepository journeyRepository,
+                             ShardRouter shardRouter,
+                             PlatformTransactionManager transactionManager,
+                             MeterRegistry meterRegistry,
+                             Clock clock,
+                             @Value("${transport.journey-expiry.enabled:true}") boolean enabled,
+                             @Value("${transport.journey-expiry.tick-ms:1000}") long tickMillis,
+                             @Value("${transport.payment.max-journey-duration-hours}") int maxJourneyDurationHours) {
+        this.journeyRepository = journeyRepository;
+        this.shardRouter = shardRouter;
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+        this.clock = clock;
+        this.enabled = enabled;
+        this.maxJourneyDuration = Duration.ofHours(maxJourneyDurationHours);
+        this.wheel = new HierarchicalTimerWheel<>(tickMillis, WHEEL_LEVELS, clock.millis());
+        Gauge.builder("transport.journey_expiry.pending", this, OpenJourneyTimers::size).register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void opened(Long journeyId, LocalDateTime tapInTime) {
+        if (enabled) {
+            afterCommit(() -> schedule(journeyId, tapInTime));
+        }
+    }
+
+    public void closed(Long journeyId) {
+        if (enabled) {
+            afterCommit(() -> cancel(journeyId));
+        }
+    }
+
+    /**
+     * Journeys whose deadline has passed since the last call
+     */
+    public synchronized List<Long> due() {
+        return wheel.advance(clock.millis());
+    }
+
+    /**
+     * Try an expiry again later, e.g. after the database was unavailable
+     */
+    public synchronized void retryLater(Long journeyId, Duration delay) {
+        wheel.schedule(journeyId, clock.millis() + delay.toMillis());
+    }
+
+    public synchronized int size() {
+        return wheel.size();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        if (!enabled) {
+            return;
+        }
+        long started = System.nanoTime();
+        int[] loaded = new int[1];
+        shardRouter.forEachShard(() -> readOnly.executeWithoutResult(status ->
+                journeyRepository.findOpenJourneyTapIns().forEach(open -> {
+                    schedule(open.getId(), open.getTapInTime());
+                    loaded[0]++;
+                })));
+        log.info("Journey expiry timers rebuilt: {} open journeys in {} ms",
+                 loaded[0], (System.nanoTime() - started) / 1_000_000);
+    }
+
+    private synchronized void schedule(Long journeyId, LocalDateTime tapInTime) {
+        long deadline = tapInTime.plus(maxJourneyDuration).atZone(clock.getZone()).toInstant().toEpochMilli();
+        wheel.schedule(journeyId, deadline);
+    }
+
+    private synchronized void cancel(Long journeyId) {
+        wheel.cancel(journeyId);
+    }
+
+    // A rolled-back tap must not leave or remove a timer
+    private static void afterCommit(Runnable update) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            update.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                update.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,19 @@
+package mjyuu.transport_payment.service;
+
+import mjyuu.transport_payment.entity.OutboxEvent;
+
+import java.util.List;
+
+/**
+ * Destination for relayed outbox events (message broker, file, ...).
+ * Implementations must be idempotent on {@link OutboxEvent#getId()}: a batch whose
+ * publish succeeded but whose "published" mark failed to commit is delivered again.
+ */
+public interface OutboxEventSink {
+
+    /**
+     * Deliver a batch of events in ascending id order. Throwing leaves the whole
+     * batch unpublished so it is retried on the next relay run.
+     */
+    void publish(List<OutboxEvent> events);
+}
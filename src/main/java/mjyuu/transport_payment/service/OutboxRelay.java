@@ -0,0 +1,62 @@
+package mjyuu.transport_payment.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * Drains the outbox to the configured sink off the request path.
+ */
+@Component
+@ConditionalOnProperty(name = "transport.outbox.relay-enabled", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class OutboxRelay {
+
+    private final OutboxService outboxService;
+    private final OutboxEventSink outboxEventSink;
+    private final RidershipRollupService ridershipRollupService;
+    private final ShardRouter shardRouter;
+
+    @Value("${transport.outbox.batch-size:200}")
+    private int batchSize;
+
+    @Value("${transport.outbox.retention-days:7}")
+    private int retentionDays;
+
+    /**
+     * Keep relaying full batches until the backlog is drained, shard by shard
+     */
+    @Scheduled(fixedDelayString = "${transport.outbox.poll-interval-ms:500}")
+    public void relay() {
+        shardRouter.forEachShard(this::relayShard);
+    }
+
+    private void relayShard() {
+        int relayed;
+        try {
+            do {
+                relayed = outboxService.relayNextBatch(outboxEventSink, batchSize);
+            } while (relayed == batchSize);
+        } catch (RuntimeException e) {
+            log.warn("Outbox relay failed, batch will be retried: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Remove published events once they are past the retention window
+     */
+    @Scheduled(cron = "${transport.outbox.purge-cron:0 30 3 * * *}")
+    public void purge() {
+        shardRouter.forEachShard(() -> {
+            int deleted = outboxService.purgePublishedBefore(
+                    LocalDateTime.now().minusDays(retentionDays), ridershipRollupService.getWatermark());
+            log.info("Purged {} published outbox events older than {} days", deleted, retentionDays);
+        });
+    }
+}
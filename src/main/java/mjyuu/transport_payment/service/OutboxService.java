@@ -0,0 +1,136 @@
+package mjyuu.transport_payment.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import mjyuu.transport_payment.entity.Journey;
+import mjyuu.transport_payment.entity.OutboxEvent;
+import mjyuu.transport_payment.entity.Transaction;
+import mjyuu.transport_payment.repository.OutboxEventRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Transactional outbox. Events are appended inside the caller's transaction so they
+ * commit (or roll back) together with the journey/payment change they describe.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OutboxService {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Record a tap-in
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void journeyStarted(Journey journey) {
+        append(OutboxEvent.AggregateType.JOURNEY, journey.getId(), OutboxEvent.EventType.JOURNEY_STARTED,
+               journeyPayload(journey));
+    }
+
+    /**
+     * Record a completed journey
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void journeyCompleted(Journey journey) {
+        Map<String, Object> payload = journeyPayload(journey);
+        payload.put("exitStationId", journey.getExitStation().getId());
+        payload.put("tapOutTime", journey.getTapOutTime());
+        payload.put("zonesTransited", journey.getZonesTransited());
+        payload.put("fareAmount", journey.getFareAmount());
+        payload.put("finalAmount", journey.getFinalAmount());
+        append(OutboxEvent.AggregateType.JOURNEY, journey.getId(), OutboxEvent.EventType.JOURNEY_COMPLETED, payload);
+    }
+
+    /**
+     * Record a journey closed with an incomplete-journey penalty
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void journeyIncomplete(Journey journey) {
+        Map<String, Object> payload = journeyPayload(journey);
+        payload.put("penaltyAmount", journey.getFinalAmount());
+        append(OutboxEvent.AggregateType.JOURNEY, journey.getId(), OutboxEvent.EventType.JOURNEY_INCOMPLETE, payload);
+    }
+
+    /**
+     * Record a card top-up credited to the user's wallet
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void topUpCompleted(Transaction transaction) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("transactionId", transaction.getTransactionId());
+        payload.put("userId", transaction.getUser().getId());
+        payload.put("amount", transaction.getAmount());
+        payload.put("paymentReference", transaction.getPaymentGatewayReference());
+        append(OutboxEvent.AggregateType.TRANSACTION, transaction.getId(), OutboxEvent.EventType.CARD_TOP_UP_COMPLETED, payload);
+    }
+
+    /**
+     * Lock the next batch of unpublished events, hand them to the sink and mark them
+     * published in the same transaction. If the sink throws, the batch stays unpublished
+     * and is retried; sinks de-duplicate on event id, so a redelivery after a failed
+     * commit is harmless and each event takes effect exactly once.
+     *
+     * @return number of events relayed
+     */
+    @Transactional
+    public int relayNextBatch(OutboxEventSink sink, int batchSize) {
+        List<OutboxEvent> batch = outboxEventRepository.lockUnpublishedBatch(batchSize);
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        sink.publish(batch);
+
+        List<Long> ids = batch.stream().map(OutboxEvent::getId).toList();
+        outboxEventRepository.markPublished(ids, LocalDateTime.now());
+        log.debug("Relayed {} outbox events ({}..{})", batch.size(), ids.get(0), ids.get(ids.size() - 1));
+        return batch.size();
+    }
+
+    /**
+     * Delete events that were published before the cutoff. Events past {@code maxEventId}
+     * are kept even if published, because the ridership rollup has not consumed them yet.
+     */
+    @Transactional
+    public int purgePublishedBefore(LocalDateTime cutoff, long maxEventId) {
+        return outboxEventRepository.deletePublishedBefore(cutoff, maxEventId);
+    }
+
+    private Map<String, Object> journeyPayload(Journey journey) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("journeyId", journey.getId());
+        payload.put("userId", journey.getUser().getId());
+        payload.put("cardId", journey.getCard().getId());
+        payload.put("entryStationId", journey.getEntryStation().getId());
+        payload.put("tapInTime", journey.getTapInTime());
+        return payload;
+    }
+
+    private void append(OutboxEvent.AggregateType aggregateType, Long aggregateId,
+                        OutboxEvent.EventType eventType, Map<String, Object> payload) {
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialise " + eventType + " event", e);
+        }
+
+        outboxEventRepository.save(OutboxEvent.builder()
+                .aggregateType(aggregateType)
+                .aggregateId(aggregateId)
+                .eventType(eventType)
+                .payload(json)
+                .build());
+    }
+}
@@ -0,0 +1,158 @@
+package mjyuu.transport_payment.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import mjyuu.transport_payment.exception.PaymentProcessingException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Makes {@link MockPaymentService} behave like a real gateway under load: latency drawn
+ * from a configurable distribution, hung calls, random declines and periodic outages.
+ * Off by default; settings can be changed at runtime through the admin API.
+ */
+@Component
+@Slf4j
+public class PaymentGatewaySimulator {
+
+    public enum LatencyDistribution {
+        FIXED,          // always the median
+        UNIFORM,        // evenly spread, symmetric around the median, capped at p99
+        LOG_NORMAL      // long right tail, fitted to the median and p99
+    }
+
+    /**
+     * @param timeoutRate          share of calls that hang for {@code hangMs} (longer than the gateway timeout)
+     * @param declineRate          share of calls declined outright
+     * @param burstIntervalSeconds every this many seconds the gateway fails all calls...
+     * @param burstDurationSeconds ...for this many seconds; 0 disables bursts
+     */
+    public record Settings(boolean enabled,
+                           LatencyDistribution distribution,
+                           long medianMs,
+                           long p99Ms,
+                           double timeoutRate,
+                           long hangMs,
+                           double declineRate,
+                           long burstIntervalSeconds,
+                           long burstDurationSeconds) {
+
+        void validate() {
+            if (distribution == null) {
+                throw new IllegalArgumentException("distribution is required");
+            }
+            if (medianMs < 0 || p99Ms < medianMs) {
+                throw new IllegalArgumentException("Latency must satisfy 0 <= medianMs <= p99Ms");
+            }
+            if (timeoutRate < 0 || declineRate < 0 || timeoutRate + declineRate > 1) {
+                throw new IllegalArgumentException("timeoutRate and declineRate must be >= 0 and sum to at most 1");
+            }
+            if (burstDurationSeconds > 0 && burstIntervalSeconds <= burstDurationSeconds) {
+                throw new IllegalArgumentException("burstIntervalSeconds must exceed burstDurationSeconds");
+            }
+        }
+    }
+
+    // z-score of the 99th percentile of a standard normal
+    private static final double Z_99 = 2.326;
+
+    private final MeterRegistry meterRegistry;
+    private volatile Settings settings;
+
+    public PaymentGatewaySimulator(
+            MeterRegistry meterRegistry,
+            @Value("${transport.payment.simulator.enabled:false}") boolean enabled,
+            @Value("${transport.payment.simulator.distribution:LOG_NORMAL}") LatencyDistribution distribution,
+            @Value("${transport.payment.simulator.median-ms:150}") long medianMs,
+            @Value("${transport.payment.simulator.p99-ms:900}") long p99Ms,
+            @Value("${transport.payment.simulator.timeout-rate:0.0}") double timeoutRate,
+            @Value("${transport.payment.simulator.hang-ms:30000}") long hangMs,
+            @Value("${transport.payment.simulator.decline-rate:0.0}") double declineRate,
+            @Value("${transport.payment.simulator.burst-interval-seconds:0}") long burstIntervalSeconds,
+            @Value("${transport.payment.simulator.burst-duration-seconds:0}") long burstDurationSeconds) {
+        this.meterRegistry = meterRegistry;
+        updateSettings(new Settings(enabled, distribution, medianMs, p99Ms, timeoutRate, hangMs,
+                                    declineRate, burstIntervalSeconds, burstDurationSeconds));
+    }
+
+    public Settings getSettings() {
+        return settings;
+    }
+
+    public void updateSettings(Settings settings) {
+        settings.validate();
+        log.info("Payment gateway simulator settings changed: {}", settings);
+        this.settings = settings;
+    }
+
+    /**
+     * Called before a mock authorisation: sleeps for the simulated latency and throws
+     * {@link PaymentProcessingException} for simulated declines and outages.
+     */
+    public void simulate() {
+        Settings current = settings;
+        if (!current.enabled()) {
+            return;
+        }
+
+        if (current.burstDurationSeconds() > 0
+                && Instant.now().getEpochSecond() % current.burstIntervalSeconds() < current.burstDurationSeconds()) {
+            record("outage");
+            throw new PaymentProcessingException("Payment gateway unavailable (simulated outage)");
+        }
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        double roll = random.nextDouble();
+        if (roll < current.timeoutRate()) {
+            record("hang");
+            sleep(current.hangMs());
+            return;
+        }
+
+        sleep(sampleLatencyMs(current, random));
+        if (roll < current.timeoutRate() + current.declineRate()) {
+            record("decline");
+            throw new PaymentProcessingException("Card declined: do_not_honor (simulated)");
+        }
+        record("approved");
+    }
+
+    private long sampleLatencyMs(Settings current, ThreadLocalRandom random) {
+        long median = current.medianMs();
+        long p99 = current.p99Ms();
+        return switch (current.distribution()) {
+            case FIXED -> median;
+            case UNIFORM -> {
+                long low = Math.max(0, 2 * median - p99);
+                yield low + (long) (random.nextDouble() * (p99 - low));
+            }
+            case LOG_NORMAL -> {
+                if (median == 0) {
+                    yield 0;
+                }
+                double mu = Math.log(median);
+                double sigma = (Math.log(Math.max(p99, median)) - mu) / Z_99;
+                yield Math.round(Math.exp(mu + sigma * random.nextGaussian()));
+            }
+        };
+    }
+
+    private void record(String outcome) {
+        meterRegistry.counter("transport.payment.simulator.calls", "outcome", outcome).increment();
+    }
+
+    private static void sleep(long ms) {
+        if (ms <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PaymentProcessingException("Payment interrupted");
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package mjyuu.transport_payment.service;
+
+import mjyuu.transport_payment.dto.RidershipDTO;
+import mjyuu.transport_payment.repository.OutboxEventRepository;
+import mjyuu.transport_payment.repository.StationHourlyRidershipRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Maintains station_hourly_ridership from the journey events in the outbox. A watermark
+ * records the last event folded in; each batch applies the next id range and advances the
+ * watermark in one transaction, so every tap is counted exactly once.
+ * <p>
+ * Ids are assigned at insert but become visible at commit, so the job only reads events
+ * older than {@code lag-seconds}: by then any transaction holding a lower id has finished.
+ */
+@Service
+@Slf4j
+public class RidershipRollupService {
+
+    static final String ROLLUP_NAME = "station_hourly";
+
+    private final StationHourlyRidershipRepository ridershipRepository;
+    private final OutboxEventRepository outboxEventRepository;
+    private final ShardRouter shardRouter;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnly;
+
+    @Value("${transport.ridership.batch-size:5000}")
+    private int batchSize;
+
+    @Value("${transport.ridership.lag-seconds:60}")
+    private long lagSeconds;
+
+    public RidershipRollupService(StationHourlyRidershipRepository ridershipRepository,
+                                  OutboxEventRepository outboxEventRepository,
+                                  ShardRouter shardRouter,
+                                  PlatformTransactionManager transactionManager) {
+        this.ridershipRepository = ridershipRepository;
+        this.outboxEventRepository = outboxEventRepository;
+        this.shardRouter = shardRouter;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+    }
+
+    @Scheduled(fixedDelayString = "${transport.ridership.rollup-interval-ms:60000}")
+    public void scheduledRollup() {
+        try {
+            rollUpAllShards();
+        } catch (RuntimeException e) {
+            log.warn("Ridership rollup failed, will retry from the last watermark: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Each shard rolls up its own outbox into its own counters
+     */
+    public void rollUpAllShards() {
+        shardRouter.forEachShard(this::rollUp);
+    }
+
+    /**
+     * Apply every ready event batch by batch
+     *
+     * @return number of outbox ids the watermark moved past
+     */
+    public long rollUp() {
+        long total = 0;
+        long advanced;
+        do {
+            advanced = transactionTemplate.execute(status -> rollUpNextBatch());
+            total += advanced;
+        } while (advanced > 0);
+
+        if (total > 0) {
+            log.info("Ridership rollup advanced {} events, watermark {}", total, getWatermark());
+        }
+        return total;
+    }
+
+    private long rollUpNextBatch() {
+        long from = ridershipRepository.lockWatermark(ROLLUP_NAME);
+        Long ready = outboxEventRepository
+                .findMaxIdCreatedBefore(from, LocalDateTime.now().minusSeconds(lagSeconds))
+                .orElse(null);
+        if (ready == null) {
+            return 0;
+        }
+
+        long to = Math.min(ready, from + batchSize);
+        ridershipRepository.applyEvents(from, to);
+        ridershipRepository.advanceWatermark(ROLLUP_NAME, to);
+        return to - from;
+    }
+
+    /**
+     * Last outbox event id folded into the rollup; the outbox purge keeps everything after it
+     */
+    @Transactional(readOnly = true)
+    public long getWatermark() {
+        return ridershipRepository.findWatermark(ROLLUP_NAME);
+    }
+
+    @Transactional(readOnly = true)
+    public long countPendingEvents() {
+        return outboxEventRepository.countByIdGreaterThan(getWatermark());
+    }
+
+    /**
+     * Rollup watermark of each shard, by shard number
+     */
+    public List<Long> getWatermarks() {
+        List<Long> watermarks = new ArrayList<>();
+        shardRouter.forEachShard(() -> watermarks.add(readOnly.execute(status -> getWatermark())));
+        return watermarks;
+    }
+
+    public long countPendingEventsOnAllShards() {
+        long[] pending = new long[1];
+        shardRouter.forEachShard(() -> pending[0] += readOnly.execute(status -> countPendingEvents()));
+        return pending[0];
+    }
+
+    public List<RidershipDTO> getStationHourly(Long stationId, LocalDate date) {
+        return onAllShards(() -> ridershipRepository.findHourly(stationId, date.atStartOfDay(), date.plusDays(1).atStartOfDay()));
+    }
+
+    public List<RidershipDTO> getNetworkHourly(LocalDate date) {
+        return onAllShards(() -> ridershipRepository.findNetworkHourly(date.atStartOfDay(), date.plusDays(1).atStartOfDay()));
+    }
+
+    /**
+     * Daily totals per station for [from, to], optionally for a single station
+     */
+    public List<RidershipDTO> getDaily(LocalDate from, LocalDate to, Long stationId) {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("'to' must not be before 'from'");
+        }
+        LocalDateTime start = from.atStartOfDay();
+        LocalDateTime end = to.plusDays(1).atStartOfDay();
+        return onAllShards(() -> stationId != null
+                ? ridershipRepository.findDailyForStation(stationId, start, end)
+                : ridershipRepository.findDaily(start, end));
+    }
+
+    // Every shard counts the taps of its own riders, so a station's figures are the sum over shards
+    private List<RidershipDTO> onAllShards(Supplier<List<RidershipDTO>> query) {
+        if (!shardRouter.isEnabled()) {
+            return readOnly.execute(status -> query.get());
+        }
+        Map<RowKey, RidershipDTO> merged = new HashMap<>();
+        shardRouter.forEachShard(() -> readOnly.execute(status -> query.get()).forEach(row ->
+                merged.merge(new RowKey(row.getStationId(), row.getDate(), row.getHour()), row, (a, b) -> {
+                    a.setEntries(a.getEntries() + b.getEntries());
+                    a.setExits(a.getExits() + b.getExits());
+                    return a;
+                })));
+        return merged.values().stream()
+                .sorted(Comparator.comparing(RidershipDTO::getDate)
+                        .thenComparing(RidershipDTO::getHour, Comparator.nullsFirst(Comparator.naturalOrder()))
+                        .thenComparing(RidershipDTO::getStationId, Comparator.nullsFirst(Comparator.naturalOrder())))
+                .toList();
+    }
+
+    private record RowKey(Long stationId, LocalDate date, Integer hour) {}
+}
@@ -0,0 +1,222 @@
+package mjyuu.transport_payment.service;
+
+import lombok.extern.slf4j.Slf4j;
+import mjyuu.transport_payment.config.ShardContext;
+import mjyuu.transport_payment.config.ShardTopology;
+import mjyuu.transport_payment.config.ShardingProperties;
+import mjyuu.transport_payment.exception.ResourceNotFoundException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Picks the database a rider's users, cards, journeys and transactions live on.
+ * <p>
+ * Ids carry their shard in the bits above {@link #SHARD_ID_SHIFT} (R__shard_id_ranges starts each
+ * shard's sequences there), so any user, card, journey or transaction id routes without a lookup.
+ * Card numbers and emails go through the rider_shard_directory table on shard 0. Rows created
+ * before sharding was enabled are all on shard 0, which is also where an unknown key routes.
+ * <p>
+ * With sharding disabled there is one shard and every call here is a no-op.
+ */
+@Service
+@Slf4j
+public class ShardRouter {
+
+    public static final int SHARD_ID_SHIFT = 40;
+
+    private static final String CARD_NUMBER = "CARD_NUMBER";
+    private static final String EMAIL = "EMAIL";
+
+    private final int shardCount;
+    private final JdbcTemplate directory;
+    private final int directoryCacheSize;
+    private final Map<String, Integer> directoryCache = new ConcurrentHashMap<>();
+
+    public ShardRouter(ObjectProvider<ShardTopology> topology, ObjectProvider<ShardingProperties> properties) {
+        ShardTopology shards = topology.getIfAvailable();
+        this.shardCount = shards != null ? shards.size() : 1;
+        // Plain pool, not the routing data source: directory reads must not pick up the rider's shard
+        this.directory = shards != null ? new JdbcTemplate(shards.shard(0)) : null;
+        ShardingProperties sharding = properties.getIfAvailable();
+        this.directoryCacheSize = sharding != null ? sharding.getDirectoryCacheSize() : 0;
+    }
+
+    public boolean isEnabled() {
+        return shardCount > 1;
+    }
+
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    /**
+     * Shard holding the row with this user, card, journey or transaction id
+     */
+    public int shardForId(Long id) {
+        if (!isEnabled() || id == null) {
+            return 0;
+        }
+        long shard = id >>> SHARD_ID_SHIFT;
+        if (shard >= shardCount) {
+            throw new ResourceNotFoundException("No shard holds id " + id);
+        }
+        return (int) shard;
+    }
+
+    public int shardForCard(String cardNumber) {
+        return isEnabled() ? lookup(CARD_NUMBER, cardNumber) : 0;
+    }
+
+    public int shardForEmail(String email) {
+        return isEnabled() ? lookup(EMAIL, normaliseEmail(email)) : 0;
+    }
+
+    /**
+     * Shard for a user about to register: the one already in the directory, or a new assignment
+     * spread by email hash
+     */
+    public int assignEmail(String email) {
+        if (!isEnabled()) {
+            return 0;
+        }
+        String key = normaliseEmail(email);
+        int shard = Math.floorMod(key.hashCode(), shardCount);
+        register(EMAIL, key, shard);
+        return lookup(EMAIL, key);
+    }
+
+    /**
+     * Record a new card's shard. Runs before the card row is written, so a tap can never find the
+     * card without finding its shard; a card that then fails to insert leaves a harmless entry.
+     * Returns the shard the number is registered to, which differs from {@code shard} if the
+     * number was already registered elsewhere.
+     */
+    public int registerCard(String cardNumber, int shard) {
+        if (!isEnabled()) {
+            return shard;
+        }
+        register(CARD_NUMBER, cardNumber, shard);
+        return lookup(CARD_NUMBER, cardNumber);
+    }
+
+    public void bindId(Long id) {
+        bind(shardForId(id));
+    }
+
+    public void bindUser(Long userId) {
+        bind(shardForId(userId));
+    }
+
+    public void bindCard(String cardNumber) {
+        bind(shardForCard(cardNumber));
+    }
+
+    public void bindEmail(String email) {
+        bind(shardForEmail(email));
+    }
+
+    /**
+     * Route the current transaction to a shard. Must come before its first statement; the binding
+     * lasts until the transaction completes and every later bind must agree with it.
+     */
+    public void bind(int shard) {
+        if (!isEnabled()) {
+            return;
+        }
+        Integer current = ShardContext.current();
+        if (current != null) {
+            if (current != shard) {
+                throw new IllegalStateException("Already routed to shard " + current + ", cannot join shard " + shard);
+            }
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Shard routing needs an active transaction");
+        }
+        ShardContext.set(shard);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                ShardContext.clear();
+            }
+        });
+    }
+
+    /**
+     * Run work that opens its own transactions against one shard
+     */
+    public <T> T onShard(int shard, Supplier<T> work) {
+        if (!isEnabled()) {
+            return work.get();
+        }
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Cannot switch shards inside a transaction");
+        }
+        Integer previous = ShardContext.current();
+        ShardContext.set(shard);
+        try {
+            return work.get();
+        } finally {
+            if (previous != null) {
+                ShardContext.set(previous);
+            } else {
+                ShardContext.clear();
+            }
+        }
+    }
+
+    /**
+     * Run shard-local maintenance (relays, reconcilers, rebuilds) once per shard
+     */
+    public void forEachShard(Runnable work) {
+        for (int shard = 0; shard < shardCount; shard++) {
+            onShard(shard, () -> {
+                work.run();
+                return null;
+            });
+        }
+    }
+
+    private int lookup(String keyType, String key) {
+        String cacheKey = keyType + ':' + key;
+        Integer cached = directoryCache.get(cacheKey);
+        if (cached != null) {
+            return cached;
+        }
+        List<Integer> shards = directory.queryForList(
+                "SELECT shard_id FROM rider_shard_directory WHERE key_type = ? AND lookup_key = ?",
+                Integer.class, keyType, key);
+        if (shards.isEmpty()) {
+            // Not registered: created before sharding, or unknown and about to 404 on shard 0
+            return 0;
+        }
+        cache(cacheKey, shards.get(0));
+        return shards.get(0);
+    }
+
+    private void register(String keyType, String key, int shard) {
+        directory.update("INSERT INTO rider_shard_directory (key_type, lookup_key, shard_id) VALUES (?, ?, ?) " +
+                         "ON CONFLICT (key_type, lookup_key) DO NOTHING", keyType, key, shard);
+    }
+
+    // Entries never change once written, so the only concern is size
+    private void cache(String cacheKey, int shard) {
+        if (directoryCache.size() >= directoryCacheSize) {
+            directoryCache.clear();
+        }
+        directoryCache.put(cacheKey, shard);
+    }
+
+    private static String normaliseEmail(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,131 @@
+package mjyuu.transport_payment.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import mjyuu.transport_payment.repository.StationRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Serialised responses for the public station catalogue endpoints. Each body is built and
+ * serialised once per station-data version, so a warm request costs no query and no JSON work.
+ * The version is bumped after a station write commits, and by a periodic check that picks up
+ * writes made on other nodes. Keys derived from request input (zones) are only cached for
+ * values that exist in the catalogue, so the map stays as small as the catalogue itself.
+ */
+@Service
+@Slf4j
+public class StationCatalogCache {
+
+    /**
+     * A serialised response body and its strong ETag. The ETag is a hash of the bytes, so every
+     * node serving the same data hands out the same tag.
+     */
+    public record Snapshot(long version, String etag, byte[] body) {}
+
+    /**
+     * Published by {@link StationService} whenever station data changes
+     */
+    public record StationsChangedEvent() {}
+
+    private record Zones(long version, Set<Integer> numbers) {}
+
+    private final StationRepository stationRepository;
+    private final ObjectMapper objectMapper;
+
+    private final AtomicLong version = new AtomicLong();
+    private final Map<String, Snapshot> snapshots = new ConcurrentHashMap<>();
+    private volatile String fingerprint;
+    private volatile Zones zones = new Zones(-1, Set.of());
+
+    public StationCatalogCache(StationRepository stationRepository, ObjectMapper objectMapper) {
+        this.stationRepository = stationRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * The cached body for {@code key}, building it with {@code body} if the station data
+     * has changed since it was last serialised
+     */
+    public Snapshot get(String key, Supplier<Object> body) {
+        long current = version.get();
+        Snapshot snapshot = snapshots.get(key);
+        if (snapshot != null && snapshot.version() == current) {
+            return snapshot;
+        }
+
+        // Tagged with the version read before the query: a concurrent change leaves it stale, not wrong
+        Snapshot built = serialise(current, body.get());
+        snapshots.merge(key, built, (existing, candidate) ->
+                existing.version() >= candidate.version() ? existing : candidate);
+        return built;
+    }
+
+    /**
+     * Whether any station is in {@code zoneNumber}, from a zone list loaded once per data version
+     */
+    public boolean hasZone(int zoneNumber) {
+        long current = version.get();
+        Zones known = zones;
+        if (known.version() != current) {
+            known = new Zones(current, Set.copyOf(stationRepository.findAllZones()));
+            zones = known;
+        }
+        return known.numbers().contains(zoneNumber);
+    }
+
+    public long getVersion() {
+        return version.get();
+    }
+
+    @TransactionalEventListener
+    public void onStationsChanged(StationsChangedEvent event) {
+        invalidate();
+    }
+
+    /**
+     * Pick up station changes committed by another node
+     */
+    @Scheduled(fixedDelayString = "${transport.stations.cache.refresh-interval-ms:60000}")
+    public void refreshIfChanged() {
+        LocalDateTime lastModified = stationRepository.findLastModified().orElse(null);
+        String latest = stationRepository.count() + "@" + lastModified;
+        String previous = fingerprint;
+        fingerprint = latest;
+        if (previous != null && !Objects.equals(previous, latest)) {
+            invalidate();
+        }
+    }
+
+    private void invalidate() {
+        long next = version.incrementAndGet();
+        snapshots.clear();
+        log.info("Station catalogue cache invalidated, data version {}", next);
+    }
+
+    private Snapshot serialise(long version, Object body) {
+        try {
+            byte[] bytes = objectMapper.writeValueAsBytes(body);
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(bytes);
+            String etag = "\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+            return new Snapshot(version, etag, bytes);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Station catalogue cannot be serialised", e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -6,6 +6,7 @@ import mjyuu.transport_payment.exception.ResourceNotFoundException;
 import mjyuu.transport_payment.repository.StationRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -17,6 +18,7 @@ import java.util.List;
 public class StationService {
 
     private final StationRepository stationRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional(readOnly = true)
     public List<Station> getAllStations() {
@@ -61,6 +63,7 @@ public class StationService {
         }
         
         station = stationRepository.save(station);
+        eventPublisher.publishEvent(new StationCatalogCache.StationsChangedEvent());
         log.info("Station created: id={}, code={}, name={}", 
                  station.getId(), station.getStationCode(), station.getName());
         return station;
@@ -81,6 +84,7 @@ public class StationService {
         }
         
         station = stationRepository.save(station);
+        eventPublisher.publishEvent(new StationCatalogCache.StationsChangedEvent());
         log.info("Station updated: id={}", id);
         return station;
     }
@@ -0,0 +1,195 @@
+package mjyuu.transport_payment.service;
+
+import lombok.extern.slf4j.Slf4j;
+import mjyuu.transport_payment.dto.NearbyStationDTO;
+import mjyuu.transport_payment.entity.Station;
+import mjyuu.transport_payment.repository.StationRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory grid over the coordinates of active stations for "stations near me" lookups.
+ * Stations are bucketed into cells of a fixed size in degrees; a query visits only the cells its
+ * radius can reach and measures great-circle distance to the stations in them, so it never
+ * touches the database.
+ * <p>
+ * The grid is immutable and swapped whole on rebuild: after a local station write commits, and
+ * when {@link StationCatalogCache} notices a change made on another node.
+ */
+@Service
+@Slf4j
+public class StationSpatialIndex {
+
+    private static final double EARTH_RADIUS_METERS = 6_371_008.8;
+    private static final double METERS_PER_DEGREE = Math.PI * EARTH_RADIUS_METERS / 180;
+
+    private record Entry(long id, String stationCode, String name, int zoneNumber, double latitude, double longitude) {}
+
+    private record Candidate(Entry entry, double distanceMeters) {}
+
+    private record Grid(long catalogVersion, int size, Map<Long, Entry[]> cells) {}
+
+    private final StationRepository stationRepository;
+    private final StationCatalogCache catalogCache;
+    private final double cellDegrees;
+    private final int latitudeCells;
+    private final int longitudeCells;
+    private final double maxRadiusMeters;
+    private final int maxResults;
+
+    private volatile Grid grid = new Grid(-1, 0, Map.of());
+
+    public StationSpatialIndex(StationRepository stationRepository,
+                               StationCatalogCache catalogCache,
+                               @Value("${transport.stations.nearby.cell-degrees:0.01}") double cellDegrees,
+                               @Value("${transport.stations.nearby.max-radius-meters:5000}") double maxRadiusMeters,
+                               @Value("${transport.stations.nearby.max-results:50}") int maxResults) {
+        this.stationRepository = stationRepository;
+        this.catalogCache = catalogCache;
+        this.cellDegrees = cellDegrees;
+        this.latitudeCells = (int) Math.ceil(180 / cellDegrees);
+        this.longitudeCells = (int) Math.ceil(360 / cellDegrees);
+        this.maxRadiusMeters = maxRadiusMeters;
+        this.maxResults = maxResults;
+    }
+
+    /**
+     * Active stations within {@code radiusMeters} of the point, nearest first
+     */
+    public List<NearbyStationDTO> nearby(double latitude, double longitude, double radiusMeters, int limit) {
+        if (latitude < -90 || latitude > 90 || longitude < -180 || longitude > 180) {
+            throw new IllegalArgumentException("Coordinates out of range: " + latitude + ", " + longitude);
+        }
+        if (radiusMeters <= 0 || radiusMeters > maxRadiusMeters) {
+            throw new IllegalArgumentException("Radius must be between 0 and " + (long) maxRadiusMeters + " meters");
+        }
+        if (limit < 1 || limit > maxResults) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + maxResults);
+        }
+
+        Grid current = grid;
+        double latitudeSpan = radiusMeters / METERS_PER_DEGREE;
+        // Widest longitude difference on the circle; a circle reaching over a pole covers every longitude
+        double angularRadius = radiusMeters / EARTH_RADIUS_METERS;
+        boolean coversPole = angularRadius >= Math.toRadians(90 - Math.abs(latitude));
+        double longitudeSpan = coversPole ? 360
+                : Math.toDegrees(Math.asin(Math.sin(angularRadius) / Math.cos(Math.toRadians(latitude))));
+
+        int fromLat = Math.max(0, latitudeCell(latitude - latitudeSpan));
+        int toLat = latitudeCell(latitude + latitudeSpan);
+        int fromLon = (int) Math.floor((longitude - longitudeSpan + 180) / cellDegrees);
+        int toLon = (int) Math.floor((longitude + longitudeSpan + 180) / cellDegrees);
+        if (coversPole || toLon - fromLon >= longitudeCells) {
+            fromLon = 0;
+            toLon = longitudeCells - 1;
+        }
+
+        List<Candidate> candidates = new ArrayList<>();
+        for (int latCell = fromLat; latCell <= toLat; latCell++) {
+            for (int lonCell = fromLon; lonCell <= toLon; lonCell++) {
+                // floorMod wraps cells across the antimeridian
+                Entry[] entries = current.cells().get(cellKey(latCell, Math.floorMod(lonCell, longitudeCells)));
+                if (entries == null) {
+                    continue;
+                }
+                for (Entry entry : entries) {
+                    double distance = distanceMeters(latitude, longitude, entry.latitude(), entry.longitude());
+                    if (distance <= radiusMeters) {
+                        candidates.add(new Candidate(entry, distance));
+                    }
+                }
+            }
+        }
+
+        return candidates.stream()
+                .sorted(Comparator.comparingDouble(Candidate::distanceMeters))
+                .limit(limit)
+                .map(StationSpatialIndex::toDTO)
+                .toList();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        rebuild();
+    }
+
+    @TransactionalEventListener
+    public void onStationsChanged(StationCatalogCache.StationsChangedEvent event) {
+        rebuild();
+    }
+
+    /**
+     * Follow changes made on other nodes, which the catalogue cache detects; costs no query otherwise
+     */
+    @Scheduled(fixedDelayString = "${transport.stations.cache.refresh-interval-ms:60000}")
+    public void rebuildIfCatalogChanged() {
+        if (grid.catalogVersion() != catalogCache.getVersion()) {
+            rebuild();
+        }
+    }
+
+    public synchronized void rebuild() {
+        long version = catalogCache.getVersion();
+        Map<Long, List<Entry>> cells = new HashMap<>();
+        int size = 0;
+        for (Station station : stationRepository.findAllActiveStations()) {
+            if (station.getLatitude() == null || station.getLongitude() == null) {
+                continue;
+            }
+            Entry entry = new Entry(station.getId(), station.getStationCode(), station.getName(),
+                                    station.getZoneNumber(), station.getLatitude(), station.getLongitude());
+            cells.computeIfAbsent(cellKey(latitudeCell(entry.latitude()), longitudeCell(entry.longitude())),
+                                  key -> new ArrayList<>()).add(entry);
+            size++;
+        }
+
+        Map<Long, Entry[]> frozen = new HashMap<>(cells.size() * 2);
+        cells.forEach((key, entries) -> frozen.put(key, entries.toArray(Entry[]::new)));
+        grid = new Grid(version, size, frozen);
+        log.info("Station spatial index rebuilt: {} stations in {} cells", size, frozen.size());
+    }
+
+    private int latitudeCell(double latitude) {
+        return Math.min(latitudeCells - 1, (int) Math.floor((latitude + 90) / cellDegrees));
+    }
+
+    private int longitudeCell(double longitude) {
+        return Math.floorMod((int) Math.floor((longitude + 180) / cellDegrees), longitudeCells);
+    }
+
+    private static long cellKey(int latitudeCell, int longitudeCell) {
+        return ((long) latitudeCell << 32) | (longitudeCell & 0xFFFFFFFFL);
+    }
+
+    // Haversine; accurate to well under a metre at these distances
+    private static double distanceMeters(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_METERS * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    private static NearbyStationDTO toDTO(Candidate candidate) {
+        Entry entry = candidate.entry();
+        return NearbyStationDTO.builder()
+                .id(entry.id())
+                .stationCode(entry.stationCode())
+                .name(entry.name())
+                .zoneNumber(entry.zoneNumber())
+                .latitude(entry.latitude())
+                .longitude(entry.longitude())
+                .distanceMeters(Math.round(candidate.distanceMeters()))
+                .build();
+    }
+}
@@ -0,0 +1,164 @@
+package mjyuu.transport_payment.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import mjyuu.transport_payment.dto.TapRequest;
+import mjyuu.transport_payment.dto.TapResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Recognises gate retransmits (same gate id and sequence number as an earlier tap) and answers
+ * them with the original result, without touching the database. Only a gate authenticated by
+ * {@link GateRegistry#authenticate} gets a window, the same identity rate limiting uses; taps from
+ * anything else, or without a sequence number, pass straight through.
+ * <p>
+ * Only successful taps are remembered: a failed tap committed nothing, so its retransmit is simply
+ * processed again. A gate's taps run one at a time, so a retransmit that arrives while the original
+ * is still in flight waits for it and gets its result. Windows are snapshotted to a file every few
+ * seconds and reloaded on startup; a retransmit of a tap from the last interval before a crash is
+ * processed again and rejected as it was before this existed.
+ */
+@Service
+@Slf4j
+public class TapDeduplicator {
+
+    record SnapshotEntry(long sequence, String fingerprint, TapResponse response) {}
+
+    private static final class Gate {
+        final ReentrantLock lock = new ReentrantLock();
+        final GateSequenceWindow<TapResponse> window;
+
+        Gate(int windowSize) {
+            this.window = new GateSequenceWindow<>(windowSize);
+        }
+    }
+
+    private final ObjectMapper objectMapper;
+    private final GateRegistry gateRegistry;
+    private final boolean enabled;
+    private final int windowSize;
+    private final Path snapshotPath;
+    private final Counter retransmits;
+    private final Map<String, Gate> gates = new ConcurrentHashMap<>();
+    private volatile boolean dirty;
+
+    public TapDeduplicator(ObjectMapper objectMapper,
+                           GateRegistry gateRegistry,
+                           MeterRegistry meterRegistry,
+                           @Value("${transport.tap-dedup.enabled:true}") boolean enabled,
+                           @Value("${transport.tap-dedup.window-size:1024}") int windowSize,
+                           @Value("${transport.tap-dedup.snapshot-path:}") String snapshotPath) {
+        this.objectMapper = objectMapper;
+        this.gateRegistry = gateRegistry;
+        this.enabled = enabled;
+        this.windowSize = windowSize;
+        this.snapshotPath = snapshotPath.isBlank() ? null : Path.of(snapshotPath);
+        this.retransmits = meterRegistry.counter("transport.tap_dedup.retransmits");
+        Gauge.builder("transport.tap_dedup.gates", gates, Map::size).register(meterRegistry);
+    }
+
+    /**
+     * Run the tap unless it is a retransmit of one already answered. {@code gateId} must come from
+     * {@link GateRegistry#authenticate}; null for anything that is not an authenticated gate.
+     */
+    public TapResponse execute(String operation, String gateId, TapRequest request, Supplier<TapResponse> tap) {
+        if (!enabled || request.getSequenceNumber() == null || gateId == null) {
+            return tap.get();
+        }
+        long sequence = request.getSequenceNumber();
+        String fingerprint = operation + ':' + request.getCardNumber() + ':' + request.getStationCode();
+        Gate gate = gates.computeIfAbsent(gateId, id -> new Gate(windowSize));
+
+        gate.lock.lock();
+        try {
+            TapResponse original = gate.window.find(sequence, fingerprint);
+            if (original != null) {
+                retransmits.increment();
+                log.info("Gate {} retransmitted sequence {}; returning the original result", gateId, sequence);
+                return original;
+            }
+            TapResponse response = tap.get();
+            gate.window.record(sequence, fingerprint, response);
+            dirty = true;
+            return response;
+        } finally {
+            gate.lock.unlock();
+        }
+    }
+
+    @PostConstruct
+    void restore() {
+        if (!enabled || snapshotPath == null || !Files.exists(snapshotPath)) {
+            return;
+        }
+        try {
+            Map<String, List<SnapshotEntry>> snapshot = objectMapper.readValue(snapshotPath.toFile(),
+                    objectMapper.getTypeFactory().constructMapType(Map.class,
+                            objectMapper.getTypeFactory().constructType(String.class),
+                            objectMapper.getTypeFactory().constructCollectionType(List.class, SnapshotEntry.class)));
+            snapshot.forEach((gateId, entries) -> {
+                Gate gate = new Gate(windowSize);
+                entries.forEach(e -> gate.window.record(e.sequence(), e.fingerprint(), e.response()));
+                gates.put(gateId, gate);
+            });
+            log.info("Restored retransmit windows for {} gates from {}", snapshot.size(), snapshotPath);
+        } catch (IOException e) {
+            // Losing the windows only means retransmits are processed again, as before
+            log.warn("Ignoring unreadable retransmit snapshot {}: {}", snapshotPath, e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${transport.tap-dedup.snapshot-interval-ms:5000}")
+    public void snapshot() {
+        if (!enabled || snapshotPath == null || !dirty) {
+            return;
+        }
+        dirty = false;
+        // Gates deactivated since their window was created are dropped rather than carried forward
+        gates.keySet().removeIf(gateId -> !gateRegistry.isKnown(gateId));
+        Map<String, List<SnapshotEntry>> snapshot = new TreeMap<>();
+        gates.forEach((gateId, gate) -> {
+            gate.lock.lock();
+            try {
+                snapshot.put(gateId, gate.window.entries().stream()
+                        .map(e -> new SnapshotEntry(e.sequence(), e.fingerprint(), e.result()))
+                        .toList());
+            } finally {
+                gate.lock.unlock();
+            }
+        });
+
+        try {
+            Files.createDirectories(snapshotPath.toAbsolutePath().getParent());
+            Path temp = snapshotPath.resolveSibling(snapshotPath.getFileName() + ".tmp");
+            objectMapper.writeValue(temp.toFile(), snapshot);
+            Files.move(temp, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            dirty = true;
+            log.warn("Failed to snapshot retransmit windows to {}: {}", snapshotPath, e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    void snapshotOnShutdown() {
+        snapshot();
+    }
+}
@@ -0,0 +1,51 @@
+package mjyuu.transport_payment.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import mjyuu.transport_payment.entity.Transaction;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * Settles card top-ups the request path could not finish:
+ * AUTHORISED ones get their credit applied, PENDING ones that outlived the gateway timeout are expired.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TopUpReconciler {
+
+    private final TransactionService transactionService;
+    private final ShardRouter shardRouter;
+
+    @Value("${transport.payment.pending-top-up-expiry-minutes:15}")
+    private long pendingExpiryMinutes;
+
+    @Scheduled(fixedDelayString = "${transport.payment.top-up-reconcile-interval-ms:60000}")
+    public void reconcile() {
+        shardRouter.forEachShard(this::reconcileShard);
+    }
+
+    private void reconcileShard() {
+        for (Long id : transactionService.findTopUpIds(Transaction.TransactionStatus.AUTHORISED, LocalDateTime.now())) {
+            try {
+                transactionService.completeCardTopUp(id, null);
+                log.info("Reconciled authorised top-up {}", id);
+            } catch (RuntimeException e) {
+                log.error("Authorised top-up {} still cannot be credited: {}", id, e.getMessage());
+            }
+        }
+
+        // Stale PENDING means the node died mid-call or the gateway is still working. EXPIRED rather
+        // than FAILED: a late approval on the original node still completes and credits it.
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(pendingExpiryMinutes);
+        for (Long id : transactionService.findTopUpIds(Transaction.TransactionStatus.PENDING, cutoff)) {
+            if (transactionService.expireCardTopUp(id)) {
+                log.warn("Expired pending top-up {}", id);
+            }
+        }
+    }
+}
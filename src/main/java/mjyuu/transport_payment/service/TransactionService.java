@@ -1,7 +1,6 @@
 package mjyuu.transport_payment.service;
 
-import mjyuu.transport_payment.dto.CardTopUpRequest;
-import mjyuu.transport_payment.dto.CardTopUpResponse;
+import mjyuu.transport_payment.dto.TransactionDTO;
 import mjyuu.transport_payment.entity.Transaction;
 import mjyuu.transport_payment.entity.User;
 import mjyuu.transport_payment.exception.ResourceNotFoundException;
@@ -14,6 +13,8 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.UUID;
 
@@ -24,23 +25,55 @@ public class TransactionService {
 
     private final TransactionRepository transactionRepository;
     private final UserRepository userRepository;
-    private final MockPaymentService mockPaymentService;
+    private final AccountBalanceService accountBalanceService;
+    private final OutboxService outboxService;
+    private final ArchiveService archiveService;
+    private final ShardRouter shardRouter;
 
     @Transactional(readOnly = true)
-    public List<Transaction> getUserTransactions(Long userId) {
-        return transactionRepository.findByUserIdOrderByCreatedAtDesc(userId);
+    public List<TransactionDTO> getUserTransactions(Long userId) {
+        shardRouter.bindUser(userId);
+        return transactionRepository.findDTOsByUserId(userId);
     }
 
     @Transactional(readOnly = true)
-    public List<Transaction> getUserTransactionsByDateRange(Long userId, 
-                                                            LocalDateTime startDate, 
-                                                            LocalDateTime endDate) {
-        return transactionRepository.findByUserIdAndDateRange(userId, startDate, endDate);
+    public List<TransactionDTO> getUserTransactionsByDateRange(Long userId,
+                                                               LocalDateTime startDate,
+                                                               LocalDateTime endDate) {
+        shardRouter.bindUser(userId);
+        return transactionRepository.findDTOsByUserIdAndDateRange(userId, startDate, endDate);
     }
 
+    /**
+     * Transaction history for a user, including transactions moved to the archive, newest first.
+     * Null bounds mean the user's whole history.
+     */
     @Transactional(readOnly = true)
-    public Transaction getTransactionById(Long id) {
-        return transactionRepository.findById(id)
+    public List<TransactionDTO> getUserTransactionHistory(Long userId, LocalDateTime startDate, LocalDateTime endDate) {
+        shardRouter.bindUser(userId);
+        List<TransactionDTO> history = new ArrayList<>(startDate == null && endDate == null
+                ? transactionRepository.findDTOsByUserId(userId)
+                : transactionRepository.findDTOsByUserIdAndDateRange(userId, startDate, endDate));
+        // Empty unless the range reaches back past the archive cutoff
+        List<TransactionDTO> archived = archiveService.findTransactions(userId, startDate, endDate);
+        if (!archived.isEmpty()) {
+            history.addAll(archived);
+            history.sort(Comparator.comparing(TransactionDTO::getCreatedAt).reversed());
+        }
+        return history;
+    }
+
+    @Transactional(readOnly = true)
+    public TransactionDTO getTransactionById(Long id) {
+        shardRouter.bindId(id);
+        return transactionRepository.findDTOById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Transaction not found with id: " + id));
+    }
+
+    // Row-locked so the status check and the change it guards cannot interleave with another settler
+    private Transaction findTransactionForUpdate(Long id) {
+        shardRouter.bindId(id);
+        return transactionRepository.findByIdForUpdate(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Transaction not found with id: " + id));
     }
 
@@ -52,11 +85,13 @@ public class TransactionService {
 
     @Transactional(readOnly = true)
     public BigDecimal getDailySpending(Long userId, LocalDateTime date) {
+        shardRouter.bindUser(userId);
         return transactionRepository.calculateDailySpending(userId, date);
     }
 
     @Transactional
     public Transaction createTopUpTransaction(Long userId, BigDecimal amount) {
+        shardRouter.bindUser(userId);
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
 
@@ -73,8 +108,7 @@ public class TransactionService {
         transaction = transactionRepository.save(transaction);
 
         // Update user balance
-        user.setBalance(user.getBalance().add(amount));
-        userRepository.save(user);
+        accountBalanceService.credit(user, amount);
 
         log.info("Top-up transaction created: id={}, user={}, amount={}", 
                  transaction.getId(), userId, amount);
@@ -82,45 +116,114 @@ public class TransactionService {
         return transaction;
     }
 
+    /**
+     * Card top-up step 1: record the intent as PENDING before the gateway is called
+     */
     @Transactional
-    public CardTopUpResponse processCardTopUp(Long userId, CardTopUpRequest request) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + userId));
+    public Transaction beginCardTopUp(Long userId, BigDecimal amount) {
+        shardRouter.bindUser(userId);
+        if (!userRepository.existsById(userId)) {
+            throw new ResourceNotFoundException("User not found with id: " + userId);
+        }
 
-        // Validate and "charge" the card — throws PaymentProcessingException if declined
-        MockPaymentService.PaymentResult payment = mockPaymentService.processPayment(request);
-
-        // Record the transaction
-        String transactionId = UUID.randomUUID().toString();
         Transaction transaction = Transaction.builder()
-                .transactionId(transactionId)
-                .user(user)
+                .transactionId(UUID.randomUUID().toString())
+                .user(userRepository.getReferenceById(userId))
                 .type(Transaction.TransactionType.TOP_UP)
-                .amount(request.getAmount())
-                .status(Transaction.TransactionStatus.COMPLETED)
-                .description("Card top-up via •••• " + payment.lastFour())
-                .paymentGatewayReference(payment.paymentReference())
+                .amount(amount)
+                .status(Transaction.TransactionStatus.PENDING)
+                .description("Card top-up (awaiting payment)")
                 .build();
 
-        transaction = transactionRepository.save(transaction);
+        return transactionRepository.save(transaction);
+    }
 
-        // Credit the user's wallet
-        user.setBalance(user.getBalance().add(request.getAmount()));
-        userRepository.save(user);
-
-        log.info("Card top-up completed: user={}, amount={}, ref={}", userId, request.getAmount(), payment.paymentReference());
-
-        return CardTopUpResponse.builder()
-                .success(true)
-                .message("Top-up successful")
-                .transactionId(transactionId)
-                .amount(request.getAmount())
-                .newBalance(user.getBalance())
-                .cardLastFour("•••• " + payment.lastFour())
-                .cardType(payment.cardType())
-                .paymentReference(payment.paymentReference())
-                .timestamp(LocalDateTime.now())
-                .build();
+    /**
+     * Card top-up step 2: the card was charged — mark the transaction completed and credit the wallet.
+     * The reconciler passes a null payment to finish an AUTHORISED top-up with its stored reference;
+     * a late gateway approval also completes a top-up the reconciler already EXPIRED.
+     *
+     * @return the user's balance after the credit
+     */
+    @Transactional
+    public BigDecimal completeCardTopUp(Long id, MockPaymentService.PaymentResult payment) {
+        Transaction transaction = findTransactionForUpdate(id);
+        boolean lateApproval = payment != null && transaction.getStatus() == Transaction.TransactionStatus.EXPIRED;
+        if (transaction.getStatus() != Transaction.TransactionStatus.PENDING
+                && transaction.getStatus() != Transaction.TransactionStatus.AUTHORISED
+                && !lateApproval) {
+            throw new IllegalStateException("Top-up " + transaction.getTransactionId() + " is already " + transaction.getStatus());
+        }
+
+        transaction.setStatus(Transaction.TransactionStatus.COMPLETED);
+        transaction.setFailureReason(null);
+        if (payment != null) {
+            transaction.setDescription("Card top-up via •••• " + payment.lastFour());
+            transaction.setPaymentGatewayReference(payment.paymentReference());
+        }
+
+        Long userId = transaction.getUser().getId();
+        accountBalanceService.credit(transaction.getUser(), transaction.getAmount());
+        outboxService.topUpCompleted(transaction);
+
+        log.info("Card top-up completed: user={}, amount={}, ref={}",
+                 userId, transaction.getAmount(), transaction.getPaymentGatewayReference());
+        return userRepository.findBalanceById(userId);
+    }
+
+    /**
+     * The gateway declined; nothing was credited
+     */
+    @Transactional
+    public void failCardTopUp(Long id, String reason) {
+        Transaction transaction = findTransactionForUpdate(id);
+        if (transaction.getStatus() == Transaction.TransactionStatus.PENDING
+                || transaction.getStatus() == Transaction.TransactionStatus.EXPIRED) {
+            transaction.setStatus(Transaction.TransactionStatus.FAILED);
+            transaction.setFailureReason(reason);
+        }
+    }
+
+    /**
+     * The card was charged but the credit could not be applied. Keep the gateway reference
+     * so the reconciler can finish the credit later instead of losing the customer's money.
+     */
+    @Transactional
+    public void markCardTopUpAuthorised(Long id, MockPaymentService.PaymentResult payment, String reason) {
+        Transaction transaction = findTransactionForUpdate(id);
+        if (transaction.getStatus() == Transaction.TransactionStatus.PENDING
+                || transaction.getStatus() == Transaction.TransactionStatus.EXPIRED) {
+            transaction.setStatus(Transaction.TransactionStatus.AUTHORISED);
+            transaction.setPaymentGatewayReference(payment.paymentReference());
+            transaction.setDescription("Card top-up via •••• " + payment.lastFour());
+            transaction.setFailureReason(reason);
+        }
+    }
+
+    /**
+     * No gateway outcome was recorded in time (the node likely died mid-call). Not FAILED: the
+     * gateway may still approve, and {@link #completeCardTopUp} then applies the credit.
+     *
+     * @return true if the top-up was still PENDING and is now EXPIRED
+     */
+    @Transactional
+    public boolean expireCardTopUp(Long id) {
+        Transaction transaction = findTransactionForUpdate(id);
+        if (transaction.getStatus() != Transaction.TransactionStatus.PENDING) {
+            return false;
+        }
+        transaction.setStatus(Transaction.TransactionStatus.EXPIRED);
+        transaction.setFailureReason("Expired: no gateway outcome recorded");
+        return true;
+    }
+
+    /**
+     * Top-up ids on the current shard; the reconciler calls this once per shard
+     */
+    @Transactional(readOnly = true)
+    public List<Long> findTopUpIds(Transaction.TransactionStatus status, LocalDateTime createdBefore) {
+        return transactionRepository.findIdsByTypeAndStatusCreatedBefore(
+                Transaction.TransactionType.TOP_UP, status, createdBefore);
     }
 
     @Transactional
@@ -1,16 +1,17 @@
 package mjyuu.transport_payment.service;
 
 import mjyuu.transport_payment.entity.User;
-import mjyuu.transport_payment.exception.InsufficientBalanceException;
 import mjyuu.transport_payment.exception.ResourceNotFoundException;
 import mjyuu.transport_payment.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.List;
 
 @Service
@@ -21,12 +22,15 @@ public class UserService {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final ShardRouter shardRouter;
+    private final AccountBalanceService accountBalanceService;
 
     /**
      * Create a new user with encrypted password
      */
     public User createUser(User user) {
         log.info("Creating new user with email: {}", user.getEmail());
+        shardRouter.bind(shardRouter.assignEmail(user.getEmail()));
         
         // Check if email already exists
         if (userRepository.findByEmail(user.getEmail()).isPresent()) {
@@ -59,6 +63,7 @@ public class UserService {
     @Transactional(readOnly = true)
     public User getUserById(Long id) {
         log.debug("Fetching user with ID: {}", id);
+        shardRouter.bindUser(id);
         return userRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with ID: " + id));
     }
@@ -69,17 +74,20 @@ public class UserService {
     @Transactional(readOnly = true)
     public User getUserByEmail(String email) {
         log.debug("Fetching user with email: {}", email);
+        shardRouter.bindEmail(email);
         return userRepository.findByEmail(email)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with email: " + email));
     }
 
     /**
-     * Get all users (for admin)
+     * Get all users (for admin), shard by shard
      */
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public List<User> getAllUsers() {
         log.debug("Fetching all users");
-        return userRepository.findAll();
+        List<User> users = new ArrayList<>();
+        shardRouter.forEachShard(() -> users.addAll(userRepository.findAll()));
+        return users;
     }
 
     /**
@@ -119,6 +127,18 @@ public class UserService {
         return userRepository.save(user);
     }
 
+    /**
+     * Update user concession class (for admin)
+     */
+    public User updateConcessionClass(Long id, User.ConcessionClass concessionClass) {
+        log.info("Updating concession class to {} for ID: {}", concessionClass, id);
+
+        User user = getUserById(id);
+        user.setConcessionClass(concessionClass);
+
+        return userRepository.save(user);
+    }
+
     /**
      * Delete user (soft delete by setting status to INACTIVE)
      */
@@ -139,7 +159,7 @@ public class UserService {
     public BigDecimal getUserBalance(Long userId) {
         log.debug("Fetching balance for user: {}", userId);
         User user = getUserById(userId);
-        return user.getBalance();
+        return accountBalanceService.balance(user);
     }
 
     /**
@@ -153,10 +173,9 @@ public class UserService {
         }
         
         User user = getUserById(userId);
-        BigDecimal newBalance = user.getBalance().add(amount);
-        user.setBalance(newBalance);
+        accountBalanceService.credit(user, amount);
+        BigDecimal newBalance = userRepository.findBalanceById(userId);
         
-        userRepository.save(user);
         log.info("New balance for user {}: {}", userId, newBalance);
         
         return newBalance;
@@ -173,15 +192,8 @@ public class UserService {
         }
         
         User user = getUserById(userId);
-        BigDecimal newBalance = user.getBalance().subtract(amount);
-        
-        if (newBalance.compareTo(BigDecimal.ZERO) < 0) {
-            throw new InsufficientBalanceException(
-                    "Insufficient balance. Current: " + user.getBalance() + ", Required: " + amount);
-        }
-        
-        user.setBalance(newBalance);
-        userRepository.save(user);
+        accountBalanceService.debit(user, amount);
+        BigDecimal newBalance = accountBalanceService.currentBalance(user);
         
         log.info("New balance for user {}: {}", userId, newBalance);
         return newBalance;
@@ -193,7 +205,7 @@ public class UserService {
     @Transactional(readOnly = true)
     public boolean hasSufficientBalance(Long userId, BigDecimal amount) {
         User user = getUserById(userId);
-        return user.getBalance().compareTo(amount) >= 0;
+        return accountBalanceService.balance(user).compareTo(amount) >= 0;
     }
 
     /**
@@ -221,6 +233,7 @@ public class UserService {
      */
     @Transactional(readOnly = true)
     public boolean emailExists(String email) {
+        shardRouter.bindEmail(email);
         return userRepository.findByEmail(email).isPresent();
     }
 }
@@ -0,0 +1,92 @@
+package mjyuu.transport_payment.service;
+
+import mjyuu.transport_payment.dto.UserStatisticsDTO;
+import mjyuu.transport_payment.entity.Journey;
+import mjyuu.transport_payment.entity.UserMonthlyStats;
+import mjyuu.transport_payment.exception.ResourceNotFoundException;
+import mjyuu.transport_payment.repository.UserMonthlyStatsRepository;
+import mjyuu.transport_payment.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * Travel statistics from per-user monthly aggregates. Reads touch one row per month of
+ * history plus the user's visited stations, independent of how many journeys they took.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class UserStatisticsService {
+
+    private final UserMonthlyStatsRepository userMonthlyStatsRepository;
+    private final UserRepository userRepository;
+    private final ShardRouter shardRouter;
+
+    /**
+     * Fold a completed journey into the user's aggregates, inside the tap-out transaction
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordCompletedJourney(Journey journey) {
+        Long userId = journey.getUser().getId();
+        Long duration = journey.getDurationInMinutes();
+
+        userMonthlyStatsRepository.addJourney(userId, journey.getTapInTime().toLocalDate().withDayOfMonth(1),
+                journey.getFinalAmount(), duration != null ? Math.max(duration, 0) : 0);
+        userMonthlyStatsRepository.recordStationVisit(userId, journey.getEntryStation().getId(), journey.getTapInTime());
+        userMonthlyStatsRepository.recordStationVisit(userId, journey.getExitStation().getId(), journey.getTapOutTime());
+    }
+
+    /**
+     * Lifetime totals plus the most recent {@code months} months
+     */
+    @Transactional(readOnly = true)
+    public UserStatisticsDTO getStatistics(Long userId, int months) {
+        shardRouter.bindUser(userId);
+        if (!userRepository.existsById(userId)) {
+            throw new ResourceNotFoundException("User not found with id: " + userId);
+        }
+
+        List<UserMonthlyStats> history = userMonthlyStatsRepository.findAllMonths(userId);
+
+        long trips = 0;
+        long minutes = 0;
+        BigDecimal spend = BigDecimal.ZERO;
+        for (UserMonthlyStats month : history) {
+            trips += month.getTrips();
+            minutes += month.getTotalDurationMinutes();
+            spend = spend.add(month.getTotalSpend());
+        }
+
+        List<UserStatisticsDTO.MonthlyStatistics> recent = history.stream()
+                .limit(Math.max(months, 0))
+                .map(month -> new UserStatisticsDTO.MonthlyStatistics(
+                        YearMonth.from(month.getId().getMonthStart()),
+                        month.getTrips(),
+                        month.getTotalSpend(),
+                        average(month.getTotalDurationMinutes(), month.getTrips())))
+                .toList();
+
+        return UserStatisticsDTO.builder()
+                .userId(userId)
+                .totalTrips(trips)
+                .totalSpend(spend)
+                .distinctStations(userMonthlyStatsRepository.countDistinctStations(userId))
+                .averageDurationMinutes(average(minutes, trips))
+                .months(recent)
+                .build();
+    }
+
+    private Double average(long totalMinutes, long trips) {
+        if (trips == 0) {
+            return null;
+        }
+        return Math.round(totalMinutes * 10.0 / trips) / 10.0;
+    }
+}
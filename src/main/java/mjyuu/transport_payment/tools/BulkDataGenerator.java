@@ -0,0 +1,241 @@
+package mjyuu.transport_payment.tools;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import mjyuu.transport_payment.dto.FareRuleDefinition;
+import mjyuu.transport_payment.service.CompiledFareTable;
+import mjyuu.transport_payment.service.FareRuleCompiler;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Command-line generator for production-sized test data. Runs against a schema already
+ * migrated by Flyway and appends users, cards, journeys and transactions after the current
+ * maximum ids. PostgreSQL is loaded with COPY, anything else (H2) with batched inserts.
+ *
+ * <pre>
+ * java -cp target/payment-system-1.0.0.jar \
+ *      -Dloader.main=mjyuu.transport_payment.tools.BulkDataGenerator \
+ *      org.springframework.boot.loader.launch.PropertiesLauncher \
+ *      --url=jdbc:postgresql://localhost:5432/transportdb --user=transport_user --password=... \
+ *      --users=1000000 --journeys-per-user=100 --days=90
+ * </pre>
+ *
+ * Options: --users, --journeys-per-user (mean), --cards-per-user, --stations (minimum count),
+ * --days, --chunk-size (users per transaction), --threads, --seed.
+ * All generated users share the password "password123". Spending-period counters and the
+ * outbox are not populated; journeys are historical and never went through tap-out.
+ */
+@Slf4j
+public class BulkDataGenerator {
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseArgs(args);
+        String url = required(options, "url");
+        String user = options.getOrDefault("user", "transport_user");
+        String password = options.getOrDefault("password", "");
+        int users = Integer.parseInt(options.getOrDefault("users", "100000"));
+        double journeysPerUser = Double.parseDouble(options.getOrDefault("journeys-per-user", "50"));
+        int cardsPerUser = Integer.parseInt(options.getOrDefault("cards-per-user", "1"));
+        int minStations = Integer.parseInt(options.getOrDefault("stations", "300"));
+        int days = Integer.parseInt(options.getOrDefault("days", "90"));
+        int chunkSize = Integer.parseInt(options.getOrDefault("chunk-size", "2000"));
+        int threads = Integer.parseInt(options.getOrDefault("threads",
+                String.valueOf(Runtime.getRuntime().availableProcessors())));
+        long seed = Long.parseLong(options.getOrDefault("seed", "42"));
+
+        boolean postgres = url.startsWith("jdbc:postgresql:");
+        TableSink sink = postgres ? new TableSink.PostgresCopySink() : new TableSink.JdbcBatchSink();
+
+        SyntheticDataGenerator generator;
+        try (Connection connection = DriverManager.getConnection(url, user, password)) {
+            List<SyntheticDataGenerator.Station> stations = ensureStations(connection, minStations, seed);
+            SyntheticDataGenerator.IdBase base = new SyntheticDataGenerator.IdBase(
+                    nextId(connection, "users"), nextId(connection, "cards"),
+                    nextId(connection, "journeys"), nextId(connection, "transactions"));
+
+            // Hashing once; BCrypt per row would dominate the run
+            String passwordHash = new BCryptPasswordEncoder().encode("password123");
+            generator = new SyntheticDataGenerator(seed, users, journeysPerUser, cardsPerUser, days,
+                                                   LocalDate.now(), passwordHash, stations, base,
+                                                   loadFareTable(connection));
+        }
+
+        log.info("Generating {} users, {} journeys across {} threads ({})",
+                 users, generator.totalJourneys(), threads, postgres ? "COPY" : "batched INSERT");
+
+        long started = System.nanoTime();
+        AtomicLong usersDone = new AtomicLong();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int from = 0; from < users; from += chunkSize) {
+                int chunkFrom = from;
+                int chunkTo = Math.min(users, from + chunkSize);
+                futures.add(executor.submit(() -> {
+                    writeChunk(url, user, password, postgres, sink, generator.generate(chunkFrom, chunkTo));
+                    long done = usersDone.addAndGet(chunkTo - chunkFrom);
+                    log.info("Loaded {}/{} users", done, users);
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        try (Connection connection = DriverManager.getConnection(url, user, password)) {
+            resetSequence(connection, postgres, "users", generator.lastUserId());
+            resetSequence(connection, postgres, "cards", generator.lastCardId());
+            resetSequence(connection, postgres, "journeys", generator.lastJourneyId());
+            resetSequence(connection, postgres, "transactions", generator.lastTransactionId());
+            if (postgres) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("ANALYZE users, cards, journeys, transactions");
+                }
+            }
+        }
+
+        double seconds = (System.nanoTime() - started) / 1e9;
+        log.info("Done in {} s ({} journeys/s)", String.format("%.1f", seconds),
+                 String.format("%.0f", generator.totalJourneys() / seconds));
+    }
+
+    // One transaction per chunk, tables in foreign-key order
+    private static void writeChunk(String url, String user, String password, boolean postgres, TableSink sink,
+                                   Map<SyntheticDataGenerator.Table, List<Object[]>> rows) throws Exception {
+        try (Connection connection = DriverManager.getConnection(url, user, password)) {
+            connection.setAutoCommit(false);
+            if (postgres) {
+                try (Statement statement = connection.createStatement()) {
+                    // Losing the tail of a generated load on crash is fine; waiting for WAL flush per chunk is not
+                    statement.execute("SET synchronous_commit = off");
+                }
+            }
+            for (SyntheticDataGenerator.Table table : SyntheticDataGenerator.Table.values()) {
+                sink.write(connection, table, rows.get(table));
+            }
+            connection.commit();
+        }
+    }
+
+    // The active fare rule set, as FareRuleEngine loads it; the configured flat tariff if none is active
+    private static CompiledFareTable loadFareTable(Connection connection) throws Exception {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT version, definition FROM fare_rule_sets WHERE active")) {
+            if (rs.next()) {
+                FareRuleDefinition definition = new ObjectMapper().findAndRegisterModules()
+                        .readValue(rs.getString(2), FareRuleDefinition.class);
+                log.info("Generating fares with fare rules version {}", rs.getInt(1));
+                return FareRuleCompiler.compile(rs.getInt(1), definition);
+            }
+        }
+        FareRuleDefinition fallback = new FareRuleDefinition();
+        fallback.setBaseFare(new BigDecimal("2.50"));
+        fallback.setPerZoneCharge(new BigDecimal("1.50"));
+        return FareRuleCompiler.compile(0, fallback);
+    }
+
+    private static List<SyntheticDataGenerator.Station> ensureStations(Connection connection, int minStations, long seed)
+            throws SQLException {
+        List<SyntheticDataGenerator.Station> stations = loadStations(connection);
+        if (stations.size() >= minStations) {
+            return stations;
+        }
+
+        // Zones ring outwards: few central stations, more in the outer zones
+        SplittableRandom random = new SplittableRandom(seed);
+        LocalDateTime now = LocalDateTime.now();
+        String sql = "INSERT INTO stations (station_code, name, zone_number, latitude, longitude, status, created_at, updated_at) " +
+                     "VALUES (?, ?, ?, ?, ?, 'ACTIVE', ?, ?)";
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            for (int i = stations.size(); i < minStations; i++) {
+                int zone = 1 + (int) Math.min(8, Math.sqrt(random.nextInt(81)));
+                double radiusKm = zone * 3.0 + random.nextDouble() * 3.0;
+                double angle = random.nextDouble() * 2 * Math.PI;
+                statement.setString(1, String.format("GS%05d", i));
+                statement.setString(2, "Generated Station " + i);
+                statement.setInt(3, zone);
+                statement.setDouble(4, 51.5074 + radiusKm * Math.cos(angle) / 111.0);
+                statement.setDouble(5, -0.1278 + radiusKm * Math.sin(angle) / 69.0);
+                statement.setObject(6, now);
+                statement.setObject(7, now);
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+        return loadStations(connection);
+    }
+
+    private static List<SyntheticDataGenerator.Station> loadStations(Connection connection) throws SQLException {
+        List<SyntheticDataGenerator.Station> stations = new ArrayList<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT id, zone_number, name FROM stations WHERE status = 'ACTIVE' ORDER BY id")) {
+            while (rs.next()) {
+                stations.add(new SyntheticDataGenerator.Station(rs.getLong(1), rs.getInt(2), rs.getString(3)));
+            }
+        }
+        return stations;
+    }
+
+    private static long nextId(Connection connection, String table) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT COALESCE(MAX(id), 0) + 1 FROM " + table)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    // Ids were assigned by the generator, so move the identity past them for the application
+    private static void resetSequence(Connection connection, boolean postgres, String table, long lastId)
+            throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            if (postgres) {
+                statement.execute("SELECT setval(pg_get_serial_sequence('" + table + "', 'id'), " +
+                                  "GREATEST(" + lastId + ", (SELECT COALESCE(MAX(id), 1) FROM " + table + ")))");
+            } else {
+                statement.execute("ALTER TABLE " + table + " ALTER COLUMN id RESTART WITH " + (lastId + 1));
+            }
+        }
+    }
+
+    private static Map<String, String> parseArgs(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value, got: " + arg);
+            }
+            int eq = arg.indexOf('=');
+            options.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+        return options;
+    }
+
+    private static String required(Map<String, String> options, String name) {
+        String value = options.get(name);
+        if (value == null) {
+            throw new IllegalArgumentException("Missing required option --" + name);
+        }
+        return value;
+    }
+}
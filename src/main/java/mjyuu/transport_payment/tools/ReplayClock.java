@@ -0,0 +1,39 @@
+package mjyuu.transport_payment.tools;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Clock that only moves when the replay sets it, so "now" in the services is the recorded tap time.
+ */
+@Component
+@Profile("replay")
+public class ReplayClock extends Clock {
+
+    private final ZoneId zone = ZoneId.systemDefault();
+    private volatile Instant now = Instant.now();
+
+    public void set(LocalDateTime time) {
+        this.now = time.atZone(zone).toInstant();
+    }
+
+    @Override
+    public ZoneId getZone() {
+        return zone;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+        return Clock.fixed(now, zone);
+    }
+
+    @Override
+    public Instant instant() {
+        return now;
+    }
+}
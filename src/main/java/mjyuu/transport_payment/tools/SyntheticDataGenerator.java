@@ -0,0 +1,286 @@
+package mjyuu.transport_payment.tools;
+
+import mjyuu.transport_payment.entity.User;
+import mjyuu.transport_payment.service.CompiledFareTable;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+/**
+ * Produces rows for users, cards, journeys and transactions. Every id is known up front
+ * (per-user offsets are prefix sums), so any range of users can be generated independently
+ * and on any thread, and the same seed always gives the same data. Fares come from the same
+ * {@link CompiledFareTable} the app charges with (zone pair, tap-in time band, concession); caps
+ * are not replayed.
+ */
+class SyntheticDataGenerator {
+
+    enum Table {
+        USERS("users", "id", "email", "password", "first_name", "last_name", "phone_number", "balance",
+              "status", "role", "concession_class", "created_at", "updated_at"),
+        CARDS("cards", "id", "card_number", "card_holder_name", "card_type", "expiry_month", "expiry_year",
+              "user_id", "status", "is_default", "created_at", "updated_at"),
+        JOURNEYS("journeys", "id", "user_id", "card_id", "entry_station_id", "exit_station_id", "tap_in_time",
+                 "tap_out_time", "status", "fare_amount", "discount_amount", "final_amount", "zones_transited",
+                 "notes", "created_at", "updated_at"),
+        TRANSACTIONS("transactions", "id", "transaction_id", "user_id", "journey_id", "card_id", "type", "amount",
+                     "status", "description", "payment_gateway_reference", "failure_reason", "created_at");
+
+        private final String tableName;
+        private final String[] columns;
+
+        Table(String tableName, String... columns) {
+            this.tableName = tableName;
+            this.columns = columns;
+        }
+
+        String tableName() {
+            return tableName;
+        }
+
+        String[] columns() {
+            return columns;
+        }
+
+        String columnList() {
+            return String.join(", ", columns);
+        }
+    }
+
+    record Station(long id, int zone, String name) {}
+
+    record IdBase(long user, long card, long journey, long transaction) {}
+
+    private static final String[] FIRST_NAMES = {"James", "Mary", "Wei", "Aiko", "Omar", "Sofia", "Liam", "Priya",
+            "Noah", "Fatima", "Lucas", "Yuki", "Ethan", "Amara", "Mateo", "Chloe"};
+    private static final String[] LAST_NAMES = {"Smith", "Tanaka", "Garcia", "Khan", "Nguyen", "Brown", "Müller",
+            "Rossi", "Kowalski", "Okafor", "Silva", "Kim", "Murphy", "Jones", "Sato", "Ali"};
+    private static final String[] CARD_TYPES = {"VISA", "VISA", "MASTERCARD", "MASTERCARD", "DEBIT", "AMEX"};
+
+    // Relative tap-in likelihood by hour of day: weekday commuter peaks at 08:00 and 17:00-18:00
+    private static final int[] HOUR_WEIGHTS = {1, 0, 0, 0, 1, 3, 8, 20, 28, 14, 8, 7, 8, 8, 7, 9, 15, 24, 20, 11, 7, 5, 3, 2};
+
+    private static final BigDecimal PENALTY = new BigDecimal("5.00");
+    private static final double INCOMPLETE_RATE = 0.03;
+    private static final int JOURNEYS_PER_TOP_UP = 10;
+
+    private final long seed;
+    private final int cardsPerUser;
+    private final int days;
+    private final LocalDate endDate;
+    private final String passwordHash;
+    private final List<Station> stations;
+    private final IdBase base;
+    private final int[] hourTable;
+    private final CompiledFareTable fareTable;
+
+    // journeyOffset[u] / transactionOffset[u] = rows generated for users before u; length users + 1
+    private final long[] journeyOffset;
+    private final long[] transactionOffset;
+
+    SyntheticDataGenerator(long seed, int users, double meanJourneysPerUser, int cardsPerUser, int days,
+                           LocalDate endDate, String passwordHash, List<Station> stations, IdBase base,
+                           CompiledFareTable fareTable) {
+        this.seed = seed;
+        this.cardsPerUser = cardsPerUser;
+        this.days = days;
+        this.endDate = endDate;
+        this.passwordHash = passwordHash;
+        this.stations = stations;
+        this.base = base;
+        this.fareTable = fareTable;
+        this.hourTable = expandWeights(HOUR_WEIGHTS);
+        this.journeyOffset = planJourneys(seed, users, meanJourneysPerUser);
+        this.transactionOffset = planTransactions(journeyOffset);
+    }
+
+    long totalJourneys() {
+        return journeyOffset[journeyOffset.length - 1];
+    }
+
+    long lastUserId() {
+        return base.user() + journeyOffset.length - 2;
+    }
+
+    long lastCardId() {
+        return base.card() + (long) (journeyOffset.length - 1) * cardsPerUser - 1;
+    }
+
+    long lastJourneyId() {
+        return base.journey() + totalJourneys() - 1;
+    }
+
+    long lastTransactionId() {
+        return base.transaction() + transactionOffset[transactionOffset.length - 1] - 1;
+    }
+
+    /**
+     * Generate every row belonging to users [fromUser, toUser)
+     */
+    Map<Table, List<Object[]>> generate(int fromUser, int toUser) {
+        Map<Table, List<Object[]>> rows = new EnumMap<>(Table.class);
+        long journeysInRange = journeyOffset[toUser] - journeyOffset[fromUser];
+        rows.put(Table.USERS, new ArrayList<>(toUser - fromUser));
+        rows.put(Table.CARDS, new ArrayList<>((toUser - fromUser) * cardsPerUser));
+        rows.put(Table.JOURNEYS, new ArrayList<>((int) journeysInRange));
+        rows.put(Table.TRANSACTIONS, new ArrayList<>((int) (journeysInRange * 11 / 10 + (toUser - fromUser))));
+
+        for (int u = fromUser; u < toUser; u++) {
+            generateUser(u, rows);
+        }
+        return rows;
+    }
+
+    private void generateUser(int u, Map<Table, List<Object[]>> rows) {
+        SplittableRandom random = new SplittableRandom(seed * 31 + u);
+        long userId = base.user() + u;
+        LocalDateTime registered = endDate.atStartOfDay().minusDays(days + random.nextInt(365)).plusMinutes(random.nextInt(1440));
+        String firstName = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+        String lastName = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+        String concession = concession(random);
+
+        rows.get(Table.USERS).add(new Object[]{
+                userId, "user" + userId + "@example.test", passwordHash, firstName, lastName,
+                String.format("+4477%08d", userId % 100_000_000), money(random.nextDouble() * 80),
+                random.nextInt(100) < 98 ? "ACTIVE" : "SUSPENDED", "CUSTOMER", concession,
+                registered, registered});
+
+        long firstCardId = base.card() + (long) u * cardsPerUser;
+        for (int c = 0; c < cardsPerUser; c++) {
+            long cardId = firstCardId + c;
+            rows.get(Table.CARDS).add(new Object[]{
+                    cardId, cardNumber(cardId), firstName + " " + lastName,
+                    CARD_TYPES[random.nextInt(CARD_TYPES.length)], String.format("%02d", 1 + random.nextInt(12)),
+                    String.valueOf(endDate.getYear() + 1 + random.nextInt(4)), userId, "ACTIVE", c == 0,
+                    registered, registered});
+        }
+
+        // Journeys in chronological order so top-ups interleave naturally
+        int journeys = (int) (journeyOffset[u + 1] - journeyOffset[u]);
+        long journeyId = base.journey() + journeyOffset[u];
+        long txId = base.transaction() + transactionOffset[u];
+        long[] tapIns = new long[journeys];
+        LocalDateTime windowStart = endDate.atStartOfDay().minusDays(days);
+        for (int j = 0; j < journeys; j++) {
+            tapIns[j] = (long) random.nextInt(days) * 1440 + hourTable[random.nextInt(hourTable.length)] * 60L + random.nextInt(60);
+        }
+        Arrays.sort(tapIns);
+
+        // Each rider mostly travels between a home and a work station
+        Station home = stations.get(random.nextInt(stations.size()));
+        Station work = stations.get(random.nextInt(stations.size()));
+
+        for (int j = 0; j < journeys; j++, journeyId++) {
+            long cardId = firstCardId + (cardsPerUser == 1 ? 0 : random.nextInt(cardsPerUser));
+            LocalDateTime tapIn = windowStart.plusMinutes(tapIns[j]);
+
+            if (j % JOURNEYS_PER_TOP_UP == 0) {
+                BigDecimal topUp = BigDecimal.valueOf(10L * (1 + random.nextInt(5))).setScale(2, RoundingMode.UNNECESSARY);
+                LocalDateTime at = tapIn.minusMinutes(5 + random.nextInt(120));
+                rows.get(Table.TRANSACTIONS).add(new Object[]{
+                        txId, new UUID(seed, txId).toString(), userId, null, cardId, "TOP_UP", topUp,
+                        "COMPLETED", "Balance top-up", "GEN-" + Long.toHexString(txId).toUpperCase(), null, at});
+                txId++;
+            }
+
+            int pattern = random.nextInt(10);
+            Station entry = pattern < 4 ? home : pattern < 8 ? work : stations.get(random.nextInt(stations.size()));
+            Station exit = entry == home ? work : entry == work ? home : stations.get(random.nextInt(stations.size()));
+
+            if (random.nextDouble() < INCOMPLETE_RATE) {
+                rows.get(Table.JOURNEYS).add(new Object[]{
+                        journeyId, userId, cardId, entry.id(), null, tapIn, null, "INCOMPLETE",
+                        PENALTY, BigDecimal.ZERO.setScale(2), PENALTY, null,
+                        "Journey not completed within time limit. Penalty applied.", tapIn, tapIn.plusHours(4)});
+                rows.get(Table.TRANSACTIONS).add(new Object[]{
+                        txId, new UUID(seed, txId).toString(), userId, journeyId, cardId, "PENALTY", PENALTY,
+                        "COMPLETED", "Incomplete journey penalty", null, null, tapIn.plusHours(4)});
+            } else {
+                int zones = Math.abs(entry.zone() - exit.zone()) + 1;
+                BigDecimal fare = fareTable.fare(entry.zone(), exit.zone(), tapIn, User.ConcessionClass.valueOf(concession));
+                LocalDateTime tapOut = tapIn.plusMinutes(6 + 4L * zones + random.nextInt(25));
+                rows.get(Table.JOURNEYS).add(new Object[]{
+                        journeyId, userId, cardId, entry.id(), exit.id(), tapIn, tapOut, "COMPLETED",
+                        fare, BigDecimal.ZERO.setScale(2), fare, zones, null, tapIn, tapOut});
+                rows.get(Table.TRANSACTIONS).add(new Object[]{
+                        txId, new UUID(seed, txId).toString(), userId, journeyId, cardId, "JOURNEY_PAYMENT", fare,
+                        "COMPLETED", "Journey from " + entry.name() + " to " + exit.name(), null, null, tapOut});
+            }
+            txId++;
+        }
+    }
+
+    /**
+     * Journeys per user follow a skewed distribution: many occasional riders, a long tail of daily commuters
+     */
+    private static long[] planJourneys(long seed, int users, double mean) {
+        long[] offsets = new long[users + 1];
+        SplittableRandom random = new SplittableRandom(seed);
+        for (int u = 0; u < users; u++) {
+            // Exponential with the requested mean, capped at four taps a day-equivalent
+            long count = Math.min((long) (-Math.log(1 - random.nextDouble()) * mean), (long) (mean * 8));
+            offsets[u + 1] = offsets[u] + count;
+        }
+        return offsets;
+    }
+
+    // Each user gets one transaction per journey plus a top-up before every JOURNEYS_PER_TOP_UP journeys
+    private static long[] planTransactions(long[] journeyOffset) {
+        long[] offsets = new long[journeyOffset.length];
+        for (int u = 0; u + 1 < journeyOffset.length; u++) {
+            long journeys = journeyOffset[u + 1] - journeyOffset[u];
+            offsets[u + 1] = offsets[u] + journeys + (journeys + JOURNEYS_PER_TOP_UP - 1) / JOURNEYS_PER_TOP_UP;
+        }
+        return offsets;
+    }
+
+    private static String concession(SplittableRandom random) {
+        int roll = random.nextInt(100);
+        if (roll < 85) return "NONE";
+        if (roll < 90) return "STUDENT";
+        if (roll < 95) return "SENIOR";
+        if (roll < 98) return "CHILD";
+        return "DISABLED";
+    }
+
+    // 16-digit, Luhn-valid and unique per card id
+    private static String cardNumber(long cardId) {
+        String body = "4" + String.format("%014d", cardId);
+        int sum = 0;
+        for (int i = body.length() - 1, position = 0; i >= 0; i--, position++) {
+            int digit = body.charAt(i) - '0';
+            if (position % 2 == 0) {
+                digit *= 2;
+                if (digit > 9) digit -= 9;
+            }
+            sum += digit;
+        }
+        return body + (10 - sum % 10) % 10;
+    }
+
+    private static BigDecimal money(double value) {
+        return BigDecimal.valueOf(value).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    private static int[] expandWeights(int[] weights) {
+        int total = 0;
+        for (int w : weights) total += w;
+        int[] table = new int[total];
+        int index = 0;
+        for (int hour = 0; hour < weights.length; hour++) {
+            for (int i = 0; i < weights[hour]; i++) {
+                table[index++] = hour;
+            }
+        }
+        return table;
+    }
+}
@@ -0,0 +1,103 @@
+package mjyuu.transport_payment.tools;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * Writes generated rows for one table into an open connection
+ */
+interface TableSink {
+
+    void write(Connection connection, SyntheticDataGenerator.Table table, List<Object[]> rows)
+            throws SQLException, IOException;
+
+    /**
+     * PostgreSQL: one COPY ... FROM STDIN (FORMAT csv) per table per chunk
+     */
+    class PostgresCopySink implements TableSink {
+
+        private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+        @Override
+        public void write(Connection connection, SyntheticDataGenerator.Table table, List<Object[]> rows)
+                throws SQLException, IOException {
+            if (rows.isEmpty()) {
+                return;
+            }
+            StringBuilder csv = new StringBuilder(rows.size() * 128);
+            for (Object[] row : rows) {
+                for (int i = 0; i < row.length; i++) {
+                    if (i > 0) {
+                        csv.append(',');
+                    }
+                    appendValue(csv, row[i]);
+                }
+                csv.append('\n');
+            }
+
+            CopyManager copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+            copyManager.copyIn("COPY " + table.tableName() + " (" + table.columnList() + ") FROM STDIN WITH (FORMAT csv)",
+                               new StringReader(csv.toString()));
+        }
+
+        private static void appendValue(StringBuilder csv, Object value) {
+            if (value == null) {
+                return;  // unquoted empty field is NULL in CSV mode
+            }
+            if (value instanceof LocalDateTime timestamp) {
+                csv.append(TIMESTAMP.format(timestamp));
+            } else if (value instanceof BigDecimal decimal) {
+                csv.append(decimal.toPlainString());
+            } else if (value instanceof String text) {
+                csv.append('"').append(text.replace("\"", "\"\"")).append('"');
+            } else {
+                csv.append(value);
+            }
+        }
+    }
+
+    /**
+     * Any other JDBC database (H2): batched prepared INSERTs
+     */
+    class JdbcBatchSink implements TableSink {
+
+        private static final int BATCH_SIZE = 1_000;
+
+        @Override
+        public void write(Connection connection, SyntheticDataGenerator.Table table, List<Object[]> rows)
+                throws SQLException {
+            if (rows.isEmpty()) {
+                return;
+            }
+            String placeholders = "?" + ",?".repeat(table.columns().length - 1);
+            String sql = "INSERT INTO " + table.tableName() + " (" + table.columnList() + ") VALUES (" + placeholders + ")";
+
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                int pending = 0;
+                for (Object[] row : rows) {
+                    for (int i = 0; i < row.length; i++) {
+                        statement.setObject(i + 1, row[i]);
+                    }
+                    statement.addBatch();
+                    if (++pending == BATCH_SIZE) {
+                        statement.executeBatch();
+                        pending = 0;
+                    }
+                }
+                if (pending > 0) {
+                    statement.executeBatch();
+                }
+            }
+        }
+    }
+}
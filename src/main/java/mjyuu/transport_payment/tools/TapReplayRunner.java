@@ -0,0 +1,228 @@
+package mjyuu.transport_payment.tools;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import mjyuu.transport_payment.dto.TapRequest;
+import mjyuu.transport_payment.dto.TapResponse;
+import mjyuu.transport_payment.service.JourneyService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Replays a recorded tap log through JourneyService with the clock pinned to each tap's time,
+ * then reports throughput, latency percentiles and fare differences against a baseline run.
+ *
+ * <pre>
+ * SPRING_PROFILES_ACTIVE=replay java -jar target/payment-system-1.0.0.jar \
+ *      --transport.replay.file=taps-2026-03-02.csv \
+ *      --transport.replay.output=replay-new.csv \
+ *      --transport.replay.baseline=replay-old.csv
+ * </pre>
+ *
+ * Tap log lines are {@code tapTime,IN|OUT,cardNumber,stationCode}; blank lines and lines starting
+ * with # are skipped. transport.replay.speed is 0 for as fast as possible, otherwise the multiple of
+ * real time (1 = as recorded, 60 = an hour per minute). Taps run one at a time in log order so the
+ * same database snapshot always gives the same fares; restore it before each run.
+ * The process exits with status 1 when the outcomes differ from the baseline.
+ */
+@Component
+@Profile("replay")
+@RequiredArgsConstructor
+@Slf4j
+public class TapReplayRunner implements ApplicationRunner {
+
+    private static final int REPORTED_DIFFERENCES = 20;
+
+    record Tap(int line, LocalDateTime time, boolean tapIn, String cardNumber, String stationCode) {}
+
+    // Outcome is OK or the exception class; fare is empty for tap-ins and failures
+    record Result(int line, String outcome, String fare) {
+
+        String toCsv() {
+            return line + "," + outcome + "," + fare;
+        }
+
+        static Result parse(String csv) {
+            String[] fields = csv.split(",", -1);
+            return new Result(Integer.parseInt(fields[0]), fields[1], fields[2]);
+        }
+    }
+
+    private final JourneyService journeyService;
+    private final ReplayClock clock;
+    private final ApplicationContext context;
+
+    @Value("${transport.replay.file}")
+    private Path tapLog;
+
+    @Value("${transport.replay.output:replay-results.csv}")
+    private Path output;
+
+    @Value("${transport.replay.baseline:#{null}}")
+    private Path baseline;
+
+    @Value("${transport.replay.speed:0}")
+    private double speed;
+
+    @Override
+    public void run(ApplicationArguments args) throws IOException {
+        List<Tap> taps = readTaps(tapLog);
+        if (taps.isEmpty()) {
+            log.warn("No taps in {}", tapLog);
+            return;
+        }
+        log.info("Replaying {} taps from {} ({})", taps.size(), tapLog,
+                 speed > 0 ? speed + "x real time" : "maximum speed");
+
+        List<Result> results = new ArrayList<>(taps.size());
+        long[] latencyNanos = new long[taps.size()];
+        LocalDateTime firstTap = taps.get(0).time();
+        long started = System.nanoTime();
+
+        for (int i = 0; i < taps.size(); i++) {
+            Tap tap = taps.get(i);
+            if (speed > 0) {
+                long due = started + (long) (Duration.between(firstTap, tap.time()).toNanos() / speed);
+                long wait = due - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+            }
+            clock.set(tap.time());
+            long t0 = System.nanoTime();
+            results.add(replay(tap));
+            latencyNanos[i] = System.nanoTime() - t0;
+        }
+
+        double seconds = (System.nanoTime() - started) / 1e9;
+        writeResults(results);
+        report(results, latencyNanos, seconds);
+
+        int differences = baseline != null ? compare(results, readResults(baseline)) : 0;
+        int exitCode = differences == 0 ? 0 : 1;
+        System.exit(SpringApplication.exit(context, () -> exitCode));
+    }
+
+    private Result replay(Tap tap) {
+        // No tap time on the request: the services take it from the replay clock
+        TapRequest request = TapRequest.builder()
+                .cardNumber(tap.cardNumber())
+                .stationCode(tap.stationCode())
+                .build();
+        try {
+            TapResponse response = tap.tapIn() ? journeyService.tapIn(request) : journeyService.tapOut(request);
+            return new Result(tap.line(), "OK", response.getFareAmount() != null ? response.getFareAmount().toPlainString() : "");
+        } catch (RuntimeException e) {
+            return new Result(tap.line(), e.getClass().getSimpleName(), "");
+        }
+    }
+
+    private void report(List<Result> results, long[] latencyNanos, double seconds) {
+        long failed = results.stream().filter(r -> !"OK".equals(r.outcome())).count();
+        BigDecimal fares = results.stream()
+                .filter(r -> !r.fare().isEmpty())
+                .map(r -> new BigDecimal(r.fare()))
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        long[] sorted = latencyNanos.clone();
+        Arrays.sort(sorted);
+
+        log.info("Replayed {} taps in {} s: {} taps/s, {} rejected, fares charged {}",
+                 results.size(), String.format("%.1f", seconds),
+                 String.format("%.0f", results.size() / seconds), failed, fares);
+        log.info("Latency ms: p50={} p95={} p99={} p99.9={} max={}",
+                 percentile(sorted, 50), percentile(sorted, 95), percentile(sorted, 99),
+                 percentile(sorted, 99.9), percentile(sorted, 100));
+        log.info("Results written to {}", output);
+    }
+
+    private int compare(List<Result> results, List<Result> expected) {
+        Map<Integer, Result> byLine = new HashMap<>();
+        expected.forEach(r -> byLine.put(r.line(), r));
+
+        int differences = 0;
+        for (Result actual : results) {
+            Result before = byLine.remove(actual.line());
+            if (before == null || !before.outcome().equals(actual.outcome()) || !sameFare(before.fare(), actual.fare())) {
+                if (differences++ < REPORTED_DIFFERENCES) {
+                    log.warn("Line {}: baseline {} {}, now {} {}", actual.line(),
+                             before != null ? before.outcome() : "missing", before != null ? before.fare() : "",
+                             actual.outcome(), actual.fare());
+                }
+            }
+        }
+        differences += byLine.size();
+
+        if (differences == 0) {
+            log.info("No differences against baseline {}", baseline);
+        } else {
+            log.warn("{} taps differ from baseline {} ({} only in the baseline)", differences, baseline, byLine.size());
+        }
+        return differences;
+    }
+
+    // 5.5 and 5.50 are the same fare
+    private static boolean sameFare(String a, String b) {
+        if (a.isEmpty() || b.isEmpty()) {
+            return Objects.equals(a, b);
+        }
+        return new BigDecimal(a).compareTo(new BigDecimal(b)) == 0;
+    }
+
+    private void writeResults(List<Result> results) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(output)) {
+            for (Result result : results) {
+                writer.write(result.toCsv());
+                writer.newLine();
+            }
+        }
+    }
+
+    private static List<Result> readResults(Path file) throws IOException {
+        try (var lines = Files.lines(file)) {
+            return lines.filter(line -> !line.isBlank()).map(Result::parse).toList();
+        }
+    }
+
+    private static List<Tap> readTaps(Path file) throws IOException {
+        List<String> lines = Files.readAllLines(file);
+        List<Tap> taps = new ArrayList<>(lines.size());
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i).trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] fields = line.split(",");
+            if (fields.length != 4) {
+                throw new IllegalArgumentException("Line " + (i + 1) + " of " + file + ": expected tapTime,IN|OUT,cardNumber,stationCode");
+            }
+            taps.add(new Tap(i + 1, LocalDateTime.parse(fields[0].trim()), "IN".equalsIgnoreCase(fields[1].trim()),
+                             fields[2].trim(), fields[3].trim()));
+        }
+        return taps;
+    }
+
+    private static String percentile(long[] sortedNanos, double p) {
+        int index = Math.min(sortedNanos.length - 1, (int) Math.ceil(p / 100.0 * sortedNanos.length) - 1);
+        return String.format("%.2f", sortedNanos[Math.max(0, index)] / 1e6);
+    }
+}
@@ -0,0 +1,17 @@
+-- R__shard_id_ranges.sql
+
+-- Start rider id sequences at shard_index << 40 so ShardRouter can tell a row's shard from its id.
+-- Shard 0, which is also every unsharded install, keeps its sequences as they are.
+DO $$
+DECLARE
+    tbl TEXT;
+    floor_id BIGINT := ${shard_index}::BIGINT << 40;
+    start_after BIGINT;
+BEGIN
+    IF floor_id > 0 THEN
+        FOREACH tbl IN ARRAY ARRAY['users', 'cards', 'journeys', 'transactions'] LOOP
+            EXECUTE format('SELECT GREATEST(%s, COALESCE(MAX(id), 0)) FROM %I', floor_id, tbl) INTO start_after;
+            PERFORM setval(pg_get_serial_sequence(tbl, 'id'), start_after);
+        END LOOP;
+    END IF;
+END $$;
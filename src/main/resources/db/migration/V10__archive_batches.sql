@@ -0,0 +1,20 @@
+-- V10__archive_batches.sql
+
+-- Journeys and transactions past the dispute window, moved out of the hot tables.
+-- Each row holds one user's records for one month as gzip-compressed JSON; the
+-- columns beside the payload are the lookup index for history queries.
+CREATE TABLE IF NOT EXISTS archive_batches (
+    id BIGSERIAL PRIMARY KEY,
+    kind VARCHAR(20) NOT NULL,               -- JOURNEY | TRANSACTION
+    user_id BIGINT NOT NULL,
+    period_start DATE NOT NULL,              -- first day of the month the records fall in
+    first_at TIMESTAMP NOT NULL,
+    last_at TIMESTAMP NOT NULL,
+    record_count INT NOT NULL,
+    raw_bytes INT NOT NULL,
+    payload BYTEA NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+);
+
+CREATE INDEX IF NOT EXISTS idx_archive_batches_user_kind ON archive_batches(user_id, kind, last_at);
@@ -0,0 +1,10 @@
+-- V11__rider_shard_directory.sql
+
+-- Card number / email -> rider shard, read from shard 0 only when transport.sharding is enabled.
+-- Riders created before sharding have no entry and route to shard 0, where they already live.
+CREATE TABLE IF NOT EXISTS rider_shard_directory (
+    key_type VARCHAR(20) NOT NULL,
+    lookup_key VARCHAR(255) NOT NULL,
+    shard_id INT NOT NULL,
+    PRIMARY KEY (key_type, lookup_key)
+);
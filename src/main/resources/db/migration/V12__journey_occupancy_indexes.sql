@@ -0,0 +1,6 @@
+-- V12__journey_occupancy_indexes.sql
+
+-- Startup reconciliation of the live station counters: open journeys by entry station and
+-- today's tap-outs by exit station, without scanning journeys
+CREATE INDEX IF NOT EXISTS idx_journeys_in_progress_entry ON journeys(entry_station_id) WHERE status = 'IN_PROGRESS';
+CREATE INDEX IF NOT EXISTS idx_journeys_tap_out_time ON journeys(tap_out_time);
@@ -0,0 +1,15 @@
+-- V13__user_balance_shards.sql
+
+-- Optional sharded balance for accounts shared by many cards: the balance is split across
+-- balance_shards sub-rows so concurrent debits lock different rows. 0 keeps it in users.balance.
+ALTER TABLE users ADD COLUMN IF NOT EXISTS balance_shards INT NOT NULL DEFAULT 0;
+
+CREATE TABLE IF NOT EXISTS user_balance_shards (
+    user_id BIGINT NOT NULL,
+    shard_no INT NOT NULL,
+    balance DECIMAL(10, 2) NOT NULL DEFAULT 0.00,
+    PRIMARY KEY (user_id, shard_no),
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+);
+
+CREATE INDEX IF NOT EXISTS idx_users_balance_shards ON users(id) WHERE balance_shards > 0;
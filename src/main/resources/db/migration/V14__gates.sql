@@ -0,0 +1,11 @@
+-- V14__gates.sql
+
+-- Registered ticket gates. Only these ids get their own rate-limit bucket and retransmit
+-- window; any other X-Gate-Id is treated as an ordinary client.
+CREATE TABLE IF NOT EXISTS gates (
+    gate_id VARCHAR(64) PRIMARY KEY,
+    station_id BIGINT NOT NULL,
+    active BOOLEAN NOT NULL DEFAULT TRUE,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    FOREIGN KEY (station_id) REFERENCES stations(id)
+);
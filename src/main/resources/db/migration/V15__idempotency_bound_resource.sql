@@ -0,0 +1,5 @@
+-- V15__idempotency_bound_resource.sql
+
+-- Set once a keyed operation has a side effect outside the database (a card top-up whose gateway
+-- call has started). Such a key is never released: retries get the resource's current status.
+ALTER TABLE idempotency_records ADD COLUMN IF NOT EXISTS resource_id VARCHAR(64);
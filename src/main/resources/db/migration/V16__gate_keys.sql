@@ -0,0 +1,6 @@
+-- V16__gate_keys.sql
+
+-- SHA-256 (hex) of each gate's secret key, sent as X-Gate-Key alongside X-Gate-Id. A gate is only
+-- trusted with its own rate-limit bucket and retransmit window once the key matches; a gate
+-- without a key is treated as an ordinary client.
+ALTER TABLE gates ADD COLUMN IF NOT EXISTS key_hash VARCHAR(64);
@@ -0,0 +1,23 @@
+-- V4__fare_rules_and_concessions.sql
+
+-- Concession class drives fare discounts (see fare_rule_sets.definition)
+ALTER TABLE users ADD COLUMN IF NOT EXISTS concession_class VARCHAR(20) NOT NULL DEFAULT 'NONE';
+
+-- Versioned, declarative fare rules. The definition is a JSON document that is
+-- compiled once at load time; exactly one version is active at a time.
+CREATE TABLE IF NOT EXISTS fare_rule_sets (
+    version INT PRIMARY KEY,
+    description VARCHAR(255),
+    definition TEXT NOT NULL,
+    active BOOLEAN NOT NULL DEFAULT FALSE,
+    created_at TIMESTAMP NOT NULL
+);
+
+CREATE UNIQUE INDEX IF NOT EXISTS idx_fare_rule_sets_single_active ON fare_rule_sets(active) WHERE active;
+
+-- Version 1 reproduces the flat base-fare + per-zone-charge tariff and adds concessions
+INSERT INTO fare_rule_sets (version, description, definition, active, created_at) VALUES
+(1, 'Flat zonal tariff with concessions',
+ '{"baseFare": 2.50, "perZoneCharge": 1.50, "maxZone": 9, "timeBands": [], "zonePairOverrides": [], "concessionDiscounts": {"CHILD": 0.50, "STUDENT": 0.30, "SENIOR": 1.00, "DISABLED": 1.00}}',
+ TRUE, CURRENT_TIMESTAMP)
+ON CONFLICT (version) DO NOTHING;
@@ -0,0 +1,40 @@
+-- V5__spending_period_counters.sql
+
+-- Running totals of journey spend per user and capping period, maintained at
+-- tap-out so stacked daily/weekly/monthly caps never sum the transactions table
+CREATE TABLE IF NOT EXISTS user_spending_periods (
+    user_id BIGINT NOT NULL,
+    period_type VARCHAR(10) NOT NULL,
+    period_start DATE NOT NULL,
+    amount DECIMAL(10, 2) NOT NULL DEFAULT 0.00,
+    updated_at TIMESTAMP NOT NULL,
+    PRIMARY KEY (user_id, period_type, period_start),
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+);
+
+-- Backfill the periods that are still open from completed journey payments, bucketed by the
+-- journey's tap-in date as FareCappingService.applyCaps keys them (a journey crossing midnight
+-- or a week/month boundary counts in the period it started)
+INSERT INTO user_spending_periods (user_id, period_type, period_start, amount, updated_at)
+SELECT t.user_id, 'DAILY', CAST(j.tap_in_time AS DATE), SUM(t.amount), CURRENT_TIMESTAMP
+FROM transactions t
+JOIN journeys j ON j.id = t.journey_id
+WHERE t.type = 'JOURNEY_PAYMENT' AND t.status = 'COMPLETED' AND j.tap_in_time >= CURRENT_DATE
+GROUP BY t.user_id, CAST(j.tap_in_time AS DATE)
+ON CONFLICT DO NOTHING;
+
+INSERT INTO user_spending_periods (user_id, period_type, period_start, amount, updated_at)
+SELECT t.user_id, 'WEEKLY', CAST(date_trunc('week', j.tap_in_time) AS DATE), SUM(t.amount), CURRENT_TIMESTAMP
+FROM transactions t
+JOIN journeys j ON j.id = t.journey_id
+WHERE t.type = 'JOURNEY_PAYMENT' AND t.status = 'COMPLETED' AND j.tap_in_time >= date_trunc('week', CURRENT_DATE)
+GROUP BY t.user_id, CAST(date_trunc('week', j.tap_in_time) AS DATE)
+ON CONFLICT DO NOTHING;
+
+INSERT INTO user_spending_periods (user_id, period_type, period_start, amount, updated_at)
+SELECT t.user_id, 'MONTHLY', CAST(date_trunc('month', j.tap_in_time) AS DATE), SUM(t.amount), CURRENT_TIMESTAMP
+FROM transactions t
+JOIN journeys j ON j.id = t.journey_id
+WHERE t.type = 'JOURNEY_PAYMENT' AND t.status = 'COMPLETED' AND j.tap_in_time >= date_trunc('month', CURRENT_DATE)
+GROUP BY t.user_id, CAST(date_trunc('month', j.tap_in_time) AS DATE)
+ON CONFLICT DO NOTHING;
@@ -0,0 +1,14 @@
+-- V6__idempotency_records.sql
+
+-- Outcome of each request sent with an Idempotency-Key, so client retries replay the
+-- original response instead of running the tap or top-up again
+CREATE TABLE IF NOT EXISTS idempotency_records (
+    record_key VARCHAR(200) PRIMARY KEY,     -- scope + ':' + client key
+    request_hash CHAR(64) NOT NULL,          -- SHA-256 of the request body; raw card data is never stored
+    status VARCHAR(20) NOT NULL,             -- IN_PROGRESS | COMPLETED
+    response_body TEXT,
+    created_at TIMESTAMP NOT NULL,
+    expires_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_idempotency_records_expires_at ON idempotency_records(expires_at);
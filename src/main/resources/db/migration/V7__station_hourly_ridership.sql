@@ -0,0 +1,39 @@
+-- V7__station_hourly_ridership.sql
+
+-- Entries and exits per station per hour, rolled up incrementally from journey
+-- outbox events so ridership reporting never aggregates the journeys table
+CREATE TABLE IF NOT EXISTS station_hourly_ridership (
+    station_id BIGINT NOT NULL,
+    hour_start TIMESTAMP NOT NULL,
+    entries BIGINT NOT NULL DEFAULT 0,
+    exits BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (station_id, hour_start),
+    FOREIGN KEY (station_id) REFERENCES stations(id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_station_hourly_ridership_hour ON station_hourly_ridership(hour_start);
+
+-- Highest outbox event id already folded into the rollup
+CREATE TABLE IF NOT EXISTS ridership_rollup_state (
+    name VARCHAR(50) PRIMARY KEY,
+    last_event_id BIGINT NOT NULL,
+    updated_at TIMESTAMP NOT NULL
+);
+
+-- Backfill history from journeys once; events after the watermark are applied by the rollup job
+INSERT INTO station_hourly_ridership (station_id, hour_start, entries, exits)
+SELECT station_id, hour_start, SUM(entries), SUM(exits)
+FROM (
+    SELECT entry_station_id AS station_id, date_trunc('hour', tap_in_time) AS hour_start, 1 AS entries, 0 AS exits
+    FROM journeys
+    UNION ALL
+    SELECT exit_station_id, date_trunc('hour', tap_out_time), 0, 1
+    FROM journeys
+    WHERE exit_station_id IS NOT NULL AND tap_out_time IS NOT NULL
+) taps
+GROUP BY station_id, hour_start
+ON CONFLICT DO NOTHING;
+
+INSERT INTO ridership_rollup_state (name, last_event_id, updated_at)
+SELECT 'station_hourly', COALESCE(MAX(id), 0), CURRENT_TIMESTAMP FROM outbox_events
+ON CONFLICT DO NOTHING;
@@ -0,0 +1,47 @@
+-- V8__user_travel_statistics.sql
+
+-- Per-user monthly travel totals, maintained at tap-out so profile statistics
+-- never aggregate the user's journey history
+CREATE TABLE IF NOT EXISTS user_monthly_stats (
+    user_id BIGINT NOT NULL,
+    month_start DATE NOT NULL,
+    trips INT NOT NULL DEFAULT 0,
+    total_spend DECIMAL(12, 2) NOT NULL DEFAULT 0.00,
+    total_duration_minutes BIGINT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP NOT NULL,
+    PRIMARY KEY (user_id, month_start),
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+);
+
+-- Every station a user has entered or exited at, for the distinct-stations count
+CREATE TABLE IF NOT EXISTS user_station_visits (
+    user_id BIGINT NOT NULL,
+    station_id BIGINT NOT NULL,
+    first_visited_at TIMESTAMP NOT NULL,
+    PRIMARY KEY (user_id, station_id),
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
+    FOREIGN KEY (station_id) REFERENCES stations(id)
+);
+
+-- Backfill from completed journeys; the month is the month of tap-in, as for fare capping
+INSERT INTO user_monthly_stats (user_id, month_start, trips, total_spend, total_duration_minutes, updated_at)
+SELECT user_id,
+       CAST(date_trunc('month', tap_in_time) AS DATE),
+       COUNT(*),
+       COALESCE(SUM(final_amount), 0),
+       COALESCE(SUM(CAST(EXTRACT(EPOCH FROM (tap_out_time - tap_in_time)) / 60 AS BIGINT)), 0),
+       CURRENT_TIMESTAMP
+FROM journeys
+WHERE status = 'COMPLETED'
+GROUP BY user_id, CAST(date_trunc('month', tap_in_time) AS DATE)
+ON CONFLICT DO NOTHING;
+
+INSERT INTO user_station_visits (user_id, station_id, first_visited_at)
+SELECT user_id, station_id, MIN(visited_at)
+FROM (
+    SELECT user_id, entry_station_id AS station_id, tap_in_time AS visited_at FROM journeys WHERE status = 'COMPLETED'
+    UNION ALL
+    SELECT user_id, exit_station_id, tap_out_time FROM journeys WHERE status = 'COMPLETED' AND exit_station_id IS NOT NULL
+) visits
+GROUP BY user_id, station_id
+ON CONFLICT DO NOTHING;
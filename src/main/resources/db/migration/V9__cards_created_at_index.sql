@@ -0,0 +1,4 @@
+-- V9__cards_created_at_index.sql
+
+-- The card-number Bloom filter catches up on recently added cards by created_at
+CREATE INDEX IF NOT EXISTS idx_cards_created_at ON cards(created_at);
@@ -119,6 +119,14 @@ const UserAPI = {
         return await apiRequest(`/users/${userId}`);
     },
 
+    getDashboard: async (userId) => {
+        return await apiRequest(`/users/${userId}/dashboard`);
+    },
+
+    getStatistics: async (userId, months = 12) => {
+        return await apiRequest(`/users/${userId}/statistics?months=${months}`);
+    },
+
     updateProfile: async (userId, userData) => {
         return await apiRequest(`/users/${userId}`, {
             method: 'PUT',
@@ -1,32 +1,31 @@
 // Dashboard functionality
 
 let stations = [];
+let dashboard = null;
 
 document.addEventListener('DOMContentLoaded', async () => {
     if (!requireAuth()) return;
 
     const userId = getUserId();
-    await loadDashboardData(userId);
-    await loadStations();
-    await checkActiveJourney(userId);
+    await Promise.all([loadDashboardData(userId), loadStations()]);
     setupEventListeners();
 });
 
 async function loadDashboardData(userId) {
     try {
-        // Load user profile
-        const userResponse = await UserAPI.getProfile(userId);
-        if (userResponse.data) {
-            updateBalanceDisplay(userResponse.data.balance);
-        }
-
-        // Load recent journeys
-        await loadRecentJourneys(userId);
-
-        // Load monthly stats
-        await loadMonthlyStats(userId);
+        // Profile, cards, journeys, transactions and spending in one request
+        const response = await UserAPI.getDashboard(userId);
+        dashboard = response.data;
+        if (!dashboard) return;
+
+        updateBalanceDisplay(dashboard.balance);
+        renderRecentJourneys(dashboard.recentJourneys || []);
+        renderMonthlyStats(dashboard);
+        showActiveJourney(dashboard.activeJourney);
     } catch (error) {
         console.error('Error loading dashboard data:', error);
+        document.getElementById('recentJourneys').innerHTML =
+            '<tr><td colspan="6" class="text-center text-danger">Failed to load journeys</td></tr>';
     }
 }
 
@@ -37,64 +36,38 @@ function updateBalanceDisplay(balance) {
     }
 }
 
-async function loadRecentJourneys(userId) {
+function renderRecentJourneys(journeys) {
     const tbody = document.getElementById('recentJourneys');
-    
-    try {
-        const response = await JourneyAPI.getUserJourneys(userId);
-        const journeys = response.data || [];
-        
-        if (journeys.length === 0) {
-            tbody.innerHTML = '<tr><td colspan="6" class="text-center text-muted">No journeys yet</td></tr>';
-            return;
-        }
 
-        // Show last 5 journeys
-        const recentJourneys = journeys.slice(0, 5);
-        tbody.innerHTML = recentJourneys.map(journey => `
-            <tr>
-                <td>${formatDateTime(journey.tapInTime)}</td>
-                <td>${journey.entryStationName || 'N/A'}</td>
-                <td>${journey.exitStationName || 'N/A'}</td>
-                <td>${getStatusBadge(journey.status)}</td>
-                <td>${journey.fareAmount ? formatCurrency(journey.fareAmount) : '-'}</td>
-                <td>
-                    ${journey.status === 'IN_PROGRESS' ? 
-                        `<button class="btn btn-sm btn-danger" onclick="quickTapOut(${journey.id})">
-                            <i class="fas fa-sign-out-alt"></i> Tap Out
-                        </button>` : 
-                        `<button class="btn btn-sm btn-info" onclick="viewJourneyDetails(${journey.id})">
-                            <i class="fas fa-eye"></i> View
-                        </button>`
-                    }
-                </td>
-            </tr>
-        `).join('');
-    } catch (error) {
-        tbody.innerHTML = '<tr><td colspan="6" class="text-center text-danger">Failed to load journeys</td></tr>';
+    if (journeys.length === 0) {
+        tbody.innerHTML = '<tr><td colspan="6" class="text-center text-muted">No journeys yet</td></tr>';
+        return;
     }
-}
 
-async function loadMonthlyStats(userId) {
-    try {
-        const response = await JourneyAPI.getUserJourneys(userId);
-        const journeys = response.data || [];
-        
-        // Filter journeys from this month
-        const now = new Date();
-        const thisMonth = journeys.filter(j => {
-            const journeyDate = new Date(j.tapInTime);
-            return journeyDate.getMonth() === now.getMonth() && 
-                   journeyDate.getFullYear() === now.getFullYear();
-        });
+    tbody.innerHTML = journeys.map(journey => `
+        <tr>
+            <td>${formatDateTime(journey.tapInTime)}</td>
+            <td>${journey.entryStationName || 'N/A'}</td>
+            <td>${journey.exitStationName || 'N/A'}</td>
+            <td>${getStatusBadge(journey.status)}</td>
+            <td>${journey.fareAmount ? formatCurrency(journey.fareAmount) : '-'}</td>
+            <td>
+                ${journey.status === 'IN_PROGRESS' ? 
+                    `<button class="btn btn-sm btn-danger" onclick="quickTapOut(${journey.id})">
+                        <i class="fas fa-sign-out-alt"></i> Tap Out
+                    </button>` : 
+                    `<button class="btn btn-sm btn-info" onclick="viewJourneyDetails(${journey.id})">
+                        <i class="fas fa-eye"></i> View
+                    </button>`
+                }
+            </td>
+        </tr>
+    `).join('');
+}
 
-        document.getElementById('monthlyJourneys').textContent = thisMonth.length;
-        
-        const totalSpent = thisMonth.reduce((sum, j) => sum + (j.fareAmount || 0), 0);
-        document.getElementById('monthlySpent').textContent = formatCurrency(totalSpent);
-    } catch (error) {
-        console.error('Error loading monthly stats:', error);
-    }
+function renderMonthlyStats(data) {
+    document.getElementById('monthlyJourneys').textContent = data.monthlyJourneys;
+    document.getElementById('monthlySpent').textContent = formatCurrency(data.monthlySpending || 0);
 }
 
 async function loadStations() {
@@ -120,19 +93,14 @@ function populateStationDropdown(elementId) {
         ).join('');
 }
 
-async function checkActiveJourney(userId) {
-    try {
-        const activeJourney = await JourneyAPI.getActiveJourney(userId);
-        if (activeJourney) {
-            const alertDiv = document.getElementById('activeJourneyAlert');
-            const infoSpan = document.getElementById('activeJourneyInfo');
-            
-            infoSpan.textContent = ` You have an active journey from ${activeJourney.entryStationName || 'Unknown'}.`;
-            alertDiv.classList.remove('d-none');
-        }
-    } catch (error) {
-        console.error('Error checking active journey:', error);
-    }
+function showActiveJourney(activeJourney) {
+    if (!activeJourney) return;
+
+    const alertDiv = document.getElementById('activeJourneyAlert');
+    const infoSpan = document.getElementById('activeJourneyInfo');
+
+    infoSpan.textContent = ` You have an active journey from ${activeJourney.entryStationName || 'Unknown'}.`;
+    alertDiv.classList.remove('d-none');
 }
 
 function setupEventListeners() {
@@ -196,7 +164,7 @@ function setupEventListeners() {
         }
 
         try {
-            const activeJourney = await JourneyAPI.getActiveJourney(userId);
+            const activeJourney = dashboard && dashboard.activeJourney;
             if (!activeJourney) {
                 alert('No active journey found');
                 return;
@@ -222,8 +190,7 @@ async function loadUserCardsForTapIn() {
     const select = document.getElementById('tapInCard');
     
     try {
-        const response = await CardAPI.getUserCards(getUserId());
-        const cards = response.data || [];
+        const cards = dashboard ? dashboard.cards : ((await CardAPI.getUserCards(getUserId())).data || []);
         const activeCards = cards.filter(c => c.status === 'ACTIVE');
         
         if (activeCards.length === 0) {
@@ -233,7 +200,7 @@ async function loadUserCardsForTapIn() {
 
         select.innerHTML = '<option value="">Select a card...</option>' +
             activeCards.map(card => 
-                `<option value="${card.id}">${maskCardNumber(card.cardNumber)} ${card.isDefault ? '(Default)' : ''}</option>`
+                `<option value="${card.id}">${card.cardNumber} ${card.isDefault ? '(Default)' : ''}</option>`
             ).join('');
     } catch (error) {
         select.innerHTML = '<option value="">Failed to load cards</option>';
@@ -4,7 +4,7 @@ document.addEventListener('DOMContentLoaded', async () => {
     if (!requireAuth()) return;
 
     const userId = getUserId();
-    await loadProfile(userId);
+    await Promise.all([loadProfile(userId), loadStatistics(userId)]);
     setupEventListeners();
 });
 
@@ -36,6 +36,32 @@ async function loadProfile(userId) {
     }
 }
 
+async function loadStatistics(userId) {
+    try {
+        const response = await UserAPI.getStatistics(userId, 6);
+        const stats = response.data;
+        if (!stats) return;
+
+        document.getElementById('statTrips').textContent = stats.totalTrips;
+        document.getElementById('statSpend').textContent = formatCurrency(stats.totalSpend || 0);
+        document.getElementById('statStations').textContent = stats.distinctStations;
+        document.getElementById('statDuration').textContent =
+            stats.averageDurationMinutes != null ? `${stats.averageDurationMinutes} min` : '-';
+
+        if (stats.months.length > 0) {
+            document.getElementById('statMonths').innerHTML = stats.months.map(month => `
+                <tr>
+                    <td>${month.month}</td>
+                    <td>${month.trips}</td>
+                    <td>${formatCurrency(month.spend)}</td>
+                </tr>
+            `).join('');
+        }
+    } catch (error) {
+        console.error('Error loading travel statistics:', error);
+    }
+}
+
 function setupEventListeners() {
     const userId = getUserId();
     
@@ -0,0 +1,76 @@
+package mjyuu.transport_payment;
+
+import mjyuu.transport_payment.security.JwtService;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Operational actuator endpoints are ADMIN-only; health stays open for probes
+ */
+@SpringBootTest(properties = "transport.rate-limit.enabled=false")
+@AutoConfigureMockMvc
+class ActuatorSecurityTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private UserDetailsService userDetailsService;
+
+    @Test
+    void healthIsOpen() throws Exception {
+        mockMvc.perform(get("/actuator/health"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void anonymousCannotDrainStartupTimeline() throws Exception {
+        mockMvc.perform(post("/actuator/startup"))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void riderCannotReadStartupTimeline() throws Exception {
+        mockMvc.perform(get("/actuator/startup")
+                        .header("Authorization", "Bearer " + token("john.doe@example.com")))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void adminCanReadStartupTimeline() throws Exception {
+        mockMvc.perform(get("/actuator/startup")
+                        .header("Authorization", "Bearer " + token("admin@transport.com")))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void anonymousCannotReadCacheStatistics() throws Exception {
+        mockMvc.perform(get("/actuator/l2cache"))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/actuator/l2cache/stations"))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void adminCanReadCacheStatistics() throws Exception {
+        mockMvc.perform(get("/actuator/l2cache")
+                        .header("Authorization", "Bearer " + token("admin@transport.com")))
+                .andExpect(status().isOk());
+    }
+
+    private String token(String email) {
+        return jwtService.generateToken(userDetailsService.loadUserByUsername(email));
+    }
+}
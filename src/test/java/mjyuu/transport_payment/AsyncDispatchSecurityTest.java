@@ -0,0 +1,81 @@
+package mjyuu.transport_payment;
+
+import mjyuu.transport_payment.repository.UserRepository;
+import mjyuu.transport_payment.security.JwtService;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Endpoints returning a CompletableFuture answer on an ASYNC re-dispatch, which the stateless
+ * JWT filter does not authenticate again; it must not be turned away with 403
+ */
+@SpringBootTest(properties = "transport.rate-limit.enabled=false")
+@AutoConfigureMockMvc
+class AsyncDispatchSecurityTest {
+
+    private static final String EMAIL = "john.doe@example.com";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private UserDetailsService userDetailsService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private Long userId;
+    private String token;
+
+    @BeforeEach
+    void login() {
+        userId = userRepository.findByEmail(EMAIL).orElseThrow().getId();
+        token = jwtService.generateToken(userDetailsService.loadUserByUsername(EMAIL));
+    }
+
+    @Test
+    void cardTopUpCompletesWith200() throws Exception {
+        MvcResult started = mockMvc.perform(post("/api/users/" + userId + "/topup/card")
+                        .header("Authorization", "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"cardNumber":"4242424242424242","expiryMonth":"12","expiryYear":"2099",
+                                 "cvv":"123","cardHolderName":"John Doe","amount":1.00}"""))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.status").value("COMPLETED"));
+    }
+
+    @Test
+    void dashboardCompletesWith200() throws Exception {
+        MvcResult started = mockMvc.perform(get("/api/users/" + userId + "/dashboard")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.email").value(EMAIL));
+    }
+}
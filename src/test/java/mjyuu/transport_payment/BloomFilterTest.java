@@ -0,0 +1,55 @@
+package mjyuu.transport_payment;
+
+import mjyuu.transport_payment.service.BloomFilter;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BloomFilterTest {
+
+    @Test
+    void neverRejectsAnAddedValue() {
+        BloomFilter filter = BloomFilter.create(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put(cardNumber(i));
+        }
+
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filter.mightContain(cardNumber(i)));
+        }
+    }
+
+    @Test
+    void falsePositiveRateStaysNearTarget() {
+        BloomFilter filter = BloomFilter.create(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put(cardNumber(i));
+        }
+
+        int falsePositives = 0;
+        int probes = 100_000;
+        for (int i = 0; i < probes; i++) {
+            if (filter.mightContain(cardNumber(1_000_000 + i))) {
+                falsePositives++;
+            }
+        }
+
+        // Target 1%; allow generous headroom so the test is not flaky
+        assertTrue(falsePositives < probes * 0.02, "false positives: " + falsePositives);
+        assertEquals(0.01, filter.expectedFpp(), 0.005);
+    }
+
+    @Test
+    void repeatedPutsAreNotCountedTwice() {
+        BloomFilter filter = BloomFilter.create(1_000, 0.01);
+
+        assertTrue(filter.put("4000123412341234"));
+        assertFalse(filter.put("4000123412341234"));
+        assertEquals(1, filter.getInsertions());
+    }
+
+    private static String cardNumber(int i) {
+        return String.format("4000%012d", i);
+    }
+}
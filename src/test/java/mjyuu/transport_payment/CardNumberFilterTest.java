@@ -0,0 +1,50 @@
+package mjyuu.transport_payment;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import mjyuu.transport_payment.config.ShardTopology;
+import mjyuu.transport_payment.config.ShardingProperties;
+import mjyuu.transport_payment.repository.CardRepository;
+import mjyuu.transport_payment.service.CardNumberFilter;
+import mjyuu.transport_payment.service.ShardRouter;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CardNumberFilterTest {
+
+    @Test
+    void firstBuildPicksUpCardsCommittedJustBelowTheScansHighestId() {
+        CardRepository cardRepository = mock(CardRepository.class);
+        when(cardRepository.count()).thenReturn(2L);
+        when(cardRepository.findMaxId()).thenReturn(100L);
+        // Card 95 was inserted before card 100 but committed after the scan read 100
+        when(cardRepository.streamAllCardNumbers()).thenAnswer(invocation -> Stream.of("4000000000000100"));
+        when(cardRepository.findCardNumbersByIdRange(anyLong(), anyLong())).thenAnswer(invocation ->
+                invocation.<Long>getArgument(0) < 95 ? List.of("4000000000000095") : List.of());
+
+        CardNumberFilter filter = filter(cardRepository, 10);
+        filter.rebuild();
+
+        assertTrue(filter.mightExist("4000000000000100"));
+        assertTrue(filter.mightExist("4000000000000095"));
+        assertFalse(filter.mightExist("4000000000009999"));
+    }
+
+    private static CardNumberFilter filter(CardRepository cardRepository, long firstBuildRescanIds) {
+        StaticListableBeanFactory noSharding = new StaticListableBeanFactory(Map.of());
+        ShardRouter shardRouter = new ShardRouter(noSharding.getBeanProvider(ShardTopology.class),
+                                                  noSharding.getBeanProvider(ShardingProperties.class));
+        return new CardNumberFilter(cardRepository, shardRouter, mock(PlatformTransactionManager.class),
+                                    new SimpleMeterRegistry(), true, 0.001, 1000, 60, firstBuildRescanIds);
+    }
+}
@@ -0,0 +1,155 @@
+package mjyuu.transport_payment;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import mjyuu.transport_payment.entity.User;
+import mjyuu.transport_payment.repository.UserRepository;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import javax.sql.DataSource;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Drives card top-ups through the simulated slow gateway and reports throughput,
+ * latency percentiles and Hikari pool saturation. Excluded from the normal build:
+ * mvn test -Dgroups=load -Dsurefire.excludedGroups=
+ */
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "transport.rate-limit.enabled=false",
+        "transport.payment.simulator.enabled=true",
+        "transport.payment.simulator.distribution=LOG_NORMAL",
+        "transport.payment.simulator.median-ms=200",
+        "transport.payment.simulator.p99-ms=1500",
+        "transport.payment.simulator.timeout-rate=0.01",
+        "transport.payment.simulator.hang-ms=10000",
+        "transport.payment.simulator.decline-rate=0.02",
+        "transport.payment.gateway-timeout-ms=3000"
+})
+class CardTopUpLoadTest {
+
+    private static final int REQUESTS = 2_000;
+    private static final int CONCURRENCY = 200;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void cardTopUpsUnderSlowGateway() throws Exception {
+        HttpClient client = HttpClient.newBuilder().executor(Executors.newVirtualThreadPerTaskExecutor()).build();
+        String token = login(client);
+        User user = userRepository.findByEmail("john.doe@example.com").orElseThrow();
+        String body = """
+                {"cardNumber":"4242424242424242","expiryMonth":"12","expiryYear":"2099",
+                 "cvv":"123","cardHolderName":"John Doe","amount":1.00}""";
+
+        HikariPoolMXBean pool = dataSource.unwrap(HikariDataSource.class).getHikariPoolMXBean();
+        AtomicInteger maxActive = new AtomicInteger();
+        AtomicInteger maxWaiting = new AtomicInteger();
+        var sampler = Executors.newSingleThreadScheduledExecutor();
+        sampler.scheduleAtFixedRate(() -> {
+            maxActive.accumulateAndGet(pool.getActiveConnections(), Math::max);
+            maxWaiting.accumulateAndGet(pool.getThreadsAwaitingConnection(), Math::max);
+        }, 0, 10, TimeUnit.MILLISECONDS);
+
+        List<Long> latenciesMicros = Collections.synchronizedList(new ArrayList<>(REQUESTS));
+        Map<Integer, AtomicInteger> statusCounts = new ConcurrentHashMap<>();
+        Semaphore inFlight = new Semaphore(CONCURRENCY);
+        long started = System.nanoTime();
+
+        try (ExecutorService callers = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < REQUESTS; i++) {
+                inFlight.acquire();
+                futures.add(callers.submit(() -> {
+                    try {
+                        HttpRequest request = HttpRequest.newBuilder(url("/api/users/" + user.getId() + "/topup/card"))
+                                .header("Authorization", "Bearer " + token)
+                                .header("Content-Type", "application/json")
+                                .POST(HttpRequest.BodyPublishers.ofString(body))
+                                .build();
+                        long t0 = System.nanoTime();
+                        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                        latenciesMicros.add((System.nanoTime() - t0) / 1_000);
+                        statusCounts.computeIfAbsent(response.statusCode(), s -> new AtomicInteger()).incrementAndGet();
+                    } finally {
+                        inFlight.release();
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            sampler.shutdownNow();
+        }
+
+        double seconds = (System.nanoTime() - started) / 1e9;
+        List<Long> sorted = new ArrayList<>(latenciesMicros);
+        Collections.sort(sorted);
+
+        System.out.printf("%nCard top-up load: %d requests, concurrency %d, %.1f s%n", REQUESTS, CONCURRENCY, seconds);
+        System.out.printf("Throughput: %.1f req/s%n", REQUESTS / seconds);
+        System.out.printf("Latency ms: p50=%.1f p95=%.1f p99=%.1f max=%.1f%n",
+                          percentile(sorted, 50), percentile(sorted, 95), percentile(sorted, 99), percentile(sorted, 100));
+        System.out.printf("Status codes: %s%n", new TreeMap<>(statusCounts));
+        System.out.printf("Hikari pool (max %d): peak active=%d, peak waiting=%d%n",
+                          dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize(), maxActive.get(), maxWaiting.get());
+
+        assertEquals(REQUESTS, sorted.size());
+        assertTrue(statusCounts.getOrDefault(200, new AtomicInteger()).get() > 0);
+    }
+
+    private String login(HttpClient client) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(url("/api/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(
+                        "{\"email\":\"john.doe@example.com\",\"password\":\"password123\"}"))
+                .build();
+        JsonNode json = objectMapper.readTree(client.send(request, HttpResponse.BodyHandlers.ofString()).body());
+        return json.path("data").path("token").asText();
+    }
+
+    private URI url(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    private static double percentile(List<Long> sortedMicros, int p) {
+        int index = Math.min(sortedMicros.size() - 1, (int) Math.ceil(p / 100.0 * sortedMicros.size()) - 1);
+        return sortedMicros.get(Math.max(0, index)) / 1_000.0;
+    }
+}
@@ -0,0 +1,85 @@
+package mjyuu.transport_payment;
+
+import mjyuu.transport_payment.dto.FareRuleDefinition;
+import mjyuu.transport_payment.entity.User;
+import mjyuu.transport_payment.service.CompiledFareTable;
+import mjyuu.transport_payment.service.FareRuleCompiler;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FareRuleCompilerTest {
+
+    // 2024-11-04 is a Monday
+    private static final LocalDateTime MONDAY_PEAK = LocalDateTime.of(2024, 11, 4, 8, 15);
+    private static final LocalDateTime MONDAY_OFF_PEAK = LocalDateTime.of(2024, 11, 4, 11, 0);
+    private static final LocalDateTime SATURDAY_MORNING = LocalDateTime.of(2024, 11, 9, 8, 15);
+
+    @Test
+    void flatTariffMatchesBaseFarePlusZoneCharge() {
+        CompiledFareTable table = FareRuleCompiler.compile(1, definition());
+
+        // base (2.50) + 2 zones * 1.50 = 5.50
+        assertEquals(new BigDecimal("5.50"), table.fare(1, 2, null, User.ConcessionClass.NONE));
+        // Zones outside the precomputed matrix use the same formula
+        assertEquals(new BigDecimal("23.50"), table.fare(1, 14, null, User.ConcessionClass.NONE));
+    }
+
+    @Test
+    void timeBandsApplyOnlyWithinTheirWindow() {
+        FareRuleDefinition definition = definition();
+        definition.setTimeBands(List.of(new FareRuleDefinition.TimeBand(
+                "AM_PEAK", List.of(DayOfWeek.MONDAY, DayOfWeek.FRIDAY),
+                LocalTime.of(6, 30), LocalTime.of(9, 30), new BigDecimal("1.20"))));
+
+        CompiledFareTable table = FareRuleCompiler.compile(2, definition);
+
+        assertEquals(new BigDecimal("6.60"), table.fare(1, 2, MONDAY_PEAK, User.ConcessionClass.NONE));
+        assertEquals("AM_PEAK", table.bandName(MONDAY_PEAK));
+        assertEquals(new BigDecimal("5.50"), table.fare(1, 2, MONDAY_OFF_PEAK, User.ConcessionClass.NONE));
+        assertEquals(new BigDecimal("5.50"), table.fare(1, 2, SATURDAY_MORNING, User.ConcessionClass.NONE));
+    }
+
+    @Test
+    void zonePairOverridesAndConcessionsCombine() {
+        FareRuleDefinition definition = definition();
+        definition.setZonePairOverrides(List.of(new FareRuleDefinition.ZonePairOverride(1, 4, new BigDecimal("6.00"), true)));
+        definition.setConcessionDiscounts(Map.of(
+                User.ConcessionClass.CHILD, new BigDecimal("0.50"),
+                User.ConcessionClass.SENIOR, BigDecimal.ONE));
+
+        CompiledFareTable table = FareRuleCompiler.compile(3, definition);
+
+        assertEquals(new BigDecimal("6.00"), table.fare(4, 1, null, User.ConcessionClass.NONE));
+        assertEquals(new BigDecimal("3.00"), table.fare(1, 4, null, User.ConcessionClass.CHILD));
+        assertEquals(new BigDecimal("0.00"), table.fare(1, 4, null, User.ConcessionClass.SENIOR));
+        assertEquals(new BigDecimal("6.00"), table.fare(1, 4, null, User.ConcessionClass.STUDENT));
+    }
+
+    @Test
+    void overlappingBandsAreRejected() {
+        FareRuleDefinition definition = definition();
+        definition.setTimeBands(List.of(
+                new FareRuleDefinition.TimeBand("AM_PEAK", List.of(DayOfWeek.MONDAY),
+                        LocalTime.of(6, 30), LocalTime.of(9, 30), new BigDecimal("1.20")),
+                new FareRuleDefinition.TimeBand("SHOULDER", List.of(DayOfWeek.MONDAY),
+                        LocalTime.of(9, 0), LocalTime.of(10, 0), new BigDecimal("1.10"))));
+
+        assertThrows(IllegalArgumentException.class, () -> FareRuleCompiler.compile(4, definition));
+    }
+
+    private FareRuleDefinition definition() {
+        FareRuleDefinition definition = new FareRuleDefinition();
+        definition.setBaseFare(new BigDecimal("2.50"));
+        definition.setPerZoneCharge(new BigDecimal("1.50"));
+        return definition;
+    }
+}
@@ -0,0 +1,114 @@
+package mjyuu.transport_payment;
+
+import mjyuu.transport_payment.dto.FareRuleDefinition;
+import mjyuu.transport_payment.entity.User;
+import mjyuu.transport_payment.service.CompiledFareTable;
+import mjyuu.transport_payment.service.FareRuleCompiler;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Guards the cost of evaluating compiled fare rules.
+ *
+ * Run with:
+ *   mvn -q test-compile exec:java -Dexec.classpathScope=test \
+ *       -Dexec.mainClass=mjyuu.transport_payment.FareRuleEngineBenchmark
+ *
+ * Exits non-zero if any benchmark averages more than MAX_NANOS_PER_EVALUATION.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FareRuleEngineBenchmark {
+
+    private static final double MAX_NANOS_PER_EVALUATION = 1_000.0;
+
+    private CompiledFareTable table;
+    private LocalDateTime[] tapTimes;
+    private int cursor;
+
+    @Setup
+    public void compileRules() {
+        FareRuleDefinition definition = new FareRuleDefinition();
+        definition.setBaseFare(new BigDecimal("2.50"));
+        definition.setPerZoneCharge(new BigDecimal("1.50"));
+        definition.setMaxZone(9);
+
+        List<DayOfWeek> weekdays = List.of(DayOfWeek.MONDAY, DayOfWeek.TUESDAY, DayOfWeek.WEDNESDAY,
+                DayOfWeek.THURSDAY, DayOfWeek.FRIDAY);
+        definition.setTimeBands(List.of(
+                new FareRuleDefinition.TimeBand("AM_PEAK", weekdays, LocalTime.of(6, 30), LocalTime.of(9, 30), new BigDecimal("1.20")),
+                new FareRuleDefinition.TimeBand("PM_PEAK", weekdays, LocalTime.of(16, 0), LocalTime.of(19, 0), new BigDecimal("1.15"))));
+
+        List<FareRuleDefinition.ZonePairOverride> overrides = new ArrayList<>();
+        for (int zone = 2; zone <= 9; zone++) {
+            overrides.add(new FareRuleDefinition.ZonePairOverride(1, zone, new BigDecimal("3.00").add(BigDecimal.valueOf(zone)), true));
+        }
+        definition.setZonePairOverrides(overrides);
+
+        Map<User.ConcessionClass, BigDecimal> discounts = new EnumMap<>(User.ConcessionClass.class);
+        discounts.put(User.ConcessionClass.CHILD, new BigDecimal("0.50"));
+        discounts.put(User.ConcessionClass.STUDENT, new BigDecimal("0.30"));
+        definition.setConcessionDiscounts(discounts);
+
+        table = FareRuleCompiler.compile(1, definition);
+
+        tapTimes = new LocalDateTime[1024];
+        LocalDateTime start = LocalDateTime.of(2024, 11, 4, 0, 0);
+        for (int i = 0; i < tapTimes.length; i++) {
+            tapTimes[i] = start.plusMinutes(i * 37L % (7 * 24 * 60));
+        }
+    }
+
+    @Benchmark
+    public long farePence() {
+        int i = cursor++ & 1023;
+        return table.farePence(1 + (i % 9), 1 + ((i >> 3) % 9), (i * 37) % (7 * 24 * 60), i % 5);
+    }
+
+    @Benchmark
+    public void fareWithTapTime(Blackhole blackhole) {
+        int i = cursor++ & 1023;
+        blackhole.consume(table.fare(1 + (i % 9), 1 + ((i >> 3) % 9), tapTimes[i], User.ConcessionClass.STUDENT));
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = new OptionsBuilder()
+                .include(FareRuleEngineBenchmark.class.getSimpleName())
+                .build();
+        Collection<RunResult> results = new Runner(options).run();
+
+        boolean tooSlow = false;
+        for (RunResult result : results) {
+            double nanos = result.getPrimaryResult().getScore();
+            String name = result.getParams().getBenchmark();
+            System.out.printf("%s: %.1f ns/op%n", name, nanos);
+            if (nanos > MAX_NANOS_PER_EVALUATION) {
+                System.err.printf("%s exceeds the %.0f ns budget%n", name, MAX_NANOS_PER_EVALUATION);
+                tooSlow = true;
+            }
+        }
+        if (tooSlow) {
+            System.exit(1);
+        }
+    }
+}
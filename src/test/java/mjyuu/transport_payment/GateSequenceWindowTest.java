@@ -0,0 +1,64 @@
+package mjyuu.transport_payment;
+
+import mjyuu.transport_payment.service.GateSequenceWindow;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GateSequenceWindowTest {
+
+    @Test
+    void returnsTheOriginalResultForARetransmit() {
+        GateSequenceWindow<String> window = new GateSequenceWindow<>(64);
+        window.record(7, "tap-in:card:ST001", "journey 1");
+        window.record(8, "tap-in:card2:ST001", "journey 2");
+
+        assertEquals("journey 1", window.find(7, "tap-in:card:ST001"));
+        assertEquals("journey 2", window.find(8, "tap-in:card2:ST001"));
+        assertNull(window.find(9, "tap-in:card:ST001"));
+    }
+
+    @Test
+    void outOfOrderNumbersInsideTheWindowAreRemembered() {
+        GateSequenceWindow<String> window = new GateSequenceWindow<>(64);
+        window.record(100, "a", "100");
+        window.record(90, "b", "90");
+
+        assertEquals("90", window.find(90, "b"));
+        assertNull(window.find(95, "c"));
+    }
+
+    @Test
+    void forgetsNumbersThatSlideOutOfTheWindow() {
+        GateSequenceWindow<String> window = new GateSequenceWindow<>(64);
+        window.record(1, "a", "first");
+        window.record(64, "b", "last in window");
+        assertEquals("first", window.find(1, "a"));
+
+        window.record(65, "c", "next");
+        assertNull(window.find(1, "a"));
+        assertEquals("last in window", window.find(64, "b"));
+        assertEquals(2, window.entries().size());
+    }
+
+    @Test
+    void reusedNumberForADifferentTapIsNotARetransmit() {
+        GateSequenceWindow<String> window = new GateSequenceWindow<>(64);
+        window.record(5, "tap-in:card:ST001", "original");
+
+        assertNull(window.find(5, "tap-in:other:ST001"));
+    }
+
+    @Test
+    void numberFarBehindTheWindowRestartsIt() {
+        GateSequenceWindow<String> window = new GateSequenceWindow<>(64);
+        window.record(10_000, "a", "before restart");
+
+        window.record(1, "b", "after restart");
+
+        assertEquals(1, window.getHighest());
+        assertEquals("after restart", window.find(1, "b"));
+        assertNull(window.find(10_000, "a"));
+    }
+}
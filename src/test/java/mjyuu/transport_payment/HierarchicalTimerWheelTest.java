@@ -0,0 +1,90 @@
+package mjyuu.transport_payment;
+
+import mjyuu.transport_payment.service.HierarchicalTimerWheel;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HierarchicalTimerWheelTest {
+
+    private static final long TICK = 1_000;
+
+    @Test
+    void firesEachTimerAtItsDeadline() {
+        HierarchicalTimerWheel<String> wheel = new HierarchicalTimerWheel<>(TICK, 4, 0);
+        wheel.schedule("soon", 5 * TICK);
+        wheel.schedule("later", 4 * 3600 * TICK);
+
+        assertEquals(List.of(), wheel.advance(4 * TICK));
+        assertEquals(List.of("soon"), wheel.advance(5 * TICK));
+        assertEquals(List.of(), wheel.advance(4 * 3600 * TICK - 1));
+        assertEquals(List.of("later"), wheel.advance(4 * 3600 * TICK));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void cancelledTimersNeverFire() {
+        HierarchicalTimerWheel<Long> wheel = new HierarchicalTimerWheel<>(TICK, 4, 0);
+        wheel.schedule(1L, 10_000 * TICK);
+        wheel.schedule(2L, 10_000 * TICK);
+
+        assertTrue(wheel.cancel(1L));
+        assertFalse(wheel.cancel(1L));
+        assertEquals(List.of(2L), wheel.advance(10_000 * TICK));
+    }
+
+    @Test
+    void reschedulingReplacesTheTimer() {
+        HierarchicalTimerWheel<Long> wheel = new HierarchicalTimerWheel<>(TICK, 4, 0);
+        wheel.schedule(1L, 100 * TICK);
+        wheel.schedule(1L, 200 * TICK);
+
+        assertEquals(List.of(), wheel.advance(150 * TICK));
+        assertEquals(List.of(1L), wheel.advance(200 * TICK));
+    }
+
+    @Test
+    void pastDeadlineFiresOnTheNextTick() {
+        HierarchicalTimerWheel<Long> wheel = new HierarchicalTimerWheel<>(TICK, 4, 50 * TICK);
+        wheel.schedule(1L, 10 * TICK);
+
+        assertEquals(List.of(1L), wheel.advance(51 * TICK));
+    }
+
+    @Test
+    void deadlinesBeyondTheWheelWaitInOverflow() {
+        HierarchicalTimerWheel<Long> wheel = new HierarchicalTimerWheel<>(TICK, 2, 0);
+        long deadline = 64 * 64 * 3 + 17;
+        wheel.schedule(1L, deadline * TICK);
+
+        assertEquals(List.of(), wheel.advance((deadline - 1) * TICK));
+        assertEquals(List.of(1L), wheel.advance(deadline * TICK));
+    }
+
+    @Test
+    void matchesASortedListForRandomDeadlines() {
+        long start = 1_700_000_000_000L;
+        HierarchicalTimerWheel<Integer> wheel = new HierarchicalTimerWheel<>(TICK, 4, start);
+        Random random = new Random(42);
+        long[] deadlines = new long[5_000];
+        for (int i = 0; i < deadlines.length; i++) {
+            deadlines[i] = start + TICK + random.nextInt(6 * 3600) * TICK;
+            wheel.schedule(i, deadlines[i]);
+        }
+
+        List<Integer> fired = new ArrayList<>();
+        for (long now = start; now <= start + 6 * 3600 * TICK + TICK; now += 7 * TICK) {
+            for (Integer id : wheel.advance(now)) {
+                assertTrue(deadlines[id] <= now, "timer " + id + " fired early");
+                assertTrue(deadlines[id] > now - 7 * TICK, "timer " + id + " fired late");
+                fired.add(id);
+            }
+        }
+        assertEquals(deadlines.length, fired.size());
+    }
+}
@@ -0,0 +1,38 @@
+package mjyuu.transport_payment;
+
+import mjyuu.transport_payment.security.InMemoryRateLimiter;
+import mjyuu.transport_payment.security.RateLimiter;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemoryRateLimiterTest {
+
+    // One permit a minute so refill never interferes with the assertions
+    private static final RateLimiter.Policy POLICY = new RateLimiter.Policy("test", 1.0 / 60, 3);
+
+    @Test
+    void allowsBurstThenAsksCallerToWait() {
+        InMemoryRateLimiter limiter = new InMemoryRateLimiter();
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, limiter.tryAcquire("gate:G1", POLICY));
+        }
+
+        long wait = limiter.tryAcquire("gate:G1", POLICY);
+        assertTrue(wait > 0 && wait <= POLICY.intervalNanos());
+    }
+
+    @Test
+    void bucketsAreIndependentPerKey() {
+        InMemoryRateLimiter limiter = new InMemoryRateLimiter();
+
+        for (int i = 0; i < 3; i++) {
+            limiter.tryAcquire("gate:G1", POLICY);
+        }
+
+        assertTrue(limiter.tryAcquire("gate:G1", POLICY) > 0);
+        assertEquals(0, limiter.tryAcquire("gate:G2", POLICY));
+    }
+}
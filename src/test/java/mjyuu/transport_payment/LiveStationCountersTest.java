@@ -0,0 +1,146 @@
+package mjyuu.transport_payment;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import mjyuu.transport_payment.config.ShardTopology;
+import mjyuu.transport_payment.config.ShardingProperties;
+import mjyuu.transport_payment.repository.JourneyRepository;
+import mjyuu.transport_payment.service.LiveStationCounters;
+import mjyuu.transport_payment.service.ShardRouter;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class LiveStationCountersTest {
+
+    private final JourneyRepository journeyRepository = mock(JourneyRepository.class);
+    private final TransactionTemplate transaction = new TransactionTemplate(new NoResourceTransactionManager());
+
+    @Test
+    void rolledBackTapsLeaveTheCountsAlone() {
+        LiveStationCounters counters = counters(false);
+
+        transaction.executeWithoutResult(status -> {
+            counters.tappedIn(1L);
+            counters.tappedOut(2L, 3L);
+            counters.journeyClosed(4L);
+            status.setRollbackOnly();
+        });
+        assertThrows(IllegalStateException.class, () -> transaction.executeWithoutResult(status -> {
+            counters.tappedIn(1L);
+            throw new IllegalStateException("insufficient balance");
+        }));
+
+        LiveStationCounters.Occupancy occupancy = counters.getOccupancy();
+        assertEquals(0, occupancy.tapIns());
+        assertEquals(0, occupancy.tapOuts());
+        assertEquals(0, occupancy.insideNetwork());
+    }
+
+    @Test
+    void committedTapsCountOnlyOnceTheyCommit() {
+        LiveStationCounters counters = counters(false);
+
+        transaction.executeWithoutResult(status -> {
+            counters.tappedIn(1L);
+            assertEquals(0, counters.getStation(1L).tapIns());
+        });
+        transaction.executeWithoutResult(status -> counters.tappedOut(1L, 2L));
+
+        assertEquals(new LiveStationCounters.StationCount(1L, 1, 0, 0), counters.getStation(1L));
+        assertEquals(new LiveStationCounters.StationCount(2L, 0, 1, 0), counters.getStation(2L));
+    }
+
+    @Test
+    void reconcileInsideMatchesTheOpenJourneys() {
+        LiveStationCounters counters = counters(false);
+        // Station 1: two tap-ins, one since tapped out on another node. Station 2: its rider tapped in
+        // on another node and out here, so inside went negative. Station 3: tap-ins seen only elsewhere.
+        counters.tappedIn(1L);
+        counters.tappedIn(1L);
+        counters.tappedOut(2L, 1L);
+        when(journeyRepository.countInProgressByEntryStation()).thenReturn(List.of(count(1L, 1), count(3L, 4)));
+
+        counters.reconcileInside();
+
+        assertEquals(1, counters.getStation(1L).inside());
+        assertEquals(0, counters.getStation(2L).inside());
+        assertEquals(4, counters.getStation(3L).inside());
+        assertEquals(5, counters.getOccupancy().insideNetwork());
+        // Tap counts are this node's own and are not touched
+        assertEquals(2, counters.getStation(1L).tapIns());
+        assertEquals(1, counters.getStation(1L).tapOuts());
+    }
+
+    @Test
+    void startupLoadsTheCountsFromJourneys() {
+        when(journeyRepository.countTapInsByStationSince(any())).thenReturn(List.of(count(1L, 10), count(2L, 3)));
+        when(journeyRepository.countTapOutsByStationSince(any())).thenReturn(List.of(count(2L, 7)));
+        when(journeyRepository.countInProgressByEntryStation()).thenReturn(List.of(count(1L, 6)));
+        LiveStationCounters counters = counters(true);
+
+        counters.afterSingletonsInstantiated();
+
+        assertEquals(new LiveStationCounters.StationCount(1L, 10, 0, 6), counters.getStation(1L));
+        assertEquals(new LiveStationCounters.StationCount(2L, 3, 7, 0), counters.getStation(2L));
+    }
+
+    private LiveStationCounters counters(boolean reconcileOnStartup) {
+        StaticListableBeanFactory noSharding = new StaticListableBeanFactory(Map.of());
+        ShardRouter shardRouter = new ShardRouter(noSharding.getBeanProvider(ShardTopology.class),
+                                                  noSharding.getBeanProvider(ShardingProperties.class));
+        return new LiveStationCounters(journeyRepository, shardRouter, new NoResourceTransactionManager(),
+                                       new SimpleMeterRegistry(),
+                                       Clock.fixed(Instant.parse("2025-01-31T08:00:00Z"), ZoneOffset.UTC),
+                                       reconcileOnStartup);
+    }
+
+    private static JourneyRepository.StationJourneyCount count(Long stationId, long journeys) {
+        return new JourneyRepository.StationJourneyCount() {
+            @Override
+            public Long getStationId() {
+                return stationId;
+            }
+
+            @Override
+            public Long getJourneys() {
+                return journeys;
+            }
+        };
+    }
+
+    // Real transaction synchronization (commit and rollback callbacks) without a connection
+    private static final class NoResourceTransactionManager extends AbstractPlatformTransactionManager {
+
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package mjyuu.transport_payment;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import mjyuu.transport_payment.dto.CardDTO;
+import mjyuu.transport_payment.dto.JourneyDTO;
+import mjyuu.transport_payment.dto.TransactionDTO;
+import mjyuu.transport_payment.repository.UserRepository;
+import mjyuu.transport_payment.service.CardService;
+import mjyuu.transport_payment.service.JourneyService;
+import mjyuu.transport_payment.service.TransactionService;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.orm.jpa.support.OpenEntityManagerInViewInterceptor;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "transport.l2cache.statistics=true")
+class OpenSessionInViewTest {
+
+    @Autowired
+    private ApplicationContext context;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CardService cardService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private JourneyService journeyService;
+
+    @Test
+    void openInViewInterceptorIsNotRegistered() {
+        assertTrue(context.getBeansOfType(OpenEntityManagerInViewInterceptor.class).isEmpty());
+    }
+
+    @Test
+    void listReadsAreSingleProjectionQueries() {
+        Long userId = userRepository.findByEmail("john.doe@example.com").orElseThrow().getId();
+        Statistics stats = statistics();
+
+        stats.clear();
+        cardService.getUserCards(userId);
+        transactionService.getUserTransactions(userId);
+        // One projection for live journeys, one lookup of archive batches
+        journeyService.getUserJourneyHistory(userId);
+
+        assertEquals(4, stats.getPrepareStatementCount());
+        assertEquals(0, stats.getEntityLoadCount(), "projections should not materialise entities");
+    }
+
+    @Test
+    void serialisingResultsDoesNotTouchTheDatabase() throws Exception {
+        Long userId = userRepository.findByEmail("john.doe@example.com").orElseThrow().getId();
+        List<CardDTO> cards = cardService.getUserCards(userId);
+        List<TransactionDTO> transactions = transactionService.getUserTransactions(userId);
+        List<JourneyDTO> journeys = journeyService.getUserJourneyHistory(userId);
+
+        // Every transaction has ended here; with open-in-view off a lazy load would throw,
+        // and none of these may reach the database again
+        Statistics stats = statistics();
+        stats.clear();
+        String json = objectMapper.writeValueAsString(List.of(cards, transactions, journeys));
+
+        assertFalse(json.isEmpty());
+        assertEquals(0, stats.getPrepareStatementCount());
+        assertEquals(0, stats.getEntityFetchCount());
+        assertEquals(0, stats.getCollectionFetchCount());
+    }
+
+    private Statistics statistics() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+}
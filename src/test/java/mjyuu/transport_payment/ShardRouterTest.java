@@ -0,0 +1,151 @@
+package mjyuu.transport_payment;
+
+import com.zaxxer.hikari.HikariDataSource;
+import mjyuu.transport_payment.config.ShardContext;
+import mjyuu.transport_payment.config.ShardTopology;
+import mjyuu.transport_payment.config.ShardingProperties;
+import mjyuu.transport_payment.exception.ResourceNotFoundException;
+import mjyuu.transport_payment.service.ShardRouter;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Routing rules, with the shard pools and the directory stubbed out
+ */
+class ShardRouterTest {
+
+    @AfterEach
+    void clearRouting() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        ShardContext.clear();
+    }
+
+    @Test
+    void idCarriesItsShardAboveBit40() throws SQLException {
+        ShardRouter router = router(3);
+
+        assertEquals(0, router.shardForId(42L));
+        assertEquals(1, router.shardForId((1L << ShardRouter.SHARD_ID_SHIFT) + 42));
+        assertEquals(2, router.shardForId((2L << ShardRouter.SHARD_ID_SHIFT) | ((1L << ShardRouter.SHARD_ID_SHIFT) - 1)));
+        assertEquals(0, router.shardForId(null));
+        assertThrows(ResourceNotFoundException.class, () -> router.shardForId(3L << ShardRouter.SHARD_ID_SHIFT));
+    }
+
+    @Test
+    void singleShardRoutesEverythingToShardZero() {
+        ShardRouter router = new ShardRouter(new StaticListableBeanFactory().getBeanProvider(ShardTopology.class),
+                                             new StaticListableBeanFactory().getBeanProvider(ShardingProperties.class));
+
+        assertFalse(router.isEnabled());
+        assertEquals(0, router.shardForId(5L << ShardRouter.SHARD_ID_SHIFT));
+        assertEquals(0, router.shardForCard("4000000000000002"));
+        // No transaction needed and nothing recorded when there is nothing to route
+        router.bind(1);
+        assertNull(ShardContext.current());
+    }
+
+    @Test
+    void bindMustAgreeWithTheShardAlreadyBound() throws SQLException {
+        ShardRouter router = router(2);
+        TransactionSynchronizationManager.initSynchronization();
+
+        router.bind(1);
+        router.bindUser((1L << ShardRouter.SHARD_ID_SHIFT) + 7);
+        assertEquals(1, ShardContext.current());
+
+        IllegalStateException conflict = assertThrows(IllegalStateException.class, () -> router.bindUser(7L));
+        assertTrue(conflict.getMessage().contains("Already routed to shard 1"));
+        assertEquals(1, ShardContext.current());
+    }
+
+    @Test
+    void bindNeedsATransaction() throws SQLException {
+        ShardRouter router = router(2);
+
+        assertThrows(IllegalStateException.class, () -> router.bind(1));
+        assertNull(ShardContext.current());
+    }
+
+    @Test
+    void bindingEndsWithTheTransaction() throws SQLException {
+        ShardRouter router = router(2);
+        TransactionSynchronizationManager.initSynchronization();
+
+        router.bind(1);
+        TransactionSynchronizationManager.getSynchronizations().forEach(sync -> sync.afterCompletion(0));
+        assertNull(ShardContext.current());
+    }
+
+    @Test
+    void onShardRefusesToSwitchInsideATransaction() throws SQLException {
+        ShardRouter router = router(2);
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        try {
+            assertThrows(IllegalStateException.class, () -> router.onShard(1, () -> null));
+        } finally {
+            TransactionSynchronizationManager.setActualTransactionActive(false);
+        }
+    }
+
+    @Test
+    void forEachShardVisitsEveryShardAndRestoresTheContext() throws SQLException {
+        ShardRouter router = router(3);
+        List<Integer> visited = new ArrayList<>();
+
+        router.forEachShard(() -> visited.add(ShardContext.current()));
+
+        assertEquals(List.of(0, 1, 2), visited);
+        assertNull(ShardContext.current());
+    }
+
+    @Test
+    void unregisteredCardOrEmailFallsBackToShardZero() throws SQLException {
+        ShardRouter router = router(3);
+
+        assertEquals(0, router.shardForCard("4000000000000002"));
+        assertEquals(0, router.shardForEmail("Nobody@Example.com"));
+    }
+
+    // Every shard pool answers the directory query with no rows
+    private static ShardRouter router(int shards) throws SQLException {
+        List<HikariDataSource> pools = new ArrayList<>();
+        for (int i = 0; i < shards; i++) {
+            pools.add(emptyDirectory());
+        }
+        StaticListableBeanFactory beans = new StaticListableBeanFactory(Map.of(
+                "shardTopology", new ShardTopology(pools),
+                "shardingProperties", new ShardingProperties()));
+        return new ShardRouter(beans.getBeanProvider(ShardTopology.class),
+                               beans.getBeanProvider(ShardingProperties.class));
+    }
+
+    private static HikariDataSource emptyDirectory() throws SQLException {
+        ResultSet rows = mock(ResultSet.class);
+        when(rows.next()).thenReturn(false);
+        PreparedStatement statement = mock(PreparedStatement.class);
+        when(statement.executeQuery()).thenReturn(rows);
+        Connection connection = mock(Connection.class);
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+        HikariDataSource pool = mock(HikariDataSource.class);
+        when(pool.getConnection()).thenReturn(connection);
+        return pool;
+    }
+}
@@ -0,0 +1,155 @@
+package mjyuu.transport_payment;
+
+import mjyuu.transport_payment.entity.User;
+import mjyuu.transport_payment.exception.InsufficientBalanceException;
+import mjyuu.transport_payment.repository.UserRepository;
+import mjyuu.transport_payment.service.AccountBalanceService;
+import mjyuu.transport_payment.service.ShardRouter;
+import mjyuu.transport_payment.service.UserService;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Many cards debiting one shared account at once, single-row balance against sharded balance.
+ * Each debit holds its transaction open a few milliseconds, standing in for the rest of a
+ * tap-out, so the row lock it takes is held as long as it would be in production.
+ * Excluded from the normal build:
+ * mvn test -Dgroups=load -Dsurefire.excludedGroups=
+ */
+@Tag("load")
+@SpringBootTest(properties = {
+        "spring.datasource.hikari.maximum-pool-size=40",
+        "transport.balance-shards.rebalance-interval-ms=200",
+        "transport.journey-expiry.enabled=false"
+})
+class SharedAccountContentionLoadTest {
+
+    private static final int DEBITS = 4_000;
+    private static final int CONCURRENCY = 32;
+    private static final int SHARDS = 16;
+    private static final long HOLD_MILLIS = 5;
+    private static final BigDecimal AMOUNT = new BigDecimal("0.01");
+    private static final BigDecimal FUNDS = new BigDecimal("1000.00");
+
+    @Autowired
+    private AccountBalanceService accountBalanceService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void shardedBalanceUnderSharedAccountContention() throws Exception {
+        Long userId = userRepository.findByEmail("john.doe@example.com").orElseThrow().getId();
+        userService.addBalance(userId, FUNDS);
+        try {
+            accountBalanceService.setBalanceShards(userId, 0);
+            Result single = run(userId, "single row");
+
+            accountBalanceService.setBalanceShards(userId, SHARDS);
+            Result sharded = run(userId, SHARDS + " shards");
+
+            System.out.printf("Sharded vs single row: %.1fx throughput, p99 %.1f ms vs %.1f ms%n",
+                              sharded.throughput() / single.throughput(), sharded.p99(), single.p99());
+        } finally {
+            accountBalanceService.setBalanceShards(userId, 0);
+        }
+    }
+
+    private record Result(double throughput, double p99) {}
+
+    private Result run(Long userId, String label) throws Exception {
+        BigDecimal before = userService.getUserBalance(userId);
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        List<Long> latenciesMicros = Collections.synchronizedList(new ArrayList<>(DEBITS));
+        AtomicInteger debited = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        Semaphore inFlight = new Semaphore(CONCURRENCY);
+        long started = System.nanoTime();
+
+        try (ExecutorService callers = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < DEBITS; i++) {
+                inFlight.acquire();
+                futures.add(callers.submit(() -> {
+                    try {
+                        long t0 = System.nanoTime();
+                        transaction.executeWithoutResult(status -> {
+                            shardRouter.bindUser(userId);
+                            // As a tap-out does: plain read, then the debit's atomic UPDATE holds the row lock
+                            User user = userRepository.findById(userId).orElseThrow();
+                            accountBalanceService.debit(user, AMOUNT);
+                            sleep(HOLD_MILLIS);
+                        });
+                        latenciesMicros.add((System.nanoTime() - t0) / 1_000);
+                        debited.incrementAndGet();
+                    } catch (InsufficientBalanceException e) {
+                        rejected.incrementAndGet();
+                    } finally {
+                        inFlight.release();
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+
+        double seconds = (System.nanoTime() - started) / 1e9;
+        List<Long> sorted = new ArrayList<>(latenciesMicros);
+        Collections.sort(sorted);
+        Result result = new Result(debited.get() / seconds, percentile(sorted, 99));
+
+        System.out.printf("%nShared account, %s: %d debits, concurrency %d, %.1f s%n",
+                          label, DEBITS, CONCURRENCY, seconds);
+        System.out.printf("Throughput: %.1f debits/s%n", result.throughput());
+        System.out.printf("Latency ms: p50=%.1f p95=%.1f p99=%.1f max=%.1f%n",
+                          percentile(sorted, 50), percentile(sorted, 95), percentile(sorted, 99), percentile(sorted, 100));
+        System.out.printf("Rejected for insufficient balance: %d%n", rejected.get());
+
+        // No debit may be lost or applied twice, whichever shards it hit
+        BigDecimal after = userService.getUserBalance(userId);
+        assertEquals(0, before.subtract(AMOUNT.multiply(BigDecimal.valueOf(debited.get()))).compareTo(after));
+        assertEquals(DEBITS, debited.get() + rejected.get());
+        return result;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static double percentile(List<Long> sortedMicros, int p) {
+        int index = Math.min(sortedMicros.size() - 1, (int) Math.ceil(p / 100.0 * sortedMicros.size()) - 1);
+        return sortedMicros.get(Math.max(0, index)) / 1_000.0;
+    }
+}
@@ -0,0 +1,96 @@
+package mjyuu.transport_payment;
+
+import mjyuu.transport_payment.dto.NearbyStationDTO;
+import mjyuu.transport_payment.entity.Station;
+import mjyuu.transport_payment.repository.StationRepository;
+import mjyuu.transport_payment.service.StationCatalogCache;
+import mjyuu.transport_payment.service.StationSpatialIndex;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class StationSpatialIndexTest {
+
+    @Test
+    void findsStationsAcrossTheAntimeridian() {
+        StationSpatialIndex index = index(
+                station(1, "EAST", 0.0, 179.999),
+                station(2, "WEST", 0.0, -179.999),
+                station(3, "FAR", 0.0, 179.9));
+
+        assertEquals(List.of("EAST", "WEST"), codes(index.nearby(0.0, 179.999, 1000, 10)));
+        assertEquals(List.of("WEST", "EAST"), codes(index.nearby(0.0, -179.999, 1000, 10)));
+        // Both 0.001 degrees away
+        assertEquals(List.of("EAST", "WEST"), codes(index.nearby(0.0, -180.0, 1000, 10)).stream().sorted().toList());
+    }
+
+    @Test
+    void findsStationsOnTheFarSideOfAPole() {
+        // 0.01 degrees of latitude either side of the pole: about 1.1 km apart, 180 degrees of longitude
+        StationSpatialIndex index = index(
+                station(1, "NORTH_A", 89.995, 0.0),
+                station(2, "NORTH_B", 89.995, 180.0),
+                station(3, "SOUTH_A", -89.995, 90.0),
+                station(4, "SOUTH_B", -89.995, -90.0));
+
+        assertEquals(List.of("NORTH_A", "NORTH_B"), codes(index.nearby(89.995, 0.0, 2000, 10)));
+        assertEquals(List.of("SOUTH_B", "SOUTH_A"), codes(index.nearby(-89.995, -90.0, 2000, 10)));
+        // From the pole itself both are 0.005 degrees away
+        assertEquals(List.of("NORTH_A", "NORTH_B"), codes(index.nearby(90.0, 0.0, 1000, 10)).stream().sorted().toList());
+    }
+
+    @Test
+    void returnsOnlyStationsInsideTheRadiusNearestFirst() {
+        // 0.001 degrees of latitude is about 111 m
+        StationSpatialIndex index = index(
+                station(1, "M300", 51.503, -0.1),
+                station(2, "M100", 51.501, -0.1),
+                station(3, "M200", 51.502, -0.1),
+                station(4, "M1000", 51.509, -0.1));
+
+        List<NearbyStationDTO> found = index.nearby(51.5, -0.1, 400, 10);
+
+        assertEquals(List.of("M100", "M200", "M300"), codes(found));
+        assertEquals(111L, found.get(0).getDistanceMeters().longValue());
+        assertEquals(List.of("M100", "M200"), codes(index.nearby(51.5, -0.1, 400, 2)));
+        assertEquals(List.of(), codes(index.nearby(51.5, -0.1, 100, 10)));
+    }
+
+    @Test
+    void rejectsOutOfRangeArguments() {
+        StationSpatialIndex index = index(station(1, "ONE", 51.5, -0.1));
+
+        assertThrows(IllegalArgumentException.class, () -> index.nearby(90.1, 0, 100, 10));
+        assertThrows(IllegalArgumentException.class, () -> index.nearby(0, -180.1, 100, 10));
+        assertThrows(IllegalArgumentException.class, () -> index.nearby(51.5, -0.1, 0, 10));
+        assertThrows(IllegalArgumentException.class, () -> index.nearby(51.5, -0.1, 5001, 10));
+        assertThrows(IllegalArgumentException.class, () -> index.nearby(51.5, -0.1, 100, 0));
+        assertThrows(IllegalArgumentException.class, () -> index.nearby(51.5, -0.1, 100, 51));
+        assertEquals(List.of("ONE"), codes(index.nearby(51.5, -0.1, 5000, 50)));
+    }
+
+    private static StationSpatialIndex index(Station... stations) {
+        StationRepository repository = mock(StationRepository.class);
+        when(repository.findAllActiveStations()).thenReturn(List.of(stations));
+        StationCatalogCache catalogCache = mock(StationCatalogCache.class);
+        when(catalogCache.getVersion()).thenReturn(1L);
+
+        StationSpatialIndex index = new StationSpatialIndex(repository, catalogCache, 0.01, 5000, 50);
+        index.rebuild();
+        return index;
+    }
+
+    private static Station station(long id, String code, double latitude, double longitude) {
+        return Station.builder().id(id).stationCode(code).name(code).zoneNumber(1)
+                .latitude(latitude).longitude(longitude).build();
+    }
+
+    private static List<String> codes(List<NearbyStationDTO> stations) {
+        return stations.stream().map(NearbyStationDTO::getStationCode).toList();
+    }
+}
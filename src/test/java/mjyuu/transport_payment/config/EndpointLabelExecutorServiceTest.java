@@ -0,0 +1,41 @@
+package mjyuu.transport_payment.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EndpointLabelExecutorServiceTest {
+
+    private final ExecutorService executor = new EndpointLabelExecutorService(Executors.newSingleThreadExecutor());
+
+    @AfterEach
+    void shutDown() {
+        ConnectionProfiler.clearCurrentEndpoint();
+        executor.close();
+    }
+
+    @Test
+    void tasksRunUnderTheSubmittersLabel() throws Exception {
+        ConnectionProfiler.setCurrentEndpoint("POST /api/users/{id}/topup/card");
+
+        String label = CompletableFuture.supplyAsync(ConnectionProfiler::currentEndpoint, executor)
+                .thenApplyAsync(first -> first + " | " + ConnectionProfiler.currentEndpoint(), executor)
+                .get();
+
+        assertEquals("POST /api/users/{id}/topup/card | POST /api/users/{id}/topup/card", label);
+    }
+
+    @Test
+    void pooledThreadDoesNotKeepAnEarlierLabel() throws Exception {
+        ConnectionProfiler.setCurrentEndpoint("GET /api/users/{id}/dashboard");
+        executor.submit(() -> {}).get();
+
+        ConnectionProfiler.clearCurrentEndpoint();
+        assertEquals(ConnectionProfiler.NONE, executor.submit(ConnectionProfiler::currentEndpoint).get());
+    }
+}
@@ -0,0 +1,79 @@
+package mjyuu.transport_payment.tools;
+
+import mjyuu.transport_payment.dto.FareRuleDefinition;
+import mjyuu.transport_payment.entity.User;
+import mjyuu.transport_payment.service.CompiledFareTable;
+import mjyuu.transport_payment.service.FareRuleCompiler;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SyntheticDataGeneratorTest {
+
+    private static final List<SyntheticDataGenerator.Station> STATIONS = List.of(
+            new SyntheticDataGenerator.Station(1, 1, "Central"),
+            new SyntheticDataGenerator.Station(2, 2, "Inner"),
+            new SyntheticDataGenerator.Station(3, 3, "Outer"),
+            new SyntheticDataGenerator.Station(4, 5, "Edge"));
+
+    @Test
+    void generatedFaresAreWhatTheFareTableCharges() {
+        CompiledFareTable fareTable = FareRuleCompiler.compile(1, definition());
+        SyntheticDataGenerator generator = new SyntheticDataGenerator(7, 200, 20, 1, 30,
+                LocalDate.of(2024, 11, 30), "hash", STATIONS, new SyntheticDataGenerator.IdBase(1, 1, 1, 1), fareTable);
+
+        Map<SyntheticDataGenerator.Table, List<Object[]>> rows = generator.generate(0, 200);
+        Map<Object, String> concessions = new HashMap<>();
+        rows.get(SyntheticDataGenerator.Table.USERS).forEach(user -> concessions.put(user[0], (String) user[9]));
+        Map<Long, Integer> zones = new HashMap<>();
+        STATIONS.forEach(station -> zones.put(station.id(), station.zone()));
+
+        int checked = 0;
+        for (Object[] journey : rows.get(SyntheticDataGenerator.Table.JOURNEYS)) {
+            if (!"COMPLETED".equals(journey[7])) {
+                continue;
+            }
+            BigDecimal expected = fareTable.fare(zones.get((Long) journey[3]), zones.get((Long) journey[4]),
+                    (LocalDateTime) journey[5], User.ConcessionClass.valueOf(concessions.get(journey[1])));
+            assertEquals(expected, journey[8]);
+            checked++;
+        }
+        assertTrue(checked > 1000);
+    }
+
+    @Test
+    void flatTariffChargesBasePlusPerZoneForEveryZoneTransited() {
+        CompiledFareTable fareTable = FareRuleCompiler.compile(1, definition());
+
+        // Zone 1 to zone 3 transits three zones: 2.50 + 3 * 1.50, off peak, no concession
+        assertEquals(new BigDecimal("7.00"),
+                     fareTable.fare(1, 3, LocalDateTime.of(2024, 11, 4, 12, 0), User.ConcessionClass.NONE));
+    }
+
+    // The seeded V4 tariff plus a weekday morning peak, so band and concession both matter
+    private static FareRuleDefinition definition() {
+        FareRuleDefinition definition = new FareRuleDefinition();
+        definition.setBaseFare(new BigDecimal("2.50"));
+        definition.setPerZoneCharge(new BigDecimal("1.50"));
+        definition.setMaxZone(9);
+        definition.setTimeBands(List.of(new FareRuleDefinition.TimeBand("AM_PEAK",
+                List.of(DayOfWeek.MONDAY, DayOfWeek.TUESDAY, DayOfWeek.WEDNESDAY, DayOfWeek.THURSDAY, DayOfWeek.FRIDAY),
+                LocalTime.of(6, 30), LocalTime.of(9, 30), new BigDecimal("1.20"))));
+        definition.setConcessionDiscounts(Map.of(
+                User.ConcessionClass.CHILD, new BigDecimal("0.50"),
+                User.ConcessionClass.STUDENT, new BigDecimal("0.30"),
+                User.ConcessionClass.SENIOR, BigDecimal.ONE,
+                User.ConcessionClass.DISABLED, BigDecimal.ONE));
+        return definition;
+    }
+}